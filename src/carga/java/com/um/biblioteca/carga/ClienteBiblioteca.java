@@ -0,0 +1,297 @@
+package com.um.biblioteca.carga;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Queue;
+import java.util.Random;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntFunction;
+
+/**
+ * Cliente HTTP de la prueba de carga. Guarda el estado necesario para que
+ * cada solicitud sea válida: los libros disponibles y los préstamos activos
+ * se reparten entre las solicitudes en curso sin que dos tomen el mismo,
+ * así que un 409 o un 404 cuenta como error y no como parte de la mezcla.
+ */
+final class ClienteBiblioteca {
+
+    private static final Duration TIEMPO_MAXIMO = Duration.ofSeconds(10);
+    private static final int DIAS_DE_EXTENSION = 7;
+    private static final int LIMITE_LISTADO = 50;
+
+    private static final String[] PALABRAS = {
+            "jardín", "río", "laberinto", "espejo", "otoño", "invierno", "faro", "desierto",
+            "puerto", "bosque", "silencio", "viaje", "tiempo", "mar", "sueño", "camino"};
+    private static final String[] AUTORES = {
+            "Jorge Luis Borges", "Julio Cortázar", "Silvina Ocampo", "Adolfo Bioy Casares",
+            "Alfonsina Storni", "Roberto Arlt", "Olga Orozco", "Ernesto Sabato"};
+
+    /**
+     * Resultado de una solicitud
+     * @param operacion Operación realmente enviada, que puede diferir de la
+     *                  pedida si no había libros o préstamos para ella
+     * @param exito Si la respuesta tuvo el código esperado
+     */
+    record Resultado(Operacion operacion, boolean exito) {
+    }
+
+    private record PrestamoActivo(long id, long libroId, LocalDate fechaDevolucion) {
+    }
+
+    private final HttpClient http = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(TIEMPO_MAXIMO)
+            .build();
+    private final ObjectMapper json = new ObjectMapper();
+    private final URI base;
+    /**
+     * Distingue los ISBN y emails de cada corrida, para poder repetirla sobre la misma aplicación
+     */
+    private final String corrida = Long.toString(System.currentTimeMillis(), 36);
+
+    private long[] libros = new long[0];
+    private String[] isbns = new String[0];
+    private long[] usuarios = new long[0];
+    private final Queue<Long> librosDisponibles = new ConcurrentLinkedQueue<>();
+    private final Queue<PrestamoActivo> prestamosActivos = new ConcurrentLinkedQueue<>();
+    private final AtomicLong primerPrestamo = new AtomicLong(Long.MAX_VALUE);
+    private final AtomicLong ultimoPrestamo = new AtomicLong(0);
+
+    ClienteBiblioteca(URI base) {
+        this.base = base;
+    }
+
+    /**
+     * @throws IllegalStateException si la aplicación no responde
+     */
+    void verificarDisponible() throws InterruptedException {
+        try {
+            int estado = enviar(get("/api/libros?limite=1")).statusCode();
+            if (estado != 200) {
+                throw new IllegalStateException("GET /api/libros respondió " + estado);
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("La aplicación no responde en " + base + ": " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Da de alta los libros y usuarios sobre los que opera la prueba
+     */
+    void poblar(int cantidadLibros, int cantidadUsuarios, int maximoEnVuelo) throws InterruptedException {
+        Random azar = new Random(cantidadLibros);
+        String[] titulos = new String[cantidadLibros];
+        for (int i = 0; i < cantidadLibros; i++) {
+            titulos[i] = "El " + PALABRAS[azar.nextInt(PALABRAS.length)] + " " + PALABRAS[azar.nextInt(PALABRAS.length)];
+        }
+
+        isbns = new String[cantidadLibros];
+        libros = alta(cantidadLibros, maximoEnVuelo, i -> {
+            isbns[i] = "carga-" + corrida + "-" + i;
+            return post("/api/libros", """
+                    {"isbn":"%s","titulo":"%s","autor":"%s"}""".formatted(
+                    isbns[i], titulos[i], AUTORES[i % AUTORES.length]));
+        });
+        usuarios = alta(cantidadUsuarios, maximoEnVuelo, i -> post("/api/usuarios", """
+                {"nombre":"Lector %d","email":"carga-%s-%d@example.com"}""".formatted(i, corrida, i)));
+        for (long libro : libros) {
+            librosDisponibles.add(libro);
+        }
+    }
+
+    /**
+     * Envía la operación pedida, o la más cercana posible si no hay libros
+     * disponibles o préstamos activos para ella
+     * @param azar Generador de los argumentos de la solicitud
+     */
+    Resultado ejecutar(Operacion operacion, Random azar) {
+        try {
+            return switch (operacion) {
+                case CREAR_PRESTAMO -> crearPrestamo(azar);
+                case DEVOLVER_PRESTAMO -> devolverPrestamo(azar);
+                case EXTENDER_PRESTAMO -> extenderPrestamo(azar);
+                case BUSCAR_POR_TITULO -> consultar(operacion,
+                        "/api/libros/titulo/" + codificar(PALABRAS[azar.nextInt(PALABRAS.length)]));
+                case BUSCAR_POR_ISBN -> consultar(operacion, "/api/libros/isbn/" + isbns[azar.nextInt(isbns.length)]);
+                case LISTAR_PRESTAMOS -> listarPrestamos(azar);
+                case OBTENER_PRESTAMO -> obtenerPrestamo(azar);
+                case PRESTAMOS_DE_USUARIO -> consultar(operacion,
+                        "/api/prestamos/usuario/" + usuarios[azar.nextInt(usuarios.length)]);
+            };
+        } catch (IOException e) {
+            return new Resultado(operacion, false);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return new Resultado(operacion, false);
+        }
+    }
+
+    private Resultado crearPrestamo(Random azar) throws IOException, InterruptedException {
+        Long libro = librosDisponibles.poll();
+        if (libro == null) {
+            return prestamosActivos.isEmpty()
+                    ? listarPrestamos(azar)
+                    : devolverPrestamo(azar);
+        }
+
+        long usuario = usuarios[azar.nextInt(usuarios.length)];
+        HttpResponse<String> respuesta;
+        try {
+            respuesta = enviar(post("/api/prestamos?usuarioId=" + usuario + "&libroId=" + libro));
+        } catch (IOException | RuntimeException e) {
+            librosDisponibles.add(libro);
+            throw e;
+        }
+        if (respuesta.statusCode() != 201) {
+            librosDisponibles.add(libro);
+            return new Resultado(Operacion.CREAR_PRESTAMO, false);
+        }
+
+        JsonNode prestamo = json.readTree(respuesta.body());
+        long id = prestamo.get("id").asLong();
+        primerPrestamo.accumulateAndGet(id, Math::min);
+        ultimoPrestamo.accumulateAndGet(id, Math::max);
+        prestamosActivos.add(new PrestamoActivo(id, libro, LocalDate.parse(prestamo.get("fechaDevolucion").asText())));
+        return new Resultado(Operacion.CREAR_PRESTAMO, true);
+    }
+
+    private Resultado devolverPrestamo(Random azar) throws IOException, InterruptedException {
+        PrestamoActivo prestamo = prestamosActivos.poll();
+        if (prestamo == null) {
+            return crearPrestamo(azar);
+        }
+
+        boolean exito = false;
+        try {
+            exito = enviar(patch("/api/prestamos/" + prestamo.id() + "/devolver")).statusCode() == 200;
+        } finally {
+            if (exito) {
+                librosDisponibles.add(prestamo.libroId());
+            } else {
+                prestamosActivos.add(prestamo);
+            }
+        }
+        return new Resultado(Operacion.DEVOLVER_PRESTAMO, exito);
+    }
+
+    private Resultado extenderPrestamo(Random azar) throws IOException, InterruptedException {
+        PrestamoActivo prestamo = prestamosActivos.poll();
+        if (prestamo == null) {
+            return crearPrestamo(azar);
+        }
+
+        LocalDate nueva = prestamo.fechaDevolucion().plusDays(DIAS_DE_EXTENSION);
+        boolean exito = false;
+        try {
+            exito = enviar(patch("/api/prestamos/" + prestamo.id() + "/extender?nuevaFechaDevolucion=" + nueva))
+                    .statusCode() == 200;
+        } finally {
+            prestamosActivos.add(exito ? new PrestamoActivo(prestamo.id(), prestamo.libroId(), nueva) : prestamo);
+        }
+        return new Resultado(Operacion.EXTENDER_PRESTAMO, exito);
+    }
+
+    private Resultado listarPrestamos(Random azar) throws IOException, InterruptedException {
+        long primero = primerPrestamo.get();
+        long ultimo = ultimoPrestamo.get();
+        String ruta = "/api/prestamos?limite=" + LIMITE_LISTADO;
+        if (primero <= ultimo) {
+            ruta += "&despuesDe=" + (primero - 1 + (long) (azar.nextDouble() * (ultimo - primero + 1)));
+        }
+        return consultar(Operacion.LISTAR_PRESTAMOS, ruta);
+    }
+
+    private Resultado obtenerPrestamo(Random azar) throws IOException, InterruptedException {
+        long primero = primerPrestamo.get();
+        long ultimo = ultimoPrestamo.get();
+        if (primero > ultimo) {
+            return listarPrestamos(azar);
+        }
+        long id = primero + (long) (azar.nextDouble() * (ultimo - primero + 1));
+        return consultar(Operacion.OBTENER_PRESTAMO, "/api/prestamos/" + id + "?expand=libro,usuario");
+    }
+
+    private Resultado consultar(Operacion operacion, String ruta) throws IOException, InterruptedException {
+        return new Resultado(operacion, enviar(get(ruta)).statusCode() == 200);
+    }
+
+    /**
+     * Da de alta entidades en paralelo
+     * @return IDs asignados, en el orden de alta
+     */
+    private long[] alta(int cantidad, int maximoEnVuelo, IntFunction<HttpRequest> solicitud) throws InterruptedException {
+        long[] ids = new long[cantidad];
+        Semaphore enVuelo = new Semaphore(maximoEnVuelo);
+        AtomicInteger fallidas = new AtomicInteger();
+        try (ExecutorService ejecutor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < cantidad; i++) {
+                int indice = i;
+                enVuelo.acquire();
+                ejecutor.execute(() -> {
+                    try {
+                        HttpResponse<String> respuesta = enviar(solicitud.apply(indice));
+                        if (respuesta.statusCode() == 201) {
+                            ids[indice] = json.readTree(respuesta.body()).get("id").asLong();
+                        } else {
+                            fallidas.incrementAndGet();
+                        }
+                    } catch (IOException | InterruptedException e) {
+                        fallidas.incrementAndGet();
+                    } finally {
+                        enVuelo.release();
+                    }
+                });
+            }
+        }
+        if (fallidas.get() > 0) {
+            throw new IllegalStateException("Fallaron " + fallidas.get() + " de " + cantidad + " altas");
+        }
+        return ids;
+    }
+
+    private HttpResponse<String> enviar(HttpRequest solicitud) throws IOException, InterruptedException {
+        return http.send(solicitud, HttpResponse.BodyHandlers.ofString());
+    }
+
+    private HttpRequest get(String ruta) {
+        return solicitud(ruta).GET().build();
+    }
+
+    private HttpRequest post(String ruta) {
+        return solicitud(ruta).POST(HttpRequest.BodyPublishers.noBody()).build();
+    }
+
+    private HttpRequest post(String ruta, String cuerpo) {
+        return solicitud(ruta)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(cuerpo))
+                .build();
+    }
+
+    private HttpRequest patch(String ruta) {
+        return solicitud(ruta).method("PATCH", HttpRequest.BodyPublishers.noBody()).build();
+    }
+
+    private HttpRequest.Builder solicitud(String ruta) {
+        return HttpRequest.newBuilder(base.resolve(ruta)).timeout(TIEMPO_MAXIMO);
+    }
+
+    private static String codificar(String segmento) {
+        return URLEncoder.encode(segmento, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,50 @@
+package com.um.biblioteca.carga;
+
+import java.net.URI;
+import java.time.Duration;
+
+/**
+ * Parámetros de la prueba de carga, leídos de propiedades del sistema
+ * (el perfil carga las pasa desde las propiedades de Maven del mismo nombre)
+ * @param url URL base de la aplicación
+ * @param tasa Solicitudes por segundo que se intentan enviar
+ * @param calentamiento Duración del calentamiento, cuyas mediciones se descartan
+ * @param duracion Duración de la medición
+ * @param libros Libros que se dan de alta antes de empezar
+ * @param usuarios Usuarios que se dan de alta antes de empezar
+ * @param maximoEnVuelo Solicitudes simultáneas como máximo
+ * @param semilla Semilla de la mezcla de operaciones y de sus argumentos
+ * @param resultados Archivo JSON de resultados
+ * @param umbrales Archivo de umbrales (vacío para usar los incluidos)
+ */
+record ConfiguracionCarga(URI url, int tasa, Duration calentamiento, Duration duracion,
+                          int libros, int usuarios, int maximoEnVuelo, long semilla,
+                          String resultados, String umbrales) {
+
+    static ConfiguracionCarga desdePropiedades() {
+        return new ConfiguracionCarga(
+                URI.create(texto("carga.url", "http://localhost:8080")),
+                entero("carga.tasa", 200, 1),
+                Duration.ofSeconds(entero("carga.calentamiento", 10, 0)),
+                Duration.ofSeconds(entero("carga.duracion", 60, 1)),
+                entero("carga.libros", 5000, 1),
+                entero("carga.usuarios", 500, 1),
+                entero("carga.maximo-en-vuelo", 256, 1),
+                Long.parseLong(texto("carga.semilla", "42")),
+                texto("carga.resultados", "target/carga-resultados.json"),
+                texto("carga.umbrales", ""));
+    }
+
+    private static String texto(String propiedad, String porDefecto) {
+        String valor = System.getProperty(propiedad, "").trim();
+        return valor.isEmpty() ? porDefecto : valor;
+    }
+
+    private static int entero(String propiedad, int porDefecto, int minimo) {
+        int valor = Integer.parseInt(texto(propiedad, String.valueOf(porDefecto)));
+        if (valor < minimo) {
+            throw new IllegalArgumentException(propiedad + " debe ser al menos " + minimo);
+        }
+        return valor;
+    }
+}
@@ -0,0 +1,115 @@
+package com.um.biblioteca.carga;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latencias y errores de una fase de la prueba, por operación y en total.
+ * Las latencias se registran en microsegundos en histogramas HdrHistogram
+ * con tres dígitos significativos; las que superan un minuto se registran
+ * como un minuto.
+ */
+final class Mediciones {
+
+    static final String TOTAL = "total";
+
+    private static final long MAXIMO_MICROS = TimeUnit.MINUTES.toMicros(1);
+    private static final int DIGITOS_SIGNIFICATIVOS = 3;
+    private static final double MICROS_POR_MILI = 1_000.0;
+
+    /**
+     * Resumen de una operación, con latencias en milisegundos
+     * @param nombre Nombre de la operación, o {@value #TOTAL}
+     * @param solicitudes Solicitudes completadas, con o sin error
+     * @param errores Solicitudes con una respuesta inesperada o sin respuesta
+     * @param rendimiento Solicitudes completadas por segundo
+     */
+    record Resumen(String nombre, long solicitudes, long errores, double rendimiento,
+                   double p50, double p99, double p999, double maximo) {
+
+        double proporcionErrores() {
+            return solicitudes == 0 ? 0 : (double) errores / solicitudes;
+        }
+    }
+
+    private final Map<Operacion, Histogram> latencias = new EnumMap<>(Operacion.class);
+    private final Map<Operacion, LongAdder> errores = new EnumMap<>(Operacion.class);
+    private final Histogram total = histograma();
+    private long duracionNanos;
+
+    Mediciones() {
+        for (Operacion operacion : Operacion.values()) {
+            latencias.put(operacion, histograma());
+            errores.put(operacion, new LongAdder());
+        }
+    }
+
+    void registrar(Operacion operacion, long nanos, boolean exito) {
+        long micros = Math.min(Math.max(TimeUnit.NANOSECONDS.toMicros(nanos), 1), MAXIMO_MICROS);
+        latencias.get(operacion).recordValue(micros);
+        total.recordValue(micros);
+        if (!exito) {
+            errores.get(operacion).increment();
+        }
+    }
+
+    /**
+     * Cierra la fase
+     * @param nanos Tiempo desde el inicio de la fase hasta la última respuesta
+     */
+    void finalizar(long nanos) {
+        duracionNanos = nanos;
+    }
+
+    /**
+     * @return Un resumen por operación con solicitudes, y el total al final
+     */
+    List<Resumen> resumenes() {
+        List<Resumen> resumenes = new ArrayList<>();
+        long erroresTotales = 0;
+        for (Operacion operacion : Operacion.values()) {
+            long cantidad = errores.get(operacion).sum();
+            erroresTotales += cantidad;
+            Histogram histograma = latencias.get(operacion);
+            if (histograma.getTotalCount() > 0) {
+                resumenes.add(resumen(operacion.nombre(), histograma, cantidad));
+            }
+        }
+        resumenes.add(resumen(TOTAL, total, erroresTotales));
+        return resumenes;
+    }
+
+    /**
+     * Escribe la distribución de percentiles del total, en milisegundos,
+     * en el formato de texto de HdrHistogram
+     */
+    void escribirDistribucion(PrintStream salida) {
+        total.outputPercentileDistribution(salida, MICROS_POR_MILI);
+    }
+
+    private Resumen resumen(String nombre, Histogram histograma, long cantidadErrores) {
+        double segundos = duracionNanos / 1e9;
+        return new Resumen(nombre, histograma.getTotalCount(), cantidadErrores,
+                segundos > 0 ? histograma.getTotalCount() / segundos : 0,
+                milisegundos(histograma.getValueAtPercentile(50)),
+                milisegundos(histograma.getValueAtPercentile(99)),
+                milisegundos(histograma.getValueAtPercentile(99.9)),
+                milisegundos(histograma.getMaxValue()));
+    }
+
+    private static double milisegundos(long micros) {
+        return micros / MICROS_POR_MILI;
+    }
+
+    private static Histogram histograma() {
+        return new ConcurrentHistogram(MAXIMO_MICROS, DIGITOS_SIGNIFICATIVOS);
+    }
+}
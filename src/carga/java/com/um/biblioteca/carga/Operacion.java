@@ -0,0 +1,52 @@
+package com.um.biblioteca.carga;
+
+import java.util.Random;
+
+/**
+ * Solicitudes que reproduce la prueba de carga, con su peso en la mezcla.
+ * Los pesos suman 100 y aproximan el uso de un mostrador de préstamos:
+ * predominan las búsquedas y los listados, y por cada préstamo creado hay
+ * algo menos de una devolución.
+ */
+enum Operacion {
+    CREAR_PRESTAMO("crearPrestamo", 15),
+    DEVOLVER_PRESTAMO("devolverPrestamo", 10),
+    EXTENDER_PRESTAMO("extenderPrestamo", 5),
+    BUSCAR_POR_TITULO("buscarPorTitulo", 25),
+    BUSCAR_POR_ISBN("buscarPorIsbn", 10),
+    LISTAR_PRESTAMOS("listarPrestamos", 20),
+    OBTENER_PRESTAMO("obtenerPrestamo", 10),
+    PRESTAMOS_DE_USUARIO("prestamosDeUsuario", 5);
+
+    private static final Operacion[] TODAS = values();
+    private static final int PESO_TOTAL = 100;
+
+    private final String nombre;
+    private final int peso;
+
+    Operacion(String nombre, int peso) {
+        this.nombre = nombre;
+        this.peso = peso;
+    }
+
+    /**
+     * Nombre con el que aparece en los resultados y en los umbrales
+     */
+    String nombre() {
+        return nombre;
+    }
+
+    /**
+     * Elige una operación según los pesos de la mezcla
+     */
+    static Operacion elegir(Random azar) {
+        int valor = azar.nextInt(PESO_TOTAL);
+        for (Operacion operacion : TODAS) {
+            valor -= operacion.peso;
+            if (valor < 0) {
+                return operacion;
+            }
+        }
+        throw new IllegalStateException("Los pesos de la mezcla no suman " + PESO_TOTAL);
+    }
+}
@@ -0,0 +1,156 @@
+package com.um.biblioteca.carga;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Punto de entrada del perfil carga: prueba de carga HTTP contra una
+ * instancia de BibliotecaApplication ya iniciada.
+ * <p>
+ * Da de alta libros y usuarios, y después envía la mezcla de
+ * {@link Operacion} a una tasa fija ({@code carga.tasa}), primero durante el
+ * calentamiento y después durante la medición. La tasa no depende de las
+ * respuestas: cada solicitud tiene un instante programado y su latencia se
+ * mide desde ese instante, no desde que se envió, así que si la aplicación
+ * se demora, la espera de las solicitudes siguientes también cuenta en la
+ * latencia (en lugar de ocultarse, como pasaría con un número fijo de
+ * clientes que esperan cada respuesta).
+ * <p>
+ * Al terminar imprime las latencias y el rendimiento, los escribe en
+ * {@code carga.resultados} junto con la distribución completa en un
+ * archivo {@code .hgrm}, y termina con código 1 si no se cumple algún
+ * umbral de {@link Umbrales}.
+ */
+public final class PruebaDeCarga {
+
+    private static final long NANOS_POR_SEGUNDO = 1_000_000_000L;
+
+    private PruebaDeCarga() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        ConfiguracionCarga configuracion = ConfiguracionCarga.desdePropiedades();
+        Umbrales umbrales = Umbrales.cargar(configuracion.umbrales());
+        ClienteBiblioteca cliente = new ClienteBiblioteca(configuracion.url());
+
+        cliente.verificarDisponible();
+        System.out.printf("Dando de alta %d libros y %d usuarios en %s%n",
+                configuracion.libros(), configuracion.usuarios(), configuracion.url());
+        cliente.poblar(configuracion.libros(), configuracion.usuarios(), configuracion.maximoEnVuelo());
+
+        Random azar = new Random(configuracion.semilla());
+        if (!configuracion.calentamiento().isZero()) {
+            System.out.printf("Calentamiento: %d s a %d solicitudes/s%n",
+                    configuracion.calentamiento().toSeconds(), configuracion.tasa());
+            ejecutarFase(cliente, configuracion, configuracion.calentamiento(), azar);
+        }
+        System.out.printf("Medición: %d s a %d solicitudes/s%n",
+                configuracion.duracion().toSeconds(), configuracion.tasa());
+        Mediciones mediciones = ejecutarFase(cliente, configuracion, configuracion.duracion(), azar);
+
+        List<Mediciones.Resumen> resumenes = mediciones.resumenes();
+        List<String> violaciones = umbrales.verificar(resumenes, configuracion.tasa());
+        imprimir(resumenes);
+        escribir(configuracion, mediciones, resumenes, violaciones);
+
+        if (!violaciones.isEmpty()) {
+            System.out.println("Umbrales no cumplidos:");
+            violaciones.forEach(violacion -> System.out.println("  " + violacion));
+            System.exit(1);
+        }
+        System.out.println("Se cumplen todos los umbrales");
+    }
+
+    /**
+     * Envía solicitudes a la tasa configurada durante la fase y espera
+     * todas las respuestas. Si ya hay {@code maximoEnVuelo} solicitudes sin
+     * responder, la siguiente se demora, y esa demora cuenta en su latencia.
+     */
+    private static Mediciones ejecutarFase(ClienteBiblioteca cliente, ConfiguracionCarga configuracion,
+                                           Duration duracion, Random azar) throws InterruptedException {
+        Mediciones mediciones = new Mediciones();
+        Semaphore enVuelo = new Semaphore(configuracion.maximoEnVuelo());
+        long intervalo = NANOS_POR_SEGUNDO / configuracion.tasa();
+        long cantidad = duracion.toNanos() / intervalo;
+        long inicio = System.nanoTime();
+
+        try (ExecutorService ejecutor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (long i = 0; i < cantidad; i++) {
+                long programada = inicio + i * intervalo;
+                esperarHasta(programada);
+                Operacion operacion = Operacion.elegir(azar);
+                long semilla = azar.nextLong();
+                enVuelo.acquire();
+                ejecutor.execute(() -> {
+                    try {
+                        ClienteBiblioteca.Resultado resultado = cliente.ejecutar(operacion, new Random(semilla));
+                        mediciones.registrar(resultado.operacion(), System.nanoTime() - programada, resultado.exito());
+                    } finally {
+                        enVuelo.release();
+                    }
+                });
+            }
+        }
+        mediciones.finalizar(System.nanoTime() - inicio);
+        return mediciones;
+    }
+
+    private static void esperarHasta(long instante) {
+        long restante;
+        while ((restante = instante - System.nanoTime()) > 0) {
+            LockSupport.parkNanos(restante);
+        }
+    }
+
+    private static void imprimir(List<Mediciones.Resumen> resumenes) {
+        String formato = "%-20s %11s %8s %10s %9s %9s %9s %9s%n";
+        System.out.printf(formato, "operación", "solicitudes", "errores", "sol/s", "p50 ms", "p99 ms", "p999 ms", "máx ms");
+        for (Mediciones.Resumen resumen : resumenes) {
+            System.out.printf(formato, resumen.nombre(), resumen.solicitudes(), resumen.errores(),
+                    "%.1f".formatted(resumen.rendimiento()), "%.3f".formatted(resumen.p50()),
+                    "%.3f".formatted(resumen.p99()), "%.3f".formatted(resumen.p999()),
+                    "%.3f".formatted(resumen.maximo()));
+        }
+    }
+
+    private static void escribir(ConfiguracionCarga configuracion, Mediciones mediciones,
+                                 List<Mediciones.Resumen> resumenes, List<String> violaciones) throws IOException {
+        Map<String, Object> parametros = new LinkedHashMap<>();
+        parametros.put("url", configuracion.url().toString());
+        parametros.put("tasa", configuracion.tasa());
+        parametros.put("calentamientoSegundos", configuracion.calentamiento().toSeconds());
+        parametros.put("duracionSegundos", configuracion.duracion().toSeconds());
+        parametros.put("libros", configuracion.libros());
+        parametros.put("usuarios", configuracion.usuarios());
+        parametros.put("maximoEnVuelo", configuracion.maximoEnVuelo());
+        parametros.put("semilla", configuracion.semilla());
+
+        Map<String, Object> contenido = new LinkedHashMap<>();
+        contenido.put("configuracion", parametros);
+        contenido.put("resultados", resumenes);
+        contenido.put("violaciones", violaciones);
+
+        Path archivo = Path.of(configuracion.resultados()).toAbsolutePath();
+        Files.createDirectories(archivo.getParent());
+        new ObjectMapper().writerWithDefaultPrettyPrinter().writeValue(archivo.toFile(), contenido);
+
+        Path distribucion = archivo.resolveSibling(archivo.getFileName().toString().replaceFirst("\\.json$", "") + ".hgrm");
+        try (PrintStream salida = new PrintStream(Files.newOutputStream(distribucion))) {
+            mediciones.escribirDistribucion(salida);
+        }
+        System.out.println("Resultados en " + archivo + " y " + distribucion);
+    }
+}
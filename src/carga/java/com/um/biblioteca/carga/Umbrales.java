@@ -0,0 +1,88 @@
+package com.um.biblioteca.carga;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+
+/**
+ * Objetivos de nivel de servicio que la prueba de carga debe cumplir.
+ * Cada clave es {@code <operación>.<métrica>}, donde la operación es el
+ * nombre de una {@link Operacion} o {@value Mediciones#TOTAL}:
+ * <ul>
+ *   <li>{@code p50}, {@code p99}, {@code p999}: latencia máxima en milisegundos</li>
+ *   <li>{@code errores}: proporción máxima de solicitudes con error, entre 0 y 1</li>
+ *   <li>{@code rendimiento}: sólo para el total, proporción mínima de la tasa
+ *       configurada que se debe completar, entre 0 y 1</li>
+ * </ul>
+ * Las métricas sin umbral no se verifican.
+ */
+final class Umbrales {
+
+    static final String INCLUIDOS = "umbrales-carga.properties";
+
+    private final Properties valores;
+
+    private Umbrales(Properties valores) {
+        this.valores = valores;
+    }
+
+    /**
+     * @param archivo Ruta de un archivo de propiedades, o vacío para usar los umbrales incluidos
+     */
+    static Umbrales cargar(String archivo) {
+        Properties valores = new Properties();
+        try (InputStream entrada = archivo.isEmpty()
+                ? Umbrales.class.getClassLoader().getResourceAsStream(INCLUIDOS)
+                : Files.newInputStream(Path.of(archivo))) {
+            if (entrada == null) {
+                throw new IllegalStateException("No se encontró " + INCLUIDOS + " en el classpath");
+            }
+            valores.load(entrada);
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudieron leer los umbrales de " + archivo, e);
+        }
+        return new Umbrales(valores);
+    }
+
+    /**
+     * @param tasa Solicitudes por segundo configuradas
+     * @return Descripción de cada umbral no cumplido; vacía si se cumplen todos
+     */
+    List<String> verificar(List<Mediciones.Resumen> resumenes, int tasa) {
+        List<String> violaciones = new ArrayList<>();
+        for (Mediciones.Resumen resumen : resumenes) {
+            maximo(violaciones, resumen.nombre(), "p50", resumen.p50());
+            maximo(violaciones, resumen.nombre(), "p99", resumen.p99());
+            maximo(violaciones, resumen.nombre(), "p999", resumen.p999());
+            maximo(violaciones, resumen.nombre(), "errores", resumen.proporcionErrores());
+            if (Mediciones.TOTAL.equals(resumen.nombre())) {
+                minimo(violaciones, resumen.nombre(), "rendimiento", resumen.rendimiento() / tasa);
+            }
+        }
+        return violaciones;
+    }
+
+    private void maximo(List<String> violaciones, String operacion, String metrica, double medido) {
+        Double umbral = umbral(operacion, metrica);
+        if (umbral != null && medido > umbral) {
+            violaciones.add("%s.%s = %.3f supera el máximo %.3f".formatted(operacion, metrica, medido, umbral));
+        }
+    }
+
+    private void minimo(List<String> violaciones, String operacion, String metrica, double medido) {
+        Double umbral = umbral(operacion, metrica);
+        if (umbral != null && medido < umbral) {
+            violaciones.add("%s.%s = %.3f no alcanza el mínimo %.3f".formatted(operacion, metrica, medido, umbral));
+        }
+    }
+
+    private Double umbral(String operacion, String metrica) {
+        String valor = valores.getProperty(operacion + "." + metrica);
+        return valor == null || valor.isBlank() ? null : Double.valueOf(valor.trim());
+    }
+}
@@ -0,0 +1,147 @@
+package com.um.biblioteca.benchmark;
+
+import com.um.biblioteca.model.EstadoLibro;
+import com.um.biblioteca.model.EstadoUsuario;
+import com.um.biblioteca.model.Libro;
+import com.um.biblioteca.model.Prestamo;
+import com.um.biblioteca.model.Usuario;
+
+import java.time.LocalDate;
+
+/**
+ * Generadores de datos sintéticos para los benchmarks. Cada entidad se
+ * deriva sólo de su ID y de una semilla fija, así que el mismo ID produce
+ * siempre la misma entidad, sin importar el orden ni la cantidad de hilos
+ * con que se genere: dos corridas sobre el mismo tamaño usan el mismo
+ * conjunto de datos.
+ * <p>
+ * Las palabras de títulos, autores y nombres salen de listas cortas, por lo
+ * que cada búsqueda por texto encuentra una fracción fija del conjunto
+ * (por ejemplo, un sustantivo aparece en 1 de cada {@value #CANTIDAD_SUSTANTIVOS}
+ * títulos) y el tamaño del resultado crece con el de los datos.
+ */
+final class DatosSinteticos {
+
+    static final long SEMILLA = 42L;
+
+    /**
+     * Las fechas de préstamo se reparten entre INICIO y INICIO + DIAS
+     */
+    static final LocalDate INICIO = LocalDate.of(2023, 1, 1);
+    static final int DIAS = 730;
+    static final int DIAS_DE_PRESTAMO = 15;
+
+    static final int CANTIDAD_SUSTANTIVOS = 24;
+
+    private static final String[] SUSTANTIVOS = {
+            "jardín", "río", "laberinto", "espejo", "otoño", "invierno", "faro", "desierto",
+            "puerto", "bosque", "silencio", "viaje", "tiempo", "mar", "sueño", "camino",
+            "fuego", "retrato", "tren", "ciudad", "noche", "isla", "sombra", "reino"};
+    private static final String[] ADJETIVOS = {
+            "perdido", "infinito", "secreto", "dormido", "olvidado", "eterno", "quieto", "oscuro",
+            "lejano", "breve", "salvaje", "dorado", "antiguo", "roto", "nuevo", "último"};
+    private static final String[] NOMBRES = {
+            "Ana", "Julio", "María", "Jorge", "Lucía", "Pablo", "Elena", "Mario", "Clara", "Adolfo",
+            "Rosa", "Ernesto", "Silvina", "Ricardo", "Alfonsina", "Horacio", "Isabel", "Roberto",
+            "Olga", "Manuel"};
+    private static final String[] APELLIDOS = {
+            "García", "Martínez", "López", "Fernández", "Pérez", "Gómez", "Díaz", "Sánchez",
+            "Romero", "Sosa", "Torres", "Álvarez", "Ruiz", "Ramírez", "Flores", "Acosta",
+            "Benítez", "Medina", "Herrera", "Suárez", "Aguirre", "Giménez", "Gutiérrez", "Pereyra",
+            "Molina", "Castro", "Ortiz", "Silva", "Núñez", "Rojas"};
+
+    private DatosSinteticos() {
+    }
+
+    static Libro libro(long id) {
+        return new Libro(id, isbn(id), titulo(id), autor(id), estadoLibro(id));
+    }
+
+    static String isbn(long id) {
+        return "978-" + id;
+    }
+
+    static String titulo(long id) {
+        return "El " + sustantivo(elegir(id, 1, SUSTANTIVOS.length)) + " " + ADJETIVOS[elegir(id, 2, ADJETIVOS.length)];
+    }
+
+    static String autor(long id) {
+        return NOMBRES[elegir(id, 3, NOMBRES.length)] + " " + apellido(elegir(id, 4, APELLIDOS.length));
+    }
+
+    /**
+     * 70% disponibles, 25% prestados, 4% en reparación y 1% extraviados
+     */
+    static EstadoLibro estadoLibro(long id) {
+        int valor = elegir(id, 5, 100);
+        if (valor < 70) {
+            return EstadoLibro.DISPONIBLE;
+        }
+        if (valor < 95) {
+            return EstadoLibro.PRESTADO;
+        }
+        return valor < 99 ? EstadoLibro.EN_REPARACION : EstadoLibro.EXTRAVIADO;
+    }
+
+    static Usuario usuario(long id) {
+        String nombre = NOMBRES[elegir(id, 6, NOMBRES.length)] + " " + apellido(elegir(id, 7, APELLIDOS.length));
+        return new Usuario(id, nombre, email(id), estadoUsuario(id));
+    }
+
+    static String email(long id) {
+        return "usuario" + id + "@example.com";
+    }
+
+    /**
+     * 90% activos, 8% suspendidos y 2% dados de baja
+     */
+    static EstadoUsuario estadoUsuario(long id) {
+        int valor = elegir(id, 8, 100);
+        if (valor < 90) {
+            return EstadoUsuario.ACTIVO;
+        }
+        return valor < 98 ? EstadoUsuario.SUSPENDIDO : EstadoUsuario.DADO_DE_BAJA;
+    }
+
+    /**
+     * @param libros Cantidad de libros entre los que se reparten los préstamos
+     * @param usuarios Cantidad de usuarios entre los que se reparten los préstamos
+     */
+    static Prestamo prestamo(long id, long libros, long usuarios) {
+        LocalDate fechaPrestamo = INICIO.plusDays(elegir(id, 9, DIAS));
+        return new Prestamo(id, 1 + elegir(id, 10, libros), 1 + elegir(id, 11, usuarios),
+                fechaPrestamo, fechaPrestamo.plusDays(DIAS_DE_PRESTAMO), null);
+    }
+
+    static String sustantivo(int indice) {
+        return SUSTANTIVOS[indice % SUSTANTIVOS.length];
+    }
+
+    static String apellido(int indice) {
+        return APELLIDOS[indice % APELLIDOS.length];
+    }
+
+    static int cantidadApellidos() {
+        return APELLIDOS.length;
+    }
+
+    /**
+     * Valor pseudoaleatorio en [0, cantidad) determinado por el ID y el campo
+     */
+    static int elegir(long id, int campo, int cantidad) {
+        return (int) elegir(id, campo, (long) cantidad);
+    }
+
+    static long elegir(long id, int campo, long cantidad) {
+        return Math.floorMod(mezclar(SEMILLA + id * 0x9E3779B97F4A7C15L + campo), cantidad);
+    }
+
+    /**
+     * Finalizador de SplitMix64
+     */
+    private static long mezclar(long valor) {
+        valor = (valor ^ (valor >>> 30)) * 0xBF58476D1CE4E5B9L;
+        valor = (valor ^ (valor >>> 27)) * 0x94D049BB133111EBL;
+        return valor ^ (valor >>> 31);
+    }
+}
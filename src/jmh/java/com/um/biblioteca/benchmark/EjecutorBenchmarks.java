@@ -0,0 +1,47 @@
+package com.um.biblioteca.benchmark;
+
+import org.openjdk.jmh.Main;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.results.format.ResultFormatFactory;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Defaults;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Punto de entrada del perfil benchmark. Recibe los mismos argumentos que
+ * {@link Main}; con la propiedad {@code jmh.hilos} (por ejemplo
+ * {@code -Djmh.hilos=1,4,16}) repite la selección una vez por cada cantidad
+ * de hilos y escribe todas las corridas en un único archivo de resultados,
+ * donde cada resultado indica con cuántos hilos se midió.
+ */
+public final class EjecutorBenchmarks {
+
+    private EjecutorBenchmarks() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        String hilos = System.getProperty("jmh.hilos", "").trim();
+        if (hilos.isEmpty()) {
+            Main.main(args);
+            return;
+        }
+
+        CommandLineOptions opciones = new CommandLineOptions(args);
+        List<RunResult> resultados = new ArrayList<>();
+        for (String valor : hilos.split(",")) {
+            int cantidad = Integer.parseInt(valor.trim());
+            resultados.addAll(new Runner(new OptionsBuilder().parent(opciones).threads(cantidad).build()).run());
+        }
+
+        // Cada corrida sobrescribió el archivo con sus propios resultados
+        ResultFormatType formato = opciones.getResultFormat().orElse(Defaults.RESULT_FORMAT);
+        String archivo = opciones.getResult()
+                .orElse(Defaults.RESULT_FILE_PREFIX + "." + formato.toString().toLowerCase());
+        ResultFormatFactory.getInstance(formato, archivo).writeOut(resultados);
+    }
+}
@@ -0,0 +1,109 @@
+package com.um.biblioteca.benchmark;
+
+import com.um.biblioteca.model.EstadoLibro;
+import com.um.biblioteca.model.Libro;
+import com.um.biblioteca.repository.impl.LibroRepositoryImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.EnumSet;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Mide los métodos de {@link com.um.biblioteca.repository.LibroRepository}.
+ * Las búsquedas por texto usan un sustantivo de los títulos (1 de cada
+ * {@value DatosSinteticos#CANTIDAD_SUSTANTIVOS} libros) o un apellido de
+ * los autores; las búsquedas por estado usan EN_REPARACION (4% de los libros).
+ */
+public class LibroRepositoryBenchmark extends RepositorioBenchmark<Libro, LibroRepositoryImpl> {
+
+    private static final Set<EstadoLibro> NO_PRESTABLES = EnumSet.of(EstadoLibro.EN_REPARACION, EstadoLibro.EXTRAVIADO);
+
+    private String[] isbns;
+    private String[] titulos;
+    private String[] autores;
+
+    @Override
+    protected LibroRepositoryImpl crearRepositorio() {
+        return new LibroRepositoryImpl();
+    }
+
+    @Override
+    protected Libro generar(long id) {
+        return DatosSinteticos.libro(id);
+    }
+
+    @Override
+    protected Libro modificar(long id, long n) {
+        return DatosSinteticos.libro(id).conTitulo(DatosSinteticos.titulo(id + n));
+    }
+
+    @Override
+    protected Libro nueva(long n) {
+        return new Libro(null, "alta-" + n, DatosSinteticos.titulo(n), DatosSinteticos.autor(n));
+    }
+
+    @Override
+    protected Long id(Libro libro) {
+        return libro.id();
+    }
+
+    @Override
+    protected void prepararConsultas(Random azar) {
+        isbns = new String[CONSULTAS];
+        titulos = new String[CONSULTAS];
+        autores = new String[CONSULTAS];
+        for (int i = 0; i < CONSULTAS; i++) {
+            isbns[i] = DatosSinteticos.isbn(1 + azar.nextInt(tamanio));
+            titulos[i] = DatosSinteticos.sustantivo(azar.nextInt(DatosSinteticos.CANTIDAD_SUSTANTIVOS));
+            autores[i] = DatosSinteticos.apellido(azar.nextInt(DatosSinteticos.cantidadApellidos()));
+        }
+    }
+
+    @Benchmark
+    public Object findByIsbn(Hilo hilo) {
+        return repositorio.findByIsbn(isbns[hilo.consulta()]);
+    }
+
+    @Benchmark
+    public Object findByTituloContaining(Hilo hilo) {
+        return repositorio.findByTituloContaining(titulos[hilo.consulta()]);
+    }
+
+    @Benchmark
+    public Object findByAutorContaining(Hilo hilo) {
+        return repositorio.findByAutorContaining(autores[hilo.consulta()]);
+    }
+
+    @Benchmark
+    public Object findByTituloContainingAndEstado(Hilo hilo) {
+        return repositorio.findByTituloContainingAndEstado(titulos[hilo.consulta()], EstadoLibro.PRESTADO);
+    }
+
+    @Benchmark
+    public Object findByEstado() {
+        return repositorio.findByEstado(EstadoLibro.EN_REPARACION);
+    }
+
+    @Benchmark
+    public Object findByEstadoIn() {
+        return repositorio.findByEstadoIn(NO_PRESTABLES);
+    }
+
+    @Benchmark
+    public void streamByEstado(Blackhole bh) {
+        repositorio.streamByEstado(EstadoLibro.EN_REPARACION).forEach(bh::consume);
+    }
+
+    /**
+     * Alterna el libro entre DISPONIBLE y PRESTADO; los que están en otro
+     * estado fallan ambas comparaciones
+     */
+    @Benchmark
+    public boolean compareAndSetEstado(Hilo hilo) {
+        long id = idAleatorio(hilo);
+        return repositorio.compareAndSetEstado(id, EstadoLibro.DISPONIBLE, EstadoLibro.PRESTADO)
+                || repositorio.compareAndSetEstado(id, EstadoLibro.PRESTADO, EstadoLibro.DISPONIBLE);
+    }
+}
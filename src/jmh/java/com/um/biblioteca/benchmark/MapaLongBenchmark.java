@@ -0,0 +1,158 @@
+package com.um.biblioteca.benchmark;
+
+import com.um.biblioteca.repository.colecciones.MapaLong;
+import com.um.biblioteca.repository.colecciones.MapaLongConcurrente;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.management.ManagementFactory;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compara los mapas de claves long primitivas con HashMap y
+ * ConcurrentHashMap de claves Long, con IDs secuenciales como los que
+ * generan los repositorios.
+ * <p>
+ * "buscar" mide búsquedas de IDs existentes en orden aleatorio.
+ * "memoria" reporta bytesPorEntrada: el heap retenido por el mapa dividido
+ * por la cantidad de entradas (todas con el mismo valor, así sólo cuenta
+ * la estructura). Es una medición aproximada, confiable con muchas entradas.
+ * "llenar" inserta {@value #LLENADO} entradas en un mapa nuevo y reporta
+ * cada inserción como una operación: con el perfilador de GC
+ * ({@code -Djmh.args="-prof gc"}), gc.alloc.rate.norm da los bytes
+ * asignados por entrada, incluidos los arreglos descartados al crecer.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class MapaLongBenchmark {
+
+    private static final int LLENADO = 100_000;
+    private static final int CONSULTAS = 1 << 16;
+
+    @Param({"HASH_MAP", "CONCURRENT_HASH_MAP", "MAPA_LONG", "MAPA_LONG_CONCURRENTE"})
+    public String implementacion;
+
+    @Param({"1000", "1000000"})
+    public int entradas;
+
+    private Mapa mapa;
+    private long[] consultas;
+    private int siguiente;
+    private double bytesPorEntrada;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Memoria {
+
+        public double bytesPorEntrada;
+    }
+
+    /**
+     * Operaciones comunes a las implementaciones comparadas
+     */
+    private interface Mapa {
+        Object get(long clave);
+
+        void put(long clave, Object valor);
+    }
+
+    @Setup(Level.Trial)
+    public void preparar() {
+        long antes = heapRetenido();
+        mapa = crear(implementacion);
+        for (long id = 1; id <= entradas; id++) {
+            mapa.put(id, Boolean.TRUE);
+        }
+        bytesPorEntrada = (double) (heapRetenido() - antes) / entradas;
+        Random azar = new Random(42);
+        consultas = new long[CONSULTAS];
+        for (int i = 0; i < CONSULTAS; i++) {
+            consultas[i] = 1 + azar.nextInt(entradas);
+        }
+    }
+
+    @Benchmark
+    public Object buscar() {
+        siguiente = (siguiente + 1) & (CONSULTAS - 1);
+        return mapa.get(consultas[siguiente]);
+    }
+
+    /**
+     * Sólo publica la medición de memoria hecha al preparar el mapa
+     */
+    @Benchmark
+    public void memoria(Memoria memoria) {
+        memoria.bytesPorEntrada = bytesPorEntrada;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LLENADO)
+    public Object llenar() {
+        Mapa nuevo = crear(implementacion);
+        for (long id = 1; id <= LLENADO; id++) {
+            nuevo.put(id, Boolean.TRUE);
+        }
+        return nuevo;
+    }
+
+    private static long heapRetenido() {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+
+    private static Mapa crear(String implementacion) {
+        return switch (implementacion) {
+            case "HASH_MAP" -> {
+                Map<Long, Object> m = new HashMap<>();
+                yield new Mapa() {
+                    @Override public Object get(long clave) { return m.get(clave); }
+                    @Override public void put(long clave, Object valor) { m.put(clave, valor); }
+                };
+            }
+            case "CONCURRENT_HASH_MAP" -> {
+                Map<Long, Object> m = new ConcurrentHashMap<>();
+                yield new Mapa() {
+                    @Override public Object get(long clave) { return m.get(clave); }
+                    @Override public void put(long clave, Object valor) { m.put(clave, valor); }
+                };
+            }
+            case "MAPA_LONG" -> {
+                MapaLong<Object> m = new MapaLong<>();
+                yield new Mapa() {
+                    @Override public Object get(long clave) { return m.get(clave); }
+                    @Override public void put(long clave, Object valor) { m.put(clave, valor); }
+                };
+            }
+            case "MAPA_LONG_CONCURRENTE" -> {
+                MapaLongConcurrente<Object> m = new MapaLongConcurrente<>();
+                yield new Mapa() {
+                    @Override public Object get(long clave) { return m.get(clave); }
+                    @Override public void put(long clave, Object valor) { m.put(clave, valor); }
+                };
+            }
+            default -> throw new IllegalArgumentException("Implementación desconocida: " + implementacion);
+        };
+    }
+}
@@ -0,0 +1,90 @@
+package com.um.biblioteca.benchmark;
+
+import com.um.biblioteca.repository.almacen.AlmacenamientoProperties;
+import com.um.biblioteca.repository.impl.PrestamoRepositoryImpl;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+/**
+ * Mide el heap que retiene el repositorio de préstamos por cada préstamo,
+ * con los préstamos en el heap o fuera de él. Fuera del heap sólo quedan
+ * en el heap el conjunto de IDs y los índices por usuario, libro y fechas,
+ * así que la medición es el costo de esas estructuras.
+ * <p>
+ * "memoria" reporta bytesPorPrestamo: el heap retenido después de cargar
+ * {@code prestamos} préstamos de {@link DatosSinteticos} dividido por esa
+ * cantidad. Como en {@link MapaLongBenchmark}, es una medición aproximada,
+ * confiable con muchas entradas; el método medido sólo la publica.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class MemoriaPrestamosBenchmark {
+
+    private static final int PRESTAMOS_POR_LIBRO = 5;
+    private static final int PRESTAMOS_POR_USUARIO = 20;
+
+    @Param({"HEAP", "FUERA_DE_HEAP"})
+    public String almacen;
+
+    @Param({"1000000"})
+    public int prestamos;
+
+    private PrestamoRepositoryImpl repositorio;
+    private double bytesPorPrestamo;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Memoria {
+
+        public double bytesPorPrestamo;
+    }
+
+    @Setup(Level.Trial)
+    public void preparar() {
+        long libros = Math.max(1, prestamos / PRESTAMOS_POR_LIBRO);
+        long usuarios = Math.max(1, prestamos / PRESTAMOS_POR_USUARIO);
+        AlmacenamientoProperties propiedades = new AlmacenamientoProperties();
+        propiedades.setPrestamosFueraDeHeap(almacen.equals("FUERA_DE_HEAP"));
+
+        long antes = heapRetenido();
+        repositorio = new PrestamoRepositoryImpl(propiedades);
+        LongStream.rangeClosed(1, prestamos)
+                .forEach(id -> repositorio.restaurar(id, DatosSinteticos.prestamo(id, libros, usuarios)));
+        bytesPorPrestamo = (double) (heapRetenido() - antes) / prestamos;
+    }
+
+    /**
+     * Sólo publica la medición hecha al cargar el repositorio
+     */
+    @Benchmark
+    public Object memoria(Memoria memoria) {
+        memoria.bytesPorPrestamo = bytesPorPrestamo;
+        return repositorio;
+    }
+
+    private static long heapRetenido() {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+}
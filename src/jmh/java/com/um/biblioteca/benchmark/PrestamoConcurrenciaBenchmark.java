@@ -0,0 +1,129 @@
+package com.um.biblioteca.benchmark;
+
+import com.um.biblioteca.exception.RecursoNoDisponibleException;
+import com.um.biblioteca.model.Libro;
+import com.um.biblioteca.model.Prestamo;
+import com.um.biblioteca.model.Usuario;
+import com.um.biblioteca.repository.impl.LibroRepositoryImpl;
+import com.um.biblioteca.repository.impl.PrestamoRepositoryImpl;
+import com.um.biblioteca.repository.impl.UsuarioRepositoryImpl;
+import com.um.biblioteca.service.LibroService;
+import com.um.biblioteca.service.PrestamoService;
+import com.um.biblioteca.service.UsuarioService;
+import com.um.biblioteca.service.impl.LibroServiceImpl;
+import com.um.biblioteca.service.impl.PrestamoServiceImpl;
+import com.um.biblioteca.service.impl.UsuarioServiceImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Mide el throughput de crear y eliminar préstamos con distinta cantidad de
+ * hilos. En el modo "distintos" cada hilo presta sus propios libros, por lo
+ * que el throughput debería crecer con los núcleos; en el modo "mismo" todos
+ * compiten por un único libro y sólo uno de ellos lo obtiene por vez.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PrestamoConcurrenciaBenchmark {
+
+    private static final int LIBROS_POR_HILO = 64;
+    private static final int HILOS_MAXIMOS = 256;
+
+    @State(Scope.Benchmark)
+    public static class Biblioteca {
+
+        @Param({"distintos", "mismo"})
+        public String modo;
+
+        PrestamoService prestamoService;
+        Long usuarioId;
+        final AtomicInteger siguienteHilo = new AtomicInteger();
+
+        @Setup(Level.Trial)
+        public void preparar() {
+            LibroService libroService = new LibroServiceImpl(new LibroRepositoryImpl());
+            UsuarioService usuarioService = new UsuarioServiceImpl(new UsuarioRepositoryImpl());
+            prestamoService = new PrestamoServiceImpl(new PrestamoRepositoryImpl(), libroService, usuarioService);
+
+            usuarioId = usuarioService.guardar(new Usuario(null, "Lector", "lector@example.com")).id();
+            int libros = "mismo".equals(modo) ? 1 : LIBROS_POR_HILO * HILOS_MAXIMOS;
+            for (int i = 0; i < libros; i++) {
+                libroService.guardar(new Libro(null, "isbn-" + i, "Título " + i, "Autor"));
+            }
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Hilo {
+
+        long primerLibro;
+        int cantidadLibros;
+        int siguiente;
+
+        @Setup(Level.Trial)
+        public void preparar(Biblioteca biblioteca) {
+            if ("mismo".equals(biblioteca.modo)) {
+                primerLibro = 1L;
+                cantidadLibros = 1;
+            } else {
+                // Cada hilo recibe un bloque propio de libros
+                int hilo = biblioteca.siguienteHilo.getAndIncrement() % HILOS_MAXIMOS;
+                primerLibro = 1L + (long) hilo * LIBROS_POR_HILO;
+                cantidadLibros = LIBROS_POR_HILO;
+            }
+        }
+
+        Long proximoLibro() {
+            long id = primerLibro + siguiente;
+            siguiente = (siguiente + 1) % cantidadLibros;
+            return id;
+        }
+    }
+
+    @Benchmark
+    @Threads(1)
+    public void prestarYDevolver_1Hilo(Biblioteca biblioteca, Hilo hilo, Blackhole bh) {
+        prestarYDevolver(biblioteca, hilo, bh);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void prestarYDevolver_4Hilos(Biblioteca biblioteca, Hilo hilo, Blackhole bh) {
+        prestarYDevolver(biblioteca, hilo, bh);
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public void prestarYDevolver_todosLosNucleos(Biblioteca biblioteca, Hilo hilo, Blackhole bh) {
+        prestarYDevolver(biblioteca, hilo, bh);
+    }
+
+    private static void prestarYDevolver(Biblioteca biblioteca, Hilo hilo, Blackhole bh) {
+        try {
+            Prestamo prestamo = biblioteca.prestamoService.crearPrestamo(biblioteca.usuarioId, hilo.proximoLibro(), null);
+            biblioteca.prestamoService.eliminar(prestamo.id());
+            bh.consume(prestamo);
+        } catch (RecursoNoDisponibleException e) {
+            // Otro hilo tiene el libro prestado: cuenta como intento rechazado
+            bh.consume(e);
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.um.biblioteca.benchmark;
+
+import com.um.biblioteca.model.Libro;
+import com.um.biblioteca.model.Prestamo;
+import com.um.biblioteca.model.Usuario;
+import com.um.biblioteca.repository.impl.PrestamoRepositoryImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.time.LocalDate;
+import java.util.Random;
+
+/**
+ * Mide los métodos de {@link com.um.biblioteca.repository.PrestamoRepository}.
+ * Los préstamos se reparten entre un libro cada {@value #PRESTAMOS_POR_LIBRO}
+ * préstamos y un usuario cada {@value #PRESTAMOS_POR_USUARIO}. Los rangos de
+ * fechas abarcan una semana y los vencidos, los primeros 30 días del período,
+ * de modo que cada consulta devuelve una fracción fija del conjunto.
+ */
+public class PrestamoRepositoryBenchmark extends RepositorioBenchmark<Prestamo, PrestamoRepositoryImpl> {
+
+    private static final int PRESTAMOS_POR_LIBRO = 5;
+    private static final int PRESTAMOS_POR_USUARIO = 20;
+    private static final int DIAS_RANGO = 7;
+    private static final LocalDate CORTE_VENCIDOS = DatosSinteticos.INICIO.plusDays(30 + DatosSinteticos.DIAS_DE_PRESTAMO);
+
+    private long libros;
+    private long usuarios;
+    private Libro[] librosConsultados;
+    private Usuario[] usuariosConsultados;
+    private LocalDate[] fechas;
+
+    @Override
+    protected PrestamoRepositoryImpl crearRepositorio() {
+        libros = Math.max(1, tamanio / PRESTAMOS_POR_LIBRO);
+        usuarios = Math.max(1, tamanio / PRESTAMOS_POR_USUARIO);
+        return new PrestamoRepositoryImpl();
+    }
+
+    @Override
+    protected Prestamo generar(long id) {
+        return DatosSinteticos.prestamo(id, libros, usuarios);
+    }
+
+    @Override
+    protected Prestamo modificar(long id, long n) {
+        Prestamo prestamo = DatosSinteticos.prestamo(id, libros, usuarios);
+        return prestamo.conFechaDevolucion(prestamo.fechaDevolucion().plusDays(n % DIAS_RANGO));
+    }
+
+    @Override
+    protected Prestamo nueva(long n) {
+        return DatosSinteticos.prestamo(n, libros, usuarios).conId(null);
+    }
+
+    @Override
+    protected Long id(Prestamo prestamo) {
+        return prestamo.id();
+    }
+
+    @Override
+    protected void prepararConsultas(Random azar) {
+        librosConsultados = new Libro[CONSULTAS];
+        usuariosConsultados = new Usuario[CONSULTAS];
+        fechas = new LocalDate[CONSULTAS];
+        for (int i = 0; i < CONSULTAS; i++) {
+            librosConsultados[i] = new Libro(1 + (long) azar.nextInt((int) libros), null, null, null);
+            usuariosConsultados[i] = new Usuario(1 + (long) azar.nextInt((int) usuarios), null, null);
+            fechas[i] = DatosSinteticos.INICIO.plusDays(azar.nextInt(DatosSinteticos.DIAS));
+        }
+    }
+
+    @Benchmark
+    public Object findByUsuario(Hilo hilo) {
+        return repositorio.findByUsuario(usuariosConsultados[hilo.consulta()]);
+    }
+
+    @Benchmark
+    public Object findByLibro(Hilo hilo) {
+        return repositorio.findByLibro(librosConsultados[hilo.consulta()]);
+    }
+
+    @Benchmark
+    public Object findByFechaPrestamo(Hilo hilo) {
+        return repositorio.findByFechaPrestamo(fechas[hilo.consulta()]);
+    }
+
+    @Benchmark
+    public Object findByFechaDevolucionBefore() {
+        return repositorio.findByFechaDevolucionBefore(CORTE_VENCIDOS);
+    }
+
+    @Benchmark
+    public Object findByFechaPrestamoBetween(Hilo hilo) {
+        LocalDate desde = fechas[hilo.consulta()];
+        return repositorio.findByFechaPrestamoBetween(desde, desde.plusDays(DIAS_RANGO));
+    }
+
+    @Benchmark
+    public Object findByFechaDevolucionBetween(Hilo hilo) {
+        LocalDate desde = fechas[hilo.consulta()];
+        return repositorio.findByFechaDevolucionBetween(desde, desde.plusDays(DIAS_RANGO));
+    }
+
+    @Benchmark
+    public void streamByFechaPrestamoBetween(Hilo hilo, Blackhole bh) {
+        LocalDate desde = fechas[hilo.consulta()];
+        repositorio.streamByFechaPrestamoBetween(desde, desde.plusDays(DIAS_RANGO)).forEach(bh::consume);
+    }
+}
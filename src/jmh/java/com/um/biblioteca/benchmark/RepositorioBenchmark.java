@@ -0,0 +1,188 @@
+package com.um.biblioteca.benchmark;
+
+import com.um.biblioteca.repository.BaseRepository;
+import com.um.biblioteca.repository.persistencia.RepositorioPersistente;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.LongStream;
+
+/**
+ * Base de los benchmarks de repositorios: carga {@code tamanio} entidades
+ * generadas por {@link DatosSinteticos} y mide los métodos de
+ * {@link BaseRepository}; cada subclase agrega los de su repositorio.
+ * <p>
+ * La carga usa {@code restaurar}, igual que la recuperación desde la
+ * bitácora, en paralelo y con el ID de cada entidad fijo, por lo que el
+ * contenido no depende del orden de carga. Las consultas de cada hilo salen
+ * de una secuencia con semilla fija. La cantidad de hilos se elige al
+ * ejecutar, con {@code -t} o con el barrido de {@link EjecutorBenchmarks}.
+ * <p>
+ * Los métodos que recorren el repositorio completo (findAll, streamAll)
+ * tardan segundos por operación con diez millones de entidades.
+ * @param <T> Tipo de entidad
+ * @param <R> Repositorio medido
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public abstract class RepositorioBenchmark<T, R extends BaseRepository<T, Long> & RepositorioPersistente<T>> {
+
+    /**
+     * Cantidad de consultas precalculadas; potencia de dos
+     */
+    static final int CONSULTAS = 1 << 12;
+    static final int TAMANIO_PAGINA = 50;
+
+    @Param({"1000", "100000", "1000000", "10000000"})
+    public int tamanio;
+
+    protected R repositorio;
+    private final AtomicLong altas = new AtomicLong();
+
+    /**
+     * Secuencia de valores aleatorios propia de cada hilo, de la que salen
+     * los IDs e índices de consulta
+     */
+    @State(Scope.Thread)
+    public static class Hilo {
+
+        private static final AtomicInteger HILOS = new AtomicInteger();
+
+        private int[] valores;
+        private int siguiente;
+
+        @Setup(Level.Trial)
+        public void preparar() {
+            valores = new Random(DatosSinteticos.SEMILLA + HILOS.getAndIncrement())
+                    .ints(CONSULTAS, 0, Integer.MAX_VALUE)
+                    .toArray();
+        }
+
+        int proximo() {
+            siguiente = (siguiente + 1) & (CONSULTAS - 1);
+            return valores[siguiente];
+        }
+
+        /**
+         * @return Índice en los arreglos de consultas precalculadas
+         */
+        int consulta() {
+            return proximo() & (CONSULTAS - 1);
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void poblar() {
+        repositorio = crearRepositorio();
+        LongStream.rangeClosed(1, tamanio).parallel().forEach(id -> repositorio.restaurar(id, generar(id)));
+        prepararConsultas(new Random(DatosSinteticos.SEMILLA));
+    }
+
+    /**
+     * @return Repositorio vacío a medir
+     */
+    protected abstract R crearRepositorio();
+
+    /**
+     * @param id ID de la entidad
+     * @return Entidad sintética con ese ID
+     */
+    protected abstract T generar(long id);
+
+    /**
+     * @param id ID de una entidad existente
+     * @param n Número de operación, para variar el contenido
+     * @return Otra versión de la entidad, sin versión esperada, con campos indexados distintos
+     */
+    protected abstract T modificar(long id, long n);
+
+    /**
+     * @param n Número de alta, único en la corrida
+     * @return Entidad nueva sin ID cuyas claves únicas no chocan con las existentes
+     */
+    protected abstract T nueva(long n);
+
+    protected abstract Long id(T entidad);
+
+    /**
+     * Precalcula los argumentos de las consultas propias de la subclase,
+     * después de cargar los datos
+     * @param azar Generador con semilla fija
+     */
+    protected void prepararConsultas(Random azar) {
+    }
+
+    protected long idAleatorio(Hilo hilo) {
+        return 1 + hilo.proximo() % tamanio;
+    }
+
+    @Benchmark
+    public Object save(Hilo hilo) {
+        long id = idAleatorio(hilo);
+        return repositorio.save(modificar(id, hilo.proximo()));
+    }
+
+    /**
+     * Alta de una entidad nueva seguida de su baja, para que el tamaño no cambie
+     */
+    @Benchmark
+    public void saveYDeleteById() {
+        T guardada = repositorio.save(nueva(altas.incrementAndGet()));
+        repositorio.deleteById(id(guardada));
+    }
+
+    @Benchmark
+    public Object findById(Hilo hilo) {
+        return repositorio.findById(idAleatorio(hilo));
+    }
+
+    @Benchmark
+    public Object findAll() {
+        return repositorio.findAll();
+    }
+
+    @Benchmark
+    public void streamAll(Blackhole bh) {
+        repositorio.streamAll().forEach(bh::consume);
+    }
+
+    @Benchmark
+    public Object findAllPaginado(Hilo hilo) {
+        int paginas = Math.max(1, tamanio / TAMANIO_PAGINA);
+        return repositorio.findAll(hilo.proximo() % paginas, TAMANIO_PAGINA);
+    }
+
+    @Benchmark
+    public Object findAllAfter(Hilo hilo) {
+        return repositorio.findAllAfter(idAleatorio(hilo), TAMANIO_PAGINA);
+    }
+
+    @Benchmark
+    public long count() {
+        return repositorio.count();
+    }
+
+    @Benchmark
+    public boolean existsById(Hilo hilo) {
+        return repositorio.existsById(idAleatorio(hilo));
+    }
+}
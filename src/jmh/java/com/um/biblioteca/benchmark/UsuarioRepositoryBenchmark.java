@@ -0,0 +1,75 @@
+package com.um.biblioteca.benchmark;
+
+import com.um.biblioteca.model.EstadoUsuario;
+import com.um.biblioteca.model.Usuario;
+import com.um.biblioteca.repository.impl.UsuarioRepositoryImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Random;
+
+/**
+ * Mide los métodos de {@link com.um.biblioteca.repository.UsuarioRepository}.
+ * La búsqueda por nombre usa un apellido; las búsquedas por estado usan
+ * SUSPENDIDO (8% de los usuarios).
+ */
+public class UsuarioRepositoryBenchmark extends RepositorioBenchmark<Usuario, UsuarioRepositoryImpl> {
+
+    private String[] emails;
+    private String[] apellidos;
+
+    @Override
+    protected UsuarioRepositoryImpl crearRepositorio() {
+        return new UsuarioRepositoryImpl();
+    }
+
+    @Override
+    protected Usuario generar(long id) {
+        return DatosSinteticos.usuario(id);
+    }
+
+    @Override
+    protected Usuario modificar(long id, long n) {
+        return DatosSinteticos.usuario(id).conNombre(DatosSinteticos.usuario(id + n).nombre());
+    }
+
+    @Override
+    protected Usuario nueva(long n) {
+        return new Usuario(null, DatosSinteticos.usuario(n).nombre(), "alta" + n + "@example.com");
+    }
+
+    @Override
+    protected Long id(Usuario usuario) {
+        return usuario.id();
+    }
+
+    @Override
+    protected void prepararConsultas(Random azar) {
+        emails = new String[CONSULTAS];
+        apellidos = new String[CONSULTAS];
+        for (int i = 0; i < CONSULTAS; i++) {
+            emails[i] = DatosSinteticos.email(1 + azar.nextInt(tamanio));
+            apellidos[i] = DatosSinteticos.apellido(azar.nextInt(DatosSinteticos.cantidadApellidos()));
+        }
+    }
+
+    @Benchmark
+    public Object findByEmail(Hilo hilo) {
+        return repositorio.findByEmail(emails[hilo.consulta()]);
+    }
+
+    @Benchmark
+    public Object findByNombreContaining(Hilo hilo) {
+        return repositorio.findByNombreContaining(apellidos[hilo.consulta()]);
+    }
+
+    @Benchmark
+    public Object findByEstado() {
+        return repositorio.findByEstado(EstadoUsuario.SUSPENDIDO);
+    }
+
+    @Benchmark
+    public void streamByEstado(Blackhole bh) {
+        repositorio.streamByEstado(EstadoUsuario.SUSPENDIDO).forEach(bh::consume);
+    }
+}
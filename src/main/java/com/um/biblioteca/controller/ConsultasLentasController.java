@@ -0,0 +1,31 @@
+package com.um.biblioteca.controller;
+
+import com.um.biblioteca.metricas.RegistroConsultasLentas;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Expone las consultas lentas a los repositorios y los registros que
+ * recorre cada método, para encontrar accesos que no usan un índice
+ */
+@RestController
+@RequestMapping("/api/admin")
+@ConditionalOnProperty(prefix = "biblioteca.consultas-lentas", name = "habilitado", havingValue = "true", matchIfMissing = true)
+public class ConsultasLentasController {
+
+    private final RegistroConsultasLentas registro;
+
+    @Autowired
+    public ConsultasLentasController(RegistroConsultasLentas registro) {
+        this.registro = registro;
+    }
+
+    @GetMapping("/slow-queries")
+    public ResponseEntity<RegistroConsultasLentas.Informe> consultasLentas() {
+        return ResponseEntity.ok(registro.informe());
+    }
+}
@@ -0,0 +1,132 @@
+package com.um.biblioteca.controller;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonUnwrapped;
+import com.fasterxml.jackson.annotation.JsonValue;
+import com.um.biblioteca.exception.DatosInvalidosException;
+import com.um.biblioteca.model.Libro;
+import com.um.biblioteca.model.Prestamo;
+import com.um.biblioteca.model.ResolutorReferencias;
+import com.um.biblioteca.model.Usuario;
+import com.um.biblioteca.repository.Pagina;
+import com.um.biblioteca.repository.PaginaCursor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+import java.util.List;
+
+/**
+ * Proyección de las respuestas de {@link PrestamoController}: por defecto
+ * cada préstamo sólo incluye libroId y usuarioId, y con
+ * ?expand=libro,usuario se agregan el libro y el usuario vigentes,
+ * resueltos por ID.
+ * Se aplica a préstamos sueltos, listas y páginas.
+ */
+@ControllerAdvice(assignableTypes = PrestamoController.class)
+public class ExpansionPrestamos implements ResponseBodyAdvice<Object> {
+    
+    static final String PARAMETRO = "expand";
+    
+    private final ResolutorReferencias referencias;
+    
+    /**
+     * @param referencias Resolutor de libros y usuarios; se obtiene recién al
+     *                    expandir, para no exigir los repositorios en cada controlador
+     */
+    @Autowired
+    public ExpansionPrestamos(@Lazy ResolutorReferencias referencias) {
+        this.referencias = referencias;
+    }
+    
+    /**
+     * Préstamo con sus referencias expandidas; las no pedidas se omiten
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    record PrestamoExpandido(@JsonUnwrapped Prestamo prestamo, Libro libro, Usuario usuario) {
+    }
+    
+    /**
+     * Lista de préstamos expandidos. Reemplaza a las List&lt;Prestamo&gt; del
+     * cuerpo: con una lista, Jackson escribiría cada elemento con el
+     * serializador del tipo declarado por el controlador (Prestamo) y no con
+     * el de PrestamoExpandido.
+     */
+    record ListaExpandida(@JsonValue List<Object> prestamos) {
+    }
+    
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return MappingJackson2HttpMessageConverter.class.isAssignableFrom(converterType);
+    }
+    
+    @Override
+    public Object beforeBodyWrite(Object cuerpo, MethodParameter returnType, MediaType selectedContentType,
+                                  Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        if (!(request instanceof ServletServerHttpRequest servlet)) {
+            return cuerpo;
+        }
+        String[] valores = servlet.getServletRequest().getParameterValues(PARAMETRO);
+        if (valores == null || !expandible(cuerpo)) {
+            return cuerpo;
+        }
+        
+        boolean libro = false;
+        boolean usuario = false;
+        for (String valor : valores) {
+            for (String campo : valor.split(",")) {
+                switch (campo.trim()) {
+                    case "libro" -> libro = true;
+                    case "usuario" -> usuario = true;
+                    case "" -> { }
+                    default -> throw new DatosInvalidosException(PARAMETRO, "sólo admite 'libro' y 'usuario'");
+                }
+            }
+        }
+        return libro || usuario ? expandir(cuerpo, libro, usuario) : cuerpo;
+    }
+    
+    /**
+     * Reemplaza los préstamos del cuerpo por su versión expandida
+     * @param cuerpo Préstamo, lista o página de préstamos
+     * @param libro Si se incluye el libro
+     * @param usuario Si se incluye el usuario
+     * @return Cuerpo con los préstamos expandidos
+     */
+    Object expandir(Object cuerpo, boolean libro, boolean usuario) {
+        if (cuerpo instanceof Prestamo prestamo) {
+            return new PrestamoExpandido(prestamo,
+                    libro && prestamo.libroId() != null ? referencias.libro(prestamo.libroId()) : null,
+                    usuario && prestamo.usuarioId() != null ? referencias.usuario(prestamo.usuarioId()) : null);
+        }
+        if (cuerpo instanceof List<?> lista) {
+            return new ListaExpandida(expandirTodos(lista, libro, usuario));
+        }
+        if (cuerpo instanceof Pagina<?> pagina) {
+            return new Pagina<>(expandirTodos(pagina.getContenido(), libro, usuario),
+                    pagina.getPagina(), pagina.getTamanio(), pagina.getTotalElementos());
+        }
+        if (cuerpo instanceof PaginaCursor<?> pagina) {
+            return new PaginaCursor<>(expandirTodos(pagina.getContenido(), libro, usuario), pagina.getSiguienteCursor());
+        }
+        return cuerpo;
+    }
+    
+    private List<Object> expandirTodos(List<?> elementos, boolean libro, boolean usuario) {
+        return elementos.stream().map(elemento -> expandir(elemento, libro, usuario)).toList();
+    }
+    
+    private static boolean expandible(Object cuerpo) {
+        return cuerpo instanceof Prestamo || cuerpo instanceof List<?>
+                || cuerpo instanceof Pagina<?> || cuerpo instanceof PaginaCursor<?>;
+    }
+}
@@ -1,12 +1,17 @@
 package com.um.biblioteca.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.um.biblioteca.model.EstadoLibro;
 import com.um.biblioteca.model.Libro;
+import com.um.biblioteca.repository.Pagina;
+import com.um.biblioteca.repository.PaginaCursor;
 import com.um.biblioteca.service.LibroService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 
@@ -15,10 +20,12 @@ import java.util.List;
 public class LibroController {
     
     private final LibroService libroService;
+    private final ObjectMapper objectMapper;
     
     @Autowired
-    public LibroController(LibroService libroService) {
+    public LibroController(LibroService libroService, ObjectMapper objectMapper) {
         this.libroService = libroService;
+        this.objectMapper = objectMapper;
     }
     
     @GetMapping
@@ -27,21 +34,46 @@ public class LibroController {
         return ResponseEntity.ok(libros);
     }
     
+    @GetMapping(params = "pagina")
+    public ResponseEntity<Pagina<Libro>> obtenerPagina(
+            @RequestParam int pagina,
+            @RequestParam(defaultValue = Paginacion.TAMANIO_POR_DEFECTO) int tamanio) {
+        Pagina<Libro> resultado = libroService.obtenerPagina(pagina, tamanio);
+        return ResponseEntity.ok(resultado);
+    }
+    
+    @GetMapping(params = {"limite", "!pagina"})
+    public ResponseEntity<PaginaCursor<Libro>> obtenerDesde(
+            @RequestParam(required = false) Long despuesDe,
+            @RequestParam int limite) {
+        PaginaCursor<Libro> resultado = libroService.obtenerDesde(despuesDe, limite);
+        return Paginacion.conEnlaceSiguiente(resultado);
+    }
+    
+    @GetMapping(value = "/exportar", produces = Ndjson.MEDIA_TYPE)
+    public ResponseEntity<StreamingResponseBody> exportar(@RequestParam(required = false) EstadoLibro estado) {
+        return Ndjson.respuesta(libroService.exportar(estado), objectMapper);
+    }
+    
     @GetMapping("/{id}")
     public ResponseEntity<Libro> obtenerPorId(@PathVariable Long id) {
         Libro libro = libroService.buscarPorId(id);
-        return ResponseEntity.ok(libro);
+        return Versionado.conEtag(HttpStatus.OK, libro, libro.version());
     }
     
     @GetMapping("/isbn/{isbn}")
     public ResponseEntity<Libro> obtenerPorIsbn(@PathVariable String isbn) {
         Libro libro = libroService.buscarPorIsbn(isbn);
-        return ResponseEntity.ok(libro);
+        return Versionado.conEtag(HttpStatus.OK, libro, libro.version());
     }
     
     @GetMapping("/titulo/{titulo}")
-    public ResponseEntity<List<Libro>> buscarPorTitulo(@PathVariable String titulo) {
-        List<Libro> libros = libroService.buscarPorTitulo(titulo);
+    public ResponseEntity<List<Libro>> buscarPorTitulo(
+            @PathVariable String titulo,
+            @RequestParam(required = false) EstadoLibro estado) {
+        List<Libro> libros = estado != null
+                ? libroService.buscarPorTitulo(titulo, estado)
+                : libroService.buscarPorTitulo(titulo);
         return ResponseEntity.ok(libros);
     }
     
@@ -60,13 +92,22 @@ public class LibroController {
     @PostMapping
     public ResponseEntity<Libro> crear(@RequestBody Libro libro) {
         Libro nuevoLibro = libroService.guardar(libro);
-        return new ResponseEntity<>(nuevoLibro, HttpStatus.CREATED);
+        return Versionado.conEtag(HttpStatus.CREATED, nuevoLibro, nuevoLibro.version());
     }
     
     @PutMapping("/{id}")
     public ResponseEntity<Libro> actualizar(@PathVariable Long id, @RequestBody Libro libro) {
         Libro libroActualizado = libroService.actualizar(id, libro);
-        return ResponseEntity.ok(libroActualizado);
+        return Versionado.conEtag(HttpStatus.OK, libroActualizado, libroActualizado.version());
+    }
+    
+    @PutMapping(value = "/{id}", headers = HttpHeaders.IF_MATCH)
+    public ResponseEntity<Libro> actualizarSiCoincide(
+            @PathVariable Long id,
+            @RequestBody Libro libro,
+            @RequestHeader(HttpHeaders.IF_MATCH) String ifMatch) {
+        Libro libroActualizado = libroService.actualizar(id, libro, Versionado.versionEsperada(ifMatch));
+        return Versionado.conEtag(HttpStatus.OK, libroActualizado, libroActualizado.version());
     }
     
     @PatchMapping("/{id}/estado")
@@ -74,7 +115,7 @@ public class LibroController {
             @PathVariable Long id, 
             @RequestParam EstadoLibro estado) {
         Libro libro = libroService.cambiarEstado(id, estado);
-        return ResponseEntity.ok(libro);
+        return Versionado.conEtag(HttpStatus.OK, libro, libro.version());
     }
     
     @DeleteMapping("/{id}")
@@ -0,0 +1,33 @@
+package com.um.biblioteca.controller;
+
+import com.um.biblioteca.metricas.RegistroMetricas;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Expone las métricas en la ruta que usan los recolectores de Prometheus
+ * con Spring Boot Actuator
+ */
+@RestController
+@RequestMapping("/actuator")
+@ConditionalOnProperty(prefix = "biblioteca.metricas", name = "habilitadas", havingValue = "true", matchIfMissing = true)
+public class MetricasController {
+
+    static final String FORMATO_PROMETHEUS = "text/plain;version=0.0.4;charset=utf-8";
+
+    private final RegistroMetricas registro;
+
+    @Autowired
+    public MetricasController(RegistroMetricas registro) {
+        this.registro = registro;
+    }
+
+    @GetMapping(value = "/prometheus", produces = FORMATO_PROMETHEUS)
+    public ResponseEntity<String> prometheus() {
+        return ResponseEntity.ok(registro.escribir());
+    }
+}
@@ -0,0 +1,47 @@
+package com.um.biblioteca.controller;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Arma las respuestas de exportación en formato NDJSON (un objeto JSON por línea)
+ */
+final class Ndjson {
+    
+    static final String MEDIA_TYPE = "application/x-ndjson";
+    
+    private Ndjson() {
+    }
+    
+    /**
+     * Devuelve una respuesta que escribe cada elemento directamente en la salida
+     * a medida que se recorre el stream, con memoria constante
+     * @param elementos Stream perezoso de elementos a exportar
+     * @param objectMapper ObjectMapper de la aplicación
+     * @return Respuesta 200 en formato NDJSON
+     */
+    static <T> ResponseEntity<StreamingResponseBody> respuesta(Stream<T> elementos, ObjectMapper objectMapper) {
+        ObjectWriter writer = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        StreamingResponseBody cuerpo = salida -> {
+            try (Stream<T> stream = elementos;
+                 JsonGenerator generador = objectMapper.getFactory().createGenerator(salida)) {
+                Iterator<T> iterador = stream.iterator();
+                while (iterador.hasNext()) {
+                    writer.writeValue(generador, iterador.next());
+                    generador.writeRaw('\n');
+                }
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(MEDIA_TYPE))
+                .body(cuerpo);
+    }
+}
@@ -0,0 +1,34 @@
+package com.um.biblioteca.controller;
+
+import com.um.biblioteca.repository.PaginaCursor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+/**
+ * Arma las respuestas paginadas por cursor de los controladores
+ */
+final class Paginacion {
+    
+    static final String TAMANIO_POR_DEFECTO = "50";
+    
+    private Paginacion() {
+    }
+    
+    /**
+     * Devuelve la página con un encabezado Link rel="next" hacia la página
+     * siguiente, si existe
+     * @param pagina Página obtenida
+     * @return Respuesta 200 con la página
+     */
+    static <T> ResponseEntity<PaginaCursor<T>> conEnlaceSiguiente(PaginaCursor<T> pagina) {
+        ResponseEntity.BodyBuilder respuesta = ResponseEntity.ok();
+        if (pagina.getSiguienteCursor() != null) {
+            String siguiente = ServletUriComponentsBuilder.fromCurrentRequest()
+                    .replaceQueryParam("despuesDe", pagina.getSiguienteCursor())
+                    .toUriString();
+            respuesta.header(HttpHeaders.LINK, "<" + siguiente + ">; rel=\"next\"");
+        }
+        return respuesta.body(pagina);
+    }
+}
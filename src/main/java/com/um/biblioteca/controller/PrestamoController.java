@@ -1,8 +1,12 @@
 package com.um.biblioteca.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.um.biblioteca.exception.DatosInvalidosException;
 import com.um.biblioteca.model.Libro;
 import com.um.biblioteca.model.Prestamo;
 import com.um.biblioteca.model.Usuario;
+import com.um.biblioteca.repository.Pagina;
+import com.um.biblioteca.repository.PaginaCursor;
 import com.um.biblioteca.service.PrestamoService;
 import com.um.biblioteca.service.LibroService;
 import com.um.biblioteca.service.UsuarioService;
@@ -11,6 +15,7 @@ import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.time.LocalDate;
 import java.util.List;
@@ -22,12 +27,15 @@ public class PrestamoController {
     private final PrestamoService prestamoService;
     private final UsuarioService usuarioService;
     private final LibroService libroService;
+    private final ObjectMapper objectMapper;
     
     @Autowired
-    public PrestamoController(PrestamoService prestamoService, UsuarioService usuarioService, LibroService libroService) {
+    public PrestamoController(PrestamoService prestamoService, UsuarioService usuarioService, LibroService libroService,
+                              ObjectMapper objectMapper) {
         this.prestamoService = prestamoService;
         this.usuarioService = usuarioService;
         this.libroService = libroService;
+        this.objectMapper = objectMapper;
     }
     
     @GetMapping
@@ -36,10 +44,33 @@ public class PrestamoController {
         return ResponseEntity.ok(prestamos);
     }
     
+    @GetMapping(params = "pagina")
+    public ResponseEntity<Pagina<Prestamo>> obtenerPagina(
+            @RequestParam int pagina,
+            @RequestParam(defaultValue = Paginacion.TAMANIO_POR_DEFECTO) int tamanio) {
+        Pagina<Prestamo> resultado = prestamoService.obtenerPagina(pagina, tamanio);
+        return ResponseEntity.ok(resultado);
+    }
+    
+    @GetMapping(params = {"limite", "!pagina"})
+    public ResponseEntity<PaginaCursor<Prestamo>> obtenerDesde(
+            @RequestParam(required = false) Long despuesDe,
+            @RequestParam int limite) {
+        PaginaCursor<Prestamo> resultado = prestamoService.obtenerDesde(despuesDe, limite);
+        return Paginacion.conEnlaceSiguiente(resultado);
+    }
+    
+    @GetMapping(value = "/exportar", produces = Ndjson.MEDIA_TYPE)
+    public ResponseEntity<StreamingResponseBody> exportar(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate desde,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate hasta) {
+        return Ndjson.respuesta(prestamoService.exportar(desde, hasta), objectMapper);
+    }
+    
     @GetMapping("/{id}")
     public ResponseEntity<Prestamo> obtenerPorId(@PathVariable Long id) {
         Prestamo prestamo = prestamoService.buscarPorId(id);
-        return ResponseEntity.ok(prestamo);
+        return Versionado.conEtag(HttpStatus.OK, prestamo, prestamo.version());
     }
     
     @GetMapping("/usuario/{usuarioId}")
@@ -63,6 +94,19 @@ public class PrestamoController {
         return ResponseEntity.ok(prestamos);
     }
     
+    @GetMapping("/rango")
+    public ResponseEntity<List<Prestamo>> buscarPorRango(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate desde,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate hasta,
+            @RequestParam(defaultValue = "prestamo") String campo) {
+        List<Prestamo> prestamos = switch (campo) {
+            case "prestamo" -> prestamoService.buscarPorRangoFechaPrestamo(desde, hasta);
+            case "devolucion" -> prestamoService.buscarPorRangoFechaDevolucion(desde, hasta);
+            default -> throw new DatosInvalidosException("campo", "debe ser 'prestamo' o 'devolucion'");
+        };
+        return ResponseEntity.ok(prestamos);
+    }
+    
     @GetMapping("/vencidos")
     public ResponseEntity<List<Prestamo>> buscarVencidos() {
         List<Prestamo> prestamos = prestamoService.buscarVencidos();
@@ -75,13 +119,13 @@ public class PrestamoController {
             @RequestParam Long libroId,
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fechaDevolucion) {
         Prestamo prestamo = prestamoService.crearPrestamo(usuarioId, libroId, fechaDevolucion);
-        return new ResponseEntity<>(prestamo, HttpStatus.CREATED);
+        return Versionado.conEtag(HttpStatus.CREATED, prestamo, prestamo.version());
     }
     
     @PatchMapping("/{id}/devolver")
     public ResponseEntity<Prestamo> finalizarPrestamo(@PathVariable Long id) {
         Prestamo prestamo = prestamoService.finalizarPrestamo(id);
-        return ResponseEntity.ok(prestamo);
+        return Versionado.conEtag(HttpStatus.OK, prestamo, prestamo.version());
     }
     
     @PatchMapping("/{id}/extender")
@@ -89,7 +133,7 @@ public class PrestamoController {
             @PathVariable Long id,
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate nuevaFechaDevolucion) {
         Prestamo prestamo = prestamoService.extenderPrestamo(id, nuevaFechaDevolucion);
-        return ResponseEntity.ok(prestamo);
+        return Versionado.conEtag(HttpStatus.OK, prestamo, prestamo.version());
     }
     
     @DeleteMapping("/{id}")
@@ -1,12 +1,17 @@
 package com.um.biblioteca.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.um.biblioteca.model.EstadoUsuario;
 import com.um.biblioteca.model.Usuario;
+import com.um.biblioteca.repository.Pagina;
+import com.um.biblioteca.repository.PaginaCursor;
 import com.um.biblioteca.service.UsuarioService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 
@@ -15,10 +20,12 @@ import java.util.List;
 public class UsuarioController {
     
     private final UsuarioService usuarioService;
+    private final ObjectMapper objectMapper;
     
     @Autowired
-    public UsuarioController(UsuarioService usuarioService) {
+    public UsuarioController(UsuarioService usuarioService, ObjectMapper objectMapper) {
         this.usuarioService = usuarioService;
+        this.objectMapper = objectMapper;
     }
     
     @GetMapping
@@ -27,16 +34,37 @@ public class UsuarioController {
         return ResponseEntity.ok(usuarios);
     }
     
+    @GetMapping(params = "pagina")
+    public ResponseEntity<Pagina<Usuario>> obtenerPagina(
+            @RequestParam int pagina,
+            @RequestParam(defaultValue = Paginacion.TAMANIO_POR_DEFECTO) int tamanio) {
+        Pagina<Usuario> resultado = usuarioService.obtenerPagina(pagina, tamanio);
+        return ResponseEntity.ok(resultado);
+    }
+    
+    @GetMapping(params = {"limite", "!pagina"})
+    public ResponseEntity<PaginaCursor<Usuario>> obtenerDesde(
+            @RequestParam(required = false) Long despuesDe,
+            @RequestParam int limite) {
+        PaginaCursor<Usuario> resultado = usuarioService.obtenerDesde(despuesDe, limite);
+        return Paginacion.conEnlaceSiguiente(resultado);
+    }
+    
+    @GetMapping(value = "/exportar", produces = Ndjson.MEDIA_TYPE)
+    public ResponseEntity<StreamingResponseBody> exportar(@RequestParam(required = false) EstadoUsuario estado) {
+        return Ndjson.respuesta(usuarioService.exportar(estado), objectMapper);
+    }
+    
     @GetMapping("/{id}")
     public ResponseEntity<Usuario> obtenerPorId(@PathVariable Long id) {
         Usuario usuario = usuarioService.buscarPorId(id);
-        return ResponseEntity.ok(usuario);
+        return Versionado.conEtag(HttpStatus.OK, usuario, usuario.version());
     }
     
     @GetMapping("/email/{email}")
     public ResponseEntity<Usuario> obtenerPorEmail(@PathVariable String email) {
         Usuario usuario = usuarioService.buscarPorEmail(email);
-        return ResponseEntity.ok(usuario);
+        return Versionado.conEtag(HttpStatus.OK, usuario, usuario.version());
     }
     
     @GetMapping("/nombre/{nombre}")
@@ -54,13 +82,22 @@ public class UsuarioController {
     @PostMapping
     public ResponseEntity<Usuario> crear(@RequestBody Usuario usuario) {
         Usuario nuevoUsuario = usuarioService.guardar(usuario);
-        return new ResponseEntity<>(nuevoUsuario, HttpStatus.CREATED);
+        return Versionado.conEtag(HttpStatus.CREATED, nuevoUsuario, nuevoUsuario.version());
     }
     
     @PutMapping("/{id}")
     public ResponseEntity<Usuario> actualizar(@PathVariable Long id, @RequestBody Usuario usuario) {
         Usuario usuarioActualizado = usuarioService.actualizar(id, usuario);
-        return ResponseEntity.ok(usuarioActualizado);
+        return Versionado.conEtag(HttpStatus.OK, usuarioActualizado, usuarioActualizado.version());
+    }
+    
+    @PutMapping(value = "/{id}", headers = HttpHeaders.IF_MATCH)
+    public ResponseEntity<Usuario> actualizarSiCoincide(
+            @PathVariable Long id,
+            @RequestBody Usuario usuario,
+            @RequestHeader(HttpHeaders.IF_MATCH) String ifMatch) {
+        Usuario usuarioActualizado = usuarioService.actualizar(id, usuario, Versionado.versionEsperada(ifMatch));
+        return Versionado.conEtag(HttpStatus.OK, usuarioActualizado, usuarioActualizado.version());
     }
     
     @PatchMapping("/{id}/estado")
@@ -68,7 +105,7 @@ public class UsuarioController {
             @PathVariable Long id, 
             @RequestParam EstadoUsuario estado) {
         Usuario usuario = usuarioService.cambiarEstado(id, estado);
-        return ResponseEntity.ok(usuario);
+        return Versionado.conEtag(HttpStatus.OK, usuario, usuario.version());
     }
     
     @DeleteMapping("/{id}")
@@ -0,0 +1,57 @@
+package com.um.biblioteca.controller;
+
+import com.um.biblioteca.exception.DatosInvalidosException;
+import com.um.biblioteca.exception.PrecondicionFallidaException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+/**
+ * Traduce entre la versión de las entidades y los encabezados ETag / If-Match
+ */
+final class Versionado {
+    
+    private Versionado() {
+    }
+    
+    /**
+     * Arma una respuesta con el ETag correspondiente a la versión de la entidad
+     * @param status Código de la respuesta
+     * @param cuerpo Entidad a devolver
+     * @param version Versión de la entidad
+     * @return Respuesta con encabezado ETag
+     */
+    static <T> ResponseEntity<T> conEtag(HttpStatus status, T cuerpo, Long version) {
+        ResponseEntity.BodyBuilder respuesta = ResponseEntity.status(status);
+        if (version != null) {
+            respuesta.eTag("\"" + version + "\"");
+        }
+        return respuesta.body(cuerpo);
+    }
+    
+    /**
+     * Obtiene la versión esperada a partir del encabezado If-Match
+     * @param ifMatch Valor del encabezado, por ejemplo "3"
+     * @return Versión esperada, o null si no se envió el encabezado o es "*"
+     * @throws PrecondicionFallidaException si el ETag es débil, ya que If-Match exige comparación fuerte
+     * @throws DatosInvalidosException si el valor no corresponde a un ETag de versión
+     */
+    static Long versionEsperada(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        
+        String etag = ifMatch.trim();
+        if (etag.startsWith("W/")) {
+            throw new PrecondicionFallidaException("If-Match no admite ETags débiles: " + etag);
+        }
+        if (etag.length() < 3 || !etag.startsWith("\"") || !etag.endsWith("\"")) {
+            throw new DatosInvalidosException("If-Match", "debe ser un ETag de la forma \"<versión>\"");
+        }
+        
+        try {
+            return Long.parseLong(etag.substring(1, etag.length() - 1));
+        } catch (NumberFormatException e) {
+            throw new DatosInvalidosException("If-Match", "debe ser un ETag de la forma \"<versión>\"");
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package com.um.biblioteca.exception;
+
+public class ConflictoDeVersionException extends BibliotecaException {
+    
+    public ConflictoDeVersionException(String mensaje) {
+        super(mensaje, 409);
+    }
+    
+    public ConflictoDeVersionException(Long id, Long versionEsperada, Long versionActual) {
+        super("El recurso con id " + id + " fue modificado por otra operación (versión esperada: "
+                + versionEsperada + ", versión actual: " + versionActual + ")", 409);
+    }
+}
@@ -1,5 +1,6 @@
 package com.um.biblioteca.exception;
 
+import com.um.biblioteca.jfr.EventoExcepcion;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ControllerAdvice;
@@ -17,7 +18,7 @@ public class GlobalExceptionHandler {
             ex.getMessage(),
             request.getDescription(false)
         );
-        return new ResponseEntity<>(apiError, HttpStatus.valueOf(ex.getStatus()));
+        return responder(ex, apiError, HttpStatus.valueOf(ex.getStatus()));
     }
     
     @ExceptionHandler(LibroNoEncontradoException.class)
@@ -28,7 +29,7 @@ public class GlobalExceptionHandler {
             ex.getMessage(),
             request.getDescription(false)
         );
-        return new ResponseEntity<>(apiError, HttpStatus.NOT_FOUND);
+        return responder(ex, apiError, HttpStatus.NOT_FOUND);
     }
     
     @ExceptionHandler(UsuarioNoEncontradoException.class)
@@ -39,7 +40,7 @@ public class GlobalExceptionHandler {
             ex.getMessage(),
             request.getDescription(false)
         );
-        return new ResponseEntity<>(apiError, HttpStatus.NOT_FOUND);
+        return responder(ex, apiError, HttpStatus.NOT_FOUND);
     }
     
     @ExceptionHandler(PrestamoNoEncontradoException.class)
@@ -50,7 +51,7 @@ public class GlobalExceptionHandler {
             ex.getMessage(),
             request.getDescription(false)
         );
-        return new ResponseEntity<>(apiError, HttpStatus.NOT_FOUND);
+        return responder(ex, apiError, HttpStatus.NOT_FOUND);
     }
     
     @ExceptionHandler(RecursoNoDisponibleException.class)
@@ -61,7 +62,40 @@ public class GlobalExceptionHandler {
             ex.getMessage(),
             request.getDescription(false)
         );
-        return new ResponseEntity<>(apiError, HttpStatus.CONFLICT);
+        return responder(ex, apiError, HttpStatus.CONFLICT);
+    }
+    
+    @ExceptionHandler(RecursoDuplicadoException.class)
+    public ResponseEntity<ApiError> handleRecursoDuplicadoException(RecursoDuplicadoException ex, WebRequest request) {
+        ApiError apiError = new ApiError(
+            409,
+            HttpStatus.CONFLICT.getReasonPhrase(),
+            ex.getMessage(),
+            request.getDescription(false)
+        );
+        return responder(ex, apiError, HttpStatus.CONFLICT);
+    }
+    
+    @ExceptionHandler(ConflictoDeVersionException.class)
+    public ResponseEntity<ApiError> handleConflictoDeVersionException(ConflictoDeVersionException ex, WebRequest request) {
+        ApiError apiError = new ApiError(
+            409,
+            HttpStatus.CONFLICT.getReasonPhrase(),
+            ex.getMessage(),
+            request.getDescription(false)
+        );
+        return responder(ex, apiError, HttpStatus.CONFLICT);
+    }
+    
+    @ExceptionHandler(PrecondicionFallidaException.class)
+    public ResponseEntity<ApiError> handlePrecondicionFallidaException(PrecondicionFallidaException ex, WebRequest request) {
+        ApiError apiError = new ApiError(
+            412,
+            HttpStatus.PRECONDITION_FAILED.getReasonPhrase(),
+            ex.getMessage(),
+            request.getDescription(false)
+        );
+        return responder(ex, apiError, HttpStatus.PRECONDITION_FAILED);
     }
     
     @ExceptionHandler(DatosInvalidosException.class)
@@ -72,7 +106,18 @@ public class GlobalExceptionHandler {
             ex.getMessage(),
             request.getDescription(false)
         );
-        return new ResponseEntity<>(apiError, HttpStatus.BAD_REQUEST);
+        return responder(ex, apiError, HttpStatus.BAD_REQUEST);
+    }
+    
+    @ExceptionHandler(PersistenciaException.class)
+    public ResponseEntity<ApiError> handlePersistenciaException(PersistenciaException ex, WebRequest request) {
+        ApiError apiError = new ApiError(
+            500,
+            HttpStatus.INTERNAL_SERVER_ERROR.getReasonPhrase(),
+            ex.getMessage(),
+            request.getDescription(false)
+        );
+        return responder(ex, apiError, HttpStatus.INTERNAL_SERVER_ERROR);
     }
     
     @ExceptionHandler(Exception.class)
@@ -83,6 +128,14 @@ public class GlobalExceptionHandler {
             "Ocurrió un error inesperado: " + ex.getMessage(),
             request.getDescription(false)
         );
-        return new ResponseEntity<>(apiError, HttpStatus.INTERNAL_SERVER_ERROR);
+        return responder(ex, apiError, HttpStatus.INTERNAL_SERVER_ERROR);
+    }
+    
+    /**
+     * Registra la excepción en la grabación de JFR en curso y arma la respuesta
+     */
+    private static ResponseEntity<ApiError> responder(Exception ex, ApiError apiError, HttpStatus estado) {
+        EventoExcepcion.registrar(ex, estado.value());
+        return new ResponseEntity<>(apiError, estado);
     }
-} 
\ No newline at end of file
+}
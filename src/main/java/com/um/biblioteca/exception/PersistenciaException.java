@@ -0,0 +1,12 @@
+package com.um.biblioteca.exception;
+
+public class PersistenciaException extends BibliotecaException {
+    
+    public PersistenciaException(String mensaje) {
+        super(mensaje, 500);
+    }
+    
+    public PersistenciaException(String mensaje, Throwable causa) {
+        super(mensaje + ": " + causa.getMessage(), causa, 500);
+    }
+}
@@ -0,0 +1,8 @@
+package com.um.biblioteca.exception;
+
+public class PrecondicionFallidaException extends BibliotecaException {
+    
+    public PrecondicionFallidaException(String mensaje) {
+        super(mensaje, 412);
+    }
+}
@@ -0,0 +1,12 @@
+package com.um.biblioteca.exception;
+
+public class RecursoDuplicadoException extends BibliotecaException {
+    
+    public RecursoDuplicadoException(String mensaje) {
+        super(mensaje, 409);
+    }
+    
+    public RecursoDuplicadoException(String recurso, String campo, Object valor) {
+        super("Ya existe un " + recurso + " con " + campo + ": " + valor, 409);
+    }
+}
@@ -0,0 +1,68 @@
+package com.um.biblioteca.jfr;
+
+import com.um.biblioteca.metricas.Resultados;
+import com.um.biblioteca.metricas.Solicitud;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * Llamada a un método de repositorio, con la cantidad de registros que
+ * examinó y la cantidad que devolvió. Por defecto sólo se registran las
+ * llamadas que duran al menos 1 ms; el umbral se cambia en la configuración
+ * de la grabación.
+ */
+@Name("com.um.biblioteca.ConsultaRepositorio")
+@Label("Consulta a repositorio")
+@Category({"Biblioteca", "Repositorios"})
+@Description("Llamada a un método de repositorio con los registros examinados y devueltos")
+@Threshold("1 ms")
+@StackTrace(false)
+public class EventoConsultaRepositorio extends Event {
+
+    @Label("Repositorio")
+    String repositorio;
+
+    @Label("Método")
+    String metodo;
+
+    @Label("Resultados")
+    @Description("Entidades devueltas, o -1 si el método devuelve un Stream")
+    long resultados;
+
+    @Label("Registros recorridos")
+    @Description("Entradas de índice y entidades examinadas para resolver la consulta")
+    long registrosRecorridos;
+
+    @Label("Excepción")
+    String excepcion;
+
+    @Label("Solicitud")
+    String solicitud;
+
+    /**
+     * Completa y confirma el evento si supera el umbral de la grabación
+     * @param repositorio Nombre del repositorio
+     * @param metodo Nombre del método
+     * @param resultado Valor devuelto por el método
+     * @param registrosRecorridos Registros examinados durante la llamada
+     * @param error Excepción lanzada por el método, o null
+     */
+    void registrar(String repositorio, String metodo, Object resultado, long registrosRecorridos, Throwable error) {
+        end();
+        if (!shouldCommit()) {
+            return;
+        }
+        this.repositorio = repositorio;
+        this.metodo = metodo;
+        this.resultados = error == null ? Resultados.contar(resultado) : 0;
+        this.registrosRecorridos = registrosRecorridos;
+        this.excepcion = error != null ? error.getClass().getName() : null;
+        this.solicitud = Solicitud.actual();
+        commit();
+    }
+}
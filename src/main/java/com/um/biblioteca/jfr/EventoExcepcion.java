@@ -0,0 +1,51 @@
+package com.um.biblioteca.jfr;
+
+import com.um.biblioteca.metricas.Solicitud;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Excepción convertida en una respuesta de error por el manejador global
+ */
+@Name("com.um.biblioteca.Excepcion")
+@Label("Excepción atendida")
+@Category({"Biblioteca", "Errores"})
+@Description("Excepción que terminó una solicitud con una respuesta de error")
+@StackTrace(false)
+public class EventoExcepcion extends Event {
+
+    @Label("Tipo")
+    String tipo;
+
+    @Label("Mensaje")
+    String mensaje;
+
+    @Label("Estado HTTP")
+    int estado;
+
+    @Label("Solicitud")
+    String solicitud;
+
+    private EventoExcepcion() {
+    }
+
+    /**
+     * Registra la excepción si la grabación en curso incluye el evento
+     * @param error Excepción atendida
+     * @param estado Código de estado HTTP de la respuesta
+     */
+    public static void registrar(Throwable error, int estado) {
+        EventoExcepcion evento = new EventoExcepcion();
+        if (evento.shouldCommit()) {
+            evento.tipo = error.getClass().getName();
+            evento.mensaje = error.getMessage();
+            evento.estado = estado;
+            evento.solicitud = Solicitud.actual();
+            evento.commit();
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.um.biblioteca.jfr;
+
+import com.um.biblioteca.metricas.Solicitud;
+import com.um.biblioteca.model.Prestamo;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Creación, devolución o extensión de un préstamo. Se registra también
+ * cuando la operación falla, con la excepción que la interrumpió.
+ */
+@Name("com.um.biblioteca.Prestamo")
+@Label("Préstamo")
+@Category({"Biblioteca", "Préstamos"})
+@Description("Creación, devolución o extensión de un préstamo")
+@StackTrace(false)
+public class EventoPrestamo extends Event {
+
+    public static final String CREACION = "creacion";
+    public static final String DEVOLUCION = "devolucion";
+    public static final String EXTENSION = "extension";
+
+    @Label("Operación")
+    String operacion;
+
+    @Label("ID del préstamo")
+    long prestamoId;
+
+    @Label("ID del libro")
+    long libroId;
+
+    @Label("ID del usuario")
+    long usuarioId;
+
+    @Label("Excepción")
+    String excepcion;
+
+    @Label("Solicitud")
+    String solicitud;
+
+    private EventoPrestamo() {
+    }
+
+    /**
+     * Inicia la medición de una operación sobre un préstamo
+     * @param operacion {@link #CREACION}, {@link #DEVOLUCION} o {@link #EXTENSION}
+     * @param prestamoId ID del préstamo, o null si todavía no existe
+     * @param libroId ID del libro, o null si todavía no se conoce
+     * @param usuarioId ID del usuario, o null si todavía no se conoce
+     */
+    public static EventoPrestamo iniciar(String operacion, Long prestamoId, Long libroId, Long usuarioId) {
+        EventoPrestamo evento = new EventoPrestamo();
+        evento.operacion = operacion;
+        evento.prestamoId = id(prestamoId);
+        evento.libroId = id(libroId);
+        evento.usuarioId = id(usuarioId);
+        evento.begin();
+        return evento;
+    }
+
+    /**
+     * Confirma el evento de una operación terminada
+     * @param prestamo Préstamo resultante
+     * @return El mismo préstamo
+     */
+    public Prestamo terminar(Prestamo prestamo) {
+        end();
+        if (shouldCommit()) {
+            prestamoId = id(prestamo.id());
+            libroId = id(prestamo.libroId());
+            usuarioId = id(prestamo.usuarioId());
+            solicitud = Solicitud.actual();
+            commit();
+        }
+        return prestamo;
+    }
+
+    /**
+     * Confirma el evento de una operación que lanzó una excepción
+     * @param error Excepción lanzada
+     */
+    public void fallar(Throwable error) {
+        end();
+        if (shouldCommit()) {
+            excepcion = error.getClass().getName();
+            solicitud = Solicitud.actual();
+            commit();
+        }
+    }
+
+    private static long id(Long id) {
+        return id != null ? id : 0;
+    }
+}
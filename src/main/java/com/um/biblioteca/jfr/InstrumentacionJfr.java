@@ -0,0 +1,76 @@
+package com.um.biblioteca.jfr;
+
+import com.um.biblioteca.metricas.Instrumentacion;
+import com.um.biblioteca.repository.Recorrido;
+import com.um.biblioteca.repository.persistencia.RepositorioPersistente;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.Method;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Emite un {@link EventoConsultaRepositorio} por cada llamada a los métodos
+ * de las interfaces de repositorio. Mientras no haya una grabación de JFR
+ * que incluya el evento, el interceptor sólo comprueba que está
+ * deshabilitado y continúa la llamada.
+ */
+@Component
+@ConditionalOnProperty(prefix = "biblioteca.jfr", name = "habilitado", havingValue = "true", matchIfMissing = true)
+public class InstrumentacionJfr implements BeanPostProcessor {
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        Class<?> clase = Instrumentacion.claseObjetivo(bean);
+        if (!Instrumentacion.esServicioORepositorio(clase)) {
+            return bean;
+        }
+
+        List<Method> metodos = Instrumentacion.metodosDeRepositorio(clase);
+        if (metodos.isEmpty()) {
+            return bean;
+        }
+        String repositorio = Instrumentacion.objetivo(bean) instanceof RepositorioPersistente<?> persistente
+                ? persistente.nombreRepositorio()
+                : clase.getSimpleName();
+        return Instrumentacion.envolver(bean, new Interceptor(repositorio, Set.copyOf(metodos)));
+    }
+
+    private static final class Interceptor implements MethodInterceptor {
+
+        private final String repositorio;
+        private final Set<Method> metodos;
+
+        Interceptor(String repositorio, Set<Method> metodos) {
+            this.repositorio = repositorio;
+            this.metodos = metodos;
+        }
+
+        @Override
+        public Object invoke(MethodInvocation invocacion) throws Throwable {
+            EventoConsultaRepositorio evento = new EventoConsultaRepositorio();
+            if (!evento.isEnabled() || !metodos.contains(invocacion.getMethod())) {
+                return invocacion.proceed();
+            }
+
+            long inicio = Recorrido.iniciar();
+            evento.begin();
+            Object resultado = null;
+            Throwable error = null;
+            try {
+                resultado = invocacion.proceed();
+                return resultado;
+            } catch (Throwable e) {
+                error = e;
+                throw e;
+            } finally {
+                evento.registrar(repositorio, invocacion.getMethod().getName(), resultado,
+                        Recorrido.desde(inicio), error);
+            }
+        }
+    }
+}
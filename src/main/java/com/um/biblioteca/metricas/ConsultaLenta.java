@@ -0,0 +1,18 @@
+package com.um.biblioteca.metricas;
+
+import java.time.Instant;
+
+/**
+ * Llamada a un repositorio que superó el umbral de duración
+ * @param instante Momento en que terminó; para un Stream, cuando se cerró
+ * @param repositorio Nombre del repositorio
+ * @param metodo Nombre del método
+ * @param duracionMs Duración en milisegundos; para un Stream, hasta que se cerró
+ * @param registrosRecorridos Entradas de índice y entidades examinadas
+ * @param resultados Entidades devueltas; para un Stream, las que entregó
+ * @param excepcion Clase de la excepción lanzada, o null
+ * @param solicitud Solicitud HTTP que la originó, o null
+ */
+public record ConsultaLenta(Instant instante, String repositorio, String metodo, double duracionMs,
+                            long registrosRecorridos, long resultados, String excepcion, String solicitud) {
+}
@@ -0,0 +1,36 @@
+package com.um.biblioteca.metricas;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Configuración del registro de consultas lentas (prefijo biblioteca.consultas-lentas)
+ */
+@ConfigurationProperties(prefix = "biblioteca.consultas-lentas")
+public class ConsultasLentasProperties {
+    
+    /**
+     * Duración a partir de la cual una llamada a un repositorio se registra como lenta
+     */
+    private long umbralMs = 10;
+    
+    /**
+     * Cantidad de consultas lentas que se conservan; al llenarse se descartan las más antiguas
+     */
+    private int capacidad = 256;
+    
+    public long getUmbralMs() {
+        return umbralMs;
+    }
+    
+    public void setUmbralMs(long umbralMs) {
+        this.umbralMs = umbralMs;
+    }
+    
+    public int getCapacidad() {
+        return capacidad;
+    }
+    
+    public void setCapacidad(int capacidad) {
+        this.capacidad = capacidad;
+    }
+}
@@ -0,0 +1,95 @@
+package com.um.biblioteca.metricas;
+
+import com.um.biblioteca.repository.BaseRepository;
+import com.um.biblioteca.service.LibroService;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.springframework.aop.framework.Advised;
+import org.springframework.aop.framework.AopProxyUtils;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.stereotype.Repository;
+import org.springframework.stereotype.Service;
+import org.springframework.util.ClassUtils;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Operaciones comunes a los post-procesadores que instrumentan servicios y
+ * repositorios. Cada uno agrega su interceptor al mismo proxy: si otro ya
+ * envolvió el bean, el interceptor se suma a ese proxy en lugar de crear
+ * uno encima.
+ */
+public final class Instrumentacion {
+
+    private static final String PAQUETE_SERVICIOS = LibroService.class.getPackageName();
+    private static final String PAQUETE_REPOSITORIOS = BaseRepository.class.getPackageName();
+
+    private Instrumentacion() {
+    }
+
+    /**
+     * Objeto envuelto si el bean ya es un proxy, o el mismo bean si no lo es
+     */
+    public static Object objetivo(Object bean) {
+        Object objetivo = AopProxyUtils.getSingletonTarget(bean);
+        return objetivo != null ? objetivo : bean;
+    }
+
+    /**
+     * Clase del bean, o del objeto envuelto si el bean ya es un proxy
+     */
+    public static Class<?> claseObjetivo(Object bean) {
+        return AopUtils.getTargetClass(bean);
+    }
+
+    /**
+     * Indica si la clase está anotada con {@code @Service} o {@code @Repository}
+     */
+    public static boolean esServicioORepositorio(Class<?> clase) {
+        return AnnotatedElementUtils.hasAnnotation(clase, Service.class)
+                || AnnotatedElementUtils.hasAnnotation(clase, Repository.class);
+    }
+
+    /**
+     * Métodos de las interfaces de servicio (paquete service) que implementa la clase
+     */
+    public static List<Method> metodosDeServicio(Class<?> clase) {
+        return metodosDeInterfaces(clase, PAQUETE_SERVICIOS);
+    }
+
+    /**
+     * Métodos de las interfaces de repositorio (paquete repository) que implementa la clase
+     */
+    public static List<Method> metodosDeRepositorio(Class<?> clase) {
+        return metodosDeInterfaces(clase, PAQUETE_REPOSITORIOS);
+    }
+
+    /**
+     * Agrega un interceptor al bean
+     * @param bean Bean a envolver; puede ser un proxy creado por otro post-procesador
+     * @param interceptor Interceptor a agregar al final de la cadena
+     * @return El mismo proxy si el bean ya lo era, o un proxy nuevo sobre el bean
+     */
+    public static Object envolver(Object bean, MethodInterceptor interceptor) {
+        if (bean instanceof Advised proxy && !proxy.isFrozen()) {
+            proxy.addAdvice(interceptor);
+            return bean;
+        }
+        ProxyFactory proxy = new ProxyFactory(bean);
+        proxy.addAdvice(interceptor);
+        return proxy.getProxy(claseObjetivo(bean).getClassLoader());
+    }
+
+    private static List<Method> metodosDeInterfaces(Class<?> clase, String paquete) {
+        List<Method> metodos = new ArrayList<>();
+        for (Class<?> interfaz : ClassUtils.getAllInterfacesForClassAsSet(clase)) {
+            if (interfaz.getPackageName().equals(paquete)) {
+                metodos.addAll(List.of(interfaz.getMethods()));
+            }
+        }
+        return metodos;
+    }
+}
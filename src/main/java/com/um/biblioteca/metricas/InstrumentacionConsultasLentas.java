@@ -0,0 +1,185 @@
+package com.um.biblioteca.metricas;
+
+import com.um.biblioteca.repository.Recorrido;
+import com.um.biblioteca.repository.persistencia.RepositorioPersistente;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.Method;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Agrega a cada repositorio un interceptor que mide las llamadas a los
+ * métodos de sus interfaces de repositorio (los de {@code BaseRepository}
+ * y las búsquedas propias) y las registra en {@link RegistroConsultasLentas}.
+ * Por llamada lee el reloj y el contador de {@code Recorrido} del hilo, antes
+ * y después, e incrementa los contadores del método.
+ * <p>
+ * Un Stream se recorre después de que el método devuelve, así que se mide
+ * al cerrarse: la duración va desde la llamada hasta el cierre, y se cuentan
+ * los registros que examinó y las entidades que entregó mientras se
+ * consumía. Un Stream que nunca se cierra no se registra.
+ */
+@Component
+@ConditionalOnProperty(prefix = "biblioteca.consultas-lentas", name = "habilitado", havingValue = "true", matchIfMissing = true)
+public class InstrumentacionConsultasLentas implements BeanPostProcessor {
+
+    /**
+     * Se obtiene al procesar el primer bean: inyectarlo directamente lo
+     * crearía junto con este post-procesador, antes que los demás
+     */
+    private final ObjectProvider<RegistroConsultasLentas> registro;
+
+    @Autowired
+    public InstrumentacionConsultasLentas(ObjectProvider<RegistroConsultasLentas> registro) {
+        this.registro = registro;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        Class<?> clase = Instrumentacion.claseObjetivo(bean);
+        if (!Instrumentacion.esServicioORepositorio(clase)) {
+            return bean;
+        }
+
+        RegistroConsultasLentas registro = this.registro.getObject();
+        String repositorio = Instrumentacion.objetivo(bean) instanceof RepositorioPersistente<?> persistente
+                ? persistente.nombreRepositorio()
+                : clase.getSimpleName();
+        Map<Method, RegistroConsultasLentas.Metodo> metodos = new HashMap<>();
+        for (Method metodo : Instrumentacion.metodosDeRepositorio(clase)) {
+            metodos.put(metodo, registro.metodo(repositorio, metodo.getName()));
+        }
+        if (metodos.isEmpty()) {
+            return bean;
+        }
+        return Instrumentacion.envolver(bean, new Interceptor(registro, Map.copyOf(metodos)));
+    }
+
+    private static final class Interceptor implements MethodInterceptor {
+
+        private final RegistroConsultasLentas registro;
+        private final Map<Method, RegistroConsultasLentas.Metodo> metodos;
+
+        Interceptor(RegistroConsultasLentas registro, Map<Method, RegistroConsultasLentas.Metodo> metodos) {
+            this.registro = registro;
+            this.metodos = metodos;
+        }
+
+        @Override
+        public Object invoke(MethodInvocation invocacion) throws Throwable {
+            RegistroConsultasLentas.Metodo metodo = metodos.get(invocacion.getMethod());
+            if (metodo == null) {
+                return invocacion.proceed();
+            }
+
+            long recorridoInicial = Recorrido.iniciar();
+            long inicio = System.nanoTime();
+            Object resultado;
+            try {
+                resultado = invocacion.proceed();
+            } catch (Throwable e) {
+                registro.registrar(metodo, System.nanoTime() - inicio, Recorrido.desde(recorridoInicial), null, e);
+                throw e;
+            }
+            if (resultado instanceof Stream<?> stream) {
+                return StreamMedido.medir(stream, registro, metodo, inicio, Recorrido.desde(recorridoInicial));
+            }
+            registro.registrar(metodo, System.nanoTime() - inicio, Recorrido.desde(recorridoInicial),
+                    resultado, null);
+            return resultado;
+        }
+    }
+
+    /**
+     * Recorre un Stream devuelto por un repositorio contando, en cada avance,
+     * los registros que examina la fuente antes de entregar el elemento: el
+     * trabajo de quien lo consume queda fuera. Registra la llamada al cerrarse.
+     */
+    private static final class StreamMedido<T> implements Spliterator<T>, Runnable {
+
+        private final Spliterator<T> fuente;
+        private final RegistroConsultasLentas registro;
+        private final RegistroConsultasLentas.Metodo metodo;
+        private final long inicio;
+        private final String solicitud;
+        private long registrosRecorridos;
+        private long resultados;
+        private long inicioPaso;
+        private Throwable error;
+        private boolean registrado;
+
+        private StreamMedido(Spliterator<T> fuente, RegistroConsultasLentas registro,
+                             RegistroConsultasLentas.Metodo metodo, long inicio, long registrosRecorridos) {
+            this.fuente = fuente;
+            this.registro = registro;
+            this.metodo = metodo;
+            this.inicio = inicio;
+            this.registrosRecorridos = registrosRecorridos;
+            this.solicitud = Solicitud.actual();
+        }
+
+        static <T> Stream<T> medir(Stream<T> stream, RegistroConsultasLentas registro,
+                                   RegistroConsultasLentas.Metodo metodo, long inicio, long registrosRecorridos) {
+            StreamMedido<T> medido = new StreamMedido<>(stream.spliterator(), registro, metodo, inicio,
+                    registrosRecorridos);
+            return StreamSupport.stream(medido, false).onClose(stream::close).onClose(medido);
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super T> accion) {
+            inicioPaso = Recorrido.iniciar();
+            boolean avanzo;
+            try {
+                avanzo = fuente.tryAdvance(elemento -> {
+                    registrosRecorridos += Recorrido.desde(inicioPaso);
+                    resultados++;
+                    accion.accept(elemento);
+                    inicioPaso = Recorrido.iniciar();
+                });
+            } catch (RuntimeException | Error e) {
+                error = e;
+                throw e;
+            }
+            registrosRecorridos += Recorrido.desde(inicioPaso);
+            return avanzo;
+        }
+
+        @Override
+        public Spliterator<T> trySplit() {
+            return null;
+        }
+
+        @Override
+        public long estimateSize() {
+            return fuente.estimateSize();
+        }
+
+        @Override
+        public int characteristics() {
+            return fuente.characteristics();
+        }
+
+        /**
+         * Registra la llamada al cerrarse el Stream
+         */
+        @Override
+        public void run() {
+            if (!registrado) {
+                registrado = true;
+                registro.registrarStream(metodo, System.nanoTime() - inicio, registrosRecorridos, resultados,
+                        error, solicitud);
+            }
+        }
+    }
+}
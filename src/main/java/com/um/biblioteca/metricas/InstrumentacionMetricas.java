@@ -0,0 +1,158 @@
+package com.um.biblioteca.metricas;
+
+import com.um.biblioteca.repository.impl.AbstractInMemoryRepository;
+import com.um.biblioteca.repository.persistencia.RepositorioPersistente;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Mide los servicios y repositorios: agrega a cada bean anotado con
+ * {@code @Service} o {@code @Repository} un interceptor que registra la
+ * duración de cada llamada a los métodos de sus interfaces de servicio
+ * (paquete service) o de repositorio (paquete repository), y cuenta las
+ * llamadas que terminan en excepción por tipo de excepción. Los demás
+ * métodos, como los de {@link RepositorioPersistente} que usa la
+ * persistencia, pasan por el proxy sin medirse.
+ * <p>
+ * De los repositorios en memoria registra además la cantidad de entidades
+ * y las consultas y aciertos de cada índice secundario.
+ * <p>
+ * Los métodos que devuelven un Stream se miden hasta que lo devuelven, sin
+ * incluir su consumo.
+ */
+@Component
+@ConditionalOnProperty(prefix = "biblioteca.metricas", name = "habilitadas", havingValue = "true", matchIfMissing = true)
+public class InstrumentacionMetricas implements BeanPostProcessor {
+
+    static final String DURACION = "biblioteca_metodo_seconds";
+    static final String ERRORES = "biblioteca_metodo_errores_total";
+    static final String ENTIDADES = "biblioteca_repositorio_entidades";
+    static final String CONSULTAS_INDICE = "biblioteca_indice_consultas_total";
+    static final String ACIERTOS_INDICE = "biblioteca_indice_aciertos_total";
+
+    /**
+     * Se obtiene al procesar el primer bean: inyectarlo directamente lo
+     * crearía junto con este post-procesador, antes que los demás
+     */
+    private final ObjectProvider<RegistroMetricas> registro;
+
+    @Autowired
+    public InstrumentacionMetricas(ObjectProvider<RegistroMetricas> registro) {
+        this.registro = registro;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        Class<?> clase = Instrumentacion.claseObjetivo(bean);
+        if (!Instrumentacion.esServicioORepositorio(clase)) {
+            return bean;
+        }
+
+        RegistroMetricas registro = this.registro.getObject();
+        if (Instrumentacion.objetivo(bean) instanceof AbstractInMemoryRepository<?> repositorio) {
+            registrarRepositorio(registro, repositorio);
+        }
+
+        Map<Method, MetricasMetodo> metodos = new HashMap<>();
+        List<Method> medidos = new ArrayList<>(Instrumentacion.metodosDeServicio(clase));
+        medidos.addAll(Instrumentacion.metodosDeRepositorio(clase));
+        for (Method metodo : medidos) {
+            metodos.put(metodo, new MetricasMetodo(registro, clase.getSimpleName(), metodo.getName()));
+        }
+        if (metodos.isEmpty()) {
+            return bean;
+        }
+        return Instrumentacion.envolver(bean, new Interceptor(Map.copyOf(metodos)));
+    }
+
+    private static void registrarRepositorio(RegistroMetricas registro, AbstractInMemoryRepository<?> repositorio) {
+        String nombre = repositorio.nombreRepositorio();
+        registro.medidor(ENTIDADES, "Entidades almacenadas en el repositorio",
+                repositorio::tamanioActual, "repositorio", nombre);
+        repositorio.estadisticasIndices().forEach((indice, estadisticas) -> {
+            registro.contadorFuncion(CONSULTAS_INDICE, "Consultas al índice secundario",
+                    estadisticas::consultas, "repositorio", nombre, "indice", indice);
+            registro.contadorFuncion(ACIERTOS_INDICE, "Consultas al índice secundario que encontraron algún ID",
+                    estadisticas::aciertos, "repositorio", nombre, "indice", indice);
+        });
+    }
+
+    /**
+     * Temporizador y contadores de error de un método. Se registran con la
+     * primera llamada y con la primera excepción de cada tipo, para no
+     * exponer series vacías de los métodos que no se usan.
+     */
+    private static final class MetricasMetodo {
+
+        private final RegistroMetricas registro;
+        private final String clase;
+        private final String metodo;
+        private volatile Temporizador temporizador;
+        private final ConcurrentMap<Class<?>, LongAdder> errores = new ConcurrentHashMap<>();
+
+        MetricasMetodo(RegistroMetricas registro, String clase, String metodo) {
+            this.registro = registro;
+            this.clase = clase;
+            this.metodo = metodo;
+        }
+
+        void registrarDuracion(long nanos) {
+            Temporizador actual = temporizador;
+            if (actual == null) {
+                // Dos hilos pueden llegar a la vez: el registro devuelve a ambos la misma serie
+                actual = registro.temporizador(DURACION, "Duración de las llamadas a servicios y repositorios",
+                        "clase", clase, "metodo", metodo);
+                temporizador = actual;
+            }
+            actual.registrar(nanos);
+        }
+
+        void registrarError(Throwable error) {
+            errores.computeIfAbsent(error.getClass(), tipo -> registro.contador(ERRORES,
+                    "Llamadas a servicios y repositorios que terminaron en excepción",
+                    "clase", clase, "metodo", metodo, "excepcion", tipo.getSimpleName()))
+                    .increment();
+        }
+    }
+
+    private static final class Interceptor implements MethodInterceptor {
+
+        private final Map<Method, MetricasMetodo> metodos;
+
+        Interceptor(Map<Method, MetricasMetodo> metodos) {
+            this.metodos = metodos;
+        }
+
+        @Override
+        public Object invoke(MethodInvocation invocacion) throws Throwable {
+            MetricasMetodo metricas = metodos.get(invocacion.getMethod());
+            if (metricas == null) {
+                return invocacion.proceed();
+            }
+
+            long inicio = System.nanoTime();
+            try {
+                return invocacion.proceed();
+            } catch (Throwable e) {
+                metricas.registrarError(e);
+                throw e;
+            } finally {
+                metricas.registrarDuracion(System.nanoTime() - inicio);
+            }
+        }
+    }
+}
@@ -0,0 +1,196 @@
+package com.um.biblioteca.metricas;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Registro de las llamadas a repositorios que superan un umbral de
+ * duración, con los registros que recorrieron y los que devolvieron,
+ * junto con los totales de cada método.
+ * <p>
+ * Las consultas lentas se guardan en un búfer circular de capacidad fija:
+ * al llenarse, cada nueva reemplaza a la más antigua. Para una llamada por
+ * debajo del umbral el registro sólo incrementa los contadores de su
+ * método y no reserva memoria; el proxy que la intercepta sí crea su
+ * invocación y el arreglo de argumentos.
+ */
+@Component
+@EnableConfigurationProperties(ConsultasLentasProperties.class)
+@ConditionalOnProperty(prefix = "biblioteca.consultas-lentas", name = "habilitado", havingValue = "true", matchIfMissing = true)
+public class RegistroConsultasLentas {
+
+    private final long umbralNanos;
+    private final AtomicReferenceArray<ConsultaLenta> consultas;
+    private final AtomicLong siguiente = new AtomicLong();
+    private final ConcurrentMap<String, Metodo> metodos = new ConcurrentHashMap<>();
+
+    @Autowired
+    public RegistroConsultasLentas(ConsultasLentasProperties propiedades) {
+        if (propiedades.getUmbralMs() < 0) {
+            throw new IllegalArgumentException("El umbral de consultas lentas no puede ser negativo");
+        }
+        if (propiedades.getCapacidad() < 1) {
+            throw new IllegalArgumentException("La capacidad del registro de consultas lentas debe ser positiva");
+        }
+        this.umbralNanos = TimeUnit.MILLISECONDS.toNanos(propiedades.getUmbralMs());
+        this.consultas = new AtomicReferenceArray<>(propiedades.getCapacidad());
+    }
+
+    /**
+     * Obtiene los contadores de un método, creándolos la primera vez. Los
+     * métodos sobrecargados comparten contadores.
+     * @param repositorio Nombre del repositorio
+     * @param metodo Nombre del método
+     */
+    public Metodo metodo(String repositorio, String metodo) {
+        return metodos.computeIfAbsent(repositorio + '.' + metodo, clave -> new Metodo(repositorio, metodo));
+    }
+
+    /**
+     * Registra una llamada terminada
+     * @param metodo Contadores del método llamado
+     * @param nanos Duración de la llamada
+     * @param registrosRecorridos Registros examinados durante la llamada
+     * @param resultado Valor devuelto, o null si lanzó una excepción
+     * @param error Excepción lanzada, o null
+     */
+    public void registrar(Metodo metodo, long nanos, long registrosRecorridos, Object resultado, Throwable error) {
+        long resultados = error == null ? Resultados.contar(resultado) : 0;
+        if (contar(metodo, nanos, registrosRecorridos, resultados)) {
+            guardar(metodo, nanos, registrosRecorridos, resultados, error, Solicitud.actual());
+        }
+    }
+
+    /**
+     * Registra una llamada que devolvió un Stream, una vez que el Stream se cerró
+     * @param metodo Contadores del método llamado
+     * @param nanos Tiempo desde la llamada hasta el cierre del Stream
+     * @param registrosRecorridos Registros examinados durante la llamada y al consumir el Stream
+     * @param resultados Entidades que entregó el Stream
+     * @param error Excepción lanzada al consumirlo, o null
+     * @param solicitud Solicitud HTTP que hizo la llamada; el Stream puede cerrarse en otro hilo
+     */
+    public void registrarStream(Metodo metodo, long nanos, long registrosRecorridos, long resultados,
+                                Throwable error, String solicitud) {
+        if (contar(metodo, nanos, registrosRecorridos, resultados)) {
+            guardar(metodo, nanos, registrosRecorridos, resultados, error, solicitud);
+        }
+    }
+
+    /**
+     * Suma una llamada a los totales de su método
+     * @return true si la llamada alcanzó el umbral
+     */
+    private boolean contar(Metodo metodo, long nanos, long registrosRecorridos, long resultados) {
+        metodo.llamadas.increment();
+        metodo.registrosRecorridos.add(registrosRecorridos);
+        if (resultados > 0) {
+            metodo.resultados.add(resultados);
+        }
+        if (nanos < umbralNanos) {
+            return false;
+        }
+        metodo.lentas.increment();
+        return true;
+    }
+
+    private void guardar(Metodo metodo, long nanos, long registrosRecorridos, long resultados,
+                         Throwable error, String solicitud) {
+        ConsultaLenta consulta = new ConsultaLenta(Instant.now(), metodo.repositorio, metodo.metodo,
+                nanos / 1_000_000.0, registrosRecorridos, resultados,
+                error != null ? error.getClass().getName() : null, solicitud);
+        long posicion = siguiente.getAndIncrement();
+        consultas.set((int) (posicion % consultas.length()), consulta);
+    }
+
+    /**
+     * Consultas lentas conservadas, de la más reciente a la más antigua.
+     * Las que se registran mientras se leen pueden aparecer o no.
+     */
+    public List<ConsultaLenta> recientes() {
+        int capacidad = consultas.length();
+        long fin = siguiente.get();
+        List<ConsultaLenta> resultado = new ArrayList<>();
+        for (long posicion = fin - 1; posicion >= Math.max(0, fin - capacidad); posicion--) {
+            ConsultaLenta consulta = consultas.get((int) (posicion % capacidad));
+            if (consulta != null) {
+                resultado.add(consulta);
+            }
+        }
+        return resultado;
+    }
+
+    /**
+     * Totales de los métodos llamados al menos una vez, de los que más
+     * registros recorrieron a los que menos
+     */
+    public List<ResumenMetodo> resumen() {
+        return metodos.values().stream()
+                .filter(metodo -> metodo.llamadas.sum() > 0)
+                .map(Metodo::resumir)
+                .sorted(Comparator.comparingLong(ResumenMetodo::registrosRecorridos).reversed())
+                .toList();
+    }
+
+    /**
+     * Umbral, capacidad, consultas lentas recientes y totales por método
+     */
+    public Informe informe() {
+        return new Informe(TimeUnit.NANOSECONDS.toMillis(umbralNanos), consultas.length(), recientes(), resumen());
+    }
+
+    /**
+     * Contadores de las llamadas a un método de repositorio
+     */
+    public static final class Metodo {
+
+        private final String repositorio;
+        private final String metodo;
+        private final LongAdder llamadas = new LongAdder();
+        private final LongAdder lentas = new LongAdder();
+        private final LongAdder registrosRecorridos = new LongAdder();
+        private final LongAdder resultados = new LongAdder();
+
+        private Metodo(String repositorio, String metodo) {
+            this.repositorio = repositorio;
+            this.metodo = metodo;
+        }
+
+        private ResumenMetodo resumir() {
+            return new ResumenMetodo(repositorio, metodo, llamadas.sum(), lentas.sum(),
+                    registrosRecorridos.sum(), resultados.sum());
+        }
+    }
+
+    /**
+     * Totales de un método de repositorio
+     * @param registrosRecorridos Registros examinados por todas sus llamadas
+     * @param resultados Entidades devueltas por todas sus llamadas
+     */
+    public record ResumenMetodo(String repositorio, String metodo, long llamadas, long lentas,
+                                long registrosRecorridos, long resultados) {
+    }
+
+    /**
+     * Estado del registro que expone la API
+     * @param umbralMs Duración a partir de la cual una llamada es lenta
+     * @param capacidad Cantidad de consultas lentas que se conservan
+     * @param consultas Consultas lentas, de la más reciente a la más antigua
+     * @param metodos Totales por método, de los que más registros recorrieron a los que menos
+     */
+    public record Informe(long umbralMs, int capacidad, List<ConsultaLenta> consultas, List<ResumenMetodo> metodos) {
+    }
+}
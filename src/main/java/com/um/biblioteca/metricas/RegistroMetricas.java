@@ -0,0 +1,190 @@
+package com.um.biblioteca.metricas;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.DoubleSupplier;
+import java.util.function.LongSupplier;
+
+/**
+ * Registro de las métricas de la aplicación, que las expone en el formato
+ * de texto de Prometheus (versión 0.0.4).
+ * <p>
+ * Cada métrica es una familia con nombre, tipo y descripción, y tiene una
+ * serie por combinación de etiquetas. Las series se crean una sola vez, al
+ * pedirlas por primera vez, y quien las usa guarda la referencia, así que
+ * actualizar un valor no busca en el registro ni reserva memoria. Los
+ * medidores y contadores de función no guardan valores: leen el suyo al
+ * exponer las métricas.
+ * <p>
+ * Se desactiva con biblioteca.metricas.habilitadas=false.
+ */
+@Component
+@ConditionalOnProperty(prefix = "biblioteca.metricas", name = "habilitadas", havingValue = "true", matchIfMissing = true)
+public class RegistroMetricas {
+
+    /**
+     * Serie de una familia, que escribe sus propias muestras
+     */
+    interface Serie {
+
+        /**
+         * @param nombre Nombre de la familia
+         * @param etiquetas Etiquetas ya formateadas, sin llaves (vacío si no tiene)
+         */
+        void escribir(String nombre, String etiquetas, StringBuilder salida);
+    }
+
+    private enum Tipo {
+        COUNTER, GAUGE, HISTOGRAM
+    }
+
+    private record Familia(Tipo tipo, String ayuda, ConcurrentMap<String, Serie> series) {
+    }
+
+    private record Contador(LongAdder valor) implements Serie {
+
+        @Override
+        public void escribir(String nombre, String etiquetas, StringBuilder salida) {
+            muestra(salida, nombre, etiquetas, Long.toString(valor.sum()));
+        }
+    }
+
+    private record ContadorFuncion(LongSupplier valor) implements Serie {
+
+        @Override
+        public void escribir(String nombre, String etiquetas, StringBuilder salida) {
+            muestra(salida, nombre, etiquetas, Long.toString(valor.getAsLong()));
+        }
+    }
+
+    private record Medidor(DoubleSupplier valor) implements Serie {
+
+        @Override
+        public void escribir(String nombre, String etiquetas, StringBuilder salida) {
+            muestra(salida, nombre, etiquetas, numero(valor.getAsDouble()));
+        }
+    }
+
+    private final ConcurrentMap<String, Familia> familias = new ConcurrentSkipListMap<>();
+
+    /**
+     * Obtiene o crea un histograma de duraciones
+     * @param nombre Nombre de la familia, terminado en _seconds
+     * @param ayuda Descripción de la familia
+     * @param etiquetas Pares nombre, valor
+     */
+    public Temporizador temporizador(String nombre, String ayuda, String... etiquetas) {
+        return (Temporizador) familia(nombre, Tipo.HISTOGRAM, ayuda).series()
+                .computeIfAbsent(etiquetas(etiquetas), clave -> new Temporizador());
+    }
+
+    /**
+     * Obtiene o crea un contador
+     * @param nombre Nombre de la familia, terminado en _total
+     * @param ayuda Descripción de la familia
+     * @param etiquetas Pares nombre, valor
+     */
+    public LongAdder contador(String nombre, String ayuda, String... etiquetas) {
+        return ((Contador) familia(nombre, Tipo.COUNTER, ayuda).series()
+                .computeIfAbsent(etiquetas(etiquetas), clave -> new Contador(new LongAdder()))).valor();
+    }
+
+    /**
+     * Registra un contador cuyo valor se lee de otro objeto al exponer las
+     * métricas; reemplaza la serie anterior con las mismas etiquetas
+     * @param nombre Nombre de la familia, terminado en _total
+     * @param ayuda Descripción de la familia
+     * @param valor Valor acumulado, que nunca decrece
+     * @param etiquetas Pares nombre, valor
+     */
+    public void contadorFuncion(String nombre, String ayuda, LongSupplier valor, String... etiquetas) {
+        familia(nombre, Tipo.COUNTER, ayuda).series().put(etiquetas(etiquetas), new ContadorFuncion(valor));
+    }
+
+    /**
+     * Registra un medidor cuyo valor se lee al exponer las métricas;
+     * reemplaza la serie anterior con las mismas etiquetas
+     * @param nombre Nombre de la familia
+     * @param ayuda Descripción de la familia
+     * @param valor Valor actual
+     * @param etiquetas Pares nombre, valor
+     */
+    public void medidor(String nombre, String ayuda, DoubleSupplier valor, String... etiquetas) {
+        familia(nombre, Tipo.GAUGE, ayuda).series().put(etiquetas(etiquetas), new Medidor(valor));
+    }
+
+    /**
+     * @return Todas las métricas en el formato de texto de Prometheus,
+     * ordenadas por nombre de familia y etiquetas
+     */
+    public String escribir() {
+        StringBuilder salida = new StringBuilder();
+        familias.forEach((nombre, familia) -> {
+            salida.append("# HELP ").append(nombre).append(' ').append(familia.ayuda()).append('\n');
+            salida.append("# TYPE ").append(nombre).append(' ').append(familia.tipo().name().toLowerCase()).append('\n');
+            familia.series().forEach((etiquetas, serie) -> serie.escribir(nombre, etiquetas, salida));
+        });
+        return salida.toString();
+    }
+
+    /**
+     * @throws IllegalArgumentException si la familia ya existe con otro tipo
+     */
+    private Familia familia(String nombre, Tipo tipo, String ayuda) {
+        Familia familia = familias.computeIfAbsent(nombre,
+                clave -> new Familia(tipo, ayuda, new ConcurrentSkipListMap<>()));
+        if (familia.tipo() != tipo) {
+            throw new IllegalArgumentException("La métrica " + nombre + " ya está registrada como " + familia.tipo());
+        }
+        return familia;
+    }
+
+    /**
+     * Formatea las etiquetas como {@code a="1",b="2"}, escapando los valores
+     * @param pares Nombre y valor de cada etiqueta, alternados
+     */
+    static String etiquetas(String... pares) {
+        if (pares.length % 2 != 0) {
+            throw new IllegalArgumentException("Las etiquetas deben ser pares nombre, valor");
+        }
+        StringBuilder resultado = new StringBuilder();
+        for (int i = 0; i < pares.length; i += 2) {
+            if (i > 0) {
+                resultado.append(',');
+            }
+            resultado.append(pares[i]).append("=\"");
+            for (char c : pares[i + 1].toCharArray()) {
+                switch (c) {
+                    case '\\' -> resultado.append("\\\\");
+                    case '"' -> resultado.append("\\\"");
+                    case '\n' -> resultado.append("\\n");
+                    default -> resultado.append(c);
+                }
+            }
+            resultado.append('"');
+        }
+        return resultado.toString();
+    }
+
+    static void muestra(StringBuilder salida, String nombre, String etiquetas, String valor) {
+        salida.append(nombre);
+        if (!etiquetas.isEmpty()) {
+            salida.append('{').append(etiquetas).append('}');
+        }
+        salida.append(' ').append(valor).append('\n');
+    }
+
+    static String numero(double valor) {
+        if (Double.isNaN(valor)) {
+            return "NaN";
+        }
+        if (Double.isInfinite(valor)) {
+            return valor > 0 ? "+Inf" : "-Inf";
+        }
+        return Double.toString(valor);
+    }
+}
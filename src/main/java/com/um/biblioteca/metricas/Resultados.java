@@ -0,0 +1,44 @@
+package com.um.biblioteca.metricas;
+
+import com.um.biblioteca.repository.Pagina;
+import com.um.biblioteca.repository.PaginaCursor;
+
+import java.util.Collection;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * Cuenta las entidades que devuelve un método de repositorio
+ */
+public final class Resultados {
+
+    private Resultados() {
+    }
+
+    /**
+     * @param resultado Valor devuelto por el método
+     * @return Cantidad de entidades; 0 para los métodos sin valor o que
+     *         devuelven un número o un booleano, y -1 para un Stream
+     */
+    public static long contar(Object resultado) {
+        if (resultado == null || resultado instanceof Number || resultado instanceof Boolean) {
+            return 0;
+        }
+        if (resultado instanceof Collection<?> coleccion) {
+            return coleccion.size();
+        }
+        if (resultado instanceof Optional<?> opcional) {
+            return opcional.isPresent() ? 1 : 0;
+        }
+        if (resultado instanceof Pagina<?> pagina) {
+            return pagina.getContenido().size();
+        }
+        if (resultado instanceof PaginaCursor<?> pagina) {
+            return pagina.getContenido().size();
+        }
+        if (resultado instanceof Stream<?>) {
+            return -1;
+        }
+        return 1;
+    }
+}
@@ -0,0 +1,29 @@
+package com.um.biblioteca.metricas;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+/**
+ * Identifica la solicitud HTTP que atiende el hilo actual, para poder
+ * relacionar cada evento con el endpoint que lo originó
+ */
+public final class Solicitud {
+
+    private Solicitud() {
+    }
+
+    /**
+     * Método y URI de la solicitud en curso, por ejemplo {@code GET /api/libros}
+     * @return Descripción de la solicitud, o null si el hilo no atiende ninguna
+     */
+    public static String actual() {
+        RequestAttributes atributos = RequestContextHolder.getRequestAttributes();
+        if (atributos instanceof ServletRequestAttributes servlet) {
+            HttpServletRequest solicitud = servlet.getRequest();
+            return solicitud.getMethod() + " " + solicitud.getRequestURI();
+        }
+        return null;
+    }
+}
@@ -0,0 +1,83 @@
+package com.um.biblioteca.metricas;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Histograma de duraciones con cubetas fijas: una por cada potencia de dos
+ * de microsegundos entre 1 µs y 2^24 µs (unos 16,8 s), más la de desborde.
+ * Registrar una duración calcula el índice de la cubeta con una operación
+ * de bits e incrementa dos LongAdder, sin bloqueos ni reserva de memoria.
+ * Prometheus obtiene los percentiles a partir de las cubetas con
+ * histogram_quantile; cada percentil queda acotado por su cubeta, es decir,
+ * con un error de a lo sumo un factor de dos.
+ */
+public final class Temporizador implements RegistroMetricas.Serie {
+
+    /**
+     * Cantidad de cubetas con límite; la última cubeta no tiene límite (+Inf)
+     */
+    static final int LIMITES = 25;
+
+    private static final double SEGUNDOS_POR_MICRO = 1e-6;
+    private static final double SEGUNDOS_POR_NANO = 1e-9;
+
+    private final LongAdder[] cubetas = new LongAdder[LIMITES + 1];
+    private final LongAdder sumaNanos = new LongAdder();
+
+    Temporizador() {
+        for (int i = 0; i < cubetas.length; i++) {
+            cubetas[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * @param nanos Duración en nanosegundos
+     */
+    public void registrar(long nanos) {
+        long micros = (Math.max(nanos, 0) + 999) / 1000;
+        int indice = micros <= 1 ? 0 : Math.min(Long.SIZE - Long.numberOfLeadingZeros(micros - 1), LIMITES);
+        cubetas[indice].increment();
+        sumaNanos.add(nanos);
+    }
+
+    /**
+     * @return Cantidad de duraciones registradas
+     */
+    public long cantidad() {
+        long cantidad = 0;
+        for (LongAdder cubeta : cubetas) {
+            cantidad += cubeta.sum();
+        }
+        return cantidad;
+    }
+
+    /**
+     * @return Suma de las duraciones registradas, en segundos
+     */
+    public double sumaSegundos() {
+        return sumaNanos.sum() * SEGUNDOS_POR_NANO;
+    }
+
+    /**
+     * @param indice Índice de cubeta, entre 0 y {@link #LIMITES} - 1
+     * @return Límite superior (inclusivo) de la cubeta, en segundos
+     */
+    static double limite(int indice) {
+        return (1L << indice) * SEGUNDOS_POR_MICRO;
+    }
+
+    @Override
+    public void escribir(String nombre, String etiquetas, StringBuilder salida) {
+        String prefijo = etiquetas.isEmpty() ? "" : etiquetas + ",";
+        long acumulado = 0;
+        for (int i = 0; i < LIMITES; i++) {
+            acumulado += cubetas[i].sum();
+            RegistroMetricas.muestra(salida, nombre + "_bucket",
+                    prefijo + "le=\"" + limite(i) + "\"", Long.toString(acumulado));
+        }
+        acumulado += cubetas[LIMITES].sum();
+        RegistroMetricas.muestra(salida, nombre + "_bucket", prefijo + "le=\"+Inf\"", Long.toString(acumulado));
+        RegistroMetricas.muestra(salida, nombre + "_sum", etiquetas, RegistroMetricas.numero(sumaSegundos()));
+        RegistroMetricas.muestra(salida, nombre + "_count", etiquetas, Long.toString(acumulado));
+    }
+}
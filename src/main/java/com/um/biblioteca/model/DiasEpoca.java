@@ -0,0 +1,66 @@
+package com.um.biblioteca.model;
+
+import com.um.biblioteca.exception.DatosInvalidosException;
+
+import java.time.LocalDate;
+
+/**
+ * Conversión entre {@link LocalDate} y días desde la época (1970-01-01).
+ * El modelo, los índices y la persistencia guardan las fechas como int;
+ * las fechas sólo se construyen al exponerlas en la API.
+ */
+public final class DiasEpoca {
+
+    /**
+     * Marca de fecha ausente; es menor que cualquier fecha válida
+     */
+    public static final int SIN_FECHA = Integer.MIN_VALUE;
+
+    private DiasEpoca() {
+    }
+
+    /**
+     * Convierte una fecha a guardar
+     * @param campo Nombre del campo, para el mensaje de error
+     * @param fecha Fecha (null si no tiene)
+     * @return Días desde la época, o {@link #SIN_FECHA}
+     * @throws DatosInvalidosException si la fecha no entra en un int
+     */
+    public static int desde(String campo, LocalDate fecha) {
+        if (fecha == null) {
+            return SIN_FECHA;
+        }
+        long dia = fecha.toEpochDay();
+        if (dia <= SIN_FECHA || dia > Integer.MAX_VALUE) {
+            throw new DatosInvalidosException(campo, "está fuera del rango admitido");
+        }
+        return (int) dia;
+    }
+
+    /**
+     * Convierte un límite de consulta, saturando las fechas que no entran en
+     * un int; como ninguna fecha guardada cae fuera de ese rango, el
+     * resultado de la consulta no cambia
+     * @param fecha Límite de la consulta (no null)
+     * @return Días desde la época, acotados al rango de las fechas guardadas
+     */
+    public static int limite(LocalDate fecha) {
+        long dia = fecha.toEpochDay();
+        return (int) Math.max(SIN_FECHA + 1L, Math.min(Integer.MAX_VALUE, dia));
+    }
+
+    /**
+     * @param dia Días desde la época, o {@link #SIN_FECHA}
+     * @return Fecha correspondiente (null si no tiene)
+     */
+    public static LocalDate fecha(int dia) {
+        return dia != SIN_FECHA ? LocalDate.ofEpochDay(dia) : null;
+    }
+
+    /**
+     * @return Días desde la época de la fecha actual
+     */
+    public static int hoy() {
+        return (int) LocalDate.now().toEpochDay();
+    }
+}
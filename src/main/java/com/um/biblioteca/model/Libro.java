@@ -2,74 +2,48 @@ package com.um.biblioteca.model;
 
 import java.util.Objects;
 
-public class Libro {
-    
-    private Long id;
-    private String isbn;
-    private String titulo;
-    private String autor;
-    private EstadoLibro estado;
-    
-    public Libro() {
-        this.estado = EstadoLibro.DISPONIBLE;
-    }
-    
+/**
+ * Libro del catálogo. Es inmutable: para modificarlo se crea una copia con
+ * los métodos con*, que comparten con el original los campos no modificados.
+ */
+public record Libro(Long id, String isbn, String titulo, String autor, EstadoLibro estado, Long version) {
+
     public Libro(Long id, String isbn, String titulo, String autor) {
-        this.id = id;
-        this.isbn = isbn;
-        this.titulo = titulo;
-        this.autor = autor;
-        this.estado = EstadoLibro.DISPONIBLE;
+        this(id, isbn, titulo, autor, EstadoLibro.DISPONIBLE);
     }
-    
+
     public Libro(Long id, String isbn, String titulo, String autor, EstadoLibro estado) {
-        this.id = id;
-        this.isbn = isbn;
-        this.titulo = titulo;
-        this.autor = autor;
-        this.estado = estado;
-    }
-    
-    public Long getId() {
-        return id;
-    }
-    
-    public void setId(Long id) {
-        this.id = id;
+        this(id, isbn, titulo, autor, estado, null);
     }
-    
-    public String getIsbn() {
-        return isbn;
-    }
-    
-    public void setIsbn(String isbn) {
-        this.isbn = isbn;
-    }
-    
-    public String getTitulo() {
-        return titulo;
+
+    public Libro conId(Long id) {
+        return new Libro(id, isbn, titulo, autor, estado, version);
     }
-    
-    public void setTitulo(String titulo) {
-        this.titulo = titulo;
+
+    public Libro conIsbn(String isbn) {
+        return new Libro(id, isbn, titulo, autor, estado, version);
     }
-    
-    public String getAutor() {
-        return autor;
+
+    public Libro conTitulo(String titulo) {
+        return new Libro(id, isbn, titulo, autor, estado, version);
     }
-    
-    public void setAutor(String autor) {
-        this.autor = autor;
+
+    public Libro conAutor(String autor) {
+        return new Libro(id, isbn, titulo, autor, estado, version);
     }
-    
-    public EstadoLibro getEstado() {
-        return estado;
+
+    public Libro conEstado(EstadoLibro estado) {
+        return new Libro(id, isbn, titulo, autor, estado, version);
     }
-    
-    public void setEstado(EstadoLibro estado) {
-        this.estado = estado;
+
+    public Libro conVersion(Long version) {
+        return new Libro(id, isbn, titulo, autor, estado, version);
     }
-    
+
+    /**
+     * Dos libros son iguales si tienen el mismo ID e ISBN, aunque sean
+     * versiones distintas
+     */
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -78,20 +52,9 @@ public class Libro {
         return Objects.equals(id, libro.id) &&
                Objects.equals(isbn, libro.isbn);
     }
-    
+
     @Override
     public int hashCode() {
         return Objects.hash(id, isbn);
     }
-    
-    @Override
-    public String toString() {
-        return "Libro{" +
-                "id=" + id +
-                ", isbn='" + isbn + '\'' +
-                ", titulo='" + titulo + '\'' +
-                ", autor='" + autor + '\'' +
-                ", estado=" + estado +
-                '}';
-    }
-} 
\ No newline at end of file
+}
@@ -1,81 +1,82 @@
 package com.um.biblioteca.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
 import java.time.LocalDate;
 import java.util.Objects;
 
-public class Prestamo {
-    
-    private Long id;
-    private Libro libro;
-    private Usuario usuario;
-    private LocalDate fechaPrestamo;
-    private LocalDate fechaDevolucion;
-    
-    public Prestamo() {
-        this.fechaPrestamo = LocalDate.now();
-    }
-    
+/**
+ * Préstamo de un libro a un usuario. Es inmutable y referencia al libro y
+ * al usuario sólo por ID; las entidades vigentes se obtienen con un
+ * {@link ResolutorReferencias}.
+ * <p>
+ * Las fechas se guardan como días desde la época ({@link DiasEpoca}), así
+ * que compararlas es comparar ints; {@link #fechaPrestamo()} y
+ * {@link #fechaDevolucion()} construyen la fecha al exponerla.
+ */
+public record Prestamo(Long id, Long libroId, Long usuarioId,
+                       @JsonIgnore int diaPrestamo, @JsonIgnore int diaDevolucion, Long version) {
+
     public Prestamo(Long id, Libro libro, Usuario usuario) {
-        this.id = id;
-        this.libro = libro;
-        this.usuario = usuario;
-        this.fechaPrestamo = LocalDate.now();
         // Por defecto, el préstamo es por 15 días
-        this.fechaDevolucion = fechaPrestamo.plusDays(15);
+        this(id, libro, usuario, LocalDate.now(), LocalDate.now().plusDays(15));
     }
-    
+
     public Prestamo(Long id, Libro libro, Usuario usuario, LocalDate fechaPrestamo, LocalDate fechaDevolucion) {
-        this.id = id;
-        this.libro = libro;
-        this.usuario = usuario;
-        this.fechaPrestamo = fechaPrestamo;
-        this.fechaDevolucion = fechaDevolucion;
-    }
-    
-    public Long getId() {
-        return id;
+        this(id, libro != null ? libro.id() : null, usuario != null ? usuario.id() : null,
+                fechaPrestamo, fechaDevolucion, null);
     }
-    
-    public void setId(Long id) {
-        this.id = id;
+
+    public Prestamo(Long id, Long libroId, Long usuarioId,
+                    LocalDate fechaPrestamo, LocalDate fechaDevolucion, Long version) {
+        this(id, libroId, usuarioId,
+                DiasEpoca.desde("fechaPrestamo", fechaPrestamo),
+                DiasEpoca.desde("fechaDevolucion", fechaDevolucion), version);
     }
-    
-    public Libro getLibro() {
-        return libro;
+
+    @JsonProperty
+    public LocalDate fechaPrestamo() {
+        return DiasEpoca.fecha(diaPrestamo);
     }
-    
-    public void setLibro(Libro libro) {
-        this.libro = libro;
+
+    @JsonProperty
+    public LocalDate fechaDevolucion() {
+        return DiasEpoca.fecha(diaDevolucion);
     }
-    
-    public Usuario getUsuario() {
-        return usuario;
+
+    public Prestamo conId(Long id) {
+        return new Prestamo(id, libroId, usuarioId, diaPrestamo, diaDevolucion, version);
     }
-    
-    public void setUsuario(Usuario usuario) {
-        this.usuario = usuario;
+
+    public Prestamo conLibroId(Long libroId) {
+        return new Prestamo(id, libroId, usuarioId, diaPrestamo, diaDevolucion, version);
     }
-    
-    public LocalDate getFechaPrestamo() {
-        return fechaPrestamo;
+
+    public Prestamo conUsuarioId(Long usuarioId) {
+        return new Prestamo(id, libroId, usuarioId, diaPrestamo, diaDevolucion, version);
     }
-    
-    public void setFechaPrestamo(LocalDate fechaPrestamo) {
-        this.fechaPrestamo = fechaPrestamo;
+
+    public Prestamo conFechaPrestamo(LocalDate fechaPrestamo) {
+        return new Prestamo(id, libroId, usuarioId, DiasEpoca.desde("fechaPrestamo", fechaPrestamo), diaDevolucion, version);
     }
-    
-    public LocalDate getFechaDevolucion() {
-        return fechaDevolucion;
+
+    public Prestamo conFechaDevolucion(LocalDate fechaDevolucion) {
+        return new Prestamo(id, libroId, usuarioId, diaPrestamo, DiasEpoca.desde("fechaDevolucion", fechaDevolucion), version);
     }
-    
-    public void setFechaDevolucion(LocalDate fechaDevolucion) {
-        this.fechaDevolucion = fechaDevolucion;
+
+    public Prestamo conVersion(Long version) {
+        return new Prestamo(id, libroId, usuarioId, diaPrestamo, diaDevolucion, version);
     }
-    
+
     public boolean estaVencido() {
-        return fechaDevolucion != null && LocalDate.now().isAfter(fechaDevolucion);
+        return diaDevolucion != DiasEpoca.SIN_FECHA && diaDevolucion < DiasEpoca.hoy();
     }
-    
+
+    /**
+     * Dos préstamos son iguales si tienen el mismo ID, aunque sean versiones
+     * distintas
+     */
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -83,20 +84,9 @@ public class Prestamo {
         Prestamo prestamo = (Prestamo) o;
         return Objects.equals(id, prestamo.id);
     }
-    
+
     @Override
     public int hashCode() {
         return Objects.hash(id);
     }
-    
-    @Override
-    public String toString() {
-        return "Prestamo{" +
-                "id=" + id +
-                ", libro=" + libro +
-                ", usuario=" + usuario +
-                ", fechaPrestamo=" + fechaPrestamo +
-                ", fechaDevolucion=" + fechaDevolucion +
-                '}';
-    }
-} 
\ No newline at end of file
+}
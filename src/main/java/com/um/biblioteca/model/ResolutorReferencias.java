@@ -0,0 +1,19 @@
+package com.um.biblioteca.model;
+
+/**
+ * Resuelve por ID las entidades que un préstamo referencia
+ */
+public interface ResolutorReferencias {
+    
+    /**
+     * @param id ID del libro
+     * @return Libro vigente con ese ID
+     */
+    Libro libro(Long id);
+    
+    /**
+     * @param id ID del usuario
+     * @return Usuario vigente con ese ID
+     */
+    Usuario usuario(Long id);
+}
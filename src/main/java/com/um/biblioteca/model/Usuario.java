@@ -2,63 +2,44 @@ package com.um.biblioteca.model;
 
 import java.util.Objects;
 
-public class Usuario {
-    
-    private Long id;
-    private String nombre;
-    private String email;
-    private EstadoUsuario estado;
-    
-    public Usuario() {
-        this.estado = EstadoUsuario.ACTIVO;
-    }
-    
+/**
+ * Usuario de la biblioteca. Es inmutable: para modificarlo se crea una copia
+ * con los métodos con*.
+ */
+public record Usuario(Long id, String nombre, String email, EstadoUsuario estado, Long version) {
+
     public Usuario(Long id, String nombre, String email) {
-        this.id = id;
-        this.nombre = nombre;
-        this.email = email;
-        this.estado = EstadoUsuario.ACTIVO;
+        this(id, nombre, email, EstadoUsuario.ACTIVO);
     }
-    
+
     public Usuario(Long id, String nombre, String email, EstadoUsuario estado) {
-        this.id = id;
-        this.nombre = nombre;
-        this.email = email;
-        this.estado = estado;
-    }
-    
-    public Long getId() {
-        return id;
+        this(id, nombre, email, estado, null);
     }
-    
-    public void setId(Long id) {
-        this.id = id;
-    }
-    
-    public String getNombre() {
-        return nombre;
-    }
-    
-    public void setNombre(String nombre) {
-        this.nombre = nombre;
+
+    public Usuario conId(Long id) {
+        return new Usuario(id, nombre, email, estado, version);
     }
-    
-    public String getEmail() {
-        return email;
+
+    public Usuario conNombre(String nombre) {
+        return new Usuario(id, nombre, email, estado, version);
     }
-    
-    public void setEmail(String email) {
-        this.email = email;
+
+    public Usuario conEmail(String email) {
+        return new Usuario(id, nombre, email, estado, version);
     }
-    
-    public EstadoUsuario getEstado() {
-        return estado;
+
+    public Usuario conEstado(EstadoUsuario estado) {
+        return new Usuario(id, nombre, email, estado, version);
     }
-    
-    public void setEstado(EstadoUsuario estado) {
-        this.estado = estado;
+
+    public Usuario conVersion(Long version) {
+        return new Usuario(id, nombre, email, estado, version);
     }
-    
+
+    /**
+     * Dos usuarios son iguales si tienen el mismo ID y email, aunque sean
+     * versiones distintas
+     */
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -67,19 +48,9 @@ public class Usuario {
         return Objects.equals(id, usuario.id) &&
                Objects.equals(email, usuario.email);
     }
-    
+
     @Override
     public int hashCode() {
         return Objects.hash(id, email);
     }
-    
-    @Override
-    public String toString() {
-        return "Usuario{" +
-                "id=" + id +
-                ", nombre='" + nombre + '\'' +
-                ", email='" + email + '\'' +
-                ", estado=" + estado +
-                '}';
-    }
-} 
\ No newline at end of file
+}
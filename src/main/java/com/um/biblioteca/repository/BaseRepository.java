@@ -2,6 +2,7 @@ package com.um.biblioteca.repository;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * Interfaz base para repositorios
@@ -30,6 +31,36 @@ public interface BaseRepository<T, ID> {
      */
     List<T> findAll();
     
+    /**
+     * Recorre todas las entidades ordenadas por ID sin copiarlas a una lista.
+     * El recorrido es débilmente consistente: refleja las escrituras concurrentes
+     * que ocurran durante la iteración, sin fallar por ellas.
+     * @return Stream perezoso de entidades
+     */
+    Stream<T> streamAll();
+    
+    /**
+     * Obtiene una página de entidades ordenadas por ID
+     * @param pagina Número de página (desde 0)
+     * @param tamanio Cantidad de entidades por página
+     * @return Página de entidades
+     */
+    Pagina<T> findAll(int pagina, int tamanio);
+    
+    /**
+     * Obtiene las entidades con ID mayor al indicado, ordenadas por ID (paginación por cursor)
+     * @param despuesDe ID a partir del cual buscar (exclusivo), o null para empezar desde el principio
+     * @param limite Cantidad máxima de entidades
+     * @return Página de entidades con el cursor de la página siguiente
+     */
+    PaginaCursor<T> findAllAfter(ID despuesDe, int limite);
+    
+    /**
+     * Cuenta las entidades almacenadas
+     * @return Cantidad de entidades
+     */
+    long count();
+    
     /**
      * Elimina una entidad por su ID
      * @param id ID de la entidad a eliminar
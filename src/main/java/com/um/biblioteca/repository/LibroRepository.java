@@ -1,7 +1,10 @@
 package com.um.biblioteca.repository;
 
+import com.um.biblioteca.model.EstadoLibro;
 import com.um.biblioteca.model.Libro;
+import java.util.Collection;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * Repositorio para la entidad Libro
@@ -17,15 +20,55 @@ public interface LibroRepository extends BaseRepository<Libro, Long> {
     
     /**
      * Busca libros por título
-     * @param titulo Título del libro (búsqueda parcial)
+     * @param titulo Título del libro (búsqueda parcial, sin distinguir mayúsculas ni acentos)
      * @return Lista de libros que coinciden con el título
      */
     java.util.List<Libro> findByTituloContaining(String titulo);
     
     /**
      * Busca libros por autor
-     * @param autor Nombre del autor (búsqueda parcial)
+     * @param autor Nombre del autor (búsqueda parcial, sin distinguir mayúsculas ni acentos)
      * @return Lista de libros que coinciden con el autor
      */
     java.util.List<Libro> findByAutorContaining(String autor);
-} 
\ No newline at end of file
+    
+    /**
+     * Busca libros por título que se encuentren en el estado indicado
+     * @param titulo Título del libro (búsqueda parcial, sin distinguir mayúsculas ni acentos)
+     * @param estado Estado del libro
+     * @return Lista de libros que coinciden con el título y el estado
+     */
+    java.util.List<Libro> findByTituloContainingAndEstado(String titulo, EstadoLibro estado);
+    
+    /**
+     * Busca libros por estado
+     * @param estado Estado del libro
+     * @return Lista de libros en el estado especificado
+     */
+    java.util.List<Libro> findByEstado(EstadoLibro estado);
+    
+    /**
+     * Busca libros que se encuentren en cualquiera de los estados indicados
+     * @param estados Estados del libro
+     * @return Lista de libros en alguno de los estados especificados
+     */
+    java.util.List<Libro> findByEstadoIn(Collection<EstadoLibro> estados);
+    
+    /**
+     * Recorre perezosamente los libros en el estado indicado, ordenados por ID
+     * @param estado Estado del libro
+     * @return Stream de libros en el estado especificado
+     */
+    Stream<Libro> streamByEstado(EstadoLibro estado);
+    
+    /**
+     * Cambia el estado de un libro sólo si su estado actual es el esperado.
+     * La comprobación y el cambio son atómicos respecto de otras escrituras
+     * sobre el mismo libro.
+     * @param id ID del libro
+     * @param esperado Estado que debe tener el libro
+     * @param nuevo Nuevo estado
+     * @return true si el libro existía en el estado esperado y fue actualizado
+     */
+    boolean compareAndSetEstado(Long id, EstadoLibro esperado, EstadoLibro nuevo);
+}
@@ -0,0 +1,42 @@
+package com.um.biblioteca.repository;
+
+import java.util.List;
+
+/**
+ * Página de resultados obtenida por número de página
+ * @param <T> Tipo de entidad
+ */
+public class Pagina<T> {
+    
+    private final List<T> contenido;
+    private final int pagina;
+    private final int tamanio;
+    private final long totalElementos;
+    
+    public Pagina(List<T> contenido, int pagina, int tamanio, long totalElementos) {
+        this.contenido = contenido;
+        this.pagina = pagina;
+        this.tamanio = tamanio;
+        this.totalElementos = totalElementos;
+    }
+    
+    public List<T> getContenido() {
+        return contenido;
+    }
+    
+    public int getPagina() {
+        return pagina;
+    }
+    
+    public int getTamanio() {
+        return tamanio;
+    }
+    
+    public long getTotalElementos() {
+        return totalElementos;
+    }
+    
+    public long getTotalPaginas() {
+        return (totalElementos + tamanio - 1) / tamanio;
+    }
+}
@@ -0,0 +1,30 @@
+package com.um.biblioteca.repository;
+
+import java.util.List;
+
+/**
+ * Página de resultados obtenida por cursor (keyset): contiene las entidades
+ * siguientes a un ID, ordenadas por ID, y el cursor para pedir la próxima página
+ * @param <T> Tipo de entidad
+ */
+public class PaginaCursor<T> {
+    
+    private final List<T> contenido;
+    private final Long siguienteCursor;
+    
+    public PaginaCursor(List<T> contenido, Long siguienteCursor) {
+        this.contenido = contenido;
+        this.siguienteCursor = siguienteCursor;
+    }
+    
+    public List<T> getContenido() {
+        return contenido;
+    }
+    
+    /**
+     * @return ID a usar como despuesDe en la próxima consulta, o null si no hay más resultados
+     */
+    public Long getSiguienteCursor() {
+        return siguienteCursor;
+    }
+}
@@ -5,6 +5,7 @@ import com.um.biblioteca.model.Prestamo;
 import com.um.biblioteca.model.Usuario;
 import java.time.LocalDate;
 import java.util.List;
+import java.util.stream.Stream;
 
 /**
  * Repositorio para la entidad Prestamo
@@ -37,4 +38,28 @@ public interface PrestamoRepository extends BaseRepository<Prestamo, Long> {
      * @return Lista de préstamos vencidos
      */
     List<Prestamo> findByFechaDevolucionBefore(LocalDate fecha);
-} 
\ No newline at end of file
+    
+    /**
+     * Busca préstamos cuya fecha de préstamo pertenece al rango [desde, hasta)
+     * @param desde Fecha inicial (inclusiva)
+     * @param hasta Fecha final (exclusiva)
+     * @return Lista de préstamos ordenada por fecha de préstamo
+     */
+    List<Prestamo> findByFechaPrestamoBetween(LocalDate desde, LocalDate hasta);
+    
+    /**
+     * Busca préstamos cuya fecha de devolución pertenece al rango [desde, hasta)
+     * @param desde Fecha inicial (inclusiva)
+     * @param hasta Fecha final (exclusiva)
+     * @return Lista de préstamos ordenada por fecha de devolución
+     */
+    List<Prestamo> findByFechaDevolucionBetween(LocalDate desde, LocalDate hasta);
+    
+    /**
+     * Recorre perezosamente los préstamos cuya fecha de préstamo pertenece al rango [desde, hasta)
+     * @param desde Fecha inicial (inclusiva)
+     * @param hasta Fecha final (exclusiva)
+     * @return Stream de préstamos ordenado por fecha de préstamo
+     */
+    Stream<Prestamo> streamByFechaPrestamoBetween(LocalDate desde, LocalDate hasta);
+}
@@ -0,0 +1,43 @@
+package com.um.biblioteca.repository;
+
+/**
+ * Cuenta los registros que examina cada hilo al resolver consultas: las
+ * entradas de índice verificadas y las entidades leídas del almacén. El
+ * contador de cada hilo sólo crece; quien quiera saber cuántos registros
+ * examinó una operación toma su valor antes con {@link #iniciar()} y
+ * después obtiene la diferencia con {@link #desde(long)}, de modo que las
+ * mediciones anidadas no interfieren entre sí.
+ * <p>
+ * Los recorridos perezosos (los métodos que devuelven un Stream) cuentan
+ * cada registro en el hilo que los consume, a medida que lo examinan.
+ */
+public final class Recorrido {
+
+    private static final ThreadLocal<long[]> REGISTROS = ThreadLocal.withInitial(() -> new long[1]);
+
+    private Recorrido() {
+    }
+
+    /**
+     * Suma registros examinados por el hilo actual
+     * @param registros Cantidad de registros
+     */
+    public static void sumar(long registros) {
+        REGISTROS.get()[0] += registros;
+    }
+
+    /**
+     * Valor actual del contador del hilo, a usar como inicio de una medición
+     */
+    public static long iniciar() {
+        return REGISTROS.get()[0];
+    }
+
+    /**
+     * Registros examinados por el hilo actual desde el inicio de una medición
+     * @param inicio Valor devuelto por {@link #iniciar()}
+     */
+    public static long desde(long inicio) {
+        return REGISTROS.get()[0] - inicio;
+    }
+}
@@ -1,7 +1,9 @@
 package com.um.biblioteca.repository;
 
+import com.um.biblioteca.model.EstadoUsuario;
 import com.um.biblioteca.model.Usuario;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * Repositorio para la entidad Usuario
@@ -17,8 +19,22 @@ public interface UsuarioRepository extends BaseRepository<Usuario, Long> {
     
     /**
      * Busca usuarios por nombre
-     * @param nombre Nombre del usuario (búsqueda parcial)
+     * @param nombre Nombre del usuario (búsqueda parcial, sin distinguir mayúsculas ni acentos)
      * @return Lista de usuarios que coinciden con el nombre
      */
     java.util.List<Usuario> findByNombreContaining(String nombre);
-} 
\ No newline at end of file
+    
+    /**
+     * Busca usuarios por estado
+     * @param estado Estado del usuario
+     * @return Lista de usuarios en el estado especificado
+     */
+    java.util.List<Usuario> findByEstado(EstadoUsuario estado);
+    
+    /**
+     * Recorre perezosamente los usuarios en el estado indicado, ordenados por ID
+     * @param estado Estado del usuario
+     * @return Stream de usuarios en el estado especificado
+     */
+    Stream<Usuario> streamByEstado(EstadoUsuario estado);
+}
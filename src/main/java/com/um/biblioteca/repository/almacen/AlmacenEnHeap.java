@@ -0,0 +1,45 @@
+package com.um.biblioteca.repository.almacen;
+
+import com.um.biblioteca.repository.colecciones.MapaLongConcurrente;
+
+import java.util.function.Consumer;
+
+/**
+ * Almacenamiento por defecto: las entidades viven en el heap y las lecturas
+ * devuelven la misma instancia que se guardó.
+ * @param <T> Tipo de entidad
+ */
+public class AlmacenEnHeap<T> implements AlmacenEntidades<T> {
+
+    private final MapaLongConcurrente<T> entidades = new MapaLongConcurrente<>();
+
+    @Override
+    public T get(long id) {
+        return entidades.get(id);
+    }
+
+    @Override
+    public boolean put(long id, T entidad) {
+        return entidades.put(id, entidad) == null;
+    }
+
+    @Override
+    public boolean remove(long id) {
+        return entidades.remove(id) != null;
+    }
+
+    @Override
+    public boolean contains(long id) {
+        return entidades.containsKey(id);
+    }
+
+    @Override
+    public int size() {
+        return entidades.size();
+    }
+
+    @Override
+    public void forEach(Consumer<? super T> accion) {
+        entidades.forEach((id, entidad) -> accion.accept(entidad));
+    }
+}
@@ -0,0 +1,56 @@
+package com.um.biblioteca.repository.almacen;
+
+import java.util.function.Consumer;
+
+/**
+ * Almacenamiento de las entidades de un repositorio en memoria, indexadas
+ * por ID. El repositorio serializa las escrituras sobre un mismo ID; las
+ * lecturas pueden ser concurrentes con ellas y nunca deben observar una
+ * entidad a medio escribir.
+ * <p>
+ * Una implementación puede devolver en cada lectura una copia nueva de la
+ * entidad: los cambios sobre lo leído sólo se guardan con {@link #put}.
+ * @param <T> Tipo de entidad
+ */
+public interface AlmacenEntidades<T> {
+
+    /**
+     * Obtiene la entidad de un ID
+     * @param id ID de la entidad
+     * @return Entidad almacenada o null si no existe
+     */
+    T get(long id);
+
+    /**
+     * Guarda o reemplaza la entidad de un ID
+     * @param id ID de la entidad
+     * @param entidad Entidad a guardar
+     * @return true si el ID no existía
+     */
+    boolean put(long id, T entidad);
+
+    /**
+     * Elimina la entidad de un ID
+     * @param id ID de la entidad
+     * @return true si el ID existía
+     */
+    boolean remove(long id);
+
+    /**
+     * Indica si hay una entidad con el ID
+     * @param id ID de la entidad
+     * @return true si existe
+     */
+    boolean contains(long id);
+
+    /**
+     * Cantidad de entidades almacenadas
+     */
+    int size();
+
+    /**
+     * Recorre las entidades almacenadas, sin orden definido
+     * @param accion Acción a aplicar sobre cada entidad
+     */
+    void forEach(Consumer<? super T> accion);
+}
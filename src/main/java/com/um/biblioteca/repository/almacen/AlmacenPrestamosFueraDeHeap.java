@@ -0,0 +1,180 @@
+package com.um.biblioteca.repository.almacen;
+
+import com.um.biblioteca.model.DiasEpoca;
+import com.um.biblioteca.model.Prestamo;
+import com.um.biblioteca.repository.colecciones.MapaLongConcurrente;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Almacenamiento de préstamos fuera del heap. Cada préstamo ocupa un
+ * registro de ancho fijo en un buffer directo, con el libro y el usuario
+ * guardados por ID y las fechas como días desde la época, tal como las
+ * guarda el modelo ({@link DiasEpoca#SIN_FECHA} si no tiene):
+ * <pre>
+ *  0  secuencia        long  impar mientras el registro se escribe
+ *  8  versión          long
+ * 16  ID del libro     long
+ * 24  ID del usuario   long
+ * 32  fecha préstamo   int
+ * 36  fecha devolución int
+ * 40  presente         int
+ * </pre>
+ * Los registros se agrupan en bloques de {@code 1 << BITS_BLOQUE} IDs
+ * consecutivos que se reservan al guardar el primer préstamo del rango;
+ * el ID determina el bloque y la posición, sin índices intermedios. Los
+ * bloques no se liberan al eliminar préstamos.
+ * <p>
+ * Cada lectura construye un préstamo nuevo. Las lecturas no toman bloqueos:
+ * la secuencia del registro funciona como seqlock y la lectura se repite
+ * si coincidió con una escritura.
+ */
+public class AlmacenPrestamosFueraDeHeap implements AlmacenEntidades<Prestamo> {
+
+    static final int TAMANIO_REGISTRO = 48;
+    private static final int BITS_BLOQUE = 12;
+    private static final int MASCARA_BLOQUE = (1 << BITS_BLOQUE) - 1;
+
+    private static final int VERSION = 8;
+    private static final int LIBRO = 16;
+    private static final int USUARIO = 24;
+    private static final int FECHA_PRESTAMO = 32;
+    private static final int FECHA_DEVOLUCION = 36;
+    private static final int PRESENTE = 40;
+
+    private static final long NULO = Long.MIN_VALUE;
+
+    private static final VarHandle SECUENCIA = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.nativeOrder());
+    private static final VarHandle ENTERO = MethodHandles.byteBufferViewVarHandle(int[].class, ByteOrder.nativeOrder());
+
+    private final MapaLongConcurrente<ByteBuffer> bloques = new MapaLongConcurrente<>();
+    private final AtomicInteger cantidad = new AtomicInteger();
+
+    @Override
+    public Prestamo get(long id) {
+        ByteBuffer bloque = bloques.get(id >>> BITS_BLOQUE);
+        if (bloque == null) {
+            return null;
+        }
+        int base = desplazamiento(id);
+        while (true) {
+            long antes = (long) SECUENCIA.getAcquire(bloque, base);
+            if ((antes & 1) == 0) {
+                int presente = bloque.getInt(base + PRESENTE);
+                long version = bloque.getLong(base + VERSION);
+                long libroId = bloque.getLong(base + LIBRO);
+                long usuarioId = bloque.getLong(base + USUARIO);
+                int diaPrestamo = bloque.getInt(base + FECHA_PRESTAMO);
+                int diaDevolucion = bloque.getInt(base + FECHA_DEVOLUCION);
+                VarHandle.loadLoadFence();
+                if ((long) SECUENCIA.getOpaque(bloque, base) == antes) {
+                    if (presente == 0) {
+                        return null;
+                    }
+                    return new Prestamo(id,
+                            libroId != NULO ? libroId : null,
+                            usuarioId != NULO ? usuarioId : null,
+                            diaPrestamo,
+                            diaDevolucion,
+                            version != NULO ? version : null);
+                }
+            }
+            Thread.onSpinWait();
+        }
+    }
+
+    @Override
+    public boolean put(long id, Prestamo prestamo) {
+        int diaPrestamo = prestamo.diaPrestamo();
+        int diaDevolucion = prestamo.diaDevolucion();
+        Long libroId = prestamo.libroId();
+        Long usuarioId = prestamo.usuarioId();
+        Long version = prestamo.version();
+
+        ByteBuffer bloque = bloques.get(id >>> BITS_BLOQUE);
+        if (bloque == null) {
+            bloque = bloques.compute(id >>> BITS_BLOQUE, (b, actual) -> actual != null ? actual : ByteBuffer
+                    .allocateDirect(TAMANIO_REGISTRO << BITS_BLOQUE)
+                    .order(ByteOrder.nativeOrder()));
+        }
+        int base = desplazamiento(id);
+        boolean nuevo = (int) ENTERO.getOpaque(bloque, base + PRESENTE) == 0;
+        long secuencia = iniciarEscritura(bloque, base);
+        bloque.putLong(base + VERSION, version != null ? version : NULO);
+        bloque.putLong(base + LIBRO, libroId != null ? libroId : NULO);
+        bloque.putLong(base + USUARIO, usuarioId != null ? usuarioId : NULO);
+        bloque.putInt(base + FECHA_PRESTAMO, diaPrestamo);
+        bloque.putInt(base + FECHA_DEVOLUCION, diaDevolucion);
+        bloque.putInt(base + PRESENTE, 1);
+        SECUENCIA.setRelease(bloque, base, secuencia + 2);
+        if (nuevo) {
+            cantidad.incrementAndGet();
+        }
+        return nuevo;
+    }
+
+    @Override
+    public boolean remove(long id) {
+        ByteBuffer bloque = bloques.get(id >>> BITS_BLOQUE);
+        if (bloque == null) {
+            return false;
+        }
+        int base = desplazamiento(id);
+        if ((int) ENTERO.getOpaque(bloque, base + PRESENTE) == 0) {
+            return false;
+        }
+        long secuencia = iniciarEscritura(bloque, base);
+        bloque.putInt(base + PRESENTE, 0);
+        SECUENCIA.setRelease(bloque, base, secuencia + 2);
+        cantidad.decrementAndGet();
+        return true;
+    }
+
+    @Override
+    public boolean contains(long id) {
+        ByteBuffer bloque = bloques.get(id >>> BITS_BLOQUE);
+        return bloque != null && (int) ENTERO.getAcquire(bloque, desplazamiento(id) + PRESENTE) != 0;
+    }
+
+    @Override
+    public int size() {
+        return cantidad.get();
+    }
+
+    @Override
+    public void forEach(Consumer<? super Prestamo> accion) {
+        bloques.forEach((numero, bloque) -> {
+            long primerId = numero << BITS_BLOQUE;
+            for (int i = 0; i <= MASCARA_BLOQUE; i++) {
+                if ((int) ENTERO.getAcquire(bloque, i * TAMANIO_REGISTRO + PRESENTE) == 0) {
+                    continue;
+                }
+                Prestamo prestamo = get(primerId | i);
+                if (prestamo != null) {
+                    accion.accept(prestamo);
+                }
+            }
+        });
+    }
+
+    /**
+     * Marca el registro como en escritura. El repositorio serializa las
+     * escrituras sobre un mismo ID, así que no hay otro escritor.
+     * @return Secuencia previa del registro
+     */
+    private static long iniciarEscritura(ByteBuffer bloque, int base) {
+        long secuencia = (long) SECUENCIA.getOpaque(bloque, base);
+        SECUENCIA.setOpaque(bloque, base, secuencia + 1);
+        VarHandle.storeStoreFence();
+        return secuencia;
+    }
+
+    private static int desplazamiento(long id) {
+        return (int) (id & MASCARA_BLOQUE) * TAMANIO_REGISTRO;
+    }
+}
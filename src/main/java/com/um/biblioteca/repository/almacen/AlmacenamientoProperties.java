@@ -0,0 +1,23 @@
+package com.um.biblioteca.repository.almacen;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Configuración del almacenamiento en memoria de los repositorios (prefijo biblioteca.almacenamiento)
+ */
+@ConfigurationProperties(prefix = "biblioteca.almacenamiento")
+public class AlmacenamientoProperties {
+    
+    /**
+     * Si es true los préstamos se guardan en registros de ancho fijo fuera del heap
+     */
+    private boolean prestamosFueraDeHeap = false;
+    
+    public boolean isPrestamosFueraDeHeap() {
+        return prestamosFueraDeHeap;
+    }
+    
+    public void setPrestamosFueraDeHeap(boolean prestamosFueraDeHeap) {
+        this.prestamosFueraDeHeap = prestamosFueraDeHeap;
+    }
+}
@@ -0,0 +1,345 @@
+package com.um.biblioteca.repository.colecciones;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Conjunto ordenado de pares (clave, id) de longs primitivos, para los
+ * índices secundarios que asocian muchas entidades a una misma clave. Los
+ * pares se ordenan por clave y, a igual clave, por ID.
+ * <p>
+ * Es un árbol B+ de dos niveles: hojas de hasta {@value #CAPACIDAD_HOJA}
+ * pares guardados en dos arreglos long paralelos, y un arreglo ordenado de
+ * hojas en el que se busca por bisección. No se crea ningún objeto por par:
+ * cada uno ocupa 16 bytes de una hoja más el espacio libre que las hojas
+ * dejan al dividirse. Una hoja llena se divide por la mitad, salvo cuando
+ * el par se agrega al final del conjunto (claves crecientes, como la fecha
+ * de hoy), en cuyo caso empieza una hoja nueva y la anterior queda llena.
+ * <p>
+ * Las escrituras toman el bloqueo de escritura de un StampedLock y las
+ * lecturas, el de lectura. Los recorridos toman los IDs en lotes, cada uno
+ * con el bloqueo de lectura, y continúan desde el último par devuelto, por
+ * lo que son débilmente consistentes como los de ConcurrentSkipListSet.
+ */
+public class ConjuntoParesOrdenado {
+
+    static final int CAPACIDAD_HOJA = 256;
+    private static final int LOTE = 256;
+
+    private final StampedLock bloqueo = new StampedLock();
+    private Hoja[] hojas = new Hoja[4];
+    private int cantidadHojas;
+    private long tamanio;
+
+    private static final class Hoja {
+        final long[] claves = new long[CAPACIDAD_HOJA];
+        final long[] ids = new long[CAPACIDAD_HOJA];
+        int cantidad;
+    }
+
+    /**
+     * @return true si el par no estaba
+     */
+    public boolean agregar(long clave, long id) {
+        long sello = bloqueo.writeLock();
+        try {
+            if (cantidadHojas == 0) {
+                insertarHoja(0, new Hoja());
+            }
+            int h = hojaPara(clave, id);
+            Hoja hoja = hojas[h];
+            int posicion = buscar(hoja, clave, id);
+            if (posicion >= 0) {
+                return false;
+            }
+            posicion = -posicion - 1;
+            if (hoja.cantidad == CAPACIDAD_HOJA) {
+                Hoja nueva = new Hoja();
+                if (h == cantidadHojas - 1 && posicion == CAPACIDAD_HOJA) {
+                    hoja = nueva;
+                    posicion = 0;
+                } else {
+                    int mitad = CAPACIDAD_HOJA / 2;
+                    mover(hoja, mitad, nueva, 0, CAPACIDAD_HOJA - mitad);
+                    nueva.cantidad = CAPACIDAD_HOJA - mitad;
+                    hoja.cantidad = mitad;
+                    if (posicion > mitad) {
+                        hoja = nueva;
+                        posicion -= mitad;
+                    }
+                }
+                insertarHoja(h + 1, nueva);
+            }
+            mover(hoja, posicion, hoja, posicion + 1, hoja.cantidad - posicion);
+            hoja.claves[posicion] = clave;
+            hoja.ids[posicion] = id;
+            hoja.cantidad++;
+            tamanio++;
+            return true;
+        } finally {
+            bloqueo.unlockWrite(sello);
+        }
+    }
+
+    /**
+     * @return true si el par estaba
+     */
+    public boolean quitar(long clave, long id) {
+        long sello = bloqueo.writeLock();
+        try {
+            if (cantidadHojas == 0) {
+                return false;
+            }
+            int h = hojaPara(clave, id);
+            Hoja hoja = hojas[h];
+            int posicion = buscar(hoja, clave, id);
+            if (posicion < 0) {
+                return false;
+            }
+            mover(hoja, posicion + 1, hoja, posicion, hoja.cantidad - posicion - 1);
+            hoja.cantidad--;
+            tamanio--;
+            if (hoja.cantidad == 0) {
+                quitarHoja(h);
+            } else if (hoja.cantidad < CAPACIDAD_HOJA / 4) {
+                fusionar(h);
+            }
+            return true;
+        } finally {
+            bloqueo.unlockWrite(sello);
+        }
+    }
+
+    public long tamanio() {
+        long sello = bloqueo.readLock();
+        try {
+            return tamanio;
+        } finally {
+            bloqueo.unlockRead(sello);
+        }
+    }
+
+    /**
+     * Verifica si hay algún par con clave entre desde y hasta (inclusive),
+     * con una búsqueda y sin recorrerlos
+     */
+    public boolean hayAlguno(long desde, long hasta) {
+        if (desde > hasta) {
+            return false;
+        }
+        long sello = bloqueo.readLock();
+        try {
+            if (cantidadHojas == 0) {
+                return false;
+            }
+            int h = hojaPara(desde, Long.MIN_VALUE);
+            int posicion = buscar(hojas[h], desde, Long.MIN_VALUE);
+            posicion = posicion >= 0 ? posicion : -posicion - 1;
+            if (posicion == hojas[h].cantidad) {
+                if (++h == cantidadHojas) {
+                    return false;
+                }
+                posicion = 0;
+            }
+            return hojas[h].claves[posicion] <= hasta;
+        } finally {
+            bloqueo.unlockRead(sello);
+        }
+    }
+
+    /**
+     * IDs de los pares con clave entre desde y hasta (inclusive), ordenados
+     * por clave y, a igual clave, por ID
+     */
+    public Iterable<Long> ids(long desde, long hasta) {
+        return () -> new Iterador(desde, hasta);
+    }
+
+    /**
+     * Memoria que ocupan las hojas y el arreglo de hojas, sin contar las
+     * cabeceras de los objetos
+     */
+    public long bytesOcupados() {
+        long sello = bloqueo.readLock();
+        try {
+            return (long) cantidadHojas * CAPACIDAD_HOJA * 2 * Long.BYTES + (long) hojas.length * Integer.BYTES;
+        } finally {
+            bloqueo.unlockRead(sello);
+        }
+    }
+
+    /**
+     * Copia en los arreglos, hasta su longitud, los pares mayores o iguales a
+     * (clave, id) cuya clave no supera hasta
+     * @return Cantidad de pares copiados
+     */
+    private int leer(long clave, long id, long hasta, long[] claves, long[] ids) {
+        long sello = bloqueo.readLock();
+        try {
+            if (cantidadHojas == 0) {
+                return 0;
+            }
+            int h = hojaPara(clave, id);
+            int posicion = buscar(hojas[h], clave, id);
+            posicion = posicion >= 0 ? posicion : -posicion - 1;
+            int cantidad = 0;
+            while (cantidad < claves.length && h < cantidadHojas) {
+                Hoja hoja = hojas[h];
+                if (posicion == hoja.cantidad) {
+                    h++;
+                    posicion = 0;
+                    continue;
+                }
+                if (hoja.claves[posicion] > hasta) {
+                    break;
+                }
+                claves[cantidad] = hoja.claves[posicion];
+                ids[cantidad] = hoja.ids[posicion];
+                cantidad++;
+                posicion++;
+            }
+            return cantidad;
+        } finally {
+            bloqueo.unlockRead(sello);
+        }
+    }
+
+    /**
+     * Última hoja cuyo primer par es menor o igual al indicado, o la
+     * primera si el par es menor que todos
+     */
+    private int hojaPara(long clave, long id) {
+        int bajo = 1;
+        int alto = cantidadHojas - 1;
+        while (bajo <= alto) {
+            int medio = (bajo + alto) >>> 1;
+            Hoja hoja = hojas[medio];
+            if (comparar(hoja.claves[0], hoja.ids[0], clave, id) <= 0) {
+                bajo = medio + 1;
+            } else {
+                alto = medio - 1;
+            }
+        }
+        return bajo - 1;
+    }
+
+    /**
+     * Posición del par en la hoja, o (-(posición de inserción) - 1) si no está
+     */
+    private static int buscar(Hoja hoja, long clave, long id) {
+        int bajo = 0;
+        int alto = hoja.cantidad - 1;
+        while (bajo <= alto) {
+            int medio = (bajo + alto) >>> 1;
+            int comparacion = comparar(hoja.claves[medio], hoja.ids[medio], clave, id);
+            if (comparacion < 0) {
+                bajo = medio + 1;
+            } else if (comparacion > 0) {
+                alto = medio - 1;
+            } else {
+                return medio;
+            }
+        }
+        return -(bajo + 1);
+    }
+
+    private static int comparar(long claveA, long idA, long claveB, long idB) {
+        return claveA != claveB ? Long.compare(claveA, claveB) : Long.compare(idA, idB);
+    }
+
+    private static void mover(Hoja origen, int desde, Hoja destino, int hacia, int cantidad) {
+        System.arraycopy(origen.claves, desde, destino.claves, hacia, cantidad);
+        System.arraycopy(origen.ids, desde, destino.ids, hacia, cantidad);
+    }
+
+    /**
+     * Une una hoja que quedó casi vacía con una vecina si entran juntas en
+     * tres cuartos de hoja, para que las bajas no dejen hojas dispersas
+     */
+    private void fusionar(int h) {
+        int limite = CAPACIDAD_HOJA * 3 / 4;
+        Hoja hoja = hojas[h];
+        if (h + 1 < cantidadHojas && hoja.cantidad + hojas[h + 1].cantidad <= limite) {
+            Hoja siguiente = hojas[h + 1];
+            mover(siguiente, 0, hoja, hoja.cantidad, siguiente.cantidad);
+            hoja.cantidad += siguiente.cantidad;
+            quitarHoja(h + 1);
+        } else if (h > 0 && hojas[h - 1].cantidad + hoja.cantidad <= limite) {
+            Hoja anterior = hojas[h - 1];
+            mover(hoja, 0, anterior, anterior.cantidad, hoja.cantidad);
+            anterior.cantidad += hoja.cantidad;
+            quitarHoja(h);
+        }
+    }
+
+    private void insertarHoja(int posicion, Hoja hoja) {
+        if (cantidadHojas == hojas.length) {
+            hojas = Arrays.copyOf(hojas, cantidadHojas * 2);
+        }
+        System.arraycopy(hojas, posicion, hojas, posicion + 1, cantidadHojas - posicion);
+        hojas[posicion] = hoja;
+        cantidadHojas++;
+    }
+
+    private void quitarHoja(int posicion) {
+        System.arraycopy(hojas, posicion + 1, hojas, posicion, cantidadHojas - posicion - 1);
+        hojas[--cantidadHojas] = null;
+    }
+
+    private final class Iterador implements PrimitiveIterator.OfLong {
+
+        private final long hasta;
+        private final long[] claves = new long[LOTE];
+        private final long[] ids = new long[LOTE];
+        private int cantidad;
+        private int posicion;
+        private long siguienteClave;
+        private long siguienteId = Long.MIN_VALUE;
+        private boolean agotado;
+
+        private Iterador(long desde, long hasta) {
+            this.siguienteClave = desde;
+            this.hasta = hasta;
+            this.agotado = desde > hasta;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (posicion < cantidad) {
+                return true;
+            }
+            if (agotado) {
+                return false;
+            }
+            cantidad = leer(siguienteClave, siguienteId, hasta, claves, ids);
+            posicion = 0;
+            if (cantidad == 0) {
+                agotado = true;
+                return false;
+            }
+            // Continúa en el par inmediatamente posterior al último leído
+            long ultimaClave = claves[cantidad - 1];
+            long ultimoId = ids[cantidad - 1];
+            if (ultimoId != Long.MAX_VALUE) {
+                siguienteClave = ultimaClave;
+                siguienteId = ultimoId + 1;
+            } else if (ultimaClave != Long.MAX_VALUE) {
+                siguienteClave = ultimaClave + 1;
+                siguienteId = Long.MIN_VALUE;
+            } else {
+                agotado = true;
+            }
+            return true;
+        }
+
+        @Override
+        public long nextLong() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return ids[posicion++];
+        }
+    }
+}
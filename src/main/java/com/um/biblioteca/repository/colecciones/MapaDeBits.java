@@ -0,0 +1,522 @@
+package com.um.biblioteca.repository.colecciones;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.LongStream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Conjunto de longs no negativos comprimido al estilo de los roaring
+ * bitmaps. Los valores se agrupan en bloques de 2^16 según sus 48 bits
+ * altos y cada bloque guarda sus 16 bits bajos en el contenedor que ocupe
+ * menos: un arreglo ordenado de char mientras tiene hasta
+ * {@value #LIMITE_ARREGLO} valores (2 bytes por valor) y un mapa de bits de
+ * 8 KB (un bit por valor posible) a partir de ahí.
+ * <p>
+ * Un conjunto denso de IDs secuenciales ocupa así cerca de un bit por ID,
+ * como un BitSet, pero un ID aislado muy grande ocupa unos pocos bytes en
+ * lugar de un arreglo de bits que llegue hasta él. Los bloques se guardan
+ * ordenados, por lo que los recorridos devuelven los valores en orden
+ * ascendente.
+ * <p>
+ * No es seguro para uso concurrente.
+ */
+public class MapaDeBits {
+
+    static final int LIMITE_ARREGLO = 4096;
+
+    private static final int BITS_BAJOS = 16;
+    private static final int MASCARA_BAJOS = (1 << BITS_BAJOS) - 1;
+    private static final int PALABRAS = (1 << BITS_BAJOS) / Long.SIZE;
+
+    private long[] claves;
+    private Contenedor[] contenedores;
+    private int bloques;
+    private long cardinalidad;
+
+    public MapaDeBits() {
+        this.claves = new long[4];
+        this.contenedores = new Contenedor[4];
+    }
+
+    private MapaDeBits(MapaDeBits original) {
+        this.claves = Arrays.copyOf(original.claves, Math.max(4, original.bloques));
+        this.contenedores = new Contenedor[claves.length];
+        for (int i = 0; i < original.bloques; i++) {
+            contenedores[i] = original.contenedores[i].copia();
+        }
+        this.bloques = original.bloques;
+        this.cardinalidad = original.cardinalidad;
+    }
+
+    /**
+     * @param valor Valor a agregar
+     * @return true si no estaba
+     * @throws IllegalArgumentException si el valor es negativo
+     */
+    public boolean agregar(long valor) {
+        validar(valor);
+        long clave = valor >>> BITS_BAJOS;
+        char bajo = (char) (valor & MASCARA_BAJOS);
+        int posicion = Arrays.binarySearch(claves, 0, bloques, clave);
+        if (posicion < 0) {
+            insertarBloque(-posicion - 1, clave, new Arreglo(bajo));
+            cardinalidad++;
+            return true;
+        }
+        Contenedor contenedor = contenedores[posicion];
+        if (contenedor.contiene(bajo)) {
+            return false;
+        }
+        contenedores[posicion] = contenedor.agregado(bajo);
+        cardinalidad++;
+        return true;
+    }
+
+    /**
+     * @param valor Valor a quitar
+     * @return true si estaba
+     */
+    public boolean quitar(long valor) {
+        if (valor < 0) {
+            return false;
+        }
+        int posicion = Arrays.binarySearch(claves, 0, bloques, valor >>> BITS_BAJOS);
+        if (posicion < 0) {
+            return false;
+        }
+        char bajo = (char) (valor & MASCARA_BAJOS);
+        Contenedor contenedor = contenedores[posicion];
+        if (!contenedor.contiene(bajo)) {
+            return false;
+        }
+        Contenedor restante = contenedor.quitado(bajo);
+        if (restante != null) {
+            contenedores[posicion] = restante;
+        } else {
+            quitarBloque(posicion);
+        }
+        cardinalidad--;
+        return true;
+    }
+
+    public boolean contiene(long valor) {
+        if (valor < 0) {
+            return false;
+        }
+        int posicion = Arrays.binarySearch(claves, 0, bloques, valor >>> BITS_BAJOS);
+        return posicion >= 0 && contenedores[posicion].contiene((char) (valor & MASCARA_BAJOS));
+    }
+
+    public long cardinalidad() {
+        return cardinalidad;
+    }
+
+    public boolean estaVacio() {
+        return cardinalidad == 0;
+    }
+
+    /**
+     * Menor valor del conjunto mayor o igual al indicado, como
+     * {@link java.util.BitSet#nextSetBit}
+     * @param desde Valor inicial (inclusivo)
+     * @return Valor encontrado, o -1 si no hay ninguno
+     */
+    public long siguiente(long desde) {
+        if (desde < 0) {
+            desde = 0;
+        }
+        long clave = desde >>> BITS_BAJOS;
+        int posicion = Arrays.binarySearch(claves, 0, bloques, clave);
+        if (posicion >= 0) {
+            int bajo = contenedores[posicion].siguiente((int) (desde & MASCARA_BAJOS));
+            if (bajo >= 0) {
+                return clave << BITS_BAJOS | bajo;
+            }
+            posicion++;
+        } else {
+            posicion = -posicion - 1;
+        }
+        return posicion < bloques ? claves[posicion] << BITS_BAJOS | contenedores[posicion].siguiente(0) : -1;
+    }
+
+    /**
+     * Agrega todos los valores de otro conjunto (OR). Los bloques que son
+     * mapas de bits en ambos se combinan palabra a palabra.
+     * @param otro Conjunto a unir; no se modifica
+     */
+    public void unir(MapaDeBits otro) {
+        for (int j = 0; j < otro.bloques; j++) {
+            long clave = otro.claves[j];
+            Contenedor suyo = otro.contenedores[j];
+            int posicion = Arrays.binarySearch(claves, 0, bloques, clave);
+            if (posicion < 0) {
+                insertarBloque(-posicion - 1, clave, suyo.copia());
+                cardinalidad += suyo.cantidad();
+            } else {
+                Contenedor mio = contenedores[posicion];
+                int antes = mio.cantidad();
+                contenedores[posicion] = mio.unido(suyo);
+                cardinalidad += contenedores[posicion].cantidad() - antes;
+            }
+        }
+    }
+
+    /**
+     * Copia independiente del conjunto
+     */
+    public MapaDeBits copia() {
+        return new MapaDeBits(this);
+    }
+
+    /**
+     * Memoria que ocupan los contenedores y los arreglos de bloques, sin
+     * contar las cabeceras de los objetos
+     */
+    public long bytesOcupados() {
+        long bytes = (long) claves.length * (Long.BYTES + Integer.BYTES);
+        for (int i = 0; i < bloques; i++) {
+            bytes += contenedores[i].bytes();
+        }
+        return bytes;
+    }
+
+    /**
+     * Recorre los valores en orden ascendente. El conjunto no debe
+     * modificarse mientras dura el recorrido.
+     */
+    public PrimitiveIterator.OfLong iterator() {
+        return new Iterador();
+    }
+
+    /**
+     * Stream de los valores en orden ascendente. El conjunto no debe
+     * modificarse mientras se consume.
+     */
+    public LongStream stream() {
+        return StreamSupport.longStream(Spliterators.spliterator(iterator(), cardinalidad,
+                Spliterator.ORDERED | Spliterator.SORTED | Spliterator.DISTINCT | Spliterator.NONNULL), false);
+    }
+
+    private void insertarBloque(int posicion, long clave, Contenedor contenedor) {
+        if (bloques == claves.length) {
+            claves = Arrays.copyOf(claves, bloques * 2);
+            contenedores = Arrays.copyOf(contenedores, bloques * 2);
+        }
+        System.arraycopy(claves, posicion, claves, posicion + 1, bloques - posicion);
+        System.arraycopy(contenedores, posicion, contenedores, posicion + 1, bloques - posicion);
+        claves[posicion] = clave;
+        contenedores[posicion] = contenedor;
+        bloques++;
+    }
+
+    private void quitarBloque(int posicion) {
+        System.arraycopy(claves, posicion + 1, claves, posicion, bloques - posicion - 1);
+        System.arraycopy(contenedores, posicion + 1, contenedores, posicion, bloques - posicion - 1);
+        bloques--;
+        contenedores[bloques] = null;
+    }
+
+    private static void validar(long valor) {
+        if (valor < 0) {
+            throw new IllegalArgumentException("El mapa de bits no admite valores negativos: " + valor);
+        }
+    }
+
+    /**
+     * Valores de un bloque, como sus 16 bits bajos
+     */
+    private abstract static sealed class Contenedor permits Arreglo, Bits {
+
+        abstract int cantidad();
+
+        abstract boolean contiene(char bajo);
+
+        /**
+         * Agrega un valor que no está
+         * @return Contenedor resultante, que puede ser otro
+         */
+        abstract Contenedor agregado(char bajo);
+
+        /**
+         * Quita un valor que está
+         * @return Contenedor resultante, o null si quedó vacío
+         */
+        abstract Contenedor quitado(char bajo);
+
+        /**
+         * @return Menor valor mayor o igual a desde, o -1
+         */
+        abstract int siguiente(int desde);
+
+        /**
+         * Une los valores de otro contenedor
+         * @return Contenedor resultante, que puede ser otro
+         */
+        abstract Contenedor unido(Contenedor otro);
+
+        abstract Contenedor copia();
+
+        abstract long bytes();
+    }
+
+    /**
+     * Contenedor disperso: arreglo ordenado de valores
+     */
+    private static final class Arreglo extends Contenedor {
+
+        private char[] valores;
+        private int cantidad;
+
+        private Arreglo(char bajo) {
+            this.valores = new char[4];
+            this.valores[0] = bajo;
+            this.cantidad = 1;
+        }
+
+        private Arreglo(char[] valores, int cantidad) {
+            this.valores = valores;
+            this.cantidad = cantidad;
+        }
+
+        @Override
+        int cantidad() {
+            return cantidad;
+        }
+
+        @Override
+        boolean contiene(char bajo) {
+            return Arrays.binarySearch(valores, 0, cantidad, bajo) >= 0;
+        }
+
+        @Override
+        Contenedor agregado(char bajo) {
+            if (cantidad == LIMITE_ARREGLO) {
+                return aBits().agregado(bajo);
+            }
+            int posicion = -Arrays.binarySearch(valores, 0, cantidad, bajo) - 1;
+            if (cantidad == valores.length) {
+                valores = Arrays.copyOf(valores, Math.min(LIMITE_ARREGLO, cantidad * 2));
+            }
+            System.arraycopy(valores, posicion, valores, posicion + 1, cantidad - posicion);
+            valores[posicion] = bajo;
+            cantidad++;
+            return this;
+        }
+
+        @Override
+        Contenedor quitado(char bajo) {
+            if (cantidad == 1) {
+                return null;
+            }
+            int posicion = Arrays.binarySearch(valores, 0, cantidad, bajo);
+            System.arraycopy(valores, posicion + 1, valores, posicion, cantidad - posicion - 1);
+            cantidad--;
+            return this;
+        }
+
+        @Override
+        int siguiente(int desde) {
+            int posicion = Arrays.binarySearch(valores, 0, cantidad, (char) desde);
+            if (posicion >= 0) {
+                return desde;
+            }
+            posicion = -posicion - 1;
+            return posicion < cantidad ? valores[posicion] : -1;
+        }
+
+        @Override
+        Contenedor unido(Contenedor otro) {
+            if (otro instanceof Bits bits) {
+                return bits.copia().unido(this);
+            }
+            Arreglo suyo = (Arreglo) otro;
+            char[] union = new char[cantidad + suyo.cantidad];
+            int i = 0;
+            int j = 0;
+            int k = 0;
+            while (i < cantidad && j < suyo.cantidad) {
+                char a = valores[i];
+                char b = suyo.valores[j];
+                if (a == b) {
+                    j++;
+                }
+                if (a <= b) {
+                    union[k++] = a;
+                    i++;
+                } else {
+                    union[k++] = b;
+                    j++;
+                }
+            }
+            while (i < cantidad) {
+                union[k++] = valores[i++];
+            }
+            while (j < suyo.cantidad) {
+                union[k++] = suyo.valores[j++];
+            }
+            Arreglo resultado = new Arreglo(union, k);
+            return k > LIMITE_ARREGLO ? resultado.aBits() : resultado;
+        }
+
+        @Override
+        Contenedor copia() {
+            return new Arreglo(Arrays.copyOf(valores, Math.max(1, cantidad)), cantidad);
+        }
+
+        @Override
+        long bytes() {
+            return (long) valores.length * Character.BYTES;
+        }
+
+        private Bits aBits() {
+            Bits bits = new Bits();
+            for (int i = 0; i < cantidad; i++) {
+                bits.agregado(valores[i]);
+            }
+            return bits;
+        }
+    }
+
+    /**
+     * Contenedor denso: un bit por cada uno de los 2^16 valores posibles
+     */
+    private static final class Bits extends Contenedor {
+
+        private final long[] palabras;
+        private int cantidad;
+
+        private Bits() {
+            this.palabras = new long[PALABRAS];
+        }
+
+        private Bits(long[] palabras, int cantidad) {
+            this.palabras = palabras;
+            this.cantidad = cantidad;
+        }
+
+        @Override
+        int cantidad() {
+            return cantidad;
+        }
+
+        @Override
+        boolean contiene(char bajo) {
+            return (palabras[bajo >>> 6] & 1L << bajo) != 0;
+        }
+
+        @Override
+        Contenedor agregado(char bajo) {
+            palabras[bajo >>> 6] |= 1L << bajo;
+            cantidad++;
+            return this;
+        }
+
+        @Override
+        Contenedor quitado(char bajo) {
+            palabras[bajo >>> 6] &= ~(1L << bajo);
+            cantidad--;
+            return cantidad > LIMITE_ARREGLO ? this : aArreglo();
+        }
+
+        @Override
+        int siguiente(int desde) {
+            int indice = desde >>> 6;
+            long palabra = palabras[indice] & -1L << desde;
+            while (palabra == 0) {
+                if (++indice == PALABRAS) {
+                    return -1;
+                }
+                palabra = palabras[indice];
+            }
+            return indice * Long.SIZE + Long.numberOfTrailingZeros(palabra);
+        }
+
+        @Override
+        Contenedor unido(Contenedor otro) {
+            if (otro instanceof Bits suyo) {
+                int total = 0;
+                for (int i = 0; i < PALABRAS; i++) {
+                    palabras[i] |= suyo.palabras[i];
+                    total += Long.bitCount(palabras[i]);
+                }
+                cantidad = total;
+                return this;
+            }
+            Arreglo suyo = (Arreglo) otro;
+            for (int i = 0; i < suyo.cantidad; i++) {
+                if (!contiene(suyo.valores[i])) {
+                    agregado(suyo.valores[i]);
+                }
+            }
+            return this;
+        }
+
+        @Override
+        Contenedor copia() {
+            return new Bits(palabras.clone(), cantidad);
+        }
+
+        @Override
+        long bytes() {
+            return (long) PALABRAS * Long.BYTES;
+        }
+
+        private Arreglo aArreglo() {
+            char[] valores = new char[cantidad];
+            int k = 0;
+            for (int bajo = siguiente(0); bajo >= 0; bajo = bajo == MASCARA_BAJOS ? -1 : siguiente(bajo + 1)) {
+                valores[k++] = (char) bajo;
+            }
+            return new Arreglo(valores, k);
+        }
+    }
+
+    /**
+     * Recorrido ascendente por bloque y, dentro de cada bloque, por valor bajo
+     */
+    private final class Iterador implements PrimitiveIterator.OfLong {
+
+        private int bloque;
+        private int bajo = -1;
+
+        private Iterador() {
+            avanzar(0);
+        }
+
+        @Override
+        public boolean hasNext() {
+            return bajo >= 0;
+        }
+
+        @Override
+        public long nextLong() {
+            if (bajo < 0) {
+                throw new NoSuchElementException();
+            }
+            long valor = claves[bloque] << BITS_BAJOS | bajo;
+            if (bajo == MASCARA_BAJOS) {
+                bloque++;
+                avanzar(0);
+            } else {
+                avanzar(bajo + 1);
+            }
+            return valor;
+        }
+
+        private void avanzar(int desde) {
+            while (bloque < bloques) {
+                bajo = contenedores[bloque].siguiente(desde);
+                if (bajo >= 0) {
+                    return;
+                }
+                bloque++;
+                desde = 0;
+            }
+            bajo = -1;
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package com.um.biblioteca.repository.colecciones;
+
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Variante concurrente de {@link MapaDeBits} para el conjunto de IDs de un
+ * repositorio: las escrituras toman el bloqueo de escritura de un
+ * StampedLock y las lecturas, el de lectura.
+ * <p>
+ * Los recorridos no retienen el bloqueo: toman los valores en lotes de
+ * {@value #LOTE}, cada uno con el bloqueo de lectura, y continúan desde el
+ * último valor devuelto. Son débilmente consistentes, como los de
+ * ConcurrentSkipListSet: nunca devuelven un valor dos veces ni fuera de
+ * orden, y pueden reflejar o no los cambios hechos durante el recorrido.
+ */
+public class MapaDeBitsConcurrente implements Iterable<Long> {
+
+    static final int LOTE = 256;
+
+    private final MapaDeBits mapa = new MapaDeBits();
+    private final StampedLock bloqueo = new StampedLock();
+
+    /**
+     * @return true si no estaba
+     * @throws IllegalArgumentException si el valor es negativo
+     */
+    public boolean agregar(long valor) {
+        long sello = bloqueo.writeLock();
+        try {
+            return mapa.agregar(valor);
+        } finally {
+            bloqueo.unlockWrite(sello);
+        }
+    }
+
+    /**
+     * @return true si estaba
+     */
+    public boolean quitar(long valor) {
+        long sello = bloqueo.writeLock();
+        try {
+            return mapa.quitar(valor);
+        } finally {
+            bloqueo.unlockWrite(sello);
+        }
+    }
+
+    public boolean contiene(long valor) {
+        long sello = bloqueo.readLock();
+        try {
+            return mapa.contiene(valor);
+        } finally {
+            bloqueo.unlockRead(sello);
+        }
+    }
+
+    public long cardinalidad() {
+        long sello = bloqueo.readLock();
+        try {
+            return mapa.cardinalidad();
+        } finally {
+            bloqueo.unlockRead(sello);
+        }
+    }
+
+    /**
+     * Memoria que ocupa el conjunto; ver {@link MapaDeBits#bytesOcupados()}
+     */
+    public long bytesOcupados() {
+        long sello = bloqueo.readLock();
+        try {
+            return mapa.bytesOcupados();
+        } finally {
+            bloqueo.unlockRead(sello);
+        }
+    }
+
+    /**
+     * Recorre los valores en orden ascendente
+     */
+    @Override
+    public PrimitiveIterator.OfLong iterator() {
+        return new Iterador(0);
+    }
+
+    /**
+     * Valores mayores o iguales al indicado, en orden ascendente, como
+     * {@link java.util.NavigableSet#tailSet(Object, boolean)}
+     * @param desde Valor inicial (inclusivo)
+     */
+    public Iterable<Long> desde(long desde) {
+        return () -> new Iterador(desde);
+    }
+
+    /**
+     * Copia en el arreglo hasta su longitud los valores mayores o iguales a desde
+     * @return Cantidad de valores copiados
+     */
+    private int leer(long desde, long[] destino) {
+        long sello = bloqueo.readLock();
+        try {
+            int cantidad = 0;
+            for (long valor = mapa.siguiente(desde); valor >= 0 && cantidad < destino.length;
+                    valor = valor == Long.MAX_VALUE ? -1 : mapa.siguiente(valor + 1)) {
+                destino[cantidad++] = valor;
+            }
+            return cantidad;
+        } finally {
+            bloqueo.unlockRead(sello);
+        }
+    }
+
+    private final class Iterador implements PrimitiveIterator.OfLong {
+
+        private final long[] lote = new long[LOTE];
+        private int cantidad;
+        private int posicion;
+        private long siguienteDesde;
+        private boolean agotado;
+
+        private Iterador(long desde) {
+            this.siguienteDesde = Math.max(0, desde);
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (posicion < cantidad) {
+                return true;
+            }
+            if (agotado) {
+                return false;
+            }
+            cantidad = leer(siguienteDesde, lote);
+            posicion = 0;
+            if (cantidad == 0 || lote[cantidad - 1] == Long.MAX_VALUE) {
+                agotado = true;
+            } else {
+                siguienteDesde = lote[cantidad - 1] + 1;
+            }
+            return cantidad > 0;
+        }
+
+        @Override
+        public long nextLong() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return lote[posicion++];
+        }
+    }
+}
@@ -0,0 +1,318 @@
+package com.um.biblioteca.repository.colecciones;
+
+import java.util.Arrays;
+
+/**
+ * Mapa de claves long primitivas a objetos con direccionamiento abierto y
+ * sondeo lineal. Las claves y los valores viven en dos arreglos paralelos,
+ * por lo que no se crea un Long ni un nodo por entrada: cada entrada ocupa
+ * una posición de cada arreglo (12 bytes con referencias comprimidas) más
+ * el espacio libre que deja el factor de carga.
+ * <p>
+ * La clave 0 marca las posiciones libres y se guarda aparte. Las bajas
+ * desplazan hacia atrás las entradas siguientes en lugar de dejar marcas,
+ * así las búsquedas nunca recorren posiciones borradas. Admite valores
+ * null, como HashMap.
+ * <p>
+ * No es seguro para uso concurrente; ver {@link MapaLongConcurrente}.
+ * @param <V> Tipo de valor
+ */
+public class MapaLong<V> {
+
+    /**
+     * Acción sobre una entrada del mapa
+     */
+    @FunctionalInterface
+    public interface Consumidor<V> {
+        void aceptar(long clave, V valor);
+    }
+
+    /**
+     * Calcula el nuevo valor de una clave a partir del actual (null si no existe);
+     * devolver null elimina la entrada
+     */
+    @FunctionalInterface
+    public interface Reasignacion<V> {
+        V aplicar(long clave, V actual);
+    }
+
+    /**
+     * Resultado de {@link #buscarSinBloqueo} cuando la lectura coincidió con una escritura
+     */
+    static final Object REINTENTAR = new Object();
+
+    private static final int CAPACIDAD_MINIMA = 16;
+    private static final float FACTOR_CARGA = 0.75f;
+
+    private long[] claves;
+    private Object[] valores;
+    private int mascara;
+    private int umbral;
+    private int tamanio;
+    private boolean tieneCero;
+    private Object valorCero;
+
+    public MapaLong() {
+        this(CAPACIDAD_MINIMA);
+    }
+
+    /**
+     * @param capacidadEsperada Cantidad de entradas que se espera guardar sin redimensionar
+     */
+    public MapaLong(int capacidadEsperada) {
+        int capacidad = Math.max(CAPACIDAD_MINIMA, Integer.highestOneBit((int) (capacidadEsperada / FACTOR_CARGA) * 2 - 1));
+        asignarTabla(new long[capacidad], new Object[capacidad]);
+    }
+
+    @SuppressWarnings("unchecked")
+    public V get(long clave) {
+        if (clave == 0) {
+            return (V) valorCero;
+        }
+        int posicion = buscar(clave);
+        return posicion >= 0 ? (V) valores[posicion] : null;
+    }
+
+    public boolean containsKey(long clave) {
+        return clave == 0 ? tieneCero : buscar(clave) >= 0;
+    }
+
+    /**
+     * Asocia el valor con la clave
+     * @return Valor anterior o null si la clave no existía
+     */
+    @SuppressWarnings("unchecked")
+    public V put(long clave, V valor) {
+        if (clave == 0) {
+            V anterior = (V) valorCero;
+            if (!tieneCero) {
+                tieneCero = true;
+                tamanio++;
+            }
+            valorCero = valor;
+            return anterior;
+        }
+        int posicion = posicionDe(clave);
+        while (claves[posicion] != 0) {
+            if (claves[posicion] == clave) {
+                V anterior = (V) valores[posicion];
+                valores[posicion] = valor;
+                return anterior;
+            }
+            posicion = (posicion + 1) & mascara;
+        }
+        insertarEn(posicion, clave, valor);
+        return null;
+    }
+
+    /**
+     * Elimina la entrada de la clave
+     * @return Valor eliminado o null si la clave no existía
+     */
+    @SuppressWarnings("unchecked")
+    public V remove(long clave) {
+        if (clave == 0) {
+            V anterior = (V) valorCero;
+            if (tieneCero) {
+                tieneCero = false;
+                valorCero = null;
+                tamanio--;
+            }
+            return anterior;
+        }
+        int posicion = buscar(clave);
+        if (posicion < 0) {
+            return null;
+        }
+        V anterior = (V) valores[posicion];
+        eliminarEn(posicion);
+        return anterior;
+    }
+
+    /**
+     * Reemplaza el valor de la clave por el que calcule la función, con una sola búsqueda
+     * @return Nuevo valor o null si la entrada quedó eliminada
+     */
+    @SuppressWarnings("unchecked")
+    public V compute(long clave, Reasignacion<V> reasignacion) {
+        if (clave == 0) {
+            V nuevo = reasignacion.aplicar(clave, (V) valorCero);
+            if (nuevo != null) {
+                put(0, nuevo);
+            } else {
+                remove(0);
+            }
+            return nuevo;
+        }
+        int posicion = posicionDe(clave);
+        while (claves[posicion] != 0) {
+            if (claves[posicion] == clave) {
+                V nuevo = reasignacion.aplicar(clave, (V) valores[posicion]);
+                if (nuevo != null) {
+                    valores[posicion] = nuevo;
+                } else {
+                    eliminarEn(posicion);
+                }
+                return nuevo;
+            }
+            posicion = (posicion + 1) & mascara;
+        }
+        V nuevo = reasignacion.aplicar(clave, null);
+        if (nuevo != null) {
+            insertarEn(posicion, clave, nuevo);
+        }
+        return nuevo;
+    }
+
+    public int size() {
+        return tamanio;
+    }
+
+    public boolean isEmpty() {
+        return tamanio == 0;
+    }
+
+    public void clear() {
+        Arrays.fill(claves, 0);
+        Arrays.fill(valores, null);
+        tieneCero = false;
+        valorCero = null;
+        tamanio = 0;
+    }
+
+    /**
+     * Recorre las entradas sin orden definido. La acción no debe modificar el mapa.
+     */
+    @SuppressWarnings("unchecked")
+    public void forEach(Consumidor<? super V> accion) {
+        if (tieneCero) {
+            accion.aceptar(0, (V) valorCero);
+        }
+        for (int i = 0; i < claves.length; i++) {
+            if (claves[i] != 0) {
+                accion.aceptar(claves[i], (V) valores[i]);
+            }
+        }
+    }
+
+    /**
+     * Búsqueda que tolera escrituras concurrentes: lee la tabla una sola vez,
+     * acota el sondeo y nunca lanza excepciones por un estado intermedio. El
+     * resultado sólo es válido si se confirma que no hubo escrituras durante
+     * la lectura (ver {@link MapaLongConcurrente}).
+     * @return Valor, null si la clave no existe, o {@link #REINTENTAR} si la tabla era inconsistente
+     */
+    Object buscarSinBloqueo(long clave) {
+        if (clave == 0) {
+            return valorCero;
+        }
+        long[] c = claves;
+        Object[] v = valores;
+        if (c.length != v.length) {
+            return REINTENTAR;
+        }
+        int m = c.length - 1;
+        int posicion = (int) (mezclar(clave) >>> 32) & m;
+        for (int sondeos = 0; sondeos < c.length; sondeos++) {
+            long actual = c[posicion];
+            if (actual == clave) {
+                return v[posicion];
+            }
+            if (actual == 0) {
+                return null;
+            }
+            posicion = (posicion + 1) & m;
+        }
+        return REINTENTAR;
+    }
+
+    private int buscar(long clave) {
+        int posicion = posicionDe(clave);
+        while (true) {
+            long actual = claves[posicion];
+            if (actual == clave) {
+                return posicion;
+            }
+            if (actual == 0) {
+                return -1;
+            }
+            posicion = (posicion + 1) & mascara;
+        }
+    }
+
+    private void insertarEn(int posicion, long clave, Object valor) {
+        claves[posicion] = clave;
+        valores[posicion] = valor;
+        if (++tamanio > umbral) {
+            redimensionar();
+        }
+    }
+
+    /**
+     * Libera la posición desplazando hacia atrás las entradas de la misma
+     * secuencia de sondeo que quedarían inalcanzables
+     */
+    private void eliminarEn(int posicion) {
+        int libre = posicion;
+        int siguiente = (libre + 1) & mascara;
+        while (claves[siguiente] != 0) {
+            int ideal = posicionDe(claves[siguiente]);
+            // La entrada puede ocupar el hueco si éste está entre su posición ideal y la actual
+            if (((siguiente - ideal) & mascara) >= ((siguiente - libre) & mascara)) {
+                claves[libre] = claves[siguiente];
+                valores[libre] = valores[siguiente];
+                libre = siguiente;
+            }
+            siguiente = (siguiente + 1) & mascara;
+        }
+        claves[libre] = 0;
+        valores[libre] = null;
+        tamanio--;
+    }
+
+    private void redimensionar() {
+        long[] clavesAnteriores = claves;
+        Object[] valoresAnteriores = valores;
+        int capacidad = clavesAnteriores.length * 2;
+        long[] nuevasClaves = new long[capacidad];
+        Object[] nuevosValores = new Object[capacidad];
+        int nuevaMascara = capacidad - 1;
+        for (int i = 0; i < clavesAnteriores.length; i++) {
+            long clave = clavesAnteriores[i];
+            if (clave != 0) {
+                int posicion = (int) (mezclar(clave) >>> 32) & nuevaMascara;
+                while (nuevasClaves[posicion] != 0) {
+                    posicion = (posicion + 1) & nuevaMascara;
+                }
+                nuevasClaves[posicion] = clave;
+                nuevosValores[posicion] = valoresAnteriores[i];
+            }
+        }
+        asignarTabla(nuevasClaves, nuevosValores);
+    }
+
+    private void asignarTabla(long[] nuevasClaves, Object[] nuevosValores) {
+        claves = nuevasClaves;
+        valores = nuevosValores;
+        mascara = nuevasClaves.length - 1;
+        umbral = (int) (nuevasClaves.length * FACTOR_CARGA);
+    }
+
+    private int posicionDe(long clave) {
+        return (int) (mezclar(clave) >>> 32) & mascara;
+    }
+
+    /**
+     * Mezcla los bits de la clave (finalizador de MurmurHash3) para que IDs
+     * consecutivos no formen secuencias largas de sondeo
+     */
+    static long mezclar(long clave) {
+        long h = clave;
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        h *= 0xC4CEB9FE1A85EC53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
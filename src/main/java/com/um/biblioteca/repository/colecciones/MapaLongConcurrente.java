@@ -0,0 +1,163 @@
+package com.um.biblioteca.repository.colecciones;
+
+import java.util.Objects;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Variante concurrente de {@link MapaLong}: divide las claves en segmentos,
+ * cada uno con su propio mapa y un StampedLock. Las escrituras toman el
+ * bloqueo de escritura de su segmento, de modo que las de segmentos
+ * distintos no compiten. Las lecturas son optimistas: buscan sin bloquear
+ * y sólo si una escritura del segmento coincidió con la lectura la repiten
+ * con el bloqueo de lectura.
+ * <p>
+ * Como ConcurrentHashMap, no admite valores null y los recorridos son
+ * débilmente consistentes (cada segmento se copia por separado).
+ * @param <V> Tipo de valor
+ */
+public class MapaLongConcurrente<V> {
+
+    private static final int SEGMENTOS = 64;
+
+    private final Segmento<V>[] segmentos;
+
+    private static final class Segmento<V> {
+        final StampedLock bloqueo = new StampedLock();
+        final MapaLong<V> mapa = new MapaLong<>();
+    }
+
+    @SuppressWarnings("unchecked")
+    public MapaLongConcurrente() {
+        segmentos = new Segmento[SEGMENTOS];
+        for (int i = 0; i < SEGMENTOS; i++) {
+            segmentos[i] = new Segmento<>();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    public V get(long clave) {
+        Segmento<V> segmento = segmento(clave);
+        long sello = segmento.bloqueo.tryOptimisticRead();
+        if (sello != 0) {
+            Object valor = segmento.mapa.buscarSinBloqueo(clave);
+            if (valor != MapaLong.REINTENTAR && segmento.bloqueo.validate(sello)) {
+                return (V) valor;
+            }
+        }
+        sello = segmento.bloqueo.readLock();
+        try {
+            return segmento.mapa.get(clave);
+        } finally {
+            segmento.bloqueo.unlockRead(sello);
+        }
+    }
+
+    public boolean containsKey(long clave) {
+        return get(clave) != null;
+    }
+
+    /**
+     * Asocia el valor con la clave
+     * @return Valor anterior o null si la clave no existía
+     */
+    public V put(long clave, V valor) {
+        Objects.requireNonNull(valor);
+        Segmento<V> segmento = segmento(clave);
+        long sello = segmento.bloqueo.writeLock();
+        try {
+            return segmento.mapa.put(clave, valor);
+        } finally {
+            segmento.bloqueo.unlockWrite(sello);
+        }
+    }
+
+    /**
+     * Elimina la entrada de la clave
+     * @return Valor eliminado o null si la clave no existía
+     */
+    public V remove(long clave) {
+        Segmento<V> segmento = segmento(clave);
+        long sello = segmento.bloqueo.writeLock();
+        try {
+            return segmento.mapa.remove(clave);
+        } finally {
+            segmento.bloqueo.unlockWrite(sello);
+        }
+    }
+
+    /**
+     * Reemplaza atómicamente el valor de la clave por el que calcule la
+     * función. La función se ejecuta con el segmento bloqueado, por lo que
+     * debe ser breve y no acceder a este mapa.
+     * @return Nuevo valor o null si la entrada quedó eliminada
+     */
+    public V compute(long clave, MapaLong.Reasignacion<V> reasignacion) {
+        Segmento<V> segmento = segmento(clave);
+        long sello = segmento.bloqueo.writeLock();
+        try {
+            return segmento.mapa.compute(clave, reasignacion);
+        } finally {
+            segmento.bloqueo.unlockWrite(sello);
+        }
+    }
+
+    public int size() {
+        int total = 0;
+        for (Segmento<V> segmento : segmentos) {
+            long sello = segmento.bloqueo.tryOptimisticRead();
+            int tamanio = segmento.mapa.size();
+            if (!segmento.bloqueo.validate(sello)) {
+                sello = segmento.bloqueo.readLock();
+                try {
+                    tamanio = segmento.mapa.size();
+                } finally {
+                    segmento.bloqueo.unlockRead(sello);
+                }
+            }
+            total += tamanio;
+        }
+        return total;
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /**
+     * Recorre las entradas sin orden definido. Cada segmento se copia con su
+     * bloqueo de lectura y la acción se ejecuta sin bloqueos, por lo que
+     * puede modificar el mapa.
+     */
+    @SuppressWarnings("unchecked")
+    public void forEach(MapaLong.Consumidor<? super V> accion) {
+        for (Segmento<V> segmento : segmentos) {
+            long[] claves;
+            Object[] valores;
+            long sello = segmento.bloqueo.readLock();
+            try {
+                int tamanio = segmento.mapa.size();
+                if (tamanio == 0) {
+                    continue;
+                }
+                claves = new long[tamanio];
+                valores = new Object[tamanio];
+                int[] siguiente = {0};
+                segmento.mapa.forEach((clave, valor) -> {
+                    claves[siguiente[0]] = clave;
+                    valores[siguiente[0]++] = valor;
+                });
+            } finally {
+                segmento.bloqueo.unlockRead(sello);
+            }
+            for (int i = 0; i < claves.length; i++) {
+                accion.aceptar(claves[i], (V) valores[i]);
+            }
+        }
+    }
+
+    private Segmento<V> segmento(long clave) {
+        // Bits altos de un hash multiplicativo, independientes de los que usa MapaLong dentro del segmento
+        long h = clave * 0x9E3779B97F4A7C15L;
+        return segmentos[(int) (h >>> 58) & (SEGMENTOS - 1)];
+    }
+}
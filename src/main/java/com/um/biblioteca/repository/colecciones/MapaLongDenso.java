@@ -0,0 +1,70 @@
+package com.um.biblioteca.repository.colecciones;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Mapa de claves long no negativas a valores long primitivos, pensado para
+ * claves densas como los IDs secuenciales de un repositorio. Los valores se
+ * guardan en bloques de {@code 1 << BITS_BLOQUE} claves consecutivas que se
+ * reservan al escribir la primera clave del rango, como los registros de
+ * {@link com.um.biblioteca.repository.almacen.AlmacenPrestamosFueraDeHeap}:
+ * con claves densas cada entrada ocupa 8 bytes. Los bloques no se liberan
+ * al quitar entradas.
+ * <p>
+ * Es seguro para uso concurrente: cada posición se lee y escribe con
+ * semántica volátil y los bloques se crean con
+ * {@link MapaLongConcurrente#compute}. {@link #AUSENTE} marca las
+ * posiciones vacías, por lo que no puede usarse como valor.
+ */
+public class MapaLongDenso {
+
+    /**
+     * Valor que devuelven las consultas de claves sin entrada
+     */
+    public static final long AUSENTE = Long.MIN_VALUE;
+
+    private static final int BITS_BLOQUE = 10;
+    private static final int MASCARA_BLOQUE = (1 << BITS_BLOQUE) - 1;
+
+    private final MapaLongConcurrente<AtomicLongArray> bloques = new MapaLongConcurrente<>();
+
+    /**
+     * @return Valor de la clave, o {@link #AUSENTE} si no tiene
+     */
+    public long get(long clave) {
+        AtomicLongArray bloque = clave >= 0 ? bloques.get(clave >>> BITS_BLOQUE) : null;
+        return bloque != null ? bloque.get((int) (clave & MASCARA_BLOQUE)) : AUSENTE;
+    }
+
+    /**
+     * Asocia el valor con la clave
+     * @return Valor anterior, o {@link #AUSENTE} si la clave no tenía
+     * @throws IllegalArgumentException si la clave es negativa o el valor es {@link #AUSENTE}
+     */
+    public long put(long clave, long valor) {
+        if (clave < 0 || valor == AUSENTE) {
+            throw new IllegalArgumentException("Entrada inválida para el mapa denso: " + clave + " -> " + valor);
+        }
+        AtomicLongArray bloque = bloques.get(clave >>> BITS_BLOQUE);
+        if (bloque == null) {
+            bloque = bloques.compute(clave >>> BITS_BLOQUE, (b, actual) -> actual != null ? actual : nuevoBloque());
+        }
+        return bloque.getAndSet((int) (clave & MASCARA_BLOQUE), valor);
+    }
+
+    /**
+     * Quita la entrada de la clave
+     * @return Valor quitado, o {@link #AUSENTE} si la clave no tenía
+     */
+    public long remove(long clave) {
+        AtomicLongArray bloque = clave >= 0 ? bloques.get(clave >>> BITS_BLOQUE) : null;
+        return bloque != null ? bloque.getAndSet((int) (clave & MASCARA_BLOQUE), AUSENTE) : AUSENTE;
+    }
+
+    private static AtomicLongArray nuevoBloque() {
+        long[] valores = new long[1 << BITS_BLOQUE];
+        Arrays.fill(valores, AUSENTE);
+        return new AtomicLongArray(valores);
+    }
+}
@@ -0,0 +1,798 @@
+package com.um.biblioteca.repository.impl;
+
+import com.um.biblioteca.exception.ConflictoDeVersionException;
+import com.um.biblioteca.exception.BibliotecaException;
+import com.um.biblioteca.exception.DatosInvalidosException;
+import com.um.biblioteca.exception.PersistenciaException;
+import com.um.biblioteca.repository.BaseRepository;
+import com.um.biblioteca.repository.Pagina;
+import com.um.biblioteca.repository.PaginaCursor;
+import com.um.biblioteca.repository.Recorrido;
+import com.um.biblioteca.repository.almacen.AlmacenEnHeap;
+import com.um.biblioteca.repository.almacen.AlmacenEntidades;
+import com.um.biblioteca.repository.colecciones.MapaDeBits;
+import com.um.biblioteca.repository.colecciones.MapaDeBitsConcurrente;
+import com.um.biblioteca.repository.index.EstadisticasIndice;
+import com.um.biblioteca.repository.persistencia.FuentePerezosa;
+import com.um.biblioteca.repository.persistencia.RegistroCambios;
+import com.um.biblioteca.repository.persistencia.RepositorioPersistente;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.Objects;
+import java.util.function.BiConsumer;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Motor de almacenamiento en memoria compartido por los repositorios.
+ * Las lecturas por ID no toman bloqueos y las escrituras sobre un mismo ID se
+ * serializan con bloqueos segmentados, de modo que save y deleteById son
+ * linealizables sin recurrir a un bloqueo global.
+ * <p>
+ * Las entidades son inmutables: cada escritura publica en el almacén una
+ * nueva instancia, de modo que las lecturas (incluidos los recorridos) nunca
+ * observan una entidad a medio modificar y las instancias leídas pueden
+ * compartirse sin copiarlas.
+ * <p>
+ * Cada entidad lleva una versión que se incrementa en cada escritura. Si
+ * la entidad a guardar trae versión, save sólo la reemplaza cuando coincide
+ * con la almacenada (control de concurrencia optimista).
+ * <p>
+ * Si el repositorio está conectado a un registro de cambios, cada escritura
+ * se registra con el bloqueo tomado y se espera su confirmación después de
+ * liberarlo, de modo que las escrituras concurrentes se agrupan en el registro.
+ * Si el registro rechaza el cambio, se deshace en memoria antes de informar
+ * la falla, para que lo publicado no quede adelantado respecto del registro.
+ * <p>
+ * Tras una carga perezosa desde una instantánea, sólo las operaciones por ID
+ * (findById, existsById, deleteById y {@link #actualizarSi}) materializan la
+ * entidad en el momento. Las demás, incluido todo save, esperan a que
+ * {@link #completarCarga} termine, porque dependen del conjunto completo o
+ * de los índices.
+ * <p>
+ * Las entidades se guardan en un {@link AlmacenEntidades} y sus IDs, para
+ * recorrerlas en orden, en un {@link MapaDeBitsConcurrente}, cerca de un bit
+ * por ID secuencial; los recorridos leen los IDs en lotes con su bloqueo de
+ * lectura. Los registros que examina cada consulta se cuentan en
+ * {@link Recorrido}.
+ * @param <T> Tipo de entidad
+ */
+public abstract class AbstractInMemoryRepository<T> implements BaseRepository<T, Long>, RepositorioPersistente<T> {
+
+    private static final Logger log = LoggerFactory.getLogger(AbstractInMemoryRepository.class);
+    private static final int SEGMENTOS = 64;
+    private static final int TAMANIO_MAXIMO_PAGINA = 1000;
+    // Deja lugar para el siguiente valor de la secuencia
+    private static final long ID_MAXIMO = Long.MAX_VALUE - 1;
+
+    protected final AlmacenEntidades<T> entidades;
+    private final MapaDeBitsConcurrente idsOrdenados = new MapaDeBitsConcurrente();
+    /**
+     * Última escritura de cada ID que el registro todavía no confirmó
+     */
+    private final ConcurrentMap<Long, Escritura<T>> sinConfirmar = new ConcurrentHashMap<>();
+    private final AtomicLong secuencia = new AtomicLong(1L);
+    private final ReentrantLock[] bloqueos = new ReentrantLock[SEGMENTOS];
+    private volatile RegistroCambios<T> registro = RegistroCambios.ninguno();
+    private volatile CargaPerezosa<T> carga;
+    private volatile PersistenciaException errorDeCarga;
+
+    protected AbstractInMemoryRepository() {
+        this(new AlmacenEnHeap<>());
+    }
+
+    protected AbstractInMemoryRepository(AlmacenEntidades<T> entidades) {
+        this.entidades = entidades;
+        for (int i = 0; i < SEGMENTOS; i++) {
+            bloqueos[i] = new ReentrantLock();
+        }
+    }
+
+    /**
+     * Obtiene el ID de la entidad
+     * @param entidad Entidad
+     * @return ID de la entidad o null si todavía no fue asignado
+     */
+    protected abstract Long obtenerId(T entidad);
+
+    /**
+     * Copia la entidad con otro ID
+     * @param entidad Entidad
+     * @param id ID a asignar
+     * @return Copia de la entidad con ese ID
+     */
+    protected abstract T conId(T entidad, Long id);
+    
+    /**
+     * Obtiene la versión de la entidad
+     * @param entidad Entidad
+     * @return Versión de la entidad o null si no se indicó
+     */
+    protected abstract Long obtenerVersion(T entidad);
+    
+    /**
+     * Copia la entidad con otra versión
+     * @param entidad Entidad
+     * @param version Nueva versión
+     * @return Copia de la entidad con esa versión
+     */
+    protected abstract T conVersion(T entidad, Long version);
+
+    /**
+     * Actualiza los índices secundarios antes de almacenar la entidad.
+     * Se invoca con el bloqueo del ID tomado; si lanza una excepción la
+     * entidad no se almacena y los índices se restauran a la entidad
+     * publicada, por lo que cada índice debe validar antes de modificarse.
+     * @param id ID de la entidad
+     * @param entidad Entidad a indexar
+     */
+    protected void indexar(Long id, T entidad) {
+    }
+
+    /**
+     * Elimina la entidad de los índices secundarios.
+     * Se invoca con el bloqueo del ID tomado.
+     * @param id ID de la entidad eliminada
+     */
+    protected void desindexar(Long id) {
+    }
+
+    /**
+     * Estadísticas de consultas de los índices secundarios, por nombre de índice
+     */
+    public Map<String, EstadisticasIndice> estadisticasIndices() {
+        return Map.of();
+    }
+
+    /**
+     * Cantidad de entidades publicadas, sin esperar la carga perezosa: mientras
+     * la carga está en curso no cuenta las entidades todavía sin materializar
+     */
+    public long tamanioActual() {
+        return entidades.size();
+    }
+
+    /**
+     * Guarda la entidad publicando una nueva instancia con el ID y la versión asignados
+     * @param entidad Entidad a guardar; no se modifica
+     * @return Instancia almacenada
+     */
+    @Override
+    public T save(T entidad) {
+        esperarCarga();
+        Long id = obtenerId(entidad);
+        if (id == null) {
+            id = secuencia.getAndIncrement();
+        } else {
+            validarId(id);
+            // Evita que la secuencia entregue un ID ya usado explícitamente
+            long siguiente = id + 1;
+            secuencia.accumulateAndGet(siguiente, Math::max);
+        }
+
+        Long idFinal = id;
+        Escritura<T> escritura = conBloqueo(idFinal, () -> {
+            T actual = entidades.get(idFinal);
+            Long esperada = obtenerVersion(entidad);
+            Long vigente = actual != null ? obtenerVersion(actual) : null;
+            // Una entidad sin versión se guarda incondicionalmente
+            if (actual != null && esperada != null && !esperada.equals(vigente)) {
+                throw new ConflictoDeVersionException(idFinal, esperada, vigente);
+            }
+            
+            T nueva = conVersion(conId(entidad, idFinal), siguienteVersion(vigente));
+            return publicar(idFinal, nueva);
+        });
+        return confirmar(escritura);
+    }
+
+    @Override
+    public Optional<T> findById(Long id) {
+        if (id == null) {
+            return Optional.empty();
+        }
+        Recorrido.sumar(1);
+        T entidad = entidades.get(id);
+        return Optional.ofNullable(entidad != null ? entidad : materializar(id));
+    }
+
+    @Override
+    public List<T> findAll() {
+        esperarCarga();
+        List<T> resultado = new ArrayList<>(entidades.size());
+        entidades.forEach(resultado::add);
+        Recorrido.sumar(resultado.size());
+        return resultado;
+    }
+
+    @Override
+    public Stream<T> streamAll() {
+        esperarCarga();
+        return resolverPerezosamente(idsOrdenados);
+    }
+
+    @Override
+    public Pagina<T> findAll(int pagina, int tamanio) {
+        if (pagina < 0) {
+            throw new DatosInvalidosException("pagina", "debe ser mayor o igual a 0");
+        }
+        validarTamanio("tamanio", tamanio);
+        esperarCarga();
+
+        List<T> contenido = new ArrayList<>(tamanio);
+        Iterator<Long> ids = idsOrdenados.iterator();
+        long saltear = (long) pagina * tamanio;
+        long examinados = 0;
+        while (ids.hasNext() && contenido.size() < tamanio) {
+            Long id = ids.next();
+            examinados++;
+            if (saltear > 0) {
+                if (entidades.contains(id)) {
+                    saltear--;
+                }
+                continue;
+            }
+            T entidad = entidades.get(id);
+            if (entidad != null) {
+                contenido.add(entidad);
+            }
+        }
+        Recorrido.sumar(examinados);
+        return new Pagina<>(contenido, pagina, tamanio, count());
+    }
+
+    @Override
+    public PaginaCursor<T> findAllAfter(Long despuesDe, int limite) {
+        validarTamanio("limite", limite);
+        esperarCarga();
+
+        Iterable<Long> siguientes = despuesDe == null ? idsOrdenados
+                : despuesDe < Long.MAX_VALUE ? idsOrdenados.desde(despuesDe + 1) : List.of();
+        List<T> contenido = new ArrayList<>(limite);
+        Long ultimoId = null;
+        long examinados = 0;
+        for (Long id : siguientes) {
+            examinados++;
+            T entidad = entidades.get(id);
+            if (entidad == null) {
+                continue;
+            }
+            if (contenido.size() == limite) {
+                // Existe al menos una entidad más: la página siguiente empieza después de la última devuelta
+                Recorrido.sumar(examinados);
+                return new PaginaCursor<>(contenido, ultimoId);
+            }
+            contenido.add(entidad);
+            ultimoId = id;
+        }
+        Recorrido.sumar(examinados);
+        return new PaginaCursor<>(contenido, null);
+    }
+
+    @Override
+    public long count() {
+        esperarCarga();
+        return entidades.size();
+    }
+
+    @Override
+    public void deleteById(Long id) {
+        if (id == null) {
+            return;
+        }
+        materializar(id);
+        Escritura<T> escritura = conBloqueo(id, () -> {
+            T anterior = entidades.get(id);
+            if (!entidades.remove(id)) {
+                return null;
+            }
+            idsOrdenados.quitar(id);
+            desindexar(id);
+            return registrar(id, anterior, null, () -> registro.eliminado(id));
+        });
+        if (escritura != null) {
+            confirmar(escritura);
+        }
+    }
+
+    @Override
+    public boolean existsById(Long id) {
+        return findById(id).isPresent();
+    }
+
+    @Override
+    public void restaurar(Long id, T entidad) {
+        T restaurada = conId(entidad, id);
+        secuencia.accumulateAndGet(id + 1, Math::max);
+        conBloqueo(id, () -> {
+            reclamarPerezosa(id);
+            almacenar(id, restaurada);
+            return restaurada;
+        });
+    }
+
+    @Override
+    public void descartar(Long id) {
+        conBloqueo(id, () -> {
+            reclamarPerezosa(id);
+            if (entidades.remove(id)) {
+                idsOrdenados.quitar(id);
+                desindexar(id);
+            }
+            return null;
+        });
+    }
+
+    @Override
+    public void cargarPerezosamente(FuentePerezosa<T> fuente) {
+        if (fuente.cantidad() > 0) {
+            secuencia.accumulateAndGet(fuente.id(fuente.cantidad() - 1) + 1, Math::max);
+        }
+        carga = new CargaPerezosa<>(fuente);
+    }
+
+    @Override
+    public void completarCarga() {
+        CargaPerezosa<T> actual = carga;
+        if (actual == null) {
+            return;
+        }
+        try {
+            FuentePerezosa<T> fuente = actual.fuente();
+            for (int posicion = 0; posicion < fuente.cantidad(); posicion++) {
+                int p = posicion;
+                Long id = fuente.id(p);
+                try {
+                    conBloqueo(id, () -> materializarEn(actual, p, id));
+                } catch (PersistenciaException e) {
+                    // Quedó registrada en errorDeCarga; se cargan las demás
+                }
+            }
+        } finally {
+            carga = null;
+            actual.terminar();
+        }
+    }
+    
+    @Override
+    public PersistenciaException errorDeCarga() {
+        return errorDeCarga;
+    }
+    
+    @Override
+    public void recorrer(BiConsumer<Long, T> consumidor) {
+        esperarCarga();
+        // Las entidades son inmutables, por lo que no hace falta el bloqueo de cada ID
+        long examinados = 0;
+        for (Long id : idsOrdenados) {
+            examinados++;
+            T entidad = entidades.get(id);
+            if (entidad != null) {
+                consumidor.accept(id, entidad);
+            }
+        }
+        Recorrido.sumar(examinados);
+    }
+    
+    @Override
+    public void conectar(RegistroCambios<T> registro) {
+        this.registro = registro;
+    }
+    
+    /**
+     * Reemplaza la entidad almacenada sólo si cumple la condición. La
+     * comprobación, el cambio y la reindexación se hacen con el bloqueo
+     * del ID tomado, por lo que dos llamadas concurrentes sobre la misma
+     * entidad nunca observan el mismo estado previo. La versión de la
+     * entidad se incrementa como en save.
+     * @param id ID de la entidad
+     * @param condicion Condición que debe cumplir la entidad actual
+     * @param cambio Construye la nueva entidad a partir de la actual
+     * @return true si la entidad existía, cumplía la condición y fue reemplazada
+     */
+    protected boolean actualizarSi(Long id, Predicate<? super T> condicion, UnaryOperator<T> cambio) {
+        if (id == null) {
+            return false;
+        }
+        materializar(id);
+        Escritura<T> escritura = conBloqueo(id, () -> {
+            T entidad = entidades.get(id);
+            if (entidad == null || !condicion.test(entidad)) {
+                return null;
+            }
+            T nueva = cambio.apply(entidad);
+            return publicar(id, conVersion(nueva, siguienteVersion(obtenerVersion(entidad))));
+        });
+        if (escritura == null) {
+            return false;
+        }
+        confirmar(escritura);
+        return true;
+    }
+
+    /**
+     * Obtiene las entidades correspondientes a los IDs de un índice
+     * @param ids IDs de entidades
+     * @return Lista de entidades existentes, en el orden de los IDs
+     */
+    protected List<T> resolver(Iterable<Long> ids) {
+        List<T> resultado = new ArrayList<>();
+        long examinados = 0;
+        for (Long id : ids) {
+            examinados++;
+            T entidad = entidades.get(id);
+            if (entidad != null) {
+                resultado.add(entidad);
+            }
+        }
+        Recorrido.sumar(examinados);
+        return resultado;
+    }
+
+    /**
+     * Obtiene las entidades correspondientes a un mapa de bits de IDs
+     * @param ids Mapa de bits de IDs
+     * @return Lista de entidades existentes, en orden ascendente de ID
+     */
+    protected List<T> resolver(MapaDeBits ids) {
+        List<T> resultado = new ArrayList<>((int) Math.min(ids.cardinalidad(), Integer.MAX_VALUE - 8));
+        Recorrido.sumar(ids.cardinalidad());
+        for (long id = ids.siguiente(0); id >= 0; id = ids.siguiente(id + 1)) {
+            T entidad = entidades.get(id);
+            if (entidad != null) {
+                resultado.add(entidad);
+            }
+        }
+        return resultado;
+    }
+
+    /**
+     * Recorre perezosamente las entidades correspondientes a los IDs de un índice
+     * @param ids IDs de entidades
+     * @return Stream de entidades existentes, en el orden de los IDs
+     */
+    protected Stream<T> resolverPerezosamente(Iterable<Long> ids) {
+        return StreamSupport.stream(ids.spliterator(), false)
+                .peek(id -> Recorrido.sumar(1))
+                .map(entidades::get)
+                .filter(Objects::nonNull);
+    }
+
+    /**
+     * Recorre perezosamente las entidades correspondientes a un mapa de bits de IDs
+     * @param ids Mapa de bits de IDs
+     * @return Stream de entidades existentes, en orden ascendente de ID
+     */
+    protected Stream<T> resolverPerezosamente(MapaDeBits ids) {
+        return ids.stream()
+                .peek(id -> Recorrido.sumar(1))
+                .mapToObj(entidades::get)
+                .filter(Objects::nonNull);
+    }
+
+    /**
+     * Ejecuta una operación con el bloqueo del segmento asociado al ID,
+     * serializándola con el resto de escrituras sobre la misma entidad
+     * @param id ID de la entidad
+     * @param operacion Operación a ejecutar
+     * @return Resultado de la operación
+     */
+    protected <R> R conBloqueo(Long id, Supplier<R> operacion) {
+        ReentrantLock bloqueo = bloqueos[segmento(id)];
+        bloqueo.lock();
+        try {
+            return operacion.get();
+        } finally {
+            bloqueo.unlock();
+        }
+    }
+
+    /**
+     * Espera a que termine la carga perezosa, si hay una en curso. Las
+     * subclases la invocan antes de consultar sus índices.
+     */
+    protected void esperarCarga() {
+        CargaPerezosa<T> actual = carga;
+        if (actual != null) {
+            actual.esperar();
+        }
+    }
+
+    /**
+     * Materializa una entidad pendiente de la carga perezosa
+     * @param id ID de la entidad
+     * @return Entidad almacenada con ese ID, o null si no existe
+     */
+    private T materializar(Long id) {
+        CargaPerezosa<T> actual = carga;
+        if (actual == null) {
+            return entidades.get(id);
+        }
+        int posicion = actual.fuente().posicion(id);
+        if (posicion < 0) {
+            return entidades.get(id);
+        }
+        return conBloqueo(id, () -> materializarEn(actual, posicion, id));
+    }
+
+    /**
+     * Construye, indexa y almacena la entidad de una posición de la fuente si
+     * nadie la reclamó antes. Se invoca con el bloqueo del ID tomado.
+     * @throws PersistenciaException si la entidad no puede cargarse; la falla
+     *         queda en errorDeCarga, que impide tomar instantáneas
+     */
+    private T materializarEn(CargaPerezosa<T> actual, int posicion, Long id) {
+        if (!actual.reclamar(posicion)) {
+            return entidades.get(id);
+        }
+        try {
+            T entidad = conId(actual.fuente().materializar(posicion), id);
+            almacenar(id, entidad);
+            return entidad;
+        } catch (RuntimeException e) {
+            PersistenciaException error = new PersistenciaException(
+                    "No se pudo cargar la entidad " + id + " de " + nombreRepositorio(), e);
+            if (errorDeCarga == null) {
+                errorDeCarga = error;
+            }
+            log.error("{}; no se tomarán instantáneas hasta reiniciar con los datos corregidos",
+                    error.getMessage(), e);
+            throw error;
+        }
+    }
+
+    /**
+     * Indexa y publica una entidad nueva y registra el cambio.
+     * Se invoca con el bloqueo del ID tomado.
+     */
+    private Escritura<T> publicar(Long id, T entidad) {
+        T anterior = entidades.get(id);
+        almacenar(id, entidad);
+        return registrar(id, anterior, entidad, () -> registro.guardado(id, entidad));
+    }
+
+    /**
+     * Envía al registro de cambios una escritura ya aplicada en memoria y la
+     * anota como pendiente de confirmación. Si el registro la rechaza en el
+     * momento, se deshace antes de devolverla. Se invoca con el bloqueo del ID tomado.
+     * @param id ID de la entidad
+     * @param anterior Entidad publicada antes de la escritura, o null
+     * @param entidad Entidad publicada por la escritura, o null si fue una eliminación
+     * @param cambio Envía el cambio al registro
+     */
+    private Escritura<T> registrar(Long id, T anterior, T entidad, Supplier<CompletableFuture<Void>> cambio) {
+        CompletableFuture<Void> confirmacion;
+        try {
+            confirmacion = cambio.get();
+        } catch (RuntimeException e) {
+            confirmacion = CompletableFuture.failedFuture(e);
+        }
+        if (confirmacion.isDone() && !confirmacion.isCompletedExceptionally()) {
+            // Ya es durable: ninguna escritura previa puede deshacerla
+            sinConfirmar.remove(id);
+            return new Escritura<>(id, entidad, anterior, null, confirmacion);
+        }
+        Escritura<T> escritura = new Escritura<>(id, entidad, anterior, sinConfirmar.get(id), confirmacion);
+        sinConfirmar.put(id, escritura);
+        if (confirmacion.isCompletedExceptionally()) {
+            deshacer(escritura);
+        }
+        return escritura;
+    }
+
+    /**
+     * Espera la confirmación de una escritura y, si el registro la rechazó,
+     * la deshace en memoria
+     * @return Entidad publicada por la escritura
+     * @throws PersistenciaException si el cambio no pudo registrarse
+     */
+    private T confirmar(Escritura<T> escritura) {
+        try {
+            esperarConfirmacion(escritura.confirmacion());
+        } catch (RuntimeException e) {
+            conBloqueo(escritura.id(), () -> {
+                deshacer(escritura);
+                return null;
+            });
+            throw e;
+        }
+        escritura.confirmada();
+        sinConfirmar.remove(escritura.id(), escritura);
+        return escritura.entidad();
+    }
+
+    /**
+     * Deshace una escritura que el registro rechazó volviendo a publicar el
+     * último estado que no proviene de una escritura rechazada. Si una
+     * escritura posterior sobre el mismo ID la reemplazó, no hace nada: esa
+     * escritura ya contiene la entidad completa y, si también es rechazada,
+     * al deshacerse saltea a esta. Se invoca con el bloqueo del ID tomado.
+     */
+    private void deshacer(Escritura<T> escritura) {
+        Long id = escritura.id();
+        if (sinConfirmar.get(id) != escritura) {
+            return;
+        }
+        T restaurada = escritura.anterior();
+        Escritura<T> previa = escritura.previa();
+        while (previa != null && previa.confirmacion().isCompletedExceptionally()) {
+            restaurada = previa.anterior();
+            previa = previa.previa();
+        }
+        if (previa != null && !previa.confirmacion().isDone()) {
+            sinConfirmar.put(id, previa);
+        } else {
+            sinConfirmar.remove(id);
+        }
+
+        try {
+            if (restaurada != null) {
+                almacenar(id, restaurada);
+            } else if (entidades.remove(id)) {
+                idsOrdenados.quitar(id);
+                desindexar(id);
+            }
+        } catch (RuntimeException e) {
+            // Otra entidad tomó una clave única de la restaurada mientras tanto
+            log.error("No se pudo deshacer en memoria una escritura rechazada de la entidad {} de {}",
+                    id, nombreRepositorio(), e);
+        }
+    }
+
+    /**
+     * Indexa y publica una entidad; si la indexación falla, la entidad
+     * anterior sigue publicada. Se invoca con el bloqueo del ID tomado.
+     */
+    private void almacenar(Long id, T entidad) {
+        try {
+            indexar(id, entidad);
+        } catch (RuntimeException e) {
+            deshacerIndexacion(id, e);
+            throw e;
+        }
+        if (entidades.put(id, entidad)) {
+            idsOrdenados.agregar(id);
+        }
+    }
+
+    /**
+     * Restaura los índices que alcanzaron a actualizarse antes de una falla,
+     * para que no retengan claves únicas de una entidad que no se almacenó:
+     * vuelve a indexar la entidad publicada o, si no hay ninguna, quita el ID.
+     * Se invoca con el bloqueo del ID tomado.
+     * @param id ID de la entidad
+     * @param causa Falla de la indexación; registra la de la restauración, si la hay
+     */
+    private void deshacerIndexacion(Long id, RuntimeException causa) {
+        try {
+            T publicada = entidades.get(id);
+            if (publicada != null) {
+                indexar(id, publicada);
+            } else {
+                desindexar(id);
+            }
+        } catch (RuntimeException e) {
+            causa.addSuppressed(e);
+        }
+    }
+
+    /**
+     * Escritura aplicada en memoria y la confirmación de su registro
+     */
+    private static final class Escritura<T> {
+
+        private final Long id;
+        private final T entidad;
+        private final T anterior;
+        private final CompletableFuture<Void> confirmacion;
+        private volatile Escritura<T> previa;
+
+        /**
+         * @param entidad Entidad publicada, o null si fue una eliminación
+         * @param anterior Entidad que reemplazó, o null si no había
+         * @param previa Escritura del mismo ID que seguía sin confirmar al aplicarla, o null
+         */
+        Escritura(Long id, T entidad, T anterior, Escritura<T> previa, CompletableFuture<Void> confirmacion) {
+            this.id = id;
+            this.entidad = entidad;
+            this.anterior = anterior;
+            this.previa = previa;
+            this.confirmacion = confirmacion;
+        }
+
+        Long id() {
+            return id;
+        }
+
+        T entidad() {
+            return entidad;
+        }
+
+        T anterior() {
+            return anterior;
+        }
+
+        Escritura<T> previa() {
+            return previa;
+        }
+
+        CompletableFuture<Void> confirmacion() {
+            return confirmacion;
+        }
+
+        /**
+         * Suelta la escritura previa una vez confirmada esta, ya que al
+         * deshacer una posterior el recorrido se detiene aquí; así las
+         * escrituras encadenadas sobre un ID muy modificado no se retienen
+         */
+        void confirmada() {
+            previa = null;
+        }
+    }
+
+    /**
+     * Descarta la versión de la carga perezosa de un ID porque fue reemplazada.
+     * Se invoca con el bloqueo del ID tomado.
+     */
+    private void reclamarPerezosa(Long id) {
+        CargaPerezosa<T> actual = carga;
+        if (actual != null) {
+            int posicion = actual.fuente().posicion(id);
+            if (posicion >= 0) {
+                actual.reclamar(posicion);
+            }
+        }
+    }
+
+    /**
+     * Espera a que el registro de cambios confirme una escritura ya aplicada en memoria
+     * @param confirmacion Confirmación del registro
+     * @throws PersistenciaException si el cambio no pudo registrarse
+     */
+    private static void esperarConfirmacion(CompletableFuture<Void> confirmacion) {
+        try {
+            confirmacion.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof BibliotecaException causa) {
+                throw causa;
+            }
+            throw new PersistenciaException("No se pudo registrar el cambio", e.getCause());
+        }
+    }
+    
+    private static Long siguienteVersion(Long version) {
+        return version != null ? version + 1 : 1L;
+    }
+    
+    private void validarId(Long id) {
+        if (id < 1 || id > ID_MAXIMO) {
+            throw new DatosInvalidosException("id", "debe estar entre 1 y " + ID_MAXIMO);
+        }
+    }
+    
+    private static void validarTamanio(String campo, int tamanio) {
+        if (tamanio < 1 || tamanio > TAMANIO_MAXIMO_PAGINA) {
+            throw new DatosInvalidosException(campo, "debe estar entre 1 y " + TAMANIO_MAXIMO_PAGINA);
+        }
+    }
+
+    private static int segmento(Long id) {
+        long h = id * 0x9E3779B97F4A7C15L;
+        return (int) (h >>> 58) & (SEGMENTOS - 1);
+    }
+}
@@ -0,0 +1,60 @@
+package com.um.biblioteca.repository.impl;
+
+import com.um.biblioteca.repository.persistencia.FuentePerezosa;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Estado de la carga perezosa de un repositorio: qué posiciones de la fuente
+ * ya fueron reclamadas (materializadas, reemplazadas o eliminadas) y si la
+ * carga en segundo plano terminó
+ * @param <T> Tipo de entidad
+ */
+final class CargaPerezosa<T> {
+
+    private final FuentePerezosa<T> fuente;
+    private final AtomicLongArray reclamadas;
+    private final CountDownLatch completa = new CountDownLatch(1);
+
+    CargaPerezosa(FuentePerezosa<T> fuente) {
+        this.fuente = fuente;
+        this.reclamadas = new AtomicLongArray((fuente.cantidad() + Long.SIZE - 1) / Long.SIZE);
+    }
+
+    FuentePerezosa<T> fuente() {
+        return fuente;
+    }
+
+    /**
+     * Marca una posición como reclamada
+     * @param posicion Posición en la fuente
+     * @return true si nadie la había reclamado antes
+     */
+    boolean reclamar(int posicion) {
+        long bit = 1L << posicion;
+        return (reclamadas.getAndUpdate(posicion >>> 6, bits -> bits | bit) & bit) == 0;
+    }
+
+    /**
+     * Bloquea hasta que la carga termine
+     */
+    void esperar() {
+        boolean interrumpido = false;
+        while (true) {
+            try {
+                completa.await();
+                break;
+            } catch (InterruptedException e) {
+                interrumpido = true;
+            }
+        }
+        if (interrumpido) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    void terminar() {
+        completa.countDown();
+    }
+}
@@ -1,75 +1,157 @@
 package com.um.biblioteca.repository.impl;
 
+import com.um.biblioteca.model.EstadoLibro;
 import com.um.biblioteca.model.Libro;
 import com.um.biblioteca.repository.LibroRepository;
+import com.um.biblioteca.repository.index.EstadisticasIndice;
+import com.um.biblioteca.repository.index.IndiceBitmap;
+import com.um.biblioteca.repository.index.IndiceTrigramas;
+import com.um.biblioteca.repository.index.IndiceUnico;
+import com.um.biblioteca.repository.persistencia.Codificador;
+import com.um.biblioteca.repository.persistencia.Codificadores;
 import org.springframework.stereotype.Repository;
 
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Repository
-public class LibroRepositoryImpl implements LibroRepository {
+public class LibroRepositoryImpl extends AbstractInMemoryRepository<Libro>
+        implements LibroRepository {
     
-    private final Map<Long, Libro> libros = new HashMap<>();
-    private Long nextId = 1L;
+    private final IndiceUnico<String> indiceIsbn = new IndiceUnico<>("libro", "ISBN");
+    private final IndiceTrigramas indiceTitulo = new IndiceTrigramas();
+    private final IndiceTrigramas indiceAutor = new IndiceTrigramas();
+    private final IndiceBitmap<EstadoLibro> indiceEstado = new IndiceBitmap<>(EstadoLibro.class);
     
     @Override
-    public Libro save(Libro libro) {
-        if (libro.getId() == null) {
-            libro.setId(nextId++);
-        }
-        libros.put(libro.getId(), libro);
-        return libro;
+    public String nombreRepositorio() {
+        return "libros";
+    }
+    
+    @Override
+    public Codificador<Libro> codificador() {
+        return Codificadores.LIBRO;
     }
     
     @Override
-    public Optional<Libro> findById(Long id) {
-        return Optional.ofNullable(libros.get(id));
+    protected Long obtenerId(Libro libro) {
+        return libro.id();
     }
     
     @Override
-    public List<Libro> findAll() {
-        return new ArrayList<>(libros.values());
+    protected Libro conId(Libro libro, Long id) {
+        return libro.conId(id);
     }
     
     @Override
-    public void deleteById(Long id) {
-        libros.remove(id);
+    protected Long obtenerVersion(Libro libro) {
+        return libro.version();
     }
     
     @Override
-    public boolean existsById(Long id) {
-        return libros.containsKey(id);
+    protected Libro conVersion(Libro libro, Long version) {
+        return libro.conVersion(version);
+    }
+    
+    @Override
+    protected void indexar(Long id, Libro libro) {
+        indiceIsbn.actualizar(id, libro.isbn());
+        indiceTitulo.actualizar(id, libro.titulo());
+        indiceAutor.actualizar(id, libro.autor());
+        indiceEstado.actualizar(id, libro.estado());
+    }
+    
+    @Override
+    protected void desindexar(Long id) {
+        indiceIsbn.eliminar(id);
+        indiceTitulo.eliminar(id);
+        indiceAutor.eliminar(id);
+        indiceEstado.eliminar(id);
+    }
+    
+    @Override
+    public Map<String, EstadisticasIndice> estadisticasIndices() {
+        return Map.of(
+                "isbn", indiceIsbn.estadisticas(),
+                "titulo", indiceTitulo.estadisticas(),
+                "autor", indiceAutor.estadisticas(),
+                "estado", indiceEstado.estadisticas());
     }
     
     @Override
     public Optional<Libro> findByIsbn(String isbn) {
-        return libros.values().stream()
-                .filter(libro -> libro.getIsbn().equals(isbn))
-                .findFirst();
+        esperarCarga();
+        return indiceIsbn.buscar(isbn).flatMap(this::findById);
     }
     
     @Override
     public List<Libro> findByTituloContaining(String titulo) {
+        esperarCarga();
         if (titulo == null || titulo.isEmpty()) {
             return Collections.emptyList();
         }
         
-        return libros.values().stream()
-                .filter(libro -> libro.getTitulo() != null && 
-                        libro.getTitulo().toLowerCase().contains(titulo.toLowerCase()))
-                .collect(Collectors.toList());
+        return resolver(indiceTitulo.buscar(titulo));
     }
     
     @Override
     public List<Libro> findByAutorContaining(String autor) {
+        esperarCarga();
         if (autor == null || autor.isEmpty()) {
             return Collections.emptyList();
         }
         
-        return libros.values().stream()
-                .filter(libro -> libro.getAutor() != null && 
-                        libro.getAutor().toLowerCase().contains(autor.toLowerCase()))
-                .collect(Collectors.toList());
+        return resolver(indiceAutor.buscar(autor));
+    }
+    
+    @Override
+    public List<Libro> findByTituloContainingAndEstado(String titulo, EstadoLibro estado) {
+        esperarCarga();
+        if (titulo == null || titulo.isEmpty() || estado == null) {
+            return Collections.emptyList();
+        }
+        
+        List<Long> ids = indiceTitulo.buscar(titulo);
+        ids.removeIf(id -> !indiceEstado.tiene(id, estado));
+        return resolver(ids);
+    }
+    
+    @Override
+    public List<Libro> findByEstado(EstadoLibro estado) {
+        esperarCarga();
+        if (estado == null) {
+            return Collections.emptyList();
+        }
+        
+        return resolver(indiceEstado.buscar(estado));
+    }
+    
+    @Override
+    public List<Libro> findByEstadoIn(Collection<EstadoLibro> estados) {
+        esperarCarga();
+        if (estados == null || estados.isEmpty()) {
+            return Collections.emptyList();
+        }
+        
+        return resolver(indiceEstado.buscarCualquiera(estados));
+    }
+    
+    @Override
+    public Stream<Libro> streamByEstado(EstadoLibro estado) {
+        esperarCarga();
+        if (estado == null) {
+            return Stream.empty();
+        }
+        
+        return resolverPerezosamente(indiceEstado.buscar(estado));
+    }
+    
+    @Override
+    public boolean compareAndSetEstado(Long id, EstadoLibro esperado, EstadoLibro nuevo) {
+        if (esperado == null || nuevo == null) {
+            return false;
+        }
+        
+        return actualizarSi(id, libro -> libro.estado() == esperado, libro -> libro.conEstado(nuevo));
     }
-} 
\ No newline at end of file
+}
@@ -1,95 +1,184 @@
 package com.um.biblioteca.repository.impl;
 
+import com.um.biblioteca.model.DiasEpoca;
 import com.um.biblioteca.model.Libro;
 import com.um.biblioteca.model.Prestamo;
 import com.um.biblioteca.model.Usuario;
 import com.um.biblioteca.repository.PrestamoRepository;
+import com.um.biblioteca.repository.almacen.AlmacenEnHeap;
+import com.um.biblioteca.repository.almacen.AlmacenPrestamosFueraDeHeap;
+import com.um.biblioteca.repository.almacen.AlmacenamientoProperties;
+import com.um.biblioteca.repository.index.EstadisticasIndice;
+import com.um.biblioteca.repository.index.IndiceMultiple;
+import com.um.biblioteca.repository.index.IndiceOrdenadoEntero;
+import com.um.biblioteca.repository.persistencia.Codificador;
+import com.um.biblioteca.repository.persistencia.Codificadores;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Repository
-public class PrestamoRepositoryImpl implements PrestamoRepository {
+@EnableConfigurationProperties(AlmacenamientoProperties.class)
+public class PrestamoRepositoryImpl extends AbstractInMemoryRepository<Prestamo>
+        implements PrestamoRepository {
     
-    private final Map<Long, Prestamo> prestamos = new HashMap<>();
-    private Long nextId = 1L;
+    private final IndiceMultiple indiceUsuario = new IndiceMultiple();
+    private final IndiceMultiple indiceLibro = new IndiceMultiple();
+    private final IndiceOrdenadoEntero indiceFechaPrestamo = new IndiceOrdenadoEntero();
+    private final IndiceOrdenadoEntero indiceFechaDevolucion = new IndiceOrdenadoEntero();
+    
+    public PrestamoRepositoryImpl() {
+        super();
+    }
+    
+    /**
+     * Con biblioteca.almacenamiento.prestamos-fuera-de-heap=true los préstamos
+     * se guardan fuera del heap
+     */
+    @Autowired
+    public PrestamoRepositoryImpl(AlmacenamientoProperties propiedades) {
+        super(propiedades.isPrestamosFueraDeHeap()
+                ? new AlmacenPrestamosFueraDeHeap()
+                : new AlmacenEnHeap<>());
+    }
     
     @Override
-    public Prestamo save(Prestamo prestamo) {
-        if (prestamo.getId() == null) {
-            prestamo.setId(nextId++);
-        }
-        prestamos.put(prestamo.getId(), prestamo);
-        return prestamo;
+    public String nombreRepositorio() {
+        return "prestamos";
     }
     
     @Override
-    public Optional<Prestamo> findById(Long id) {
-        return Optional.ofNullable(prestamos.get(id));
+    public Codificador<Prestamo> codificador() {
+        return Codificadores.PRESTAMO;
     }
     
     @Override
-    public List<Prestamo> findAll() {
-        return new ArrayList<>(prestamos.values());
+    protected Long obtenerId(Prestamo prestamo) {
+        return prestamo.id();
     }
     
     @Override
-    public void deleteById(Long id) {
-        prestamos.remove(id);
+    protected Prestamo conId(Prestamo prestamo, Long id) {
+        return prestamo.conId(id);
     }
     
     @Override
-    public boolean existsById(Long id) {
-        return prestamos.containsKey(id);
+    protected Long obtenerVersion(Prestamo prestamo) {
+        return prestamo.version();
+    }
+    
+    @Override
+    protected Prestamo conVersion(Prestamo prestamo, Long version) {
+        return prestamo.conVersion(version);
+    }
+    
+    @Override
+    protected void indexar(Long id, Prestamo prestamo) {
+        indiceUsuario.actualizar(id, prestamo.usuarioId());
+        indiceLibro.actualizar(id, prestamo.libroId());
+        indexarDia(indiceFechaPrestamo, id, prestamo.diaPrestamo());
+        indexarDia(indiceFechaDevolucion, id, prestamo.diaDevolucion());
+    }
+    
+    @Override
+    protected void desindexar(Long id) {
+        indiceUsuario.eliminar(id);
+        indiceLibro.eliminar(id);
+        indiceFechaPrestamo.eliminar(id);
+        indiceFechaDevolucion.eliminar(id);
+    }
+    
+    @Override
+    public Map<String, EstadisticasIndice> estadisticasIndices() {
+        return Map.of(
+                "usuario", indiceUsuario.estadisticas(),
+                "libro", indiceLibro.estadisticas(),
+                "fechaPrestamo", indiceFechaPrestamo.estadisticas(),
+                "fechaDevolucion", indiceFechaDevolucion.estadisticas());
     }
     
     @Override
     public List<Prestamo> findByUsuario(Usuario usuario) {
+        esperarCarga();
         if (usuario == null) {
             return Collections.emptyList();
         }
         
-        return prestamos.values().stream()
-                .filter(prestamo -> prestamo.getUsuario() != null && 
-                        Objects.equals(prestamo.getUsuario().getId(), usuario.getId()))
-                .collect(Collectors.toList());
+        return resolver(indiceUsuario.buscar(usuario.id()));
     }
     
     @Override
     public List<Prestamo> findByLibro(Libro libro) {
+        esperarCarga();
         if (libro == null) {
             return Collections.emptyList();
         }
         
-        return prestamos.values().stream()
-                .filter(prestamo -> prestamo.getLibro() != null && 
-                        Objects.equals(prestamo.getLibro().getId(), libro.getId()))
-                .collect(Collectors.toList());
+        return resolver(indiceLibro.buscar(libro.id()));
     }
     
     @Override
     public List<Prestamo> findByFechaPrestamo(LocalDate fecha) {
+        esperarCarga();
         if (fecha == null) {
             return Collections.emptyList();
         }
         
-        return prestamos.values().stream()
-                .filter(prestamo -> prestamo.getFechaPrestamo() != null &&
-                        prestamo.getFechaPrestamo().equals(fecha))
-                .collect(Collectors.toList());
+        return resolver(indiceFechaPrestamo.igualA(DiasEpoca.limite(fecha)));
     }
     
     @Override
     public List<Prestamo> findByFechaDevolucionBefore(LocalDate fecha) {
+        esperarCarga();
         if (fecha == null) {
             return Collections.emptyList();
         }
         
-        return prestamos.values().stream()
-                .filter(prestamo -> prestamo.getFechaDevolucion() != null &&
-                        prestamo.getFechaDevolucion().isBefore(fecha))
-                .collect(Collectors.toList());
+        return resolver(indiceFechaDevolucion.menoresQue(DiasEpoca.limite(fecha)));
+    }
+    
+    @Override
+    public List<Prestamo> findByFechaPrestamoBetween(LocalDate desde, LocalDate hasta) {
+        esperarCarga();
+        if (desde == null || hasta == null) {
+            return Collections.emptyList();
+        }
+        
+        return resolver(indiceFechaPrestamo.rango(DiasEpoca.limite(desde), DiasEpoca.limite(hasta)));
+    }
+    
+    @Override
+    public List<Prestamo> findByFechaDevolucionBetween(LocalDate desde, LocalDate hasta) {
+        esperarCarga();
+        if (desde == null || hasta == null) {
+            return Collections.emptyList();
+        }
+        
+        return resolver(indiceFechaDevolucion.rango(DiasEpoca.limite(desde), DiasEpoca.limite(hasta)));
+    }
+    
+    @Override
+    public Stream<Prestamo> streamByFechaPrestamoBetween(LocalDate desde, LocalDate hasta) {
+        esperarCarga();
+        if (desde == null || hasta == null) {
+            return Stream.empty();
+        }
+        
+        return resolverPerezosamente(indiceFechaPrestamo.rango(DiasEpoca.limite(desde), DiasEpoca.limite(hasta)));
+    }
+    
+    /**
+     * Indexa la fecha en días; los préstamos sin fecha no figuran en el índice
+     */
+    private static void indexarDia(IndiceOrdenadoEntero indice, Long id, int dia) {
+        if (dia == DiasEpoca.SIN_FECHA) {
+            indice.eliminar(id);
+        } else {
+            indice.actualizar(id, dia);
+        }
     }
-} 
\ No newline at end of file
+}
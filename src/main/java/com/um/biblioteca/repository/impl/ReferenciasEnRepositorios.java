@@ -0,0 +1,36 @@
+package com.um.biblioteca.repository.impl;
+
+import com.um.biblioteca.model.Libro;
+import com.um.biblioteca.model.ResolutorReferencias;
+import com.um.biblioteca.model.Usuario;
+import com.um.biblioteca.repository.LibroRepository;
+import com.um.biblioteca.repository.UsuarioRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Resuelve las referencias de los préstamos en los repositorios de libros
+ * y usuarios. Un libro o usuario ya eliminado se representa sólo por su ID.
+ */
+@Component
+public class ReferenciasEnRepositorios implements ResolutorReferencias {
+
+    private final LibroRepository libroRepository;
+    private final UsuarioRepository usuarioRepository;
+
+    @Autowired
+    public ReferenciasEnRepositorios(LibroRepository libroRepository, UsuarioRepository usuarioRepository) {
+        this.libroRepository = libroRepository;
+        this.usuarioRepository = usuarioRepository;
+    }
+
+    @Override
+    public Libro libro(Long id) {
+        return libroRepository.findById(id).orElseGet(() -> new Libro(id, null, null, null, null));
+    }
+
+    @Override
+    public Usuario usuario(Long id) {
+        return usuarioRepository.findById(id).orElseGet(() -> new Usuario(id, null, null, null));
+    }
+}
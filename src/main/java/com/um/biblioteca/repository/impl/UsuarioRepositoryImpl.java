@@ -1,68 +1,128 @@
 package com.um.biblioteca.repository.impl;
 
+import com.um.biblioteca.model.EstadoUsuario;
 import com.um.biblioteca.model.Usuario;
 import com.um.biblioteca.repository.UsuarioRepository;
+import com.um.biblioteca.repository.index.EstadisticasIndice;
+import com.um.biblioteca.repository.index.IndiceBitmap;
+import com.um.biblioteca.repository.index.IndiceTrigramas;
+import com.um.biblioteca.repository.index.IndiceUnico;
+import com.um.biblioteca.repository.persistencia.Codificador;
+import com.um.biblioteca.repository.persistencia.Codificadores;
 import org.springframework.stereotype.Repository;
 
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Repository
-public class UsuarioRepositoryImpl implements UsuarioRepository {
+public class UsuarioRepositoryImpl extends AbstractInMemoryRepository<Usuario>
+        implements UsuarioRepository {
     
-    private final Map<Long, Usuario> usuarios = new HashMap<>();
-    private Long nextId = 1L;
+    private final IndiceUnico<String> indiceEmail = new IndiceUnico<>("usuario", "email");
+    private final IndiceTrigramas indiceNombre = new IndiceTrigramas();
+    private final IndiceBitmap<EstadoUsuario> indiceEstado = new IndiceBitmap<>(EstadoUsuario.class);
     
     @Override
-    public Usuario save(Usuario usuario) {
-        if (usuario.getId() == null) {
-            usuario.setId(nextId++);
-        }
-        usuarios.put(usuario.getId(), usuario);
-        return usuario;
+    public String nombreRepositorio() {
+        return "usuarios";
+    }
+    
+    @Override
+    public Codificador<Usuario> codificador() {
+        return Codificadores.USUARIO;
+    }
+    
+    @Override
+    protected Long obtenerId(Usuario usuario) {
+        return usuario.id();
     }
     
     @Override
-    public Optional<Usuario> findById(Long id) {
-        return Optional.ofNullable(usuarios.get(id));
+    protected Usuario conId(Usuario usuario, Long id) {
+        return usuario.conId(id);
     }
     
     @Override
-    public List<Usuario> findAll() {
-        return new ArrayList<>(usuarios.values());
+    protected Long obtenerVersion(Usuario usuario) {
+        return usuario.version();
     }
     
     @Override
-    public void deleteById(Long id) {
-        usuarios.remove(id);
+    protected Usuario conVersion(Usuario usuario, Long version) {
+        return usuario.conVersion(version);
     }
     
     @Override
-    public boolean existsById(Long id) {
-        return usuarios.containsKey(id);
+    protected void indexar(Long id, Usuario usuario) {
+        indiceEmail.actualizar(id, normalizarEmail(usuario.email()));
+        indiceNombre.actualizar(id, usuario.nombre());
+        indiceEstado.actualizar(id, usuario.estado());
+    }
+    
+    @Override
+    protected void desindexar(Long id) {
+        indiceEmail.eliminar(id);
+        indiceNombre.eliminar(id);
+        indiceEstado.eliminar(id);
+    }
+    
+    @Override
+    public Map<String, EstadisticasIndice> estadisticasIndices() {
+        return Map.of(
+                "email", indiceEmail.estadisticas(),
+                "nombre", indiceNombre.estadisticas(),
+                "estado", indiceEstado.estadisticas());
     }
     
     @Override
     public Optional<Usuario> findByEmail(String email) {
+        esperarCarga();
         if (email == null || email.isEmpty()) {
             return Optional.empty();
         }
         
-        return usuarios.values().stream()
-                .filter(usuario -> usuario.getEmail() != null && 
-                        usuario.getEmail().equals(email))
-                .findFirst();
+        return indiceEmail.buscar(normalizarEmail(email)).flatMap(this::findById);
     }
     
     @Override
     public List<Usuario> findByNombreContaining(String nombre) {
+        esperarCarga();
         if (nombre == null || nombre.isEmpty()) {
             return Collections.emptyList();
         }
         
-        return usuarios.values().stream()
-                .filter(usuario -> usuario.getNombre() != null && 
-                        usuario.getNombre().toLowerCase().contains(nombre.toLowerCase()))
-                .collect(Collectors.toList());
+        return resolver(indiceNombre.buscar(nombre));
+    }
+    
+    @Override
+    public List<Usuario> findByEstado(EstadoUsuario estado) {
+        esperarCarga();
+        if (estado == null) {
+            return Collections.emptyList();
+        }
+        
+        return resolver(indiceEstado.buscar(estado));
+    }
+    
+    /**
+     * Normaliza un email para indexarlo sin distinguir mayúsculas ni espacios
+     * @param email Email a normalizar
+     * @return Email normalizado o null si no hay email
+     */
+    private static String normalizarEmail(String email) {
+        if (email == null || email.isBlank()) {
+            return null;
+        }
+        return email.trim().toLowerCase(Locale.ROOT);
+    }
+    
+    @Override
+    public Stream<Usuario> streamByEstado(EstadoUsuario estado) {
+        esperarCarga();
+        if (estado == null) {
+            return Stream.empty();
+        }
+        
+        return resolverPerezosamente(indiceEstado.buscar(estado));
     }
-} 
\ No newline at end of file
+}
@@ -0,0 +1,30 @@
+package com.um.biblioteca.repository.index;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Contadores de consultas de un índice: cuántas se hicieron y cuántas
+ * encontraron al menos un ID. Se actualizan sin bloqueo, por lo que una
+ * lectura concurrente puede ver las consultas de una búsqueda antes que
+ * su acierto.
+ */
+public final class EstadisticasIndice {
+
+    private final LongAdder consultas = new LongAdder();
+    private final LongAdder aciertos = new LongAdder();
+
+    void registrar(boolean acierto) {
+        consultas.increment();
+        if (acierto) {
+            aciertos.increment();
+        }
+    }
+
+    public long consultas() {
+        return consultas.sum();
+    }
+
+    public long aciertos() {
+        return aciertos.sum();
+    }
+}
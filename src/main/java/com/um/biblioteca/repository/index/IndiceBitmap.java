@@ -0,0 +1,110 @@
+package com.um.biblioteca.repository.index;
+
+import com.um.biblioteca.repository.colecciones.MapaDeBits;
+import com.um.biblioteca.repository.colecciones.MapaLongConcurrente;
+
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Índice de mapas de bits por valor de un enum (ej. estado de la entidad).
+ * Cada valor tiene un {@link MapaDeBits} comprimido por bloques: los rangos
+ * densos de IDs secuenciales ocupan alrededor de un bit por entidad y se
+ * combinan (OR) palabra a palabra, mientras que un ID aislado muy grande
+ * ocupa unos pocos bytes en lugar de un arreglo de bits que llegue hasta él.
+ * Las consultas devuelven copias, por lo que pueden combinarse libremente.
+ * @param <E> Enum indexado
+ */
+public class IndiceBitmap<E extends Enum<E>> {
+    
+    private final Map<E, MapaDeBits> bitsPorValor;
+    private final MapaLongConcurrente<E> valorPorId = new MapaLongConcurrente<>();
+    private final EstadisticasIndice estadisticas = new EstadisticasIndice();
+    
+    public IndiceBitmap(Class<E> tipo) {
+        this.bitsPorValor = new EnumMap<>(tipo);
+        for (E valor : tipo.getEnumConstants()) {
+            bitsPorValor.put(valor, new MapaDeBits());
+        }
+    }
+    
+    /**
+     * Asocia el ID con el valor, quitándolo del valor anterior si cambió
+     * @param id ID de la entidad
+     * @param valor Nuevo valor (null elimina la asociación)
+     * @throws IllegalArgumentException si el ID es negativo; el índice no se modifica
+     */
+    public synchronized void actualizar(Long id, E valor) {
+        if (id < 0) {
+            throw new IllegalArgumentException("El índice de mapas de bits no admite IDs negativos: " + id);
+        }
+        E anterior = valor != null ? valorPorId.put(id, valor) : valorPorId.remove(id);
+        if (anterior == valor) {
+            return;
+        }
+        
+        if (anterior != null) {
+            bitsPorValor.get(anterior).quitar(id);
+        }
+        if (valor != null) {
+            bitsPorValor.get(valor).agregar(id);
+        }
+    }
+    
+    /**
+     * Elimina el ID del índice
+     * @param id ID de la entidad
+     */
+    public synchronized void eliminar(Long id) {
+        E anterior = valorPorId.remove(id);
+        if (anterior != null) {
+            bitsPorValor.get(anterior).quitar(id);
+        }
+    }
+    
+    /**
+     * Obtiene los IDs con el valor indicado
+     * @param valor Valor a buscar
+     * @return Copia del mapa de bits de IDs
+     */
+    public synchronized MapaDeBits buscar(E valor) {
+        MapaDeBits resultado = valor != null ? bitsPorValor.get(valor).copia() : new MapaDeBits();
+        estadisticas.registrar(!resultado.estaVacio());
+        return resultado;
+    }
+    
+    /**
+     * Obtiene los IDs con cualquiera de los valores indicados (OR)
+     * @param valores Valores a buscar
+     * @return Mapa de bits de IDs
+     */
+    public synchronized MapaDeBits buscarCualquiera(Collection<E> valores) {
+        MapaDeBits resultado = new MapaDeBits();
+        for (E valor : valores) {
+            if (valor != null) {
+                resultado.unir(bitsPorValor.get(valor));
+            }
+        }
+        estadisticas.registrar(!resultado.estaVacio());
+        return resultado;
+    }
+    
+    /**
+     * Verifica si el ID tiene el valor indicado, para combinar (AND) el índice
+     * con candidatos obtenidos de otro filtro
+     * @param id ID de la entidad
+     * @param valor Valor esperado
+     * @return true si el ID está indexado con ese valor
+     */
+    public boolean tiene(Long id, E valor) {
+        return valor != null && valorPorId.get(id) == valor;
+    }
+    
+    /**
+     * Consultas hechas al índice y cuántas encontraron algún ID
+     */
+    public EstadisticasIndice estadisticas() {
+        return estadisticas;
+    }
+}
@@ -0,0 +1,73 @@
+package com.um.biblioteca.repository.index;
+
+import com.um.biblioteca.repository.colecciones.ConjuntoParesOrdenado;
+import com.um.biblioteca.repository.colecciones.MapaLongDenso;
+
+import java.util.Collections;
+
+/**
+ * Índice secundario no único en memoria sobre claves long, como el ID del
+ * usuario o del libro de un préstamo, que asocia cada clave con los IDs de
+ * las entidades que la contienen, ordenados de forma ascendente.
+ * Las asociaciones se guardan como pares (clave, id) primitivos en un
+ * {@link ConjuntoParesOrdenado} y la clave vigente de cada ID, para poder
+ * reasignarla, en un {@link MapaLongDenso}: no se crea ningún objeto por
+ * entidad indexada.
+ * Las escrituras sobre un mismo ID deben estar serializadas por el repositorio.
+ */
+public class IndiceMultiple {
+    
+    private final ConjuntoParesOrdenado pares = new ConjuntoParesOrdenado();
+    private final MapaLongDenso clavePorId = new MapaLongDenso();
+    private final EstadisticasIndice estadisticas = new EstadisticasIndice();
+    
+    /**
+     * Asocia el ID con la clave, quitándolo de la clave anterior si cambió
+     * @param id ID de la entidad
+     * @param clave Nueva clave (null elimina la asociación)
+     */
+    public void actualizar(Long id, Long clave) {
+        long anterior = clave != null ? clavePorId.put(id, clave) : clavePorId.remove(id);
+        if (clave != null && anterior == clave) {
+            return;
+        }
+        
+        // Primero se agrega, así las búsquedas concurrentes siempre encuentran el ID en alguna clave
+        if (clave != null) {
+            pares.agregar(clave, id);
+        }
+        if (anterior != MapaLongDenso.AUSENTE) {
+            pares.quitar(anterior, id);
+        }
+    }
+    
+    /**
+     * Elimina el ID del índice
+     * @param id ID de la entidad
+     */
+    public void eliminar(Long id) {
+        long clave = clavePorId.remove(id);
+        if (clave != MapaLongDenso.AUSENTE) {
+            pares.quitar(clave, id);
+        }
+    }
+    
+    /**
+     * Obtiene los IDs asociados a la clave en orden ascendente
+     * @param clave Clave a buscar
+     * @return IDs de la clave (vacío si la clave no está indexada); el
+     *         recorrido es débilmente consistente
+     */
+    public Iterable<Long> buscar(Long clave) {
+        boolean encontrada = clave != null && pares.hayAlguno(clave, clave);
+        estadisticas.registrar(encontrada);
+        return encontrada ? pares.ids(clave, clave) : Collections.emptyList();
+    }
+    
+    /**
+     * Consultas hechas al índice y cuántas encontraron algún ID
+     */
+    public EstadisticasIndice estadisticas() {
+        return estadisticas;
+    }
+}
@@ -0,0 +1,98 @@
+package com.um.biblioteca.repository.index;
+
+import com.um.biblioteca.repository.colecciones.ConjuntoParesOrdenado;
+import com.um.biblioteca.repository.colecciones.MapaLongDenso;
+
+import java.util.Collections;
+
+/**
+ * Índice secundario ordenado en memoria sobre claves int, como las fechas
+ * guardadas en días desde la época, que permite consultas por rango de clave
+ * en O(log n + k). Cada entrada es el par (clave, id), por lo que los
+ * resultados se devuelven ordenados por clave y, a igual clave, por ID.
+ * Los pares se guardan como primitivos en un {@link ConjuntoParesOrdenado}
+ * y la clave vigente de cada ID en un {@link MapaLongDenso}, sin crear
+ * ningún objeto por entrada.
+ * Las escrituras sobre un mismo ID deben estar serializadas por el repositorio.
+ */
+public class IndiceOrdenadoEntero {
+
+    private final ConjuntoParesOrdenado pares = new ConjuntoParesOrdenado();
+    private final MapaLongDenso clavePorId = new MapaLongDenso();
+    private final EstadisticasIndice estadisticas = new EstadisticasIndice();
+
+    /**
+     * Asocia el ID con la clave, quitando la entrada anterior si cambió
+     * @param id ID de la entidad
+     * @param clave Nueva clave
+     */
+    public void actualizar(Long id, int clave) {
+        long anterior = clavePorId.put(id, clave);
+        if (anterior == clave) {
+            return;
+        }
+
+        pares.agregar(clave, id);
+        if (anterior != MapaLongDenso.AUSENTE) {
+            pares.quitar(anterior, id);
+        }
+    }
+
+    /**
+     * Elimina el ID del índice
+     * @param id ID de la entidad
+     */
+    public void eliminar(Long id) {
+        long clave = clavePorId.remove(id);
+        if (clave != MapaLongDenso.AUSENTE) {
+            pares.quitar(clave, id);
+        }
+    }
+
+    /**
+     * Obtiene los IDs cuya clave es igual a la indicada
+     * @param clave Clave a buscar
+     * @return IDs en orden ascendente
+     */
+    public Iterable<Long> igualA(int clave) {
+        return ids(clave, clave);
+    }
+
+    /**
+     * Obtiene los IDs cuya clave es estrictamente menor a la indicada
+     * @param hasta Límite superior (exclusivo)
+     * @return IDs ordenados por clave
+     */
+    public Iterable<Long> menoresQue(int hasta) {
+        return ids(Integer.MIN_VALUE, (long) hasta - 1);
+    }
+
+    /**
+     * Obtiene los IDs cuya clave pertenece al rango [desde, hasta)
+     * @param desde Límite inferior (inclusivo)
+     * @param hasta Límite superior (exclusivo)
+     * @return IDs ordenados por clave (vacío si desde no es menor que hasta)
+     */
+    public Iterable<Long> rango(int desde, int hasta) {
+        return ids(desde, (long) hasta - 1);
+    }
+
+    /**
+     * Consultas hechas al índice y cuántas encontraron algún ID
+     */
+    public EstadisticasIndice estadisticas() {
+        return estadisticas;
+    }
+
+    /**
+     * Cuenta la consulta como acierto si hay algún par en el rango, lo que
+     * cuesta una búsqueda y no recorre el resultado
+     * @param desde Clave mínima (inclusiva)
+     * @param hasta Clave máxima (inclusiva)
+     */
+    private Iterable<Long> ids(long desde, long hasta) {
+        boolean encontrado = pares.hayAlguno(desde, hasta);
+        estadisticas.registrar(encontrado);
+        return encontrado ? pares.ids(desde, hasta) : Collections.emptyList();
+    }
+}
@@ -0,0 +1,170 @@
+package com.um.biblioteca.repository.index;
+
+import com.um.biblioteca.repository.Recorrido;
+import com.um.biblioteca.repository.colecciones.MapaLongConcurrente;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Índice invertido de trigramas para búsquedas por subcadena.
+ * Guarda el texto normalizado de cada ID y, para cada trigrama, el conjunto de
+ * IDs cuyo texto lo contiene. Una búsqueda toma la lista de candidatos más corta
+ * entre los trigramas de la consulta y verifica cada candidato contra el texto
+ * normalizado, sin volver a normalizar ni recorrer todo el catálogo.
+ * Las escrituras sobre un mismo ID deben estar serializadas por el repositorio.
+ */
+public class IndiceTrigramas {
+    
+    private static final int N = 3;
+    
+    private final MapaLongConcurrente<String> textoPorId = new MapaLongConcurrente<>();
+    private final MapaLongConcurrente<Set<Long>> idsPorTrigrama = new MapaLongConcurrente<>();
+    private final EstadisticasIndice estadisticas = new EstadisticasIndice();
+    
+    /**
+     * Indexa el texto de la entidad, reemplazando el anterior si cambió
+     * @param id ID de la entidad
+     * @param texto Texto sin normalizar (null elimina la entidad del índice)
+     */
+    public void actualizar(Long id, String texto) {
+        String normalizado = NormalizadorTexto.normalizar(texto);
+        String anterior = normalizado != null ? textoPorId.put(id, normalizado) : textoPorId.remove(id);
+        if (Objects.equals(anterior, normalizado)) {
+            return;
+        }
+        
+        Set<Long> nuevos = trigramas(normalizado);
+        Set<Long> viejos = trigramas(anterior);
+        for (Long trigrama : nuevos) {
+            if (!viejos.contains(trigrama)) {
+                agregar(trigrama, id);
+            }
+        }
+        for (Long trigrama : viejos) {
+            if (!nuevos.contains(trigrama)) {
+                quitar(trigrama, id);
+            }
+        }
+    }
+    
+    /**
+     * Elimina la entidad del índice
+     * @param id ID de la entidad
+     */
+    public void eliminar(Long id) {
+        String anterior = textoPorId.remove(id);
+        for (Long trigrama : trigramas(anterior)) {
+            quitar(trigrama, id);
+        }
+    }
+    
+    /**
+     * Busca los IDs cuyo texto contiene la consulta
+     * @param consulta Texto a buscar (sin normalizar)
+     * @return IDs en orden ascendente
+     */
+    public List<Long> buscar(String consulta) {
+        List<Long> resultado = coincidencias(consulta);
+        estadisticas.registrar(!resultado.isEmpty());
+        return resultado;
+    }
+    
+    /**
+     * Consultas hechas al índice y cuántas encontraron algún ID
+     */
+    public EstadisticasIndice estadisticas() {
+        return estadisticas;
+    }
+    
+    private List<Long> coincidencias(String consulta) {
+        String normalizada = NormalizadorTexto.normalizar(consulta);
+        if (normalizada == null || normalizada.isEmpty()) {
+            return Collections.emptyList();
+        }
+        
+        List<Long> resultado = new ArrayList<>();
+        if (normalizada.length() < N) {
+            // Consultas cortas: no hay trigramas, se verifica el texto ya normalizado
+            Recorrido.sumar(textoPorId.size());
+            textoPorId.forEach((id, texto) -> {
+                if (texto.contains(normalizada)) {
+                    resultado.add(id);
+                }
+            });
+        } else {
+            List<Set<Long>> listas = new ArrayList<>();
+            for (Long trigrama : trigramas(normalizada)) {
+                Set<Long> ids = idsPorTrigrama.get(trigrama);
+                if (ids == null) {
+                    return Collections.emptyList();
+                }
+                listas.add(ids);
+            }
+            listas.sort((a, b) -> Integer.compare(a.size(), b.size()));
+            Recorrido.sumar(listas.get(0).size());
+            
+            for (Long id : listas.get(0)) {
+                if (contenidoEnTodas(id, listas)) {
+                    String texto = textoPorId.get(id);
+                    if (texto != null && texto.contains(normalizada)) {
+                        resultado.add(id);
+                    }
+                }
+            }
+        }
+        
+        Collections.sort(resultado);
+        return resultado;
+    }
+    
+    private static boolean contenidoEnTodas(Long id, List<Set<Long>> listas) {
+        for (int i = 1; i < listas.size(); i++) {
+            if (!listas.get(i).contains(id)) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    private void agregar(Long trigrama, Long id) {
+        idsPorTrigrama.compute(trigrama, (t, ids) -> {
+            Set<Long> resultado = ids != null ? ids : ConcurrentHashMap.newKeySet();
+            resultado.add(id);
+            return resultado;
+        });
+    }
+    
+    private void quitar(Long trigrama, Long id) {
+        idsPorTrigrama.compute(trigrama, (t, ids) -> {
+            if (ids == null) {
+                return null;
+            }
+            ids.remove(id);
+            return ids.isEmpty() ? null : ids;
+        });
+    }
+    
+    /**
+     * Obtiene los trigramas distintos de un texto normalizado, codificando
+     * cada uno en un long (16 bits por carácter) para no crear subcadenas
+     */
+    private static Set<Long> trigramas(String texto) {
+        if (texto == null || texto.length() < N) {
+            return Collections.emptySet();
+        }
+        Set<Long> resultado = new HashSet<>();
+        for (int i = 0; i + N <= texto.length(); i++) {
+            long codigo = ((long) texto.charAt(i) << 32)
+                    | ((long) texto.charAt(i + 1) << 16)
+                    | texto.charAt(i + 2);
+            resultado.add(codigo);
+        }
+        return resultado;
+    }
+}
@@ -0,0 +1,90 @@
+package com.um.biblioteca.repository.index;
+
+import com.um.biblioteca.exception.RecursoDuplicadoException;
+import com.um.biblioteca.repository.colecciones.MapaLongConcurrente;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Índice secundario único en memoria que asocia una clave con el ID de la entidad.
+ * Guarda además la clave vigente de cada ID, de modo que un cambio de clave
+ * libera la anterior aunque la entidad se haya modificado en el lugar.
+ * Las escrituras sobre un mismo ID deben estar serializadas por el repositorio.
+ * @param <K> Tipo de clave
+ */
+public class IndiceUnico<K> {
+    
+    private final Map<K, Long> idPorClave = new ConcurrentHashMap<>();
+    private final MapaLongConcurrente<K> clavePorId = new MapaLongConcurrente<>();
+    private final EstadisticasIndice estadisticas = new EstadisticasIndice();
+    private final String recurso;
+    private final String campo;
+    
+    /**
+     * @param recurso Nombre del recurso indexado (para mensajes de error)
+     * @param campo Nombre del campo indexado (para mensajes de error)
+     */
+    public IndiceUnico(String recurso, String campo) {
+        this.recurso = recurso;
+        this.campo = campo;
+    }
+    
+    /**
+     * Asocia la clave con el ID, liberando la clave anterior del ID si cambió
+     * @param id ID de la entidad
+     * @param clave Nueva clave (null elimina la asociación)
+     * @throws RecursoDuplicadoException si la clave pertenece a otra entidad
+     */
+    public void actualizar(Long id, K clave) {
+        K anterior = clavePorId.get(id);
+        if (Objects.equals(anterior, clave)) {
+            return;
+        }
+        
+        if (clave != null) {
+            Long existente = idPorClave.putIfAbsent(clave, id);
+            if (existente != null && !existente.equals(id)) {
+                throw new RecursoDuplicadoException(recurso, campo, clave);
+            }
+            clavePorId.put(id, clave);
+        } else {
+            clavePorId.remove(id);
+        }
+        
+        if (anterior != null) {
+            idPorClave.remove(anterior, id);
+        }
+    }
+    
+    /**
+     * Elimina la asociación del ID
+     * @param id ID de la entidad
+     */
+    public void eliminar(Long id) {
+        K clave = clavePorId.remove(id);
+        if (clave != null) {
+            idPorClave.remove(clave, id);
+        }
+    }
+    
+    /**
+     * Busca el ID asociado a la clave
+     * @param clave Clave a buscar
+     * @return Optional con el ID o vacío si la clave no está indexada
+     */
+    public Optional<Long> buscar(K clave) {
+        Long id = clave != null ? idPorClave.get(clave) : null;
+        estadisticas.registrar(id != null);
+        return Optional.ofNullable(id);
+    }
+    
+    /**
+     * Consultas hechas al índice y cuántas encontraron algún ID
+     */
+    public EstadisticasIndice estadisticas() {
+        return estadisticas;
+    }
+}
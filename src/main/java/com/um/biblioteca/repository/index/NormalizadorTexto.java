@@ -0,0 +1,50 @@
+package com.um.biblioteca.repository.index;
+
+import java.text.Normalizer;
+import java.util.Locale;
+
+/**
+ * Normaliza textos para las búsquedas parciales de los repositorios.
+ * Los índices guardan el texto ya normalizado al momento de guardar la entidad,
+ * por lo que en las búsquedas sólo se normaliza la consulta.
+ */
+public final class NormalizadorTexto {
+    
+    private NormalizadorTexto() {
+    }
+    
+    /**
+     * Normaliza un texto para compararlo sin distinguir mayúsculas ni acentos
+     * (ej. "Información" se normaliza como "informacion")
+     * @param texto Texto a normalizar
+     * @return Texto normalizado o null si el texto es null
+     */
+    public static String normalizar(String texto) {
+        if (texto == null) {
+            return null;
+        }
+        if (esAsciiEnMinusculas(texto)) {
+            return texto;
+        }
+        
+        String descompuesto = Normalizer.normalize(texto.toLowerCase(Locale.ROOT), Normalizer.Form.NFKD);
+        StringBuilder resultado = new StringBuilder(descompuesto.length());
+        for (int i = 0; i < descompuesto.length(); i++) {
+            char c = descompuesto.charAt(i);
+            if (Character.getType(c) != Character.NON_SPACING_MARK) {
+                resultado.append(c);
+            }
+        }
+        return resultado.toString();
+    }
+    
+    private static boolean esAsciiEnMinusculas(String texto) {
+        for (int i = 0; i < texto.length(); i++) {
+            char c = texto.charAt(i);
+            if (c >= 0x80 || (c >= 'A' && c <= 'Z')) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
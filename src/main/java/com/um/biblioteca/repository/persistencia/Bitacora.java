@@ -0,0 +1,515 @@
+package com.um.biblioteca.repository.persistencia;
+
+import com.um.biblioteca.exception.PersistenciaException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.zip.CRC32C;
+
+/**
+ * Bitácora de escritura anticipada (write-ahead log) de sólo agregado.
+ * <p>
+ * La bitácora se divide en segmentos bitacora-&lt;lsn&gt;.wal, nombrados por
+ * el LSN de su primera entrada. {@link #rotar} cierra el segmento actual y
+ * abre uno nuevo, de modo que una vez tomada una instantánea los segmentos
+ * anteriores a ella pueden borrarse.
+ * <p>
+ * Las entradas se encolan y un único hilo escritor las agrupa en lotes: todo
+ * lo que llegó mientras se escribía el lote anterior se escribe (y, según la
+ * política, se sincroniza) con una sola llamada al sistema. Así la latencia
+ * de cada escritura queda acotada por la de un lote y el costo del fsync se
+ * reparte entre todas las escrituras concurrentes.
+ * <p>
+ * Si un lote no puede escribirse, el segmento se trunca al final del lote
+ * anterior para que los siguientes no queden detrás de una entrada
+ * incompleta, que al recuperar descartaría todo lo posterior. Si tampoco
+ * puede truncarse, la bitácora deja de aceptar entradas.
+ */
+public class Bitacora implements Closeable {
+
+    private static final Logger log = LoggerFactory.getLogger(Bitacora.class);
+
+    static final int CABECERA = 2 * Integer.BYTES;
+    private static final int TAMANIO_MAXIMO_ENTRADA = 64 * 1024 * 1024;
+    private static final int TAMANIO_INICIAL_BUFFER = 64 * 1024;
+
+    private static final String PREFIJO_SEGMENTO = "bitacora-";
+    private static final String EXTENSION_SEGMENTO = ".wal";
+
+    /**
+     * Entrada encolada; sin registro indica una rotación de segmento
+     */
+    private record Pendiente(RegistroBitacora registro, CompletableFuture<Void> confirmacion) {
+    }
+
+    /**
+     * Segmento de la bitácora en disco
+     * @param inicio LSN de la primera entrada del segmento
+     * @param archivo Archivo del segmento
+     */
+    record Segmento(long inicio, Path archivo) {
+    }
+
+    /**
+     * Abre el canal de un segmento, posicionado al final
+     */
+    interface AbridorSegmentos {
+        FileChannel abrir(Path archivo) throws IOException;
+    }
+
+    private final Path directorio;
+    private final AbridorSegmentos abridor;
+    private volatile FileChannel canal;
+    private volatile Path archivo;
+    private final PoliticaFsync politica;
+    private final int loteMaximo;
+    private final BlockingQueue<Pendiente> cola = new LinkedBlockingQueue<>();
+    private final ReadWriteLock cierre = new ReentrantReadWriteLock();
+    private final Thread escritor;
+    private final ScheduledExecutorService sincronizador;
+    private volatile boolean abierta = true;
+    private volatile PersistenciaException fallo;
+    private ByteBuffer buffer = ByteBuffer.allocateDirect(TAMANIO_INICIAL_BUFFER);
+    private volatile long ultimoLsn;
+    private volatile long inicioSegmento;
+
+    /**
+     * Abre la bitácora para agregar entradas en un segmento que empieza en ultimoLsn + 1
+     * @param directorio Directorio de los segmentos
+     * @param ultimoLsn Último LSN presente en la bitácora (ver {@link #recuperar})
+     * @param politica Política de sincronización con el disco
+     * @param intervaloFsyncMs Intervalo de sincronización para la política PERIODICA
+     * @param loteMaximo Cantidad máxima de entradas por lote
+     * @throws IOException si no se puede abrir el archivo
+     */
+    public Bitacora(Path directorio, long ultimoLsn, PoliticaFsync politica, long intervaloFsyncMs, int loteMaximo)
+            throws IOException {
+        this(directorio, ultimoLsn, politica, intervaloFsyncMs, loteMaximo, Bitacora::abrirSegmento);
+    }
+
+    Bitacora(Path directorio, long ultimoLsn, PoliticaFsync politica, long intervaloFsyncMs, int loteMaximo,
+             AbridorSegmentos abridor) throws IOException {
+        this.directorio = directorio;
+        this.abridor = abridor;
+        this.archivo = archivoSegmento(directorio, ultimoLsn + 1);
+        this.canal = abridor.abrir(archivo);
+        this.politica = politica;
+        this.loteMaximo = Math.max(1, loteMaximo);
+        this.ultimoLsn = ultimoLsn;
+        this.inicioSegmento = ultimoLsn + 1;
+
+        if (politica == PoliticaFsync.PERIODICA) {
+            sincronizador = Executors.newSingleThreadScheduledExecutor(r -> hiloDemonio(r, "bitacora-fsync"));
+            sincronizador.scheduleWithFixedDelay(this::sincronizar, intervaloFsyncMs, intervaloFsyncMs,
+                    TimeUnit.MILLISECONDS);
+        } else {
+            sincronizador = null;
+        }
+
+        escritor = hiloDemonio(this::escribirLotes, "bitacora-escritor");
+        escritor.start();
+    }
+
+    /**
+     * Encola una entrada para ser escrita en el próximo lote
+     * @param registro Entrada a agregar; el LSN lo asigna la bitácora
+     * @return Confirmación que se completa cuando la entrada es durable según la
+     *         política, o con PersistenciaException si no pudo escribirse
+     */
+    public CompletableFuture<Void> agregar(RegistroBitacora registro) {
+        return agregarPendiente(Objects.requireNonNull(registro));
+    }
+
+    private CompletableFuture<Void> agregarPendiente(RegistroBitacora registro) {
+        CompletableFuture<Void> confirmacion = new CompletableFuture<>();
+        cierre.readLock().lock();
+        try {
+            if (!abierta) {
+                confirmacion.completeExceptionally(new PersistenciaException("La bitácora está cerrada"));
+            } else if (fallo != null) {
+                confirmacion.completeExceptionally(fallo);
+            } else {
+                cola.add(new Pendiente(registro, confirmacion));
+            }
+        } finally {
+            cierre.readLock().unlock();
+        }
+        return confirmacion;
+    }
+
+    /**
+     * Cierra el segmento actual y abre uno nuevo. La rotación se encola como
+     * una entrada más: todo lo agregado antes queda en los segmentos anteriores
+     * y todo lo agregado después, en el nuevo.
+     * @return LSN de la primera entrada del nuevo segmento
+     * @throws PersistenciaException si la bitácora está cerrada o no se pudo rotar
+     */
+    public long rotar() {
+        CompletableFuture<Void> confirmacion = agregarPendiente(null);
+        try {
+            confirmacion.join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof PersistenciaException causa
+                    ? causa
+                    : new PersistenciaException("No se pudo rotar la bitácora", e.getCause());
+        }
+        return inicioSegmento;
+    }
+
+    /**
+     * Lee las entradas válidas de los segmentos de la bitácora. Si un segmento
+     * termina en una entrada incompleta o corrupta (por ejemplo, por una caída
+     * durante la escritura), se trunca a la última entrada válida.
+     * @param directorio Directorio de los segmentos
+     * @param desdeLsn Primer LSN a entregar; las entradas anteriores se omiten
+     * @param consumidor Recibe cada entrada, en orden
+     * @return LSN de la última entrada válida, o desdeLsn - 1 si no hay ninguna posterior
+     * @throws IOException si no se puede leer un segmento
+     */
+    public static long recuperar(Path directorio, long desdeLsn, Consumer<RegistroBitacora> consumidor)
+            throws IOException {
+        long ultimoLsn = desdeLsn - 1;
+        List<Segmento> segmentos = segmentos(directorio);
+        for (int i = 0; i < segmentos.size(); i++) {
+            // Un segmento seguido por otro que empieza antes de desdeLsn no tiene nada que entregar
+            if (i + 1 < segmentos.size() && segmentos.get(i + 1).inicio() <= desdeLsn) {
+                continue;
+            }
+            long ultimoDelSegmento = recuperarSegmento(segmentos.get(i).archivo(), registro -> {
+                if (registro.lsn() >= desdeLsn) {
+                    consumidor.accept(registro);
+                }
+            });
+            ultimoLsn = Math.max(ultimoLsn, ultimoDelSegmento);
+        }
+        return ultimoLsn;
+    }
+
+    /**
+     * Borra los segmentos cuyas entradas son todas anteriores a un LSN
+     * @param directorio Directorio de los segmentos
+     * @param lsn Inicio de un segmento creado por {@link #rotar}
+     * @throws IOException si no se puede borrar un segmento
+     */
+    public static void eliminarSegmentosAnteriores(Path directorio, long lsn) throws IOException {
+        for (Segmento segmento : segmentos(directorio)) {
+            if (segmento.inicio() < lsn) {
+                Files.deleteIfExists(segmento.archivo());
+            }
+        }
+    }
+
+    /**
+     * Lista los segmentos de la bitácora
+     * @param directorio Directorio de los segmentos
+     * @return Segmentos ordenados por su primer LSN
+     * @throws IOException si no se puede listar el directorio
+     */
+    static List<Segmento> segmentos(Path directorio) throws IOException {
+        if (!Files.isDirectory(directorio)) {
+            return List.of();
+        }
+        List<Segmento> segmentos = new ArrayList<>();
+        try (DirectoryStream<Path> archivos = Files.newDirectoryStream(directorio,
+                PREFIJO_SEGMENTO + "*" + EXTENSION_SEGMENTO)) {
+            for (Path archivo : archivos) {
+                String nombre = archivo.getFileName().toString();
+                String numero = nombre.substring(PREFIJO_SEGMENTO.length(), nombre.length() - EXTENSION_SEGMENTO.length());
+                try {
+                    segmentos.add(new Segmento(Long.parseLong(numero), archivo));
+                } catch (NumberFormatException e) {
+                    log.warn("Se ignora el archivo {}: no es un segmento de la bitácora", archivo);
+                }
+            }
+        }
+        segmentos.sort(Comparator.comparingLong(Segmento::inicio));
+        return segmentos;
+    }
+
+    private static long recuperarSegmento(Path archivo, Consumer<RegistroBitacora> consumidor) throws IOException {
+        long ultimoLsn = 0;
+        long posicionValida = 0;
+        long tamanio = Files.size(archivo);
+        try (InputStream entrada = Files.newInputStream(archivo);
+             DataInputStream datos = new DataInputStream(new BufferedInputStream(entrada, TAMANIO_INICIAL_BUFFER))) {
+            CRC32C crc = new CRC32C();
+            while (posicionValida < tamanio) {
+                int longitud = datos.readInt();
+                int suma = datos.readInt();
+                if (longitud <= 0 || longitud > TAMANIO_MAXIMO_ENTRADA || posicionValida + CABECERA + longitud > tamanio) {
+                    break;
+                }
+                byte[] contenido = new byte[longitud];
+                datos.readFully(contenido);
+                crc.reset();
+                crc.update(contenido);
+                if ((int) crc.getValue() != suma) {
+                    break;
+                }
+
+                RegistroBitacora registro = RegistroBitacora.decodificar(ByteBuffer.wrap(contenido));
+                consumidor.accept(registro);
+                ultimoLsn = registro.lsn();
+                posicionValida += CABECERA + longitud;
+            }
+        } catch (EOFException e) {
+            // Cabecera incompleta al final del archivo
+        }
+
+        if (posicionValida < tamanio) {
+            log.warn("Bitácora {} truncada en el byte {} de {}: la última entrada estaba incompleta o corrupta",
+                    archivo, posicionValida, tamanio);
+            try (FileChannel canal = FileChannel.open(archivo, StandardOpenOption.WRITE)) {
+                canal.truncate(posicionValida);
+                canal.force(true);
+            }
+        }
+        return ultimoLsn;
+    }
+
+    /**
+     * Escribe las entradas pendientes, sincroniza el archivo y lo cierra.
+     * Las escrituras posteriores fallan con PersistenciaException.
+     */
+    @Override
+    public void close() throws IOException {
+        cierre.writeLock().lock();
+        try {
+            if (!abierta) {
+                return;
+            }
+            abierta = false;
+        } finally {
+            cierre.writeLock().unlock();
+        }
+
+        try {
+            escritor.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (sincronizador != null) {
+            sincronizador.shutdownNow();
+        }
+        canal.force(true);
+        canal.close();
+    }
+
+    /**
+     * Segmento en el que se escriben las entradas actualmente
+     */
+    public Path getArchivo() {
+        return archivo;
+    }
+
+    /**
+     * LSN asignado a la última entrada escrita
+     */
+    public long getUltimoLsn() {
+        return ultimoLsn;
+    }
+
+    private void escribirLotes() {
+        List<Pendiente> lote = new ArrayList<>(loteMaximo);
+        while (true) {
+            Pendiente primero;
+            try {
+                primero = cola.poll(50, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                primero = null;
+            }
+            if (primero == null) {
+                if (!abierta && cola.isEmpty()) {
+                    return;
+                }
+                continue;
+            }
+
+            lote.add(primero);
+            cola.drainTo(lote, loteMaximo - 1);
+            escribirLote(lote);
+            lote.clear();
+        }
+    }
+
+    private void escribirLote(List<Pendiente> lote) {
+        int desde = 0;
+        for (int i = 0; i < lote.size(); i++) {
+            if (lote.get(i).registro() == null) {
+                escribirEntradas(lote.subList(desde, i));
+                rotarSegmento(lote.get(i).confirmacion());
+                desde = i + 1;
+            }
+        }
+        escribirEntradas(lote.subList(desde, lote.size()));
+    }
+
+    private void escribirEntradas(List<Pendiente> lote) {
+        if (lote.isEmpty()) {
+            return;
+        }
+        if (fallo != null) {
+            fallar(lote, fallo);
+            return;
+        }
+        long posicion = -1;
+        try {
+            posicion = canal.position();
+            ByteBuffer contenido = codificarLote(lote, ultimoLsn);
+            while (contenido.hasRemaining()) {
+                canal.write(contenido);
+            }
+            if (politica == PoliticaFsync.POR_ESCRITURA) {
+                canal.force(false);
+            }
+        } catch (IOException | RuntimeException e) {
+            PersistenciaException error = new PersistenciaException("No se pudo escribir en la bitácora", e);
+            descartarLote(posicion, error);
+            fallar(lote, error);
+            return;
+        }
+        // Los LSN del lote sólo se consumen si quedó escrito
+        ultimoLsn += lote.size();
+        for (Pendiente pendiente : lote) {
+            pendiente.confirmacion().complete(null);
+        }
+    }
+
+    /**
+     * Trunca el segmento al final del último lote escrito, descartando lo que
+     * haya llegado a escribirse del lote fallido. Si no es posible, la
+     * bitácora deja de aceptar entradas: las siguientes quedarían detrás de
+     * una entrada incompleta y se perderían al recuperar.
+     * @param posicion Final del último lote escrito, o -1 si no se conoce
+     * @param error Falla del lote
+     */
+    private void descartarLote(long posicion, PersistenciaException error) {
+        try {
+            if (posicion < 0) {
+                throw new IOException("No se conoce el final del último lote escrito");
+            }
+            canal.truncate(posicion);
+            canal.position(posicion);
+            log.warn("No se pudo escribir un lote en la bitácora {}; se descartó desde el byte {}",
+                    archivo, posicion, error);
+        } catch (IOException | RuntimeException e) {
+            error.addSuppressed(e);
+            fallo = new PersistenciaException("La bitácora dejó de aceptar entradas tras una falla de escritura", error);
+            log.error("No se pudo descartar el lote fallido de la bitácora {}; se rechazan las entradas siguientes",
+                    archivo, error);
+        }
+    }
+
+    private static void fallar(List<Pendiente> lote, PersistenciaException error) {
+        for (Pendiente pendiente : lote) {
+            pendiente.confirmacion().completeExceptionally(error);
+        }
+    }
+
+    private void rotarSegmento(CompletableFuture<Void> confirmacion) {
+        if (fallo != null) {
+            confirmacion.completeExceptionally(fallo);
+            return;
+        }
+        try {
+            long inicio = ultimoLsn + 1;
+            Path nuevo = archivoSegmento(directorio, inicio);
+            FileChannel siguiente = abridor.abrir(nuevo);
+            FileChannel anterior = canal;
+            canal = siguiente;
+            archivo = nuevo;
+            inicioSegmento = inicio;
+            anterior.force(true);
+            anterior.close();
+            confirmacion.complete(null);
+        } catch (IOException | RuntimeException e) {
+            confirmacion.completeExceptionally(new PersistenciaException("No se pudo rotar la bitácora", e));
+        }
+    }
+
+    /**
+     * Codifica las entradas del lote con LSN consecutivos a partir de lsnAnterior + 1
+     */
+    private ByteBuffer codificarLote(List<Pendiente> lote, long lsnAnterior) {
+        int total = 0;
+        for (Pendiente pendiente : lote) {
+            total += CABECERA + pendiente.registro().tamanioContenido();
+        }
+        if (buffer.capacity() < total) {
+            buffer = ByteBuffer.allocateDirect(Math.max(total, buffer.capacity() * 2));
+        }
+
+        buffer.clear();
+        CRC32C crc = new CRC32C();
+        long lsn = lsnAnterior;
+        for (Pendiente pendiente : lote) {
+            RegistroBitacora registro = pendiente.registro().conLsn(++lsn);
+            int longitud = registro.tamanioContenido();
+            int inicio = buffer.position();
+            buffer.putInt(longitud);
+            buffer.putInt(0);
+            registro.codificar(buffer);
+            crc.reset();
+            crc.update(buffer.slice(inicio + CABECERA, longitud));
+            buffer.putInt(inicio + Integer.BYTES, (int) crc.getValue());
+        }
+        return buffer.flip();
+    }
+
+    private void sincronizar() {
+        FileChannel actual = canal;
+        if (!actual.isOpen()) {
+            return;
+        }
+        try {
+            actual.force(false);
+        } catch (ClosedChannelException e) {
+            // El segmento se rotó o la bitácora se cerró mientras tanto: ambos ya sincronizan
+        } catch (IOException e) {
+            log.error("No se pudo sincronizar la bitácora {}", archivo, e);
+        }
+    }
+
+    private static Path archivoSegmento(Path directorio, long inicio) {
+        return directorio.resolve(String.format("%s%020d%s", PREFIJO_SEGMENTO, inicio, EXTENSION_SEGMENTO));
+    }
+
+    private static FileChannel abrirSegmento(Path archivo) throws IOException {
+        FileChannel canal = FileChannel.open(archivo, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        canal.position(canal.size());
+        return canal;
+    }
+
+    private static Thread hiloDemonio(Runnable tarea, String nombre) {
+        Thread hilo = new Thread(tarea, nombre);
+        hilo.setDaemon(true);
+        return hilo;
+    }
+}
@@ -0,0 +1,58 @@
+package com.um.biblioteca.repository.persistencia;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * Representación binaria de una entidad, usada en la bitácora y en las instantáneas
+ * @param <T> Tipo de entidad
+ */
+public interface Codificador<T> {
+
+    /**
+     * Escribe la entidad
+     * @param entidad Entidad a escribir
+     * @param salida Destino
+     * @throws IOException si falla la escritura
+     */
+    void escribir(T entidad, DataOutput salida) throws IOException;
+
+    /**
+     * Lee una entidad escrita con {@link #escribir}
+     * @param entrada Origen
+     * @return Entidad leída
+     * @throws IOException si falla la lectura o el formato no es válido
+     */
+    T leer(DataInput entrada) throws IOException;
+
+    /**
+     * Codifica la entidad en un arreglo de bytes
+     * @param entidad Entidad a codificar
+     * @return Bytes de la entidad
+     */
+    default byte[] codificar(T entidad) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(128);
+        try {
+            escribir(entidad, new DataOutputStream(bytes));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Decodifica una entidad a partir de sus bytes
+     * @param datos Bytes producidos por {@link #codificar}
+     * @return Entidad decodificada
+     * @throws IOException si el formato no es válido
+     */
+    default T decodificar(byte[] datos) throws IOException {
+        return leer(new DataInputStream(new ByteArrayInputStream(datos)));
+    }
+}
@@ -0,0 +1,188 @@
+package com.um.biblioteca.repository.persistencia;
+
+import com.um.biblioteca.model.DiasEpoca;
+import com.um.biblioteca.model.EstadoLibro;
+import com.um.biblioteca.model.EstadoUsuario;
+import com.um.biblioteca.model.Libro;
+import com.um.biblioteca.model.Prestamo;
+import com.um.biblioteca.model.Usuario;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.StreamCorruptedException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Codificadores binarios de las entidades del modelo. Cada entidad empieza
+ * con un byte de formato para poder leer datos escritos por versiones
+ * anteriores; los campos opcionales llevan una marca de presencia.
+ */
+public final class Codificadores {
+
+    private static final byte FORMATO = 1;
+    /**
+     * Formato 2 del préstamo: referencia al libro y al usuario por ID en lugar de incluirlos
+     */
+    private static final byte FORMATO_PRESTAMO_POR_ID = 2;
+    /**
+     * Formato 3 del préstamo: como el 2, con las fechas en días como int en lugar de long
+     */
+    private static final byte FORMATO_PRESTAMO = 3;
+    private static final long FECHA_AUSENTE = Long.MIN_VALUE;
+
+    private Codificadores() {
+    }
+
+    public static final Codificador<Libro> LIBRO = new Codificador<>() {
+        @Override
+        public void escribir(Libro libro, DataOutput salida) throws IOException {
+            salida.writeByte(FORMATO);
+            escribirLong(libro.id(), salida);
+            escribirLong(libro.version(), salida);
+            escribirTexto(libro.isbn(), salida);
+            escribirTexto(libro.titulo(), salida);
+            escribirTexto(libro.autor(), salida);
+            escribirEnum(libro.estado(), salida);
+        }
+
+        @Override
+        public Libro leer(DataInput entrada) throws IOException {
+            verificarFormato(entrada, "libro");
+            Long id = leerLong(entrada);
+            Long version = leerLong(entrada);
+            String isbn = leerTexto(entrada);
+            String titulo = leerTexto(entrada);
+            String autor = leerTexto(entrada);
+            EstadoLibro estado = leerEnum(EstadoLibro.class, entrada);
+            return new Libro(id, isbn, titulo, autor, estado, version);
+        }
+    };
+
+    public static final Codificador<Usuario> USUARIO = new Codificador<>() {
+        @Override
+        public void escribir(Usuario usuario, DataOutput salida) throws IOException {
+            salida.writeByte(FORMATO);
+            escribirLong(usuario.id(), salida);
+            escribirLong(usuario.version(), salida);
+            escribirTexto(usuario.nombre(), salida);
+            escribirTexto(usuario.email(), salida);
+            escribirEnum(usuario.estado(), salida);
+        }
+
+        @Override
+        public Usuario leer(DataInput entrada) throws IOException {
+            verificarFormato(entrada, "usuario");
+            Long id = leerLong(entrada);
+            Long version = leerLong(entrada);
+            String nombre = leerTexto(entrada);
+            String email = leerTexto(entrada);
+            EstadoUsuario estado = leerEnum(EstadoUsuario.class, entrada);
+            return new Usuario(id, nombre, email, estado, version);
+        }
+    };
+
+    public static final Codificador<Prestamo> PRESTAMO = new Codificador<>() {
+        @Override
+        public void escribir(Prestamo prestamo, DataOutput salida) throws IOException {
+            salida.writeByte(FORMATO_PRESTAMO);
+            escribirLong(prestamo.id(), salida);
+            escribirLong(prestamo.version(), salida);
+            salida.writeInt(prestamo.diaPrestamo());
+            salida.writeInt(prestamo.diaDevolucion());
+            escribirLong(prestamo.libroId(), salida);
+            escribirLong(prestamo.usuarioId(), salida);
+        }
+
+        @Override
+        public Prestamo leer(DataInput entrada) throws IOException {
+            byte formato = entrada.readByte();
+            if (formato != FORMATO && formato != FORMATO_PRESTAMO_POR_ID && formato != FORMATO_PRESTAMO) {
+                throw new StreamCorruptedException("Formato de préstamo desconocido: " + formato);
+            }
+            Long id = leerLong(entrada);
+            Long version = leerLong(entrada);
+            int diaPrestamo;
+            int diaDevolucion;
+            if (formato == FORMATO_PRESTAMO) {
+                diaPrestamo = entrada.readInt();
+                diaDevolucion = entrada.readInt();
+            } else {
+                diaPrestamo = leerFechaLong(entrada);
+                diaDevolucion = leerFechaLong(entrada);
+            }
+            Long libroId;
+            Long usuarioId;
+            if (formato != FORMATO) {
+                libroId = leerLong(entrada);
+                usuarioId = leerLong(entrada);
+            } else {
+                // Formato 1: el libro y el usuario se guardaban completos
+                libroId = entrada.readBoolean() ? LIBRO.leer(entrada).id() : null;
+                usuarioId = entrada.readBoolean() ? USUARIO.leer(entrada).id() : null;
+            }
+            return new Prestamo(id, libroId, usuarioId, diaPrestamo, diaDevolucion, version);
+        }
+    };
+
+    private static void verificarFormato(DataInput entrada, String entidad) throws IOException {
+        byte formato = entrada.readByte();
+        if (formato != FORMATO) {
+            throw new StreamCorruptedException("Formato de " + entidad + " desconocido: " + formato);
+        }
+    }
+
+    private static void escribirLong(Long valor, DataOutput salida) throws IOException {
+        salida.writeBoolean(valor != null);
+        if (valor != null) {
+            salida.writeLong(valor);
+        }
+    }
+
+    private static Long leerLong(DataInput entrada) throws IOException {
+        return entrada.readBoolean() ? entrada.readLong() : null;
+    }
+
+    private static void escribirTexto(String texto, DataOutput salida) throws IOException {
+        if (texto == null) {
+            salida.writeInt(-1);
+            return;
+        }
+        byte[] bytes = texto.getBytes(StandardCharsets.UTF_8);
+        salida.writeInt(bytes.length);
+        salida.write(bytes);
+    }
+
+    private static String leerTexto(DataInput entrada) throws IOException {
+        int longitud = entrada.readInt();
+        if (longitud < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[longitud];
+        entrada.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void escribirEnum(Enum<?> valor, DataOutput salida) throws IOException {
+        salida.writeByte(valor != null ? valor.ordinal() : -1);
+    }
+
+    private static <E extends Enum<E>> E leerEnum(Class<E> tipo, DataInput entrada) throws IOException {
+        byte ordinal = entrada.readByte();
+        return ordinal >= 0 ? tipo.getEnumConstants()[ordinal] : null;
+    }
+
+    /**
+     * Lee una fecha de los formatos 1 y 2, guardada como long
+     */
+    private static int leerFechaLong(DataInput entrada) throws IOException {
+        long dia = entrada.readLong();
+        if (dia == FECHA_AUSENTE) {
+            return DiasEpoca.SIN_FECHA;
+        }
+        if (dia <= DiasEpoca.SIN_FECHA || dia > Integer.MAX_VALUE) {
+            throw new StreamCorruptedException("Fecha fuera de rango: " + dia);
+        }
+        return (int) dia;
+    }
+}
@@ -0,0 +1,37 @@
+package com.um.biblioteca.repository.persistencia;
+
+/**
+ * Entidades de un repositorio que todavía no se materializaron: se leen de
+ * su representación binaria recién cuando se accede a ellas
+ * @param <T> Tipo de entidad
+ */
+public interface FuentePerezosa<T> {
+
+    /**
+     * Cantidad de entidades de la fuente
+     * @return Cantidad de entidades
+     */
+    int cantidad();
+
+    /**
+     * ID de la entidad en una posición; los IDs están en orden ascendente
+     * @param posicion Posición entre 0 y cantidad() - 1
+     * @return ID de la entidad
+     */
+    long id(int posicion);
+
+    /**
+     * Busca la posición de un ID
+     * @param id ID buscado
+     * @return Posición del ID, o -1 si la fuente no lo contiene
+     */
+    int posicion(long id);
+
+    /**
+     * Construye la entidad de una posición
+     * @param posicion Posición de la entidad
+     * @return Entidad nueva en cada llamada
+     * @throws com.um.biblioteca.exception.PersistenciaException si los datos están dañados
+     */
+    T materializar(int posicion);
+}
@@ -0,0 +1,248 @@
+package com.um.biblioteca.repository.persistencia;
+
+import com.um.biblioteca.exception.BibliotecaException;
+import com.um.biblioteca.exception.PersistenciaException;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hace durables los repositorios en memoria: al iniciar reconstruye su
+ * contenido desde la última instantánea y los segmentos de la bitácora
+ * posteriores a ella, y luego registra en la bitácora cada escritura.
+ * La instantánea se mapea en memoria y un hilo en segundo plano completa la
+ * carga y los índices. Sólo las operaciones por ID (findById, existsById,
+ * deleteById y los cambios de estado condicionales) materializan la entidad
+ * en el momento; save, los listados, los conteos y todas las búsquedas por
+ * índice (ISBN, email, título, estado, fechas) esperan a que el hilo termine.
+ * Periódicamente toma una nueva instantánea y borra los segmentos que ésta
+ * cubre, de modo que el tiempo de arranque depende del volumen de datos
+ * vivos y no de la historia de escrituras.
+ * Se desactiva con biblioteca.persistencia.habilitada=false.
+ */
+@Component
+@EnableConfigurationProperties(PersistenciaProperties.class)
+@ConditionalOnProperty(prefix = "biblioteca.persistencia", name = "habilitada", havingValue = "true", matchIfMissing = true)
+public class GestorPersistencia {
+
+    private static final Logger log = LoggerFactory.getLogger(GestorPersistencia.class);
+
+    private final PersistenciaProperties propiedades;
+    private final List<RepositorioPersistente<?>> repositorios;
+    private Path directorio;
+    private Bitacora bitacora;
+    private ScheduledExecutorService programador;
+    private long lsnUltimaInstantanea;
+
+    @Autowired
+    public GestorPersistencia(
+            PersistenciaProperties propiedades,
+            List<RepositorioPersistente<?>> repositorios) {
+        this.propiedades = propiedades;
+        this.repositorios = repositorios;
+    }
+
+    /**
+     * Restaura la última instantánea, aplica la bitácora posterior y conecta
+     * los repositorios a ella
+     * @throws IOException si no se puede leer la instantánea o abrir la bitácora
+     */
+    @PostConstruct
+    public void iniciar() throws IOException {
+        directorio = Paths.get(propiedades.getDirectorio());
+        Files.createDirectories(directorio);
+        Instantanea.eliminarTemporales(directorio);
+
+        // Sólo importa el último estado de cada entidad: las versiones intermedias no se restauran.
+        // Un valor null indica que la entidad fue eliminada después de la instantánea.
+        Map<String, Map<Long, byte[]>> ultimos = new HashMap<>();
+        long desdeLsn = 1;
+        boolean cargaPerezosa = false;
+        Optional<Path> instantanea = Instantanea.ultima(directorio);
+        if (instantanea.isPresent()) {
+            InstantaneaMapeada mapeada = InstantaneaMapeada.abrir(instantanea.get());
+            for (RepositorioPersistente<?> repositorio : repositorios) {
+                cargarPerezosamente(repositorio, mapeada);
+            }
+            desdeLsn = mapeada.lsn();
+            cargaPerezosa = true;
+            log.info("Instantánea {} mapeada", instantanea.get());
+        }
+        long ultimoLsn = Bitacora.recuperar(directorio, desdeLsn, registro -> {
+            Map<Long, byte[]> porId = ultimos.computeIfAbsent(registro.repositorio(), r -> new LinkedHashMap<>());
+            porId.put(registro.id(), registro.tipo() == RegistroBitacora.Tipo.ELIMINACION ? null : registro.datos());
+        });
+
+        for (RepositorioPersistente<?> repositorio : repositorios) {
+            restaurar(repositorio, ultimos.getOrDefault(repositorio.nombreRepositorio(), Map.of()));
+        }
+
+        bitacora = new Bitacora(directorio, ultimoLsn, propiedades.getFsync(),
+                propiedades.getIntervaloFsyncMs(), propiedades.getLoteMaximo());
+        lsnUltimaInstantanea = ultimoLsn;
+        for (RepositorioPersistente<?> repositorio : repositorios) {
+            conectar(repositorio);
+        }
+
+        long intervalo = propiedades.getIntervaloInstantaneaMs();
+        if (intervalo > 0) {
+            programador = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread hilo = new Thread(r, "persistencia-instantaneas");
+                hilo.setDaemon(true);
+                return hilo;
+            });
+            programador.scheduleWithFixedDelay(this::tomarInstantaneaProgramada, intervalo, intervalo,
+                    TimeUnit.MILLISECONDS);
+        }
+        if (cargaPerezosa) {
+            Thread cargador = new Thread(this::completarCarga, "persistencia-carga");
+            cargador.setDaemon(true);
+            cargador.start();
+        }
+        log.info("Persistencia iniciada en {} (fsync {}, último LSN {})", directorio, propiedades.getFsync(), ultimoLsn);
+    }
+
+    /**
+     * Toma una instantánea de los repositorios sin detener las escrituras y
+     * borra las instantáneas y los segmentos de la bitácora que deja obsoletos.
+     * No hace nada si no hubo escrituras desde la instantánea anterior.
+     * @return true si se tomó una instantánea
+     * @throws IOException si no se puede escribir la instantánea
+     * @throws PersistenciaException si algún repositorio no pudo cargar una
+     *         entidad de la instantánea anterior, que entonces se conserva
+     *         junto con los segmentos posteriores
+     */
+    public synchronized boolean tomarInstantanea() throws IOException {
+        if (bitacora.getUltimoLsn() == lsnUltimaInstantanea) {
+            return false;
+        }
+        for (RepositorioPersistente<?> repositorio : repositorios) {
+            PersistenciaException error = repositorio.errorDeCarga();
+            if (error != null) {
+                throw new PersistenciaException("No se toman instantáneas porque la carga de "
+                        + repositorio.nombreRepositorio() + " falló", error);
+            }
+        }
+
+        long inicio = System.nanoTime();
+        long lsn = bitacora.rotar();
+        Path archivo = Instantanea.escribir(directorio, lsn, repositorios);
+        lsnUltimaInstantanea = lsn - 1;
+        Instantanea.eliminarAnteriores(directorio, archivo);
+        Bitacora.eliminarSegmentosAnteriores(directorio, lsn);
+        log.info("Instantánea {} tomada en {} ms", archivo.getFileName(),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - inicio));
+        return true;
+    }
+
+    /**
+     * Toma una última instantánea (si está configurado), desconecta los repositorios y cierra la
+     * bitácora, bajando a disco lo pendiente
+     * @throws IOException si no se puede cerrar la bitácora
+     */
+    @PreDestroy
+    public void cerrar() throws IOException {
+        if (programador != null) {
+            programador.shutdownNow();
+            try {
+                programador.awaitTermination(1, TimeUnit.MINUTES);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        if (bitacora == null) {
+            return;
+        }
+        if (propiedades.isInstantaneaAlCerrar()) {
+            try {
+                tomarInstantanea();
+            } catch (IOException | RuntimeException e) {
+                log.warn("No se pudo tomar la instantánea de cierre; se recuperará desde la bitácora", e);
+            }
+        }
+        for (RepositorioPersistente<?> repositorio : repositorios) {
+            repositorio.conectar(RegistroCambios.ninguno());
+        }
+        bitacora.close();
+    }
+
+    private void tomarInstantaneaProgramada() {
+        try {
+            tomarInstantanea();
+        } catch (IOException | RuntimeException e) {
+            log.error("No se pudo tomar la instantánea periódica", e);
+        }
+    }
+
+    private void completarCarga() {
+        long inicio = System.nanoTime();
+        for (RepositorioPersistente<?> repositorio : repositorios) {
+            repositorio.completarCarga();
+            if (repositorio.errorDeCarga() != null) {
+                log.error("La carga de {} terminó con entidades que no pudieron cargarse; se conservan "
+                        + "la instantánea y la bitácora", repositorio.nombreRepositorio());
+            }
+        }
+        log.info("Carga de la instantánea completada en {} ms",
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - inicio));
+    }
+
+    private <T> void cargarPerezosamente(RepositorioPersistente<T> repositorio, InstantaneaMapeada instantanea) {
+        repositorio.cargarPerezosamente(instantanea.fuente(repositorio.nombreRepositorio(), repositorio.codificador()));
+    }
+
+    private <T> void restaurar(RepositorioPersistente<T> repositorio, Map<Long, byte[]> estados) {
+        Codificador<T> codificador = repositorio.codificador();
+        for (Map.Entry<Long, byte[]> estado : estados.entrySet()) {
+            if (estado.getValue() == null) {
+                repositorio.descartar(estado.getKey());
+                continue;
+            }
+            try {
+                repositorio.restaurar(estado.getKey(), codificador.decodificar(estado.getValue()));
+            } catch (IOException | BibliotecaException e) {
+                // Omitirla haría que la próxima instantánea la pierda y borre la bitácora que la contiene
+                throw new PersistenciaException("No se pudo restaurar la entidad " + estado.getKey()
+                        + " de " + repositorio.nombreRepositorio(), e);
+            }
+        }
+        if (!estados.isEmpty()) {
+            log.info("Restauradas {} entidades de {}", estados.size(), repositorio.nombreRepositorio());
+        }
+    }
+
+    private <T> void conectar(RepositorioPersistente<T> repositorio) {
+        String nombre = repositorio.nombreRepositorio();
+        Codificador<T> codificador = repositorio.codificador();
+        repositorio.conectar(new RegistroCambios<>() {
+            @Override
+            public CompletableFuture<Void> guardado(Long id, T entidad) {
+                return bitacora.agregar(RegistroBitacora.guardado(nombre, id, codificador.codificar(entidad)));
+            }
+
+            @Override
+            public CompletableFuture<Void> eliminado(Long id) {
+                return bitacora.agregar(RegistroBitacora.eliminacion(nombre, id));
+            }
+        });
+    }
+}
@@ -0,0 +1,369 @@
+package com.um.biblioteca.repository.persistencia;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.StreamCorruptedException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.zip.CRC32C;
+
+/**
+ * Instantánea binaria del contenido de los repositorios.
+ * <p>
+ * Se toma sin detener las escrituras (instantánea difusa): antes de recorrer
+ * los repositorios se rota la bitácora, así que toda escritura que la
+ * instantánea pudo no haber visto queda en un segmento posterior. Al iniciar
+ * se carga la última instantánea y se aplican encima los segmentos desde su
+ * LSN; como cada entrada contiene el estado completo de la entidad, volver a
+ * aplicar un cambio que la instantánea ya incluía no altera el resultado.
+ * <p>
+ * Formato del archivo instantanea-&lt;lsn&gt;.snap, pensado para abrirse con
+ * {@link InstantaneaMapeada} sin leerlo entero:
+ * <ul>
+ * <li>cabecera [magia][formato][lsn][posición de los índices][posición del directorio]</li>
+ * <li>entidades [longitud][crc32c][datos], ninguna cruza un límite de {@link #VENTANA} bytes</li>
+ * <li>por repositorio, los IDs ordenados y la posición de cada entidad, como longs alineados</li>
+ * <li>directorio [cantidad] y por repositorio [nombre][cantidad de entidades][posición del índice]</li>
+ * <li>CRC32C de índices, directorio y cabecera</li>
+ * </ul>
+ */
+public final class Instantanea {
+
+    static final int MAGIA = 0x42534E50;
+    static final int FORMATO = 1;
+    static final int CABECERA = 2 * Integer.BYTES + 3 * Long.BYTES;
+    static final int CABECERA_ENTIDAD = 2 * Integer.BYTES;
+    static final long VENTANA = 1L << 30;
+
+    private static final String PREFIJO = "instantanea-";
+    private static final String EXTENSION = ".snap";
+    private static final String TEMPORAL = ".tmp";
+    private static final int TAMANIO_BUFFER = 64 * 1024;
+
+    private Instantanea() {
+    }
+
+    /**
+     * Escribe una instantánea de los repositorios. El archivo se escribe con
+     * un nombre temporal, se sincroniza y recién entonces se renombra, por lo
+     * que una caída nunca deja una instantánea incompleta con nombre válido.
+     * @param directorio Directorio de la persistencia
+     * @param lsn Primer LSN que la instantánea puede no incluir: el inicio del
+     *            segmento abierto por la rotación previa al recorrido
+     * @param repositorios Repositorios a incluir
+     * @return Archivo de la instantánea
+     * @throws IOException si no se puede escribir el archivo
+     */
+    public static Path escribir(Path directorio, long lsn, List<RepositorioPersistente<?>> repositorios)
+            throws IOException {
+        Path archivo = archivo(directorio, lsn);
+        Path temporal = archivo.resolveSibling(archivo.getFileName() + TEMPORAL);
+        try (FileChannel canal = FileChannel.open(temporal, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            Salida salida = new Salida(canal);
+            salida.rellenar(CABECERA);
+
+            List<Seccion> secciones = new ArrayList<>(repositorios.size());
+            for (RepositorioPersistente<?> repositorio : repositorios) {
+                secciones.add(escribirEntidades(repositorio, salida));
+            }
+
+            salida.rellenar((int) (-salida.posicion() & (Long.BYTES - 1)));
+            long posicionIndices = salida.posicion();
+            for (Seccion seccion : secciones) {
+                seccion.posicionIndice = salida.posicion();
+                for (int i = 0; i < seccion.cantidad; i++) {
+                    salida.putLong(seccion.ids[i]);
+                }
+                for (int i = 0; i < seccion.cantidad; i++) {
+                    salida.putLong(seccion.posiciones[i]);
+                }
+            }
+
+            int tamanioDirectorio = Integer.BYTES;
+            for (Seccion seccion : secciones) {
+                tamanioDirectorio += Short.BYTES + seccion.nombre.length + 2 * Long.BYTES;
+            }
+            salida.reservar(tamanioDirectorio + Integer.BYTES);
+            long posicionDirectorio = salida.posicion();
+            salida.putInt(secciones.size());
+            for (Seccion seccion : secciones) {
+                salida.putShort((short) seccion.nombre.length);
+                salida.put(seccion.nombre, 0, seccion.nombre.length);
+                salida.putLong(seccion.cantidad);
+                salida.putLong(seccion.posicionIndice);
+            }
+            salida.vaciar();
+
+            ByteBuffer cabecera = ByteBuffer.allocate(CABECERA)
+                    .putInt(MAGIA)
+                    .putInt(FORMATO)
+                    .putLong(lsn)
+                    .putLong(posicionIndices)
+                    .putLong(posicionDirectorio)
+                    .flip();
+            int suma = sumaDeControl(canal, posicionIndices, salida.posicion(), cabecera.duplicate());
+            salida.putInt(suma);
+            salida.vaciar();
+            while (cabecera.hasRemaining()) {
+                canal.write(cabecera, cabecera.position());
+            }
+            canal.force(true);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temporal);
+            throw e;
+        }
+        Files.move(temporal, archivo, StandardCopyOption.ATOMIC_MOVE);
+        sincronizarDirectorio(directorio);
+        return archivo;
+    }
+
+    /**
+     * Busca la instantánea más reciente
+     * @param directorio Directorio de la persistencia
+     * @return Archivo de la instantánea con mayor LSN, si hay alguna
+     * @throws IOException si no se puede listar el directorio
+     */
+    public static Optional<Path> ultima(Path directorio) throws IOException {
+        return instantaneas(directorio).stream().max(Comparator.comparing(Path::getFileName));
+    }
+
+    /**
+     * Borra las instantáneas anteriores a la indicada y los temporales que
+     * hayan quedado de escrituras interrumpidas
+     * @param directorio Directorio de la persistencia
+     * @param vigente Instantánea que se conserva
+     * @throws IOException si no se puede borrar un archivo
+     */
+    public static void eliminarAnteriores(Path directorio, Path vigente) throws IOException {
+        for (Path archivo : instantaneas(directorio)) {
+            if (archivo.getFileName().compareTo(vigente.getFileName()) < 0) {
+                Files.deleteIfExists(archivo);
+            }
+        }
+        eliminarTemporales(directorio);
+    }
+
+    /**
+     * Borra los temporales de escrituras interrumpidas
+     * @param directorio Directorio de la persistencia
+     * @throws IOException si no se puede borrar un archivo
+     */
+    public static void eliminarTemporales(Path directorio) throws IOException {
+        try (DirectoryStream<Path> temporales = Files.newDirectoryStream(directorio,
+                PREFIJO + "*" + EXTENSION + TEMPORAL)) {
+            for (Path temporal : temporales) {
+                Files.deleteIfExists(temporal);
+            }
+        }
+    }
+
+    /**
+     * Calcula la suma de control de una región del archivo seguida de la cabecera
+     * @param canal Canal del archivo
+     * @param desde Inicio de la región
+     * @param hasta Fin (exclusivo) de la región
+     * @param cabecera Cabecera del archivo
+     * @return CRC32C resultante
+     * @throws IOException si no se puede leer el archivo
+     */
+    static int sumaDeControl(FileChannel canal, long desde, long hasta, ByteBuffer cabecera) throws IOException {
+        CRC32C crc = new CRC32C();
+        ByteBuffer buffer = ByteBuffer.allocateDirect(TAMANIO_BUFFER);
+        for (long posicion = desde; posicion < hasta; ) {
+            buffer.clear().limit((int) Math.min(buffer.capacity(), hasta - posicion));
+            int leidos = canal.read(buffer, posicion);
+            if (leidos < 0) {
+                throw new StreamCorruptedException("Instantánea truncada");
+            }
+            crc.update(buffer.flip());
+            posicion += leidos;
+        }
+        crc.update(cabecera);
+        return (int) crc.getValue();
+    }
+
+    /**
+     * Entidades de un repositorio ya escritas, pendientes de su índice
+     */
+    private static final class Seccion {
+        private final byte[] nombre;
+        private long[] ids = new long[1024];
+        private long[] posiciones = new long[1024];
+        private int cantidad;
+        private long posicionIndice;
+
+        private Seccion(String nombre) {
+            this.nombre = nombre.getBytes(StandardCharsets.US_ASCII);
+        }
+
+        private void agregar(long id, long posicion) {
+            if (cantidad == ids.length) {
+                ids = Arrays.copyOf(ids, cantidad * 2);
+                posiciones = Arrays.copyOf(posiciones, cantidad * 2);
+            }
+            ids[cantidad] = id;
+            posiciones[cantidad] = posicion;
+            cantidad++;
+        }
+    }
+
+    /**
+     * Buffer de entidad que expone su arreglo para no copiarlo
+     */
+    private static final class BytesEntidad extends ByteArrayOutputStream {
+        private BytesEntidad() {
+            super(256);
+        }
+
+        private byte[] contenido() {
+            return buf;
+        }
+    }
+
+    /**
+     * Escritura secuencial con buffer que lleva la posición absoluta en el archivo
+     */
+    private static final class Salida {
+        private final FileChannel canal;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(TAMANIO_BUFFER);
+        private long posicion;
+
+        private Salida(FileChannel canal) {
+            this.canal = canal;
+        }
+
+        private long posicion() {
+            return posicion;
+        }
+
+        /**
+         * Garantiza que los próximos bytes no crucen un límite de ventana
+         */
+        private void reservar(int bytes) throws IOException {
+            long libres = VENTANA - (posicion & (VENTANA - 1));
+            if (bytes > libres) {
+                rellenar((int) libres);
+            }
+        }
+
+        private void rellenar(int bytes) throws IOException {
+            for (int i = 0; i < bytes; i++) {
+                asegurar(1);
+                buffer.put((byte) 0);
+            }
+            posicion += bytes;
+        }
+
+        private void putShort(short valor) throws IOException {
+            asegurar(Short.BYTES);
+            buffer.putShort(valor);
+            posicion += Short.BYTES;
+        }
+
+        private void putInt(int valor) throws IOException {
+            asegurar(Integer.BYTES);
+            buffer.putInt(valor);
+            posicion += Integer.BYTES;
+        }
+
+        private void putLong(long valor) throws IOException {
+            asegurar(Long.BYTES);
+            buffer.putLong(valor);
+            posicion += Long.BYTES;
+        }
+
+        private void put(byte[] datos, int desde, int longitud) throws IOException {
+            int escritos = 0;
+            while (escritos < longitud) {
+                asegurar(1);
+                int parte = Math.min(buffer.remaining(), longitud - escritos);
+                buffer.put(datos, desde + escritos, parte);
+                escritos += parte;
+            }
+            posicion += longitud;
+        }
+
+        private void asegurar(int bytes) throws IOException {
+            if (buffer.remaining() < bytes) {
+                vaciar();
+            }
+        }
+
+        private void vaciar() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                canal.write(buffer);
+            }
+            buffer.clear();
+        }
+    }
+
+    private static <T> Seccion escribirEntidades(RepositorioPersistente<T> repositorio, Salida salida)
+            throws IOException {
+        Seccion seccion = new Seccion(repositorio.nombreRepositorio());
+        Codificador<T> codificador = repositorio.codificador();
+        BytesEntidad entidad = new BytesEntidad();
+        DataOutputStream salidaEntidad = new DataOutputStream(entidad);
+        CRC32C crc = new CRC32C();
+        IOException[] error = new IOException[1];
+        repositorio.recorrer((id, actual) -> {
+            if (error[0] != null) {
+                return;
+            }
+            try {
+                entidad.reset();
+                codificador.escribir(actual, salidaEntidad);
+                crc.reset();
+                crc.update(entidad.contenido(), 0, entidad.size());
+                salida.reservar(CABECERA_ENTIDAD + entidad.size());
+                seccion.agregar(id, salida.posicion());
+                salida.putInt(entidad.size());
+                salida.putInt((int) crc.getValue());
+                salida.put(entidad.contenido(), 0, entidad.size());
+            } catch (IOException e) {
+                error[0] = e;
+            }
+        });
+        if (error[0] != null) {
+            throw error[0];
+        }
+        return seccion;
+    }
+
+    private static List<Path> instantaneas(Path directorio) throws IOException {
+        List<Path> archivos = new ArrayList<>();
+        if (!Files.isDirectory(directorio)) {
+            return archivos;
+        }
+        try (DirectoryStream<Path> encontrados = Files.newDirectoryStream(directorio, PREFIJO + "*" + EXTENSION)) {
+            encontrados.forEach(archivos::add);
+        }
+        return archivos;
+    }
+
+    private static Path archivo(Path directorio, long lsn) {
+        return directorio.resolve(String.format("%s%020d%s", PREFIJO, lsn, EXTENSION));
+    }
+
+    private static void sincronizarDirectorio(Path directorio) {
+        // No todos los sistemas permiten abrir un directorio; en ese caso el renombrado ya es atómico
+        try (FileChannel canal = FileChannel.open(directorio, StandardOpenOption.READ)) {
+            canal.force(true);
+        } catch (IOException e) {
+            // Ignorado a propósito
+        }
+    }
+}
@@ -0,0 +1,200 @@
+package com.um.biblioteca.repository.persistencia;
+
+import com.um.biblioteca.exception.PersistenciaException;
+
+import java.io.IOException;
+import java.io.StreamCorruptedException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.CRC32C;
+
+/**
+ * Instantánea abierta con FileChannel.map. Al abrirla sólo se
+ * verifican la cabecera, los índices y el directorio; cada entidad se lee
+ * del archivo mapeado (y se verifica) recién cuando se materializa, por lo
+ * que el costo de abrirla no depende del tamaño de los datos.
+ * <p>
+ * El archivo se mapea en ventanas de {@link Instantanea#VENTANA} bytes; el
+ * formato garantiza que ningún valor cruza el límite entre dos ventanas.
+ */
+public final class InstantaneaMapeada {
+
+    private final Path archivo;
+    private final MappedByteBuffer[] ventanas;
+    private final long lsn;
+    private final Map<String, long[]> secciones = new HashMap<>();
+
+    private InstantaneaMapeada(Path archivo, MappedByteBuffer[] ventanas, long tamanio) throws IOException {
+        this.archivo = archivo;
+        this.ventanas = ventanas;
+        if (tamanio < Instantanea.CABECERA + Integer.BYTES
+                || getInt(0) != Instantanea.MAGIA || getInt(Integer.BYTES) != Instantanea.FORMATO) {
+            throw new StreamCorruptedException("El archivo " + archivo + " no es una instantánea válida");
+        }
+        this.lsn = getLong(2 * Integer.BYTES);
+        long posicionIndices = getLong(2 * Integer.BYTES + Long.BYTES);
+        long posicionDirectorio = getLong(2 * Integer.BYTES + 2 * Long.BYTES);
+        if (posicionIndices < Instantanea.CABECERA || posicionDirectorio < posicionIndices
+                || posicionDirectorio > tamanio - Integer.BYTES) {
+            throw new StreamCorruptedException("La instantánea " + archivo + " está dañada");
+        }
+
+        CRC32C crc = new CRC32C();
+        for (long posicion = posicionIndices; posicion < tamanio - Integer.BYTES; ) {
+            int ventana = (int) (posicion / Instantanea.VENTANA);
+            int desde = (int) (posicion % Instantanea.VENTANA);
+            int hasta = (int) Math.min(ventanas[ventana].capacity(), tamanio - Integer.BYTES - (long) ventana * Instantanea.VENTANA);
+            crc.update(ventanas[ventana].slice(desde, hasta - desde));
+            posicion += hasta - desde;
+        }
+        crc.update(ventanas[0].slice(0, Instantanea.CABECERA));
+        if ((int) crc.getValue() != getInt(tamanio - Integer.BYTES)) {
+            throw new StreamCorruptedException("La instantánea " + archivo + " está dañada");
+        }
+
+        long posicion = posicionDirectorio;
+        int cantidadSecciones = getInt(posicion);
+        posicion += Integer.BYTES;
+        for (int i = 0; i < cantidadSecciones; i++) {
+            byte[] nombre = new byte[getShort(posicion)];
+            posicion += Short.BYTES;
+            get(posicion, nombre);
+            posicion += nombre.length;
+            long cantidad = getLong(posicion);
+            long posicionIndice = getLong(posicion + Long.BYTES);
+            posicion += 2 * Long.BYTES;
+            secciones.put(new String(nombre, StandardCharsets.US_ASCII), new long[] {cantidad, posicionIndice});
+        }
+    }
+
+    /**
+     * Mapea una instantánea y verifica sus índices
+     * @param archivo Archivo de la instantánea
+     * @return Instantánea abierta
+     * @throws IOException si no se puede mapear el archivo o está dañado
+     */
+    public static InstantaneaMapeada abrir(Path archivo) throws IOException {
+        // El mapeo sigue siendo válido después de cerrar el canal
+        try (FileChannel canal = FileChannel.open(archivo, StandardOpenOption.READ)) {
+            long tamanio = canal.size();
+            MappedByteBuffer[] ventanas = new MappedByteBuffer[(int) ((tamanio + Instantanea.VENTANA - 1) / Instantanea.VENTANA)];
+            for (int i = 0; i < ventanas.length; i++) {
+                long inicio = i * Instantanea.VENTANA;
+                ventanas[i] = canal.map(FileChannel.MapMode.READ_ONLY, inicio, Math.min(Instantanea.VENTANA, tamanio - inicio));
+            }
+            return new InstantaneaMapeada(archivo, ventanas, tamanio);
+        }
+    }
+
+    /**
+     * LSN desde el que hay que aplicar la bitácora
+     */
+    public long lsn() {
+        return lsn;
+    }
+
+    /**
+     * Entidades de un repositorio, para materializarlas a medida que se acceden
+     * @param repositorio Nombre del repositorio
+     * @param codificador Codificador de sus entidades
+     * @return Fuente con las entidades del repositorio; vacía si la instantánea no lo incluye
+     */
+    public <T> FuentePerezosa<T> fuente(String repositorio, Codificador<T> codificador) {
+        long[] seccion = secciones.getOrDefault(repositorio, new long[] {0, 0});
+        return new Fuente<>(repositorio, (int) seccion[0], seccion[1], codificador);
+    }
+
+    private final class Fuente<T> implements FuentePerezosa<T> {
+        private final String repositorio;
+        private final int cantidad;
+        private final long posicionIds;
+        private final long posicionEntidades;
+        private final Codificador<T> codificador;
+
+        private Fuente(String repositorio, int cantidad, long posicionIndice, Codificador<T> codificador) {
+            this.repositorio = repositorio;
+            this.cantidad = cantidad;
+            this.posicionIds = posicionIndice;
+            this.posicionEntidades = posicionIndice + (long) cantidad * Long.BYTES;
+            this.codificador = codificador;
+        }
+
+        @Override
+        public int cantidad() {
+            return cantidad;
+        }
+
+        @Override
+        public long id(int posicion) {
+            return getLong(posicionIds + (long) posicion * Long.BYTES);
+        }
+
+        @Override
+        public int posicion(long id) {
+            int desde = 0;
+            int hasta = cantidad - 1;
+            while (desde <= hasta) {
+                int medio = (desde + hasta) >>> 1;
+                long actual = id(medio);
+                if (actual < id) {
+                    desde = medio + 1;
+                } else if (actual > id) {
+                    hasta = medio - 1;
+                } else {
+                    return medio;
+                }
+            }
+            return -1;
+        }
+
+        @Override
+        public T materializar(int posicion) {
+            long inicio = getLong(posicionEntidades + (long) posicion * Long.BYTES);
+            int longitud = getInt(inicio);
+            int suma = getInt(inicio + Integer.BYTES);
+            byte[] datos = new byte[longitud];
+            get(inicio + Instantanea.CABECERA_ENTIDAD, datos);
+            CRC32C crc = new CRC32C();
+            crc.update(datos);
+            if ((int) crc.getValue() != suma) {
+                throw new PersistenciaException("La entidad " + id(posicion) + " de " + repositorio
+                        + " está dañada en la instantánea " + archivo);
+            }
+            try {
+                return codificador.decodificar(datos);
+            } catch (IOException e) {
+                throw new PersistenciaException("No se pudo leer la entidad " + id(posicion) + " de " + repositorio, e);
+            }
+        }
+    }
+
+    private short getShort(long posicion) {
+        return ventana(posicion).getShort(desplazamiento(posicion));
+    }
+
+    private int getInt(long posicion) {
+        return ventana(posicion).getInt(desplazamiento(posicion));
+    }
+
+    private long getLong(long posicion) {
+        return ventana(posicion).getLong(desplazamiento(posicion));
+    }
+
+    private void get(long posicion, byte[] destino) {
+        ventana(posicion).get(desplazamiento(posicion), destino);
+    }
+
+    private ByteBuffer ventana(long posicion) {
+        return ventanas[(int) (posicion / Instantanea.VENTANA)];
+    }
+
+    private static int desplazamiento(long posicion) {
+        return (int) (posicion % Instantanea.VENTANA);
+    }
+}
@@ -0,0 +1,98 @@
+package com.um.biblioteca.repository.persistencia;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Configuración de la persistencia de los repositorios (prefijo biblioteca.persistencia)
+ */
+@ConfigurationProperties(prefix = "biblioteca.persistencia")
+public class PersistenciaProperties {
+    
+    /**
+     * Si es false los repositorios trabajan sólo en memoria
+     */
+    private boolean habilitada = true;
+    
+    /**
+     * Directorio donde se guardan la bitácora y las instantáneas
+     */
+    private String directorio = "data";
+    
+    private PoliticaFsync fsync = PoliticaFsync.POR_ESCRITURA;
+    
+    /**
+     * Intervalo de sincronización para la política PERIODICA
+     */
+    private long intervaloFsyncMs = 100;
+    
+    /**
+     * Cantidad máxima de registros que se escriben juntos en un lote
+     */
+    private int loteMaximo = 1024;
+    
+    /**
+     * Intervalo entre instantáneas; 0 las desactiva y sólo se toma una al cerrar
+     */
+    private long intervaloInstantaneaMs = 300_000;
+    
+    /**
+     * Si se toma una instantánea al detener la aplicación, para que el próximo arranque no lea la bitácora
+     */
+    private boolean instantaneaAlCerrar = true;
+    
+    public boolean isHabilitada() {
+        return habilitada;
+    }
+    
+    public void setHabilitada(boolean habilitada) {
+        this.habilitada = habilitada;
+    }
+    
+    public String getDirectorio() {
+        return directorio;
+    }
+    
+    public void setDirectorio(String directorio) {
+        this.directorio = directorio;
+    }
+    
+    public PoliticaFsync getFsync() {
+        return fsync;
+    }
+    
+    public void setFsync(PoliticaFsync fsync) {
+        this.fsync = fsync;
+    }
+    
+    public long getIntervaloFsyncMs() {
+        return intervaloFsyncMs;
+    }
+    
+    public void setIntervaloFsyncMs(long intervaloFsyncMs) {
+        this.intervaloFsyncMs = intervaloFsyncMs;
+    }
+    
+    public int getLoteMaximo() {
+        return loteMaximo;
+    }
+    
+    public void setLoteMaximo(int loteMaximo) {
+        this.loteMaximo = loteMaximo;
+    }
+    
+    public long getIntervaloInstantaneaMs() {
+        return intervaloInstantaneaMs;
+    }
+    
+    public void setIntervaloInstantaneaMs(long intervaloInstantaneaMs) {
+        this.intervaloInstantaneaMs = intervaloInstantaneaMs;
+    }
+    
+    public boolean isInstantaneaAlCerrar() {
+        return instantaneaAlCerrar;
+    }
+    
+    public void setInstantaneaAlCerrar(boolean instantaneaAlCerrar) {
+        this.instantaneaAlCerrar = instantaneaAlCerrar;
+    }
+}
@@ -0,0 +1,27 @@
+package com.um.biblioteca.repository.persistencia;
+
+/**
+ * Momento en que la bitácora fuerza sus escrituras al disco
+ */
+public enum PoliticaFsync {
+    
+    /**
+     * Cada lote se sincroniza antes de confirmar las escrituras que contiene.
+     * Ninguna escritura confirmada se pierde ante una caída del sistema.
+     */
+    POR_ESCRITURA,
+    
+    /**
+     * Las escrituras se confirman al llegar al sistema operativo y el disco se
+     * sincroniza cada intervalo. Ante una caída del sistema se pierde como
+     * máximo ese intervalo.
+     */
+    PERIODICA,
+    
+    /**
+     * Las escrituras se confirman al llegar al sistema operativo, que decide
+     * cuándo bajarlas a disco. Sobrevive a la caída del proceso pero no a la
+     * del sistema.
+     */
+    SISTEMA_OPERATIVO
+}
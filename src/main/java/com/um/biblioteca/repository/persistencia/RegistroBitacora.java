@@ -0,0 +1,83 @@
+package com.um.biblioteca.repository.persistencia;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Entrada de la bitácora: el guardado o la eliminación de una entidad.
+ * En disco cada entrada ocupa una trama [longitud][crc32][contenido], donde
+ * el contenido es [lsn][tipo][repositorio][id][datos].
+ * @param lsn Número de secuencia de la entrada dentro de la bitácora
+ * @param tipo Operación registrada
+ * @param repositorio Nombre del repositorio afectado
+ * @param id ID de la entidad
+ * @param datos Entidad serializada (vacío en las eliminaciones)
+ */
+public record RegistroBitacora(long lsn, Tipo tipo, String repositorio, long id, byte[] datos) {
+
+    public enum Tipo {
+        GUARDADO,
+        ELIMINACION
+    }
+
+    private static final byte[] SIN_DATOS = new byte[0];
+
+    /**
+     * Crea una entrada de guardado, todavía sin LSN asignado
+     */
+    public static RegistroBitacora guardado(String repositorio, long id, byte[] datos) {
+        return new RegistroBitacora(0, Tipo.GUARDADO, repositorio, id, datos);
+    }
+
+    /**
+     * Crea una entrada de eliminación, todavía sin LSN asignado
+     */
+    public static RegistroBitacora eliminacion(String repositorio, long id) {
+        return new RegistroBitacora(0, Tipo.ELIMINACION, repositorio, id, SIN_DATOS);
+    }
+
+    /**
+     * Devuelve la misma entrada con el LSN indicado
+     */
+    RegistroBitacora conLsn(long lsn) {
+        return new RegistroBitacora(lsn, tipo, repositorio, id, datos);
+    }
+
+    /**
+     * Tamaño del contenido codificado, sin la cabecera de la trama
+     */
+    int tamanioContenido() {
+        return Long.BYTES + 1 + Short.BYTES + repositorio.length() + Long.BYTES + Integer.BYTES + datos.length;
+    }
+
+    /**
+     * Escribe el contenido de la entrada en el buffer
+     * @param destino Buffer con al menos tamanioContenido() bytes libres
+     */
+    void codificar(ByteBuffer destino) {
+        byte[] nombre = repositorio.getBytes(StandardCharsets.US_ASCII);
+        destino.putLong(lsn);
+        destino.put((byte) tipo.ordinal());
+        destino.putShort((short) nombre.length);
+        destino.put(nombre);
+        destino.putLong(id);
+        destino.putInt(datos.length);
+        destino.put(datos);
+    }
+
+    /**
+     * Lee una entrada desde el contenido de una trama
+     * @param origen Buffer posicionado al inicio del contenido
+     * @return Entrada decodificada
+     */
+    static RegistroBitacora decodificar(ByteBuffer origen) {
+        long lsn = origen.getLong();
+        Tipo tipo = Tipo.values()[origen.get()];
+        byte[] nombre = new byte[origen.getShort()];
+        origen.get(nombre);
+        long id = origen.getLong();
+        byte[] datos = new byte[origen.getInt()];
+        origen.get(datos);
+        return new RegistroBitacora(lsn, tipo, new String(nombre, StandardCharsets.US_ASCII), id, datos);
+    }
+}
@@ -0,0 +1,46 @@
+package com.um.biblioteca.repository.persistencia;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Destino de los cambios de un repositorio. Los métodos se invocan con el
+ * bloqueo del ID tomado, por lo que los cambios de una misma entidad llegan
+ * en el orden en que se aplicaron; el repositorio espera la confirmación
+ * fuera del bloqueo.
+ * @param <T> Tipo de entidad
+ */
+public interface RegistroCambios<T> {
+    
+    /**
+     * Registra el estado de una entidad guardada
+     * @param id ID de la entidad
+     * @param entidad Entidad tal como quedó almacenada
+     * @return Confirmación que se completa cuando el cambio es durable
+     */
+    CompletableFuture<Void> guardado(Long id, T entidad);
+    
+    /**
+     * Registra la eliminación de una entidad
+     * @param id ID de la entidad eliminada
+     * @return Confirmación que se completa cuando el cambio es durable
+     */
+    CompletableFuture<Void> eliminado(Long id);
+    
+    /**
+     * Registro que descarta los cambios, usado cuando no hay persistencia
+     * @return Registro sin efecto
+     */
+    static <T> RegistroCambios<T> ninguno() {
+        return new RegistroCambios<>() {
+            @Override
+            public CompletableFuture<Void> guardado(Long id, T entidad) {
+                return CompletableFuture.completedFuture(null);
+            }
+            
+            @Override
+            public CompletableFuture<Void> eliminado(Long id) {
+                return CompletableFuture.completedFuture(null);
+            }
+        };
+    }
+}
@@ -0,0 +1,78 @@
+package com.um.biblioteca.repository.persistencia;
+
+import com.um.biblioteca.exception.PersistenciaException;
+
+import java.util.function.BiConsumer;
+
+/**
+ * Repositorio en memoria cuyo contenido puede reconstruirse desde la
+ * bitácora y cuyos cambios pueden enviarse a ella
+ * @param <T> Tipo de entidad
+ */
+public interface RepositorioPersistente<T> {
+    
+    /**
+     * Nombre con el que se identifican los registros del repositorio en la bitácora
+     * @return Nombre del repositorio
+     */
+    String nombreRepositorio();
+    
+    /**
+     * Codificador binario de las entidades
+     * @return Codificador de la entidad
+     */
+    Codificador<T> codificador();
+    
+    /**
+     * Almacena una entidad recuperada sin registrarla ni modificar su versión
+     * @param id ID de la entidad
+     * @param entidad Entidad recuperada
+     */
+    void restaurar(Long id, T entidad);
+    
+    /**
+     * Elimina una entidad recuperada sin registrar la eliminación
+     * @param id ID de la entidad
+     */
+    void descartar(Long id);
+    
+    /**
+     * Adopta las entidades de una instantánea sin materializarlas: cada una se
+     * construye cuando se la busca por ID o cuando {@link #completarCarga}
+     * llega a ella. Lo restaurado o descartado después tiene precedencia.
+     * @param fuente Entidades de la instantánea
+     */
+    void cargarPerezosamente(FuentePerezosa<T> fuente);
+    
+    /**
+     * Materializa e indexa las entidades pendientes de la carga perezosa. Hasta
+     * que termina, las operaciones que necesitan los índices completos esperan.
+     * Una entidad que no puede materializarse no se omite en silencio: queda
+     * registrada en {@link #errorDeCarga} y se continúa con las demás.
+     */
+    void completarCarga();
+    
+    /**
+     * Primera falla al materializar una entidad de la instantánea. Mientras
+     * exista, no deben tomarse instantáneas del repositorio: omitirían la
+     * entidad y permitirían borrar los segmentos de la bitácora que aún la
+     * respaldan.
+     * @return Falla de la carga, o null si todas las entidades se cargaron
+     */
+    PersistenciaException errorDeCarga();
+    
+    /**
+     * Recorre las entidades almacenadas en orden de ID sin detener las
+     * escrituras: cada entidad es inmutable, por lo que no se observa a medio
+     * modificar, pero el conjunto no es una foto atómica del repositorio
+     * @param consumidor Recibe el ID y la entidad
+     */
+    void recorrer(BiConsumer<Long, T> consumidor);
+    
+    /**
+     * Conecta el repositorio a un registro de cambios; a partir de ese momento
+     * cada escritura espera la confirmación del registro antes de retornar
+     * @param registro Registro de cambios
+     */
+    void conectar(RegistroCambios<T> registro);
+}
@@ -2,8 +2,11 @@ package com.um.biblioteca.service;
 
 import com.um.biblioteca.model.Libro;
 import com.um.biblioteca.model.EstadoLibro;
+import com.um.biblioteca.repository.Pagina;
+import com.um.biblioteca.repository.PaginaCursor;
 
 import java.util.List;
+import java.util.stream.Stream;
 
 /**
  * Servicio para gestionar libros
@@ -32,6 +35,31 @@ public interface LibroService {
      */
     List<Libro> obtenerTodos();
     
+    /**
+     * Obtiene una página de libros ordenados por ID
+     * @param pagina Número de página (desde 0)
+     * @param tamanio Cantidad de libros por página
+     * @return Página de libros
+     * @throws com.um.biblioteca.exception.DatosInvalidosException si la página o el tamaño son inválidos
+     */
+    Pagina<Libro> obtenerPagina(int pagina, int tamanio);
+    
+    /**
+     * Obtiene los libros con ID mayor al indicado (paginación por cursor)
+     * @param despuesDe Cursor de la página anterior, o null para la primera página
+     * @param limite Cantidad máxima de libros
+     * @return Página de libros con el cursor de la página siguiente
+     * @throws com.um.biblioteca.exception.DatosInvalidosException si el límite es inválido
+     */
+    PaginaCursor<Libro> obtenerDesde(Long despuesDe, int limite);
+    
+    /**
+     * Recorre los libros para exportarlos sin copiarlos a una lista
+     * @param estado Estado por el que filtrar, o null para exportar todos
+     * @return Stream perezoso de libros ordenados por ID
+     */
+    Stream<Libro> exportar(EstadoLibro estado);
+    
     /**
      * Busca libros por título
      * @param titulo Título del libro (búsqueda parcial)
@@ -39,6 +67,14 @@ public interface LibroService {
      */
     List<Libro> buscarPorTitulo(String titulo);
     
+    /**
+     * Busca libros por título que se encuentren en el estado indicado
+     * @param titulo Título del libro (búsqueda parcial)
+     * @param estado Estado del libro
+     * @return Lista de libros que coinciden con el título y el estado
+     */
+    List<Libro> buscarPorTitulo(String titulo, EstadoLibro estado);
+    
     /**
      * Busca libros por autor
      * @param autor Nombre del autor (búsqueda parcial)
@@ -57,6 +93,7 @@ public interface LibroService {
      * Guarda un libro
      * @param libro Libro a guardar
      * @return Libro guardado
+     * @throws com.um.biblioteca.exception.DatosInvalidosException si falta el título
      */
     Libro guardar(Libro libro);
     
@@ -66,9 +103,21 @@ public interface LibroService {
      * @param libro Datos actualizados del libro
      * @return Libro actualizado
      * @throws com.um.biblioteca.exception.LibroNoEncontradoException si el libro no existe
+     * @throws com.um.biblioteca.exception.DatosInvalidosException si falta el título
      */
     Libro actualizar(Long id, Libro libro);
     
+    /**
+     * Actualiza un libro existente sólo si su versión actual es la esperada
+     * @param id ID del libro a actualizar
+     * @param libro Datos actualizados del libro
+     * @param versionEsperada Versión que el cliente leyó (encabezado If-Match); null para no exigirla
+     * @return Libro actualizado
+     * @throws com.um.biblioteca.exception.LibroNoEncontradoException si el libro no existe
+     * @throws com.um.biblioteca.exception.PrecondicionFallidaException si la versión no coincide
+     */
+    Libro actualizar(Long id, Libro libro, Long versionEsperada);
+    
     /**
      * Elimina un libro
      * @param id ID del libro a eliminar
@@ -84,4 +133,17 @@ public interface LibroService {
      * @throws com.um.biblioteca.exception.LibroNoEncontradoException si el libro no existe
      */
     Libro cambiarEstado(Long id, EstadoLibro estado);
+    
+    /**
+     * Cambia el estado de un libro sólo si se encuentra en el estado esperado.
+     * La comprobación y el cambio son atómicos: si varias solicitudes compiten
+     * por el mismo libro, sólo una de ellas lo cambia.
+     * @param id ID del libro
+     * @param esperado Estado que debe tener el libro
+     * @param nuevo Nuevo estado
+     * @return Libro actualizado
+     * @throws com.um.biblioteca.exception.LibroNoEncontradoException si el libro no existe
+     * @throws com.um.biblioteca.exception.RecursoNoDisponibleException si el libro no está en el estado esperado
+     */
+    Libro cambiarEstado(Long id, EstadoLibro esperado, EstadoLibro nuevo);
 } 
\ No newline at end of file
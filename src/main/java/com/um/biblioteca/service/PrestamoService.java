@@ -3,9 +3,12 @@ package com.um.biblioteca.service;
 import com.um.biblioteca.model.Prestamo;
 import com.um.biblioteca.model.Libro;
 import com.um.biblioteca.model.Usuario;
+import com.um.biblioteca.repository.Pagina;
+import com.um.biblioteca.repository.PaginaCursor;
 
 import java.time.LocalDate;
 import java.util.List;
+import java.util.stream.Stream;
 
 /**
  * Servicio para gestionar préstamos
@@ -26,6 +29,33 @@ public interface PrestamoService {
      */
     List<Prestamo> obtenerTodos();
     
+    /**
+     * Obtiene una página de préstamos ordenados por ID
+     * @param pagina Número de página (desde 0)
+     * @param tamanio Cantidad de préstamos por página
+     * @return Página de préstamos
+     * @throws com.um.biblioteca.exception.DatosInvalidosException si la página o el tamaño son inválidos
+     */
+    Pagina<Prestamo> obtenerPagina(int pagina, int tamanio);
+    
+    /**
+     * Obtiene los préstamos con ID mayor al indicado (paginación por cursor)
+     * @param despuesDe Cursor de la página anterior, o null para la primera página
+     * @param limite Cantidad máxima de préstamos
+     * @return Página de préstamos con el cursor de la página siguiente
+     * @throws com.um.biblioteca.exception.DatosInvalidosException si el límite es inválido
+     */
+    PaginaCursor<Prestamo> obtenerDesde(Long despuesDe, int limite);
+    
+    /**
+     * Recorre los préstamos para exportarlos sin copiarlos a una lista
+     * @param desde Fecha de préstamo inicial (inclusiva), o null junto con hasta para exportar todos
+     * @param hasta Fecha de préstamo final (exclusiva), o null junto con desde para exportar todos
+     * @return Stream perezoso de préstamos
+     * @throws com.um.biblioteca.exception.DatosInvalidosException si el rango es inválido
+     */
+    Stream<Prestamo> exportar(LocalDate desde, LocalDate hasta);
+    
     /**
      * Busca préstamos por usuario
      * @param usuario Usuario de los préstamos
@@ -47,6 +77,24 @@ public interface PrestamoService {
      */
     List<Prestamo> buscarPorFechaPrestamo(LocalDate fecha);
     
+    /**
+     * Busca préstamos por rango de fecha de préstamo
+     * @param desde Fecha inicial (inclusiva)
+     * @param hasta Fecha final (exclusiva)
+     * @return Lista de préstamos realizados en el rango, ordenada por fecha
+     * @throws com.um.biblioteca.exception.DatosInvalidosException si el rango es inválido
+     */
+    List<Prestamo> buscarPorRangoFechaPrestamo(LocalDate desde, LocalDate hasta);
+    
+    /**
+     * Busca préstamos por rango de fecha de devolución
+     * @param desde Fecha inicial (inclusiva)
+     * @param hasta Fecha final (exclusiva)
+     * @return Lista de préstamos con devolución en el rango, ordenada por fecha
+     * @throws com.um.biblioteca.exception.DatosInvalidosException si el rango es inválido
+     */
+    List<Prestamo> buscarPorRangoFechaDevolucion(LocalDate desde, LocalDate hasta);
+    
     /**
      * Busca préstamos vencidos
      * @return Lista de préstamos vencidos
@@ -62,11 +110,13 @@ public interface PrestamoService {
      * @throws com.um.biblioteca.exception.UsuarioNoEncontradoException si el usuario no existe
      * @throws com.um.biblioteca.exception.LibroNoEncontradoException si el libro no existe
      * @throws com.um.biblioteca.exception.RecursoNoDisponibleException si el libro no está disponible
+     * @throws com.um.biblioteca.exception.DatosInvalidosException si la fecha de devolución ya pasó
      */
     Prestamo crearPrestamo(Long usuarioId, Long libroId, LocalDate fechaDevolucion);
     
     /**
-     * Finaliza un préstamo (devuelve el libro)
+     * Finaliza un préstamo (devuelve el libro). Si el libro fue eliminado,
+     * el préstamo se finaliza igual
      * @param id ID del préstamo
      * @return Préstamo finalizado
      * @throws com.um.biblioteca.exception.PrestamoNoEncontradoException si el préstamo no existe
@@ -79,11 +129,12 @@ public interface PrestamoService {
      * @param nuevaFechaDevolucion Nueva fecha de devolución
      * @return Préstamo actualizado
      * @throws com.um.biblioteca.exception.PrestamoNoEncontradoException si el préstamo no existe
+     * @throws com.um.biblioteca.exception.DatosInvalidosException si la nueva fecha ya pasó o es anterior a la vigente
      */
     Prestamo extenderPrestamo(Long id, LocalDate nuevaFechaDevolucion);
     
     /**
-     * Elimina un préstamo
+     * Elimina un préstamo, aunque su libro ya haya sido eliminado
      * @param id ID del préstamo a eliminar
      * @throws com.um.biblioteca.exception.PrestamoNoEncontradoException si el préstamo no existe
      */
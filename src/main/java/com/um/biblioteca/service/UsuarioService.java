@@ -2,8 +2,11 @@ package com.um.biblioteca.service;
 
 import com.um.biblioteca.model.Usuario;
 import com.um.biblioteca.model.EstadoUsuario;
+import com.um.biblioteca.repository.Pagina;
+import com.um.biblioteca.repository.PaginaCursor;
 
 import java.util.List;
+import java.util.stream.Stream;
 
 /**
  * Servicio para gestionar usuarios
@@ -32,6 +35,31 @@ public interface UsuarioService {
      */
     List<Usuario> obtenerTodos();
     
+    /**
+     * Obtiene una página de usuarios ordenados por ID
+     * @param pagina Número de página (desde 0)
+     * @param tamanio Cantidad de usuarios por página
+     * @return Página de usuarios
+     * @throws com.um.biblioteca.exception.DatosInvalidosException si la página o el tamaño son inválidos
+     */
+    Pagina<Usuario> obtenerPagina(int pagina, int tamanio);
+    
+    /**
+     * Obtiene los usuarios con ID mayor al indicado (paginación por cursor)
+     * @param despuesDe Cursor de la página anterior, o null para la primera página
+     * @param limite Cantidad máxima de usuarios
+     * @return Página de usuarios con el cursor de la página siguiente
+     * @throws com.um.biblioteca.exception.DatosInvalidosException si el límite es inválido
+     */
+    PaginaCursor<Usuario> obtenerDesde(Long despuesDe, int limite);
+    
+    /**
+     * Recorre los usuarios para exportarlos sin copiarlos a una lista
+     * @param estado Estado por el que filtrar, o null para exportar todos
+     * @return Stream perezoso de usuarios ordenados por ID
+     */
+    Stream<Usuario> exportar(EstadoUsuario estado);
+    
     /**
      * Busca usuarios por nombre
      * @param nombre Nombre del usuario (búsqueda parcial)
@@ -50,6 +78,7 @@ public interface UsuarioService {
      * Guarda un usuario
      * @param usuario Usuario a guardar
      * @return Usuario guardado
+     * @throws com.um.biblioteca.exception.DatosInvalidosException si falta el nombre o el email, o el email es inválido
      */
     Usuario guardar(Usuario usuario);
     
@@ -59,9 +88,21 @@ public interface UsuarioService {
      * @param usuario Datos actualizados del usuario
      * @return Usuario actualizado
      * @throws com.um.biblioteca.exception.UsuarioNoEncontradoException si el usuario no existe
+     * @throws com.um.biblioteca.exception.DatosInvalidosException si falta el nombre o el email, o el email es inválido
      */
     Usuario actualizar(Long id, Usuario usuario);
     
+    /**
+     * Actualiza un usuario existente sólo si su versión actual es la esperada
+     * @param id ID del usuario a actualizar
+     * @param usuario Datos actualizados del usuario
+     * @param versionEsperada Versión que el cliente leyó (encabezado If-Match); null para no exigirla
+     * @return Usuario actualizado
+     * @throws com.um.biblioteca.exception.UsuarioNoEncontradoException si el usuario no existe
+     * @throws com.um.biblioteca.exception.PrecondicionFallidaException si la versión no coincide
+     */
+    Usuario actualizar(Long id, Usuario usuario, Long versionEsperada);
+    
     /**
      * Elimina un usuario
      * @param id ID del usuario a eliminar
@@ -1,15 +1,21 @@
 package com.um.biblioteca.service.impl;
 
+import com.um.biblioteca.exception.ConflictoDeVersionException;
+import com.um.biblioteca.exception.DatosInvalidosException;
 import com.um.biblioteca.exception.LibroNoEncontradoException;
+import com.um.biblioteca.exception.PrecondicionFallidaException;
+import com.um.biblioteca.exception.RecursoNoDisponibleException;
 import com.um.biblioteca.model.EstadoLibro;
 import com.um.biblioteca.model.Libro;
+import com.um.biblioteca.repository.Pagina;
+import com.um.biblioteca.repository.PaginaCursor;
 import com.um.biblioteca.repository.LibroRepository;
 import com.um.biblioteca.service.LibroService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 public class LibroServiceImpl implements LibroService {
@@ -38,11 +44,34 @@ public class LibroServiceImpl implements LibroService {
         return libroRepository.findAll();
     }
     
+    @Override
+    public Pagina<Libro> obtenerPagina(int pagina, int tamanio) {
+        return libroRepository.findAll(pagina, tamanio);
+    }
+    
+    @Override
+    public PaginaCursor<Libro> obtenerDesde(Long despuesDe, int limite) {
+        return libroRepository.findAllAfter(despuesDe, limite);
+    }
+    
+    @Override
+    public Stream<Libro> exportar(EstadoLibro estado) {
+        return estado != null ? libroRepository.streamByEstado(estado) : libroRepository.streamAll();
+    }
+    
     @Override
     public List<Libro> buscarPorTitulo(String titulo) {
         return libroRepository.findByTituloContaining(titulo);
     }
     
+    @Override
+    public List<Libro> buscarPorTitulo(String titulo, EstadoLibro estado) {
+        if (estado == null) {
+            return buscarPorTitulo(titulo);
+        }
+        return libroRepository.findByTituloContainingAndEstado(titulo, estado);
+    }
+    
     @Override
     public List<Libro> buscarPorAutor(String autor) {
         return libroRepository.findByAutorContaining(autor);
@@ -50,20 +79,18 @@ public class LibroServiceImpl implements LibroService {
     
     @Override
     public List<Libro> buscarPorEstado(EstadoLibro estado) {
-        return libroRepository.findAll().stream()
-                .filter(libro -> libro.getEstado() == estado)
-                .collect(Collectors.toList());
+        return libroRepository.findByEstado(estado);
     }
     
     @Override
     public Libro guardar(Libro libro) {
         // Validación básica
-        if (libro.getTitulo() == null || libro.getTitulo().trim().isEmpty()) {
-            throw new IllegalArgumentException("El título del libro es obligatorio");
+        if (libro.titulo() == null || libro.titulo().trim().isEmpty()) {
+            throw new DatosInvalidosException("El título del libro es obligatorio");
         }
         
-        if (libro.getEstado() == null) {
-            libro.setEstado(EstadoLibro.DISPONIBLE);
+        if (libro.estado() == null) {
+            libro = libro.conEstado(EstadoLibro.DISPONIBLE);
         }
         
         return libroRepository.save(libro);
@@ -77,16 +104,30 @@ public class LibroServiceImpl implements LibroService {
         }
         
         // Establecer el ID correcto
-        libro.setId(id);
+        libro = libro.conId(id);
         
         // Validación básica
-        if (libro.getTitulo() == null || libro.getTitulo().trim().isEmpty()) {
-            throw new IllegalArgumentException("El título del libro es obligatorio");
+        if (libro.titulo() == null || libro.titulo().trim().isEmpty()) {
+            throw new DatosInvalidosException("El título del libro es obligatorio");
         }
         
         return libroRepository.save(libro);
     }
     
+    @Override
+    public Libro actualizar(Long id, Libro libro, Long versionEsperada) {
+        if (versionEsperada == null) {
+            return actualizar(id, libro);
+        }
+        
+        // La versión del encabezado reemplaza a la del cuerpo y save la compara con la almacenada
+        try {
+            return actualizar(id, libro.conVersion(versionEsperada));
+        } catch (ConflictoDeVersionException e) {
+            throw new PrecondicionFallidaException(e.getMessage());
+        }
+    }
+    
     @Override
     public void eliminar(Long id) {
         // Verificar que el libro existe
@@ -101,9 +142,19 @@ public class LibroServiceImpl implements LibroService {
     public Libro cambiarEstado(Long id, EstadoLibro estado) {
         Libro libro = buscarPorId(id);
         
-        // Establecer el nuevo estado
-        libro.setEstado(estado);
+        // Guardar una copia con el nuevo estado; si otra escritura se adelantó, save detecta el conflicto de versión
+        return libroRepository.save(libro.conEstado(estado));
+    }
+    
+    @Override
+    public Libro cambiarEstado(Long id, EstadoLibro esperado, EstadoLibro nuevo) {
+        if (!libroRepository.compareAndSetEstado(id, esperado, nuevo)) {
+            // Distinguir un libro inexistente de uno que está en otro estado
+            Libro libro = buscarPorId(id);
+            throw new RecursoNoDisponibleException("libro",
+                    "el libro está " + libro.estado() + " y se esperaba " + esperado);
+        }
         
-        return libroRepository.save(libro);
+        return buscarPorId(id);
     }
-} 
\ No newline at end of file
+}
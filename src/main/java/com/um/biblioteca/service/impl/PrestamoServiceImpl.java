@@ -1,14 +1,18 @@
 package com.um.biblioteca.service.impl;
 
+import com.um.biblioteca.exception.DatosInvalidosException;
 import com.um.biblioteca.exception.LibroNoEncontradoException;
 import com.um.biblioteca.exception.PrestamoNoEncontradoException;
 import com.um.biblioteca.exception.RecursoNoDisponibleException;
 import com.um.biblioteca.exception.UsuarioNoEncontradoException;
+import com.um.biblioteca.jfr.EventoPrestamo;
 import com.um.biblioteca.model.EstadoLibro;
 import com.um.biblioteca.model.EstadoUsuario;
 import com.um.biblioteca.model.Libro;
 import com.um.biblioteca.model.Prestamo;
 import com.um.biblioteca.model.Usuario;
+import com.um.biblioteca.repository.Pagina;
+import com.um.biblioteca.repository.PaginaCursor;
 import com.um.biblioteca.repository.PrestamoRepository;
 import com.um.biblioteca.service.LibroService;
 import com.um.biblioteca.service.PrestamoService;
@@ -18,6 +22,7 @@ import org.springframework.stereotype.Service;
 
 import java.time.LocalDate;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Service
 public class PrestamoServiceImpl implements PrestamoService {
@@ -47,6 +52,25 @@ public class PrestamoServiceImpl implements PrestamoService {
         return prestamoRepository.findAll();
     }
     
+    @Override
+    public Pagina<Prestamo> obtenerPagina(int pagina, int tamanio) {
+        return prestamoRepository.findAll(pagina, tamanio);
+    }
+    
+    @Override
+    public PaginaCursor<Prestamo> obtenerDesde(Long despuesDe, int limite) {
+        return prestamoRepository.findAllAfter(despuesDe, limite);
+    }
+    
+    @Override
+    public Stream<Prestamo> exportar(LocalDate desde, LocalDate hasta) {
+        if (desde == null && hasta == null) {
+            return prestamoRepository.streamAll();
+        }
+        validarRango(desde, hasta);
+        return prestamoRepository.streamByFechaPrestamoBetween(desde, hasta);
+    }
+    
     @Override
     public List<Prestamo> buscarPorUsuario(Usuario usuario) {
         return prestamoRepository.findByUsuario(usuario);
@@ -62,6 +86,18 @@ public class PrestamoServiceImpl implements PrestamoService {
         return prestamoRepository.findByFechaPrestamo(fecha);
     }
     
+    @Override
+    public List<Prestamo> buscarPorRangoFechaPrestamo(LocalDate desde, LocalDate hasta) {
+        validarRango(desde, hasta);
+        return prestamoRepository.findByFechaPrestamoBetween(desde, hasta);
+    }
+    
+    @Override
+    public List<Prestamo> buscarPorRangoFechaDevolucion(LocalDate desde, LocalDate hasta) {
+        validarRango(desde, hasta);
+        return prestamoRepository.findByFechaDevolucionBetween(desde, hasta);
+    }
+    
     @Override
     public List<Prestamo> buscarVencidos() {
         return prestamoRepository.findByFechaDevolucionBefore(LocalDate.now());
@@ -69,101 +105,161 @@ public class PrestamoServiceImpl implements PrestamoService {
     
     @Override
     public Prestamo crearPrestamo(Long usuarioId, Long libroId, LocalDate fechaDevolucion) {
+        EventoPrestamo evento = EventoPrestamo.iniciar(EventoPrestamo.CREACION, null, libroId, usuarioId);
+        try {
+            return evento.terminar(registrarPrestamo(usuarioId, libroId, fechaDevolucion));
+        } catch (RuntimeException e) {
+            evento.fallar(e);
+            throw e;
+        }
+    }
+    
+    @Override
+    public Prestamo finalizarPrestamo(Long id) {
+        EventoPrestamo evento = EventoPrestamo.iniciar(EventoPrestamo.DEVOLUCION, id, null, null);
+        try {
+            return evento.terminar(registrarDevolucion(id));
+        } catch (RuntimeException e) {
+            evento.fallar(e);
+            throw e;
+        }
+    }
+    
+    @Override
+    public Prestamo extenderPrestamo(Long id, LocalDate nuevaFechaDevolucion) {
+        EventoPrestamo evento = EventoPrestamo.iniciar(EventoPrestamo.EXTENSION, id, null, null);
+        try {
+            return evento.terminar(registrarExtension(id, nuevaFechaDevolucion));
+        } catch (RuntimeException e) {
+            evento.fallar(e);
+            throw e;
+        }
+    }
+    
+    @Override
+    public void eliminar(Long id) {
+        // Verificar que el préstamo existe
+        if (!prestamoRepository.existsById(id)) {
+            throw new PrestamoNoEncontradoException(id);
+        }
+        
+        // Recuperar el préstamo antes de eliminarlo para poder acceder al libro
+        Prestamo prestamo = buscarPorId(id);
+        
+        // Si el libro está prestado, cambiar su estado a disponible
+        liberarLibro(prestamo.libroId(), true);
+        
+        prestamoRepository.deleteById(id);
+    }
+    
+    private Prestamo registrarPrestamo(Long usuarioId, Long libroId, LocalDate fechaDevolucion) {
         // Buscar el usuario y el libro
         Usuario usuario = usuarioService.buscarPorId(usuarioId);
         Libro libro = libroService.buscarPorId(libroId);
         
         // Verificar que el usuario esté activo
-        if (usuario.getEstado() != EstadoUsuario.ACTIVO) {
+        if (usuario.estado() != EstadoUsuario.ACTIVO) {
             throw new RecursoNoDisponibleException("usuario", 
                     "el usuario no está activo");
         }
         
-        // Verificar que el libro esté disponible
-        if (libro.getEstado() != EstadoLibro.DISPONIBLE) {
+        // Verificar que el libro esté disponible antes de intentar reservarlo
+        if (libro.estado() != EstadoLibro.DISPONIBLE) {
             throw new RecursoNoDisponibleException("libro", 
                     "el libro no está disponible");
         }
         
-        // Cambiar el estado del libro a prestado
-        libro.setEstado(EstadoLibro.PRESTADO);
-        libroService.actualizar(libro.getId(), libro);
-        
-        // Crear el préstamo
-        Prestamo prestamo = new Prestamo();
-        prestamo.setUsuario(usuario);
-        prestamo.setLibro(libro);
-        prestamo.setFechaPrestamo(LocalDate.now());
-        
         // Si no se especifica fecha de devolución, establecer por defecto a 15 días
         if (fechaDevolucion == null) {
-            prestamo.setFechaDevolucion(LocalDate.now().plusDays(15));
-        } else {
+            fechaDevolucion = LocalDate.now().plusDays(15);
+        } else if (fechaDevolucion.isBefore(LocalDate.now())) {
             // Verificar que la fecha de devolución sea posterior a la actual
-            if (fechaDevolucion.isBefore(LocalDate.now())) {
-                throw new IllegalArgumentException(
-                        "La fecha de devolución debe ser posterior a la fecha actual");
-            }
-            prestamo.setFechaDevolucion(fechaDevolucion);
+            throw new DatosInvalidosException(
+                    "La fecha de devolución debe ser posterior a la fecha actual");
         }
         
-        return prestamoRepository.save(prestamo);
+        // Crear el préstamo antes de reservar el libro, ya que la fecha puede
+        // quedar fuera del rango admitido
+        Prestamo prestamo = new Prestamo(null, libro, usuario, LocalDate.now(), fechaDevolucion);
+        
+        // Pasar el libro de disponible a prestado de forma atómica: si otra
+        // solicitud lo tomó entre la comprobación anterior y este punto, falla
+        try {
+            libroService.cambiarEstado(libroId, EstadoLibro.DISPONIBLE, EstadoLibro.PRESTADO);
+        } catch (RecursoNoDisponibleException e) {
+            throw new RecursoNoDisponibleException("libro", 
+                    "el libro no está disponible");
+        }
+        
+        try {
+            return prestamoRepository.save(prestamo);
+        } catch (RuntimeException e) {
+            // Liberar el libro si el préstamo no pudo registrarse
+            libroService.cambiarEstado(libroId, EstadoLibro.PRESTADO, EstadoLibro.DISPONIBLE);
+            throw e;
+        }
     }
     
-    @Override
-    public Prestamo finalizarPrestamo(Long id) {
+    private Prestamo registrarDevolucion(Long id) {
         Prestamo prestamo = buscarPorId(id);
         
         // Cambiar el estado del libro a disponible
-        Libro libro = prestamo.getLibro();
-        libro.setEstado(EstadoLibro.DISPONIBLE);
-        libroService.actualizar(libro.getId(), libro);
+        liberarLibro(prestamo.libroId(), false);
         
         // Finalizar el préstamo (establecer fecha de devolución a hoy)
-        prestamo.setFechaDevolucion(LocalDate.now());
-        
-        return prestamoRepository.save(prestamo);
+        return prestamoRepository.save(prestamo.conFechaDevolucion(LocalDate.now()));
     }
     
-    @Override
-    public Prestamo extenderPrestamo(Long id, LocalDate nuevaFechaDevolucion) {
+    /**
+     * Pasa a DISPONIBLE el libro de un préstamo. El préstamo sólo guarda el ID
+     * del libro y éste pudo eliminarse después: en ese caso no queda estado
+     * que restaurar y la devolución o eliminación sigue adelante.
+     * @param libroId ID del libro prestado
+     * @param soloSiPrestado Si sólo se cambia un libro que sigue PRESTADO
+     */
+    private void liberarLibro(Long libroId, boolean soloSiPrestado) {
+        try {
+            Libro libro = libroService.buscarPorId(libroId);
+            if (!soloSiPrestado || libro.estado() == EstadoLibro.PRESTADO) {
+                libroService.actualizar(libro.id(), libro.conEstado(EstadoLibro.DISPONIBLE));
+            }
+        } catch (LibroNoEncontradoException e) {
+            // El libro fue eliminado, no hay nada que liberar
+        }
+    }
+    
+    private Prestamo registrarExtension(Long id, LocalDate nuevaFechaDevolucion) {
         Prestamo prestamo = buscarPorId(id);
         
         // Verificar que la fecha de devolución sea posterior a la actual
         if (nuevaFechaDevolucion == null || nuevaFechaDevolucion.isBefore(LocalDate.now())) {
-            throw new IllegalArgumentException(
+            throw new DatosInvalidosException(
                     "La fecha de devolución debe ser posterior a la fecha actual");
         }
         
         // Verificar que la nueva fecha sea posterior a la fecha actual de devolución
-        if (nuevaFechaDevolucion.isBefore(prestamo.getFechaDevolucion())) {
-            throw new IllegalArgumentException(
+        if (nuevaFechaDevolucion.isBefore(prestamo.fechaDevolucion())) {
+            throw new DatosInvalidosException(
                     "La nueva fecha de devolución debe ser posterior a la fecha actual de devolución");
         }
         
         // Extender el préstamo
-        prestamo.setFechaDevolucion(nuevaFechaDevolucion);
-        
-        return prestamoRepository.save(prestamo);
+        return prestamoRepository.save(prestamo.conFechaDevolucion(nuevaFechaDevolucion));
     }
     
-    @Override
-    public void eliminar(Long id) {
-        // Verificar que el préstamo existe
-        if (!prestamoRepository.existsById(id)) {
-            throw new PrestamoNoEncontradoException(id);
+    /**
+     * Valida un rango de fechas [desde, hasta)
+     * @param desde Fecha inicial
+     * @param hasta Fecha final
+     * @throws DatosInvalidosException si falta alguna fecha o desde es posterior a hasta
+     */
+    private void validarRango(LocalDate desde, LocalDate hasta) {
+        if (desde == null || hasta == null) {
+            throw new DatosInvalidosException("Las fechas desde y hasta son obligatorias");
         }
         
-        // Recuperar el préstamo antes de eliminarlo para poder acceder al libro
-        Prestamo prestamo = buscarPorId(id);
-        
-        // Si el libro está prestado, cambiar su estado a disponible
-        if (prestamo.getLibro().getEstado() == EstadoLibro.PRESTADO) {
-            Libro libro = prestamo.getLibro();
-            libro.setEstado(EstadoLibro.DISPONIBLE);
-            libroService.actualizar(libro.getId(), libro);
+        if (desde.isAfter(hasta)) {
+            throw new DatosInvalidosException("desde", "debe ser anterior o igual a hasta");
         }
-        
-        prestamoRepository.deleteById(id);
     }
-} 
\ No newline at end of file
+}
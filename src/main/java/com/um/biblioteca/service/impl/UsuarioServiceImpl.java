@@ -1,15 +1,20 @@
 package com.um.biblioteca.service.impl;
 
+import com.um.biblioteca.exception.ConflictoDeVersionException;
+import com.um.biblioteca.exception.DatosInvalidosException;
 import com.um.biblioteca.exception.UsuarioNoEncontradoException;
+import com.um.biblioteca.exception.PrecondicionFallidaException;
 import com.um.biblioteca.model.EstadoUsuario;
 import com.um.biblioteca.model.Usuario;
+import com.um.biblioteca.repository.Pagina;
+import com.um.biblioteca.repository.PaginaCursor;
 import com.um.biblioteca.repository.UsuarioRepository;
 import com.um.biblioteca.service.UsuarioService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 public class UsuarioServiceImpl implements UsuarioService {
@@ -38,6 +43,21 @@ public class UsuarioServiceImpl implements UsuarioService {
         return usuarioRepository.findAll();
     }
     
+    @Override
+    public Pagina<Usuario> obtenerPagina(int pagina, int tamanio) {
+        return usuarioRepository.findAll(pagina, tamanio);
+    }
+    
+    @Override
+    public PaginaCursor<Usuario> obtenerDesde(Long despuesDe, int limite) {
+        return usuarioRepository.findAllAfter(despuesDe, limite);
+    }
+    
+    @Override
+    public Stream<Usuario> exportar(EstadoUsuario estado) {
+        return estado != null ? usuarioRepository.streamByEstado(estado) : usuarioRepository.streamAll();
+    }
+    
     @Override
     public List<Usuario> buscarPorNombre(String nombre) {
         return usuarioRepository.findByNombreContaining(nombre);
@@ -45,9 +65,7 @@ public class UsuarioServiceImpl implements UsuarioService {
     
     @Override
     public List<Usuario> buscarPorEstado(EstadoUsuario estado) {
-        return usuarioRepository.findAll().stream()
-                .filter(usuario -> usuario.getEstado() == estado)
-                .collect(Collectors.toList());
+        return usuarioRepository.findByEstado(estado);
     }
     
     @Override
@@ -55,8 +73,8 @@ public class UsuarioServiceImpl implements UsuarioService {
         // Validación básica
         validarUsuario(usuario);
         
-        if (usuario.getEstado() == null) {
-            usuario.setEstado(EstadoUsuario.ACTIVO);
+        if (usuario.estado() == null) {
+            usuario = usuario.conEstado(EstadoUsuario.ACTIVO);
         }
         
         return usuarioRepository.save(usuario);
@@ -70,7 +88,7 @@ public class UsuarioServiceImpl implements UsuarioService {
         }
         
         // Establecer el ID correcto
-        usuario.setId(id);
+        usuario = usuario.conId(id);
         
         // Validación básica
         validarUsuario(usuario);
@@ -78,6 +96,20 @@ public class UsuarioServiceImpl implements UsuarioService {
         return usuarioRepository.save(usuario);
     }
     
+    @Override
+    public Usuario actualizar(Long id, Usuario usuario, Long versionEsperada) {
+        if (versionEsperada == null) {
+            return actualizar(id, usuario);
+        }
+        
+        // La versión del encabezado reemplaza a la del cuerpo y save la compara con la almacenada
+        try {
+            return actualizar(id, usuario.conVersion(versionEsperada));
+        } catch (ConflictoDeVersionException e) {
+            throw new PrecondicionFallidaException(e.getMessage());
+        }
+    }
+    
     @Override
     public void eliminar(Long id) {
         // Verificar que el usuario existe
@@ -92,29 +124,27 @@ public class UsuarioServiceImpl implements UsuarioService {
     public Usuario cambiarEstado(Long id, EstadoUsuario estado) {
         Usuario usuario = buscarPorId(id);
         
-        // Establecer el nuevo estado
-        usuario.setEstado(estado);
-        
-        return usuarioRepository.save(usuario);
+        // Guardar una copia con el nuevo estado; si otra escritura se adelantó, save detecta el conflicto de versión
+        return usuarioRepository.save(usuario.conEstado(estado));
     }
     
     /**
      * Valida los datos del usuario
      * @param usuario Usuario a validar
-     * @throws IllegalArgumentException si los datos son inválidos
+     * @throws DatosInvalidosException si los datos son inválidos
      */
     private void validarUsuario(Usuario usuario) {
-        if (usuario.getNombre() == null || usuario.getNombre().trim().isEmpty()) {
-            throw new IllegalArgumentException("El nombre del usuario es obligatorio");
+        if (usuario.nombre() == null || usuario.nombre().trim().isEmpty()) {
+            throw new DatosInvalidosException("El nombre del usuario es obligatorio");
         }
         
-        if (usuario.getEmail() == null || usuario.getEmail().trim().isEmpty()) {
-            throw new IllegalArgumentException("El email del usuario es obligatorio");
+        if (usuario.email() == null || usuario.email().trim().isEmpty()) {
+            throw new DatosInvalidosException("El email del usuario es obligatorio");
         }
         
         // Validación básica de formato de email
-        if (!usuario.getEmail().contains("@")) {
-            throw new IllegalArgumentException("El formato del email es inválido");
+        if (!usuario.email().contains("@")) {
+            throw new DatosInvalidosException("El formato del email es inválido");
         }
     }
 } 
\ No newline at end of file
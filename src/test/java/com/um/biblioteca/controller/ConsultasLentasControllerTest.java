@@ -0,0 +1,34 @@
+package com.um.biblioteca.controller;
+
+import com.um.biblioteca.metricas.ConsultasLentasProperties;
+import com.um.biblioteca.metricas.RegistroConsultasLentas;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConsultasLentasControllerTest {
+
+    @Test
+    void consultasLentas_debeDevolverElInformeDelRegistro() {
+        // Arrange
+        ConsultasLentasProperties propiedades = new ConsultasLentasProperties();
+        propiedades.setUmbralMs(0);
+        RegistroConsultasLentas registro = new RegistroConsultasLentas(propiedades);
+        registro.registrar(registro.metodo("libros", "findAll"), 5_000_000, 100, List.of(), null);
+        ConsultasLentasController controller = new ConsultasLentasController(registro);
+
+        // Act
+        ResponseEntity<RegistroConsultasLentas.Informe> response = controller.consultasLentas();
+
+        // Assert
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(0, response.getBody().umbralMs());
+        assertEquals(256, response.getBody().capacidad());
+        assertEquals(1, response.getBody().consultas().size());
+        assertEquals(100, response.getBody().metodos().get(0).registrosRecorridos());
+    }
+}
@@ -0,0 +1,118 @@
+package com.um.biblioteca.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.um.biblioteca.exception.DatosInvalidosException;
+import com.um.biblioteca.model.Libro;
+import com.um.biblioteca.model.Prestamo;
+import com.um.biblioteca.model.ResolutorReferencias;
+import com.um.biblioteca.model.Usuario;
+import com.um.biblioteca.repository.Pagina;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.http.server.ServletServerHttpResponse;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ExpansionPrestamosTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private ExpansionPrestamos expansion;
+    private Prestamo prestamo;
+
+    @BeforeEach
+    void setUp() {
+        Libro libro = new Libro(3L, "978-1", "Rayuela", "Cortázar");
+        Usuario usuario = new Usuario(7L, "Ana", "ana@example.com");
+        expansion = new ExpansionPrestamos(new ResolutorReferencias() {
+            @Override
+            public Libro libro(Long id) {
+                return id.equals(libro.id()) ? libro : null;
+            }
+
+            @Override
+            public Usuario usuario(Long id) {
+                return id.equals(usuario.id()) ? usuario : null;
+            }
+        });
+        prestamo = new Prestamo(11L, libro, usuario, LocalDate.of(2024, 5, 1), LocalDate.of(2024, 5, 16));
+    }
+
+    @Test
+    void beforeBodyWrite_sinExpand_debeSerializarSoloLosIds() throws Exception {
+        // Act
+        JsonNode json = serializar(aplicar(prestamo, null));
+
+        // Assert
+        assertEquals(3L, json.get("libroId").asLong());
+        assertEquals(7L, json.get("usuarioId").asLong());
+        assertFalse(json.has("libro"));
+        assertFalse(json.has("usuario"));
+    }
+
+    @Test
+    void beforeBodyWrite_conExpandLibro_debeAgregarSoloElLibro() throws Exception {
+        // Act
+        JsonNode json = serializar(aplicar(List.of(prestamo), "libro"));
+
+        // Assert
+        assertEquals(11L, json.get(0).get("id").asLong());
+        assertEquals(3L, json.get(0).get("libroId").asLong());
+        assertEquals("Rayuela", json.get(0).get("libro").get("titulo").asText());
+        assertFalse(json.get(0).has("usuario"));
+    }
+
+    @Test
+    void beforeBodyWrite_conPaginaYAmbasReferencias_debeExpandirElContenido() throws Exception {
+        // Act
+        JsonNode json = serializar(aplicar(new Pagina<>(List.of(prestamo), 0, 10, 1), "libro, usuario"));
+
+        // Assert
+        assertEquals(1, json.get("totalElementos").asLong());
+        assertEquals("Rayuela", json.get("contenido").get(0).get("libro").get("titulo").asText());
+        assertEquals("Ana", json.get("contenido").get(0).get("usuario").get("nombre").asText());
+    }
+
+    @Test
+    void beforeBodyWrite_debeSerializarLasFechasYNoLosDiasInternos() throws Exception {
+        // Act
+        JsonNode json = serializar(prestamo);
+        JsonNode expandido = serializar(aplicar(prestamo, "libro"));
+
+        // Assert
+        for (JsonNode nodo : List.of(json, expandido)) {
+            assertEquals(LocalDate.of(2024, 5, 1), objectMapper.treeToValue(nodo.get("fechaPrestamo"), LocalDate.class));
+            assertEquals(LocalDate.of(2024, 5, 16), objectMapper.treeToValue(nodo.get("fechaDevolucion"), LocalDate.class));
+            assertFalse(nodo.has("diaPrestamo"));
+            assertFalse(nodo.has("diaDevolucion"));
+        }
+    }
+
+    @Test
+    void beforeBodyWrite_conCampoDesconocido_debeLanzarExcepcion() {
+        // Act & Assert
+        assertThrows(DatosInvalidosException.class, () -> aplicar(prestamo, "libro,autor"));
+    }
+
+    private Object aplicar(Object cuerpo, String expand) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/prestamos");
+        if (expand != null) {
+            request.addParameter(ExpansionPrestamos.PARAMETRO, expand);
+        }
+        return expansion.beforeBodyWrite(cuerpo, null, MediaType.APPLICATION_JSON,
+                MappingJackson2HttpMessageConverter.class,
+                new ServletServerHttpRequest(request), new ServletServerHttpResponse(new MockHttpServletResponse()));
+    }
+
+    private JsonNode serializar(Object cuerpo) throws Exception {
+        return objectMapper.readTree(objectMapper.writeValueAsString(cuerpo));
+    }
+}
@@ -1,8 +1,12 @@
 package com.um.biblioteca.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.um.biblioteca.exception.ConflictoDeVersionException;
+import com.um.biblioteca.exception.PrecondicionFallidaException;
 import com.um.biblioteca.model.EstadoLibro;
 import com.um.biblioteca.model.Libro;
+import com.um.biblioteca.repository.Pagina;
+import com.um.biblioteca.repository.PaginaCursor;
 import com.um.biblioteca.service.LibroService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -11,13 +15,18 @@ import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
 import java.util.Arrays;
 import java.util.List;
+import java.util.stream.Stream;
 
 import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -39,19 +48,9 @@ class LibroControllerIntegrationTest {
 
     @BeforeEach
     void setUp() {
-        libro1 = new Libro();
-        libro1.setId(1L);
-        libro1.setIsbn("123456789");
-        libro1.setTitulo("El principito");
-        libro1.setAutor("Antoine de Saint-Exupéry");
-        libro1.setEstado(EstadoLibro.DISPONIBLE);
+        libro1 = new Libro(1L, "123456789", "El principito", "Antoine de Saint-Exupéry", EstadoLibro.DISPONIBLE);
         
-        libro2 = new Libro();
-        libro2.setId(2L);
-        libro2.setIsbn("987654321");
-        libro2.setTitulo("Cien años de soledad");
-        libro2.setAutor("Gabriel García Márquez");
-        libro2.setEstado(EstadoLibro.DISPONIBLE);
+        libro2 = new Libro(2L, "987654321", "Cien años de soledad", "Gabriel García Márquez", EstadoLibro.DISPONIBLE);
     }
 
     @Test
@@ -69,6 +68,47 @@ class LibroControllerIntegrationTest {
                 .andExpect(jsonPath("$[1].titulo", is("Cien años de soledad")));
     }
 
+    @Test
+    void obtenerDesde_debeIncluirEnlaceALaPaginaSiguiente() throws Exception {
+        when(libroService.obtenerDesde(null, 2)).thenReturn(new PaginaCursor<>(Arrays.asList(libro1, libro2), 2L));
+
+        mockMvc.perform(get("/api/libros").param("limite", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.contenido", hasSize(2)))
+                .andExpect(jsonPath("$.siguienteCursor", is(2)))
+                .andExpect(header().string("Link", containsString("despuesDe=2")))
+                .andExpect(header().string("Link", containsString("rel=\"next\"")));
+    }
+
+    @Test
+    void obtenerPagina() throws Exception {
+        when(libroService.obtenerPagina(0, 50)).thenReturn(new Pagina<>(Arrays.asList(libro1, libro2), 0, 50, 2));
+
+        mockMvc.perform(get("/api/libros").param("pagina", "0"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.contenido", hasSize(2)))
+                .andExpect(jsonPath("$.totalElementos", is(2)))
+                .andExpect(jsonPath("$.totalPaginas", is(1)));
+    }
+
+    @Test
+    void exportar_debeEscribirUnLibroPorLinea() throws Exception {
+        when(libroService.exportar(EstadoLibro.DISPONIBLE)).thenReturn(Stream.of(libro1, libro2));
+
+        MvcResult resultado = mockMvc.perform(get("/api/libros/exportar").param("estado", "DISPONIBLE"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String cuerpo = mockMvc.perform(asyncDispatch(resultado))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-ndjson"))
+                .andReturn().getResponse().getContentAsString();
+        String[] lineas = cuerpo.split("\n");
+        assertEquals(2, lineas.length);
+        assertEquals("El principito", objectMapper.readValue(lineas[0], Libro.class).titulo());
+        assertEquals(2L, objectMapper.readValue(lineas[1], Libro.class).id());
+    }
+
     @Test
     void obtenerPorId() throws Exception {
         when(libroService.buscarPorId(1L)).thenReturn(libro1);
@@ -108,14 +148,79 @@ class LibroControllerIntegrationTest {
                 .andExpect(jsonPath("$.titulo", is("El principito")));
     }
 
+    @Test
+    void obtenerPorId_debeIncluirEtagConLaVersion() throws Exception {
+        libro1 = libro1.conVersion(3L);
+        when(libroService.buscarPorId(1L)).thenReturn(libro1);
+
+        mockMvc.perform(get("/api/libros/1"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"3\""))
+                .andExpect(jsonPath("$.version", is(3)));
+    }
+
+    @Test
+    void obtenerPorIsbn_debeIncluirEtagConLaVersion() throws Exception {
+        libro1 = libro1.conVersion(3L);
+        when(libroService.buscarPorIsbn("123456789")).thenReturn(libro1);
+
+        mockMvc.perform(get("/api/libros/isbn/123456789"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"3\""))
+                .andExpect(jsonPath("$.version", is(3)));
+    }
+
+    @Test
+    void actualizar_conIfMatch_debeEnviarLaVersionEsperada() throws Exception {
+        Libro actualizado = new Libro(1L, "123456789", "El principito", "Antoine de Saint-Exupéry",
+                EstadoLibro.DISPONIBLE, 4L);
+        when(libroService.actualizar(eq(1L), any(Libro.class), eq(3L))).thenReturn(actualizado);
+
+        mockMvc.perform(put("/api/libros/1")
+                .header("If-Match", "\"3\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(libro1)))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"4\""));
+    }
+
+    @Test
+    void actualizar_conIfMatchDesactualizado_debeResponder412() throws Exception {
+        when(libroService.actualizar(eq(1L), any(Libro.class), eq(2L)))
+                .thenThrow(new PrecondicionFallidaException("versión desactualizada"));
+
+        mockMvc.perform(put("/api/libros/1")
+                .header("If-Match", "\"2\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(libro1)))
+                .andExpect(status().isPreconditionFailed());
+    }
+
+    @Test
+    void actualizar_conVersionDesactualizadaEnElCuerpo_debeResponder409() throws Exception {
+        when(libroService.actualizar(eq(1L), any(Libro.class)))
+                .thenThrow(new ConflictoDeVersionException(1L, 2L, 3L));
+
+        mockMvc.perform(put("/api/libros/1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(libro1)))
+                .andExpect(status().isConflict());
+    }
+
+    @Test
+    void actualizar_conIfMatchInvalido_debeResponder400() throws Exception {
+        mockMvc.perform(put("/api/libros/1")
+                .header("If-Match", "tres")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(libro1)))
+                .andExpect(status().isBadRequest());
+
+        verify(libroService, never()).actualizar(any(), any(Libro.class), any());
+    }
+
     @Test
     void cambiarEstado() throws Exception {
-        Libro libroActualizado = new Libro();
-        libroActualizado.setId(1L);
-        libroActualizado.setIsbn("123456789");
-        libroActualizado.setTitulo("El principito");
-        libroActualizado.setAutor("Antoine de Saint-Exupéry");
-        libroActualizado.setEstado(EstadoLibro.PRESTADO);
+        Libro libroActualizado = new Libro(1L, "123456789", "El principito", "Antoine de Saint-Exupéry", EstadoLibro.PRESTADO);
 
         when(libroService.cambiarEstado(1L, EstadoLibro.PRESTADO)).thenReturn(libroActualizado);
 
@@ -32,19 +32,9 @@ class LibroControllerTest {
     void setUp() {
         MockitoAnnotations.openMocks(this);
         
-        libro1 = new Libro();
-        libro1.setId(1L);
-        libro1.setIsbn("123456789");
-        libro1.setTitulo("El principito");
-        libro1.setAutor("Antoine de Saint-Exupéry");
-        libro1.setEstado(EstadoLibro.DISPONIBLE);
-        
-        libro2 = new Libro();
-        libro2.setId(2L);
-        libro2.setIsbn("987654321");
-        libro2.setTitulo("Cien años de soledad");
-        libro2.setAutor("Gabriel García Márquez");
-        libro2.setEstado(EstadoLibro.DISPONIBLE);
+        libro1 = new Libro(1L, "123456789", "El principito", "Antoine de Saint-Exupéry", EstadoLibro.DISPONIBLE);
+        
+        libro2 = new Libro(2L, "987654321", "Cien años de soledad", "Gabriel García Márquez", EstadoLibro.DISPONIBLE);
     }
 
     @Test
@@ -0,0 +1,26 @@
+package com.um.biblioteca.controller;
+
+import com.um.biblioteca.metricas.RegistroMetricas;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MetricasControllerTest {
+
+    @Test
+    void prometheus_debeDevolverLasMetricasDelRegistro() {
+        // Arrange
+        RegistroMetricas registro = new RegistroMetricas();
+        registro.contador("prestamos_total", "Préstamos creados").add(3);
+        MetricasController controller = new MetricasController(registro);
+
+        // Act
+        ResponseEntity<String> response = controller.prometheus();
+
+        // Assert
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertTrue(response.getBody().contains("prestamos_total 3\n"));
+    }
+}
@@ -5,7 +5,10 @@ import com.um.biblioteca.model.EstadoLibro;
 import com.um.biblioteca.model.EstadoUsuario;
 import com.um.biblioteca.model.Libro;
 import com.um.biblioteca.model.Prestamo;
+import com.um.biblioteca.model.ResolutorReferencias;
 import com.um.biblioteca.model.Usuario;
+import com.um.biblioteca.repository.Pagina;
+import com.um.biblioteca.repository.PaginaCursor;
 import com.um.biblioteca.service.LibroService;
 import com.um.biblioteca.service.PrestamoService;
 import com.um.biblioteca.service.UsuarioService;
@@ -45,6 +48,9 @@ class PrestamoControllerIntegrationTest {
     
     @MockBean
     private LibroService libroService;
+    
+    @MockBean
+    private ResolutorReferencias referencias;
 
     private Prestamo prestamo1;
     private Prestamo prestamo2;
@@ -53,34 +59,13 @@ class PrestamoControllerIntegrationTest {
 
     @BeforeEach
     void setUp() {
-        usuario = new Usuario();
-        usuario.setId(1L);
-        usuario.setNombre("Juan Pérez");
-        usuario.setEmail("juan@example.com");
-        usuario.setEstado(EstadoUsuario.ACTIVO);
+        usuario = new Usuario(1L, "Juan Pérez", "juan@example.com", EstadoUsuario.ACTIVO);
         
-        libro = new Libro();
-        libro.setId(1L);
-        libro.setIsbn("123456789");
-        libro.setTitulo("El principito");
-        libro.setAutor("Antoine de Saint-Exupéry");
-        libro.setEstado(EstadoLibro.PRESTADO);
+        libro = new Libro(1L, "123456789", "El principito", "Antoine de Saint-Exupéry", EstadoLibro.PRESTADO);
         
-        prestamo1 = new Prestamo();
-        prestamo1.setId(1L);
-        prestamo1.setUsuario(usuario);
-        prestamo1.setLibro(libro);
-        prestamo1.setFechaPrestamo(LocalDate.now());
-        prestamo1.setFechaDevolucion(LocalDate.now().plusDays(7));
-        prestamo1.setFechaDevolucionReal(null);
+        prestamo1 = new Prestamo(1L, libro, usuario, LocalDate.now(), LocalDate.now().plusDays(7));
         
-        prestamo2 = new Prestamo();
-        prestamo2.setId(2L);
-        prestamo2.setUsuario(usuario);
-        prestamo2.setLibro(libro);
-        prestamo2.setFechaPrestamo(LocalDate.now().minusDays(3));
-        prestamo2.setFechaDevolucion(LocalDate.now().plusDays(4));
-        prestamo2.setFechaDevolucionReal(null);
+        prestamo2 = new Prestamo(2L, libro, usuario, LocalDate.now().minusDays(3), LocalDate.now().plusDays(4));
     }
 
     @Test
@@ -104,8 +89,103 @@ class PrestamoControllerIntegrationTest {
                 .andExpect(status().isOk())
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON))
                 .andExpect(jsonPath("$.id", is(1)))
+                .andExpect(jsonPath("$.usuarioId", is(1)))
+                .andExpect(jsonPath("$.libroId", is(1)))
+                .andExpect(jsonPath("$.usuario").doesNotExist())
+                .andExpect(jsonPath("$.libro").doesNotExist());
+    }
+
+    @Test
+    void obtenerPorId_conExpansion() throws Exception {
+        when(prestamoService.buscarPorId(1L)).thenReturn(prestamo1);
+        when(referencias.libro(1L)).thenReturn(libro);
+        when(referencias.usuario(1L)).thenReturn(usuario);
+
+        mockMvc.perform(get("/api/prestamos/1").param("expand", "libro,usuario"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.id", is(1)))
+                .andExpect(jsonPath("$.usuarioId", is(1)))
+                .andExpect(jsonPath("$.libroId", is(1)))
                 .andExpect(jsonPath("$.usuario.id", is(1)))
-                .andExpect(jsonPath("$.libro.id", is(1)));
+                .andExpect(jsonPath("$.usuario.email", is("juan@example.com")))
+                .andExpect(jsonPath("$.libro.id", is(1)))
+                .andExpect(jsonPath("$.libro.isbn", is("123456789")));
+    }
+
+    @Test
+    void obtenerTodos_conExpansion() throws Exception {
+        when(prestamoService.obtenerTodos()).thenReturn(Arrays.asList(prestamo1, prestamo2));
+        when(referencias.libro(1L)).thenReturn(libro);
+        when(referencias.usuario(1L)).thenReturn(usuario);
+
+        mockMvc.perform(get("/api/prestamos").param("expand", "libro,usuario"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0].id", is(1)))
+                .andExpect(jsonPath("$[0].libroId", is(1)))
+                .andExpect(jsonPath("$[0].libro.isbn", is("123456789")))
+                .andExpect(jsonPath("$[1].id", is(2)))
+                .andExpect(jsonPath("$[1].usuario.email", is("juan@example.com")));
+    }
+
+    @Test
+    void buscarPorUsuario_conExpansion() throws Exception {
+        when(usuarioService.buscarPorId(1L)).thenReturn(usuario);
+        when(prestamoService.buscarPorUsuario(usuario)).thenReturn(Arrays.asList(prestamo1, prestamo2));
+        when(referencias.libro(1L)).thenReturn(libro);
+
+        mockMvc.perform(get("/api/prestamos/usuario/1").param("expand", "libro"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0].libro.id", is(1)))
+                .andExpect(jsonPath("$[0].usuario").doesNotExist())
+                .andExpect(jsonPath("$[1].libro.id", is(1)));
+    }
+
+    @Test
+    void buscarPorLibroYVencidosYRango_conExpansion() throws Exception {
+        when(libroService.buscarPorId(1L)).thenReturn(libro);
+        when(prestamoService.buscarPorLibro(libro)).thenReturn(List.of(prestamo1));
+        when(prestamoService.buscarVencidos()).thenReturn(List.of(prestamo2));
+        when(prestamoService.buscarPorFechaPrestamo(any(LocalDate.class))).thenReturn(List.of(prestamo1));
+        when(prestamoService.buscarPorRangoFechaPrestamo(any(LocalDate.class), any(LocalDate.class)))
+                .thenReturn(List.of(prestamo2));
+        when(referencias.usuario(1L)).thenReturn(usuario);
+        String hoy = LocalDate.now().toString();
+
+        mockMvc.perform(get("/api/prestamos/libro/1").param("expand", "usuario"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].usuario.id", is(1)));
+        mockMvc.perform(get("/api/prestamos/vencidos").param("expand", "usuario"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id", is(2)))
+                .andExpect(jsonPath("$[0].usuario.id", is(1)));
+        mockMvc.perform(get("/api/prestamos/fecha").param("fecha", hoy).param("expand", "usuario"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].usuario.id", is(1)));
+        mockMvc.perform(get("/api/prestamos/rango").param("desde", hoy).param("hasta", hoy)
+                        .param("expand", "usuario"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id", is(2)))
+                .andExpect(jsonPath("$[0].usuario.id", is(1)));
+    }
+
+    @Test
+    void obtenerPagina_conExpansion() throws Exception {
+        when(prestamoService.obtenerPagina(0, 50)).thenReturn(new Pagina<>(List.of(prestamo1), 0, 50, 1));
+        when(prestamoService.obtenerDesde(null, 5)).thenReturn(new PaginaCursor<>(List.of(prestamo2), null));
+        when(referencias.libro(1L)).thenReturn(libro);
+
+        mockMvc.perform(get("/api/prestamos").param("pagina", "0").param("expand", "libro"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.contenido[0].id", is(1)))
+                .andExpect(jsonPath("$.contenido[0].libro.id", is(1)));
+        mockMvc.perform(get("/api/prestamos").param("limite", "5").param("expand", "libro"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.contenido[0].id", is(2)))
+                .andExpect(jsonPath("$.contenido[0].libro.id", is(1)));
     }
 
     @Test
@@ -174,13 +254,7 @@ class PrestamoControllerIntegrationTest {
 
     @Test
     void finalizarPrestamo() throws Exception {
-        Prestamo prestamoFinalizado = new Prestamo();
-        prestamoFinalizado.setId(1L);
-        prestamoFinalizado.setUsuario(usuario);
-        prestamoFinalizado.setLibro(libro);
-        prestamoFinalizado.setFechaPrestamo(prestamo1.getFechaPrestamo());
-        prestamoFinalizado.setFechaDevolucion(prestamo1.getFechaDevolucion());
-        prestamoFinalizado.setFechaDevolucionReal(LocalDate.now());
+        Prestamo prestamoFinalizado = prestamo1.conFechaDevolucion(LocalDate.now());
         
         when(prestamoService.finalizarPrestamo(1L)).thenReturn(prestamoFinalizado);
 
@@ -188,20 +262,14 @@ class PrestamoControllerIntegrationTest {
                 .andExpect(status().isOk())
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON))
                 .andExpect(jsonPath("$.id", is(1)))
-                .andExpect(jsonPath("$.fechaDevolucionReal").exists());
+                .andExpect(jsonPath("$.fechaDevolucion").value(LocalDate.now().toString()));
     }
 
     @Test
     void extenderPrestamo() throws Exception {
         LocalDate nuevaFecha = LocalDate.now().plusDays(14);
         
-        Prestamo prestamoExtendido = new Prestamo();
-        prestamoExtendido.setId(1L);
-        prestamoExtendido.setUsuario(usuario);
-        prestamoExtendido.setLibro(libro);
-        prestamoExtendido.setFechaPrestamo(prestamo1.getFechaPrestamo());
-        prestamoExtendido.setFechaDevolucion(nuevaFecha);
-        prestamoExtendido.setFechaDevolucionReal(null);
+        Prestamo prestamoExtendido = new Prestamo(1L, libro, usuario, prestamo1.fechaPrestamo(), nuevaFecha);
         
         when(prestamoService.extenderPrestamo(1L, nuevaFecha)).thenReturn(prestamoExtendido);
 
@@ -44,27 +44,13 @@ class PrestamoControllerTest {
     void setUp() {
         MockitoAnnotations.openMocks(this);
         
-        usuario = new Usuario();
-        usuario.setId(1L);
-        
-        libro = new Libro();
-        libro.setId(1L);
-        
-        prestamo1 = new Prestamo();
-        prestamo1.setId(1L);
-        prestamo1.setUsuario(usuario);
-        prestamo1.setLibro(libro);
-        prestamo1.setFechaPrestamo(LocalDate.now());
-        prestamo1.setFechaDevolucion(LocalDate.now().plusDays(7));
-        prestamo1.setFechaDevolucionReal(null);
-        
-        prestamo2 = new Prestamo();
-        prestamo2.setId(2L);
-        prestamo2.setUsuario(usuario);
-        prestamo2.setLibro(libro);
-        prestamo2.setFechaPrestamo(LocalDate.now().minusDays(3));
-        prestamo2.setFechaDevolucion(LocalDate.now().plusDays(4));
-        prestamo2.setFechaDevolucionReal(null);
+        usuario = new Usuario(1L, null, null);
+        
+        libro = new Libro(1L, null, null, null);
+        
+        prestamo1 = new Prestamo(1L, libro, usuario, LocalDate.now(), LocalDate.now().plusDays(7));
+        
+        prestamo2 = new Prestamo(2L, libro, usuario, LocalDate.now().minusDays(3), LocalDate.now().plusDays(4));
     }
 
     @Test
@@ -127,6 +113,19 @@ class PrestamoControllerTest {
         verify(prestamoService, times(1)).buscarPorFechaPrestamo(fecha);
     }
 
+    @Test
+    void buscarPorRango() {
+        LocalDate desde = LocalDate.now().minusDays(3);
+        LocalDate hasta = LocalDate.now().plusDays(1);
+        when(prestamoService.buscarPorRangoFechaPrestamo(desde, hasta)).thenReturn(Arrays.asList(prestamo2, prestamo1));
+        
+        ResponseEntity<List<Prestamo>> response = prestamoController.buscarPorRango(desde, hasta, "prestamo");
+        
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(2, response.getBody().size());
+        verify(prestamoService, times(1)).buscarPorRangoFechaPrestamo(desde, hasta);
+    }
+
     @Test
     void buscarVencidos() {
         when(prestamoService.buscarVencidos()).thenReturn(Arrays.asList(prestamo2));
@@ -39,17 +39,9 @@ class UsuarioControllerIntegrationTest {
 
     @BeforeEach
     void setUp() {
-        usuario1 = new Usuario();
-        usuario1.setId(1L);
-        usuario1.setNombre("Juan Pérez");
-        usuario1.setEmail("juan@example.com");
-        usuario1.setEstado(EstadoUsuario.ACTIVO);
+        usuario1 = new Usuario(1L, "Juan Pérez", "juan@example.com", EstadoUsuario.ACTIVO);
         
-        usuario2 = new Usuario();
-        usuario2.setId(2L);
-        usuario2.setNombre("María López");
-        usuario2.setEmail("maria@example.com");
-        usuario2.setEstado(EstadoUsuario.ACTIVO);
+        usuario2 = new Usuario(2L, "María López", "maria@example.com", EstadoUsuario.ACTIVO);
     }
 
     @Test
@@ -92,6 +84,15 @@ class UsuarioControllerIntegrationTest {
                 .andExpect(jsonPath("$.email", is("juan@example.com")));
     }
 
+    @Test
+    void obtenerPorEmail_debeIncluirEtagConLaVersion() throws Exception {
+        when(usuarioService.buscarPorEmail("juan@example.com")).thenReturn(usuario1.conVersion(2L));
+
+        mockMvc.perform(get("/api/usuarios/email/juan@example.com"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"2\""));
+    }
+
     @Test
     void buscarPorNombre() throws Exception {
         when(usuarioService.buscarPorNombre("Juan")).thenReturn(Arrays.asList(usuario1));
@@ -144,20 +145,16 @@ class UsuarioControllerIntegrationTest {
 
     @Test
     void cambiarEstado() throws Exception {
-        Usuario usuarioActualizado = new Usuario();
-        usuarioActualizado.setId(1L);
-        usuarioActualizado.setNombre("Juan Pérez");
-        usuarioActualizado.setEmail("juan@example.com");
-        usuarioActualizado.setEstado(EstadoUsuario.INACTIVO);
+        Usuario usuarioActualizado = new Usuario(1L, "Juan Pérez", "juan@example.com", EstadoUsuario.SUSPENDIDO);
 
-        when(usuarioService.cambiarEstado(1L, EstadoUsuario.INACTIVO)).thenReturn(usuarioActualizado);
+        when(usuarioService.cambiarEstado(1L, EstadoUsuario.SUSPENDIDO)).thenReturn(usuarioActualizado);
 
         mockMvc.perform(patch("/api/usuarios/1/estado")
-                .param("estado", "INACTIVO"))
+                .param("estado", "SUSPENDIDO"))
                 .andExpect(status().isOk())
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON))
                 .andExpect(jsonPath("$.id", is(1)))
-                .andExpect(jsonPath("$.estado", is("INACTIVO")));
+                .andExpect(jsonPath("$.estado", is("SUSPENDIDO")));
     }
 
     @Test
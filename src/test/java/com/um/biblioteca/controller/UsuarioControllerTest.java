@@ -32,17 +32,9 @@ class UsuarioControllerTest {
     void setUp() {
         MockitoAnnotations.openMocks(this);
         
-        usuario1 = new Usuario();
-        usuario1.setId(1L);
-        usuario1.setNombre("Juan Pérez");
-        usuario1.setEmail("juan@example.com");
-        usuario1.setEstado(EstadoUsuario.ACTIVO);
-        
-        usuario2 = new Usuario();
-        usuario2.setId(2L);
-        usuario2.setNombre("María López");
-        usuario2.setEmail("maria@example.com");
-        usuario2.setEstado(EstadoUsuario.ACTIVO);
+        usuario1 = new Usuario(1L, "Juan Pérez", "juan@example.com", EstadoUsuario.ACTIVO);
+        
+        usuario2 = new Usuario(2L, "María López", "maria@example.com", EstadoUsuario.ACTIVO);
     }
 
     @Test
@@ -113,13 +105,13 @@ class UsuarioControllerTest {
 
     @Test
     void cambiarEstado() {
-        when(usuarioService.cambiarEstado(1L, EstadoUsuario.INACTIVO)).thenReturn(usuario1);
+        when(usuarioService.cambiarEstado(1L, EstadoUsuario.SUSPENDIDO)).thenReturn(usuario1);
         
-        ResponseEntity<Usuario> response = usuarioController.cambiarEstado(1L, EstadoUsuario.INACTIVO);
+        ResponseEntity<Usuario> response = usuarioController.cambiarEstado(1L, EstadoUsuario.SUSPENDIDO);
         
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertEquals(usuario1, response.getBody());
-        verify(usuarioService, times(1)).cambiarEstado(1L, EstadoUsuario.INACTIVO);
+        verify(usuarioService, times(1)).cambiarEstado(1L, EstadoUsuario.SUSPENDIDO);
     }
 
     @Test
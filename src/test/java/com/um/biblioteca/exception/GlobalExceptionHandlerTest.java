@@ -24,15 +24,15 @@ class GlobalExceptionHandlerTest {
     @Test
     void handleRecursoNoEncontrado() {
         // Given
-        LibroNoEncontradoException exception = new LibroNoEncontradoException("Libro no encontrado con id: 1");
+        LibroNoEncontradoException exception = new LibroNoEncontradoException(1L);
         
         // When
-        ResponseEntity<ApiError> response = exceptionHandler.handleRecursoNoEncontrado(exception, webRequest);
+        ResponseEntity<ApiError> response = exceptionHandler.handleLibroNoEncontradoException(exception, webRequest);
         
         // Then
         assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
-        assertEquals("Libro no encontrado con id: 1", response.getBody().getMessage());
-        assertEquals("NOT_FOUND", response.getBody().getStatus());
+        assertEquals("No se encontró el libro con id: 1", response.getBody().getMessage());
+        assertEquals(404, response.getBody().getStatus());
     }
 
     @Test
@@ -41,12 +41,12 @@ class GlobalExceptionHandlerTest {
         RecursoNoDisponibleException exception = new RecursoNoDisponibleException("El libro no está disponible para préstamo");
         
         // When
-        ResponseEntity<ApiError> response = exceptionHandler.handleRecursoNoDisponible(exception, webRequest);
+        ResponseEntity<ApiError> response = exceptionHandler.handleRecursoNoDisponibleException(exception, webRequest);
         
         // Then
         assertEquals(HttpStatus.CONFLICT, response.getStatusCode());
         assertEquals("El libro no está disponible para préstamo", response.getBody().getMessage());
-        assertEquals("CONFLICT", response.getBody().getStatus());
+        assertEquals(409, response.getBody().getStatus());
     }
 
     @Test
@@ -55,12 +55,12 @@ class GlobalExceptionHandlerTest {
         DatosInvalidosException exception = new DatosInvalidosException("La fecha de devolución no puede ser anterior a la fecha actual");
         
         // When
-        ResponseEntity<ApiError> response = exceptionHandler.handleDatosInvalidos(exception, webRequest);
+        ResponseEntity<ApiError> response = exceptionHandler.handleDatosInvalidosException(exception, webRequest);
         
         // Then
         assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
         assertEquals("La fecha de devolución no puede ser anterior a la fecha actual", response.getBody().getMessage());
-        assertEquals("BAD_REQUEST", response.getBody().getStatus());
+        assertEquals(400, response.getBody().getStatus());
     }
 
     @Test
@@ -74,6 +74,6 @@ class GlobalExceptionHandlerTest {
         // Then
         assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, response.getStatusCode());
         assertTrue(response.getBody().getMessage().contains("Error inesperado"));
-        assertEquals("INTERNAL_SERVER_ERROR", response.getBody().getStatus());
+        assertEquals(500, response.getBody().getStatus());
     }
 } 
\ No newline at end of file
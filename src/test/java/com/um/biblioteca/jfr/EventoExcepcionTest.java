@@ -0,0 +1,50 @@
+package com.um.biblioteca.jfr;
+
+import com.um.biblioteca.exception.GlobalExceptionHandler;
+import com.um.biblioteca.exception.LibroNoEncontradoException;
+import jdk.jfr.consumer.RecordedEvent;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EventoExcepcionTest {
+
+    private MockHttpServletRequest solicitud;
+
+    @BeforeEach
+    void setUp() {
+        solicitud = new MockHttpServletRequest("GET", "/api/libros/7");
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(solicitud));
+    }
+
+    @AfterEach
+    void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    void manejadorGlobal_debeRegistrarLaExcepcionConLaSolicitud() throws Exception {
+        // Arrange
+        GlobalExceptionHandler manejador = new GlobalExceptionHandler();
+
+        // Act
+        List<RecordedEvent> eventos = GrabacionJfr.grabar(EventoExcepcion.class,
+                () -> manejador.handleLibroNoEncontradoException(new LibroNoEncontradoException(7L),
+                        new ServletWebRequest(solicitud)));
+
+        // Assert
+        assertEquals(1, eventos.size());
+        RecordedEvent evento = eventos.get(0);
+        assertEquals(LibroNoEncontradoException.class.getName(), evento.getString("tipo"));
+        assertEquals(404, evento.getInt("estado"));
+        assertEquals("GET /api/libros/7", evento.getString("solicitud"));
+    }
+}
@@ -0,0 +1,89 @@
+package com.um.biblioteca.jfr;
+
+import com.um.biblioteca.exception.PrestamoNoEncontradoException;
+import com.um.biblioteca.model.EstadoLibro;
+import com.um.biblioteca.model.EstadoUsuario;
+import com.um.biblioteca.model.Libro;
+import com.um.biblioteca.model.Prestamo;
+import com.um.biblioteca.model.Usuario;
+import com.um.biblioteca.repository.LibroRepository;
+import com.um.biblioteca.repository.UsuarioRepository;
+import com.um.biblioteca.repository.impl.LibroRepositoryImpl;
+import com.um.biblioteca.repository.impl.PrestamoRepositoryImpl;
+import com.um.biblioteca.repository.impl.UsuarioRepositoryImpl;
+import com.um.biblioteca.service.PrestamoService;
+import com.um.biblioteca.service.impl.LibroServiceImpl;
+import com.um.biblioteca.service.impl.PrestamoServiceImpl;
+import com.um.biblioteca.service.impl.UsuarioServiceImpl;
+import jdk.jfr.consumer.RecordedEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EventoPrestamoTest {
+
+    private PrestamoService prestamoService;
+    private Libro libro;
+    private Usuario usuario;
+
+    @BeforeEach
+    void setUp() {
+        LibroRepository libroRepository = new LibroRepositoryImpl();
+        UsuarioRepository usuarioRepository = new UsuarioRepositoryImpl();
+        prestamoService = new PrestamoServiceImpl(new PrestamoRepositoryImpl(),
+                new LibroServiceImpl(libroRepository), new UsuarioServiceImpl(usuarioRepository));
+        libro = libroRepository.save(new Libro(null, "1", "El principito", "Saint-Exupéry", EstadoLibro.DISPONIBLE));
+        usuario = usuarioRepository.save(new Usuario(null, "Ana", "ana@example.com", EstadoUsuario.ACTIVO));
+    }
+
+    @Test
+    void crearPrestamo_debeRegistrarLaCreacionConLosIds() throws Exception {
+        // Act
+        Prestamo[] creado = new Prestamo[1];
+        List<RecordedEvent> eventos = GrabacionJfr.grabar(EventoPrestamo.class,
+                () -> creado[0] = prestamoService.crearPrestamo(usuario.id(), libro.id(), null));
+
+        // Assert
+        assertEquals(1, eventos.size());
+        RecordedEvent evento = eventos.get(0);
+        assertEquals(EventoPrestamo.CREACION, evento.getString("operacion"));
+        assertEquals(creado[0].id(), evento.getLong("prestamoId"));
+        assertEquals(libro.id(), evento.getLong("libroId"));
+        assertEquals(usuario.id(), evento.getLong("usuarioId"));
+        assertNull(evento.getString("excepcion"));
+    }
+
+    @Test
+    void extenderYFinalizarPrestamo_debenRegistrarUnEventoCadaUno() throws Exception {
+        // Arrange
+        Prestamo prestamo = prestamoService.crearPrestamo(usuario.id(), libro.id(), null);
+
+        // Act
+        List<RecordedEvent> eventos = GrabacionJfr.grabar(EventoPrestamo.class, () -> {
+            prestamoService.extenderPrestamo(prestamo.id(), LocalDate.now().plusDays(30));
+            prestamoService.finalizarPrestamo(prestamo.id());
+        });
+
+        // Assert
+        assertEquals(List.of(EventoPrestamo.EXTENSION, EventoPrestamo.DEVOLUCION),
+                eventos.stream().map(evento -> evento.getString("operacion")).toList());
+        assertTrue(eventos.stream().allMatch(evento -> evento.getLong("libroId") == libro.id()));
+    }
+
+    @Test
+    void finalizarPrestamo_cuandoNoExiste_debeRegistrarLaExcepcion() throws Exception {
+        // Act
+        List<RecordedEvent> eventos = GrabacionJfr.grabar(EventoPrestamo.class,
+                () -> assertThrows(PrestamoNoEncontradoException.class, () -> prestamoService.finalizarPrestamo(99L)));
+
+        // Assert
+        assertEquals(1, eventos.size());
+        assertEquals(EventoPrestamo.DEVOLUCION, eventos.get(0).getString("operacion"));
+        assertEquals(99L, eventos.get(0).getLong("prestamoId"));
+        assertEquals(PrestamoNoEncontradoException.class.getName(), eventos.get(0).getString("excepcion"));
+    }
+}
@@ -0,0 +1,35 @@
+package com.um.biblioteca.jfr;
+
+import jdk.jfr.Event;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Graba con JFR los eventos de un tipo que emite una acción, sin umbral de duración
+ */
+final class GrabacionJfr {
+
+    private GrabacionJfr() {
+    }
+
+    static List<RecordedEvent> grabar(Class<? extends Event> tipo, Runnable accion) throws IOException {
+        Path archivo = Files.createTempFile("biblioteca", ".jfr");
+        try (Recording grabacion = new Recording()) {
+            grabacion.enable(tipo).withThreshold(Duration.ZERO);
+            grabacion.start();
+            accion.run();
+            grabacion.stop();
+            grabacion.dump(archivo);
+            return RecordingFile.readAllEvents(archivo);
+        } finally {
+            Files.deleteIfExists(archivo);
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.um.biblioteca.jfr;
+
+import com.um.biblioteca.exception.DatosInvalidosException;
+import com.um.biblioteca.model.EstadoLibro;
+import com.um.biblioteca.model.Libro;
+import com.um.biblioteca.repository.LibroRepository;
+import com.um.biblioteca.repository.impl.LibroRepositoryImpl;
+import jdk.jfr.consumer.RecordedEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.framework.Advised;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InstrumentacionJfrTest {
+
+    private LibroRepository libroRepository;
+
+    @BeforeEach
+    void setUp() {
+        libroRepository = (LibroRepository) new InstrumentacionJfr().postProcessAfterInitialization(
+                new LibroRepositoryImpl(), "libroRepositoryImpl");
+        libroRepository.save(new Libro(null, "1", "El principito", "Saint-Exupéry", EstadoLibro.DISPONIBLE));
+        libroRepository.save(new Libro(null, "2", "El aleph", "Borges", EstadoLibro.PRESTADO));
+        libroRepository.save(new Libro(null, "3", "Rayuela", "Cortázar", EstadoLibro.DISPONIBLE));
+    }
+
+    @Test
+    void consulta_debeRegistrarLosRegistrosRecorridosYLosResultados() throws Exception {
+        // Act: la consulta corta verifica los tres títulos y devuelve dos libros
+        List<RecordedEvent> eventos = GrabacionJfr.grabar(EventoConsultaRepositorio.class,
+                () -> libroRepository.findByTituloContaining("p"));
+
+        // Assert
+        assertEquals(1, eventos.size());
+        RecordedEvent evento = eventos.get(0);
+        assertEquals("libros", evento.getString("repositorio"));
+        assertEquals("findByTituloContaining", evento.getString("metodo"));
+        assertEquals(2, evento.getLong("resultados"));
+        assertEquals(5, evento.getLong("registrosRecorridos"));
+        assertNull(evento.getString("excepcion"));
+    }
+
+    @Test
+    void findAll_debeRecorrerTodasLasEntidades() throws Exception {
+        // Act
+        List<RecordedEvent> eventos = GrabacionJfr.grabar(EventoConsultaRepositorio.class,
+                () -> libroRepository.findAll());
+
+        // Assert
+        assertEquals(3, eventos.get(0).getLong("resultados"));
+        assertEquals(3, eventos.get(0).getLong("registrosRecorridos"));
+    }
+
+    @Test
+    void consulta_cuandoLanzaExcepcion_debeRegistrarSuTipo() throws Exception {
+        // Act
+        List<RecordedEvent> eventos = GrabacionJfr.grabar(EventoConsultaRepositorio.class,
+                () -> assertThrows(DatosInvalidosException.class, () -> libroRepository.findAll(-1, 10)));
+
+        // Assert
+        assertEquals(1, eventos.size());
+        assertEquals(DatosInvalidosException.class.getName(), eventos.get(0).getString("excepcion"));
+    }
+
+    @Test
+    void consulta_sinGrabacionEnCurso_noDebeAlterarElResultado() {
+        // Act
+        List<Libro> libros = libroRepository.findByEstado(EstadoLibro.DISPONIBLE);
+
+        // Assert
+        assertEquals(2, libros.size());
+    }
+
+    @Test
+    void postProcessAfterInitialization_conBeanYaEnvuelto_debeAgregarseAlMismoProxy() {
+        // Act
+        Object resultado = new InstrumentacionJfr().postProcessAfterInitialization(libroRepository, "libroRepositoryImpl");
+
+        // Assert
+        assertSame(libroRepository, resultado);
+        assertEquals(2, ((Advised) resultado).getAdvisors().length);
+    }
+}
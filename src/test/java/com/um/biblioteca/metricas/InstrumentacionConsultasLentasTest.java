@@ -0,0 +1,110 @@
+package com.um.biblioteca.metricas;
+
+import com.um.biblioteca.model.EstadoLibro;
+import com.um.biblioteca.model.Libro;
+import com.um.biblioteca.repository.LibroRepository;
+import com.um.biblioteca.repository.impl.LibroRepositoryImpl;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class InstrumentacionConsultasLentasTest {
+
+    @Test
+    void repositorio_debeRegistrarLosRegistrosRecorridosYDevueltos() {
+        // Arrange
+        RegistroConsultasLentas registro = registro(0);
+        LibroRepository libroRepository = instrumentar(registro);
+        libroRepository.save(new Libro(null, "1", "El principito", "Saint-Exupéry", EstadoLibro.DISPONIBLE));
+        libroRepository.save(new Libro(null, "2", "Rayuela", "Cortázar", EstadoLibro.PRESTADO));
+
+        // Act
+        libroRepository.findByEstado(EstadoLibro.PRESTADO);
+
+        // Assert
+        ConsultaLenta consulta = registro.recientes().get(0);
+        assertEquals("libros", consulta.repositorio());
+        assertEquals("findByEstado", consulta.metodo());
+        assertEquals(1, consulta.registrosRecorridos());
+        assertEquals(1, consulta.resultados());
+    }
+
+    @Test
+    void repositorio_conLlamadasBajoElUmbral_soloDebeActualizarLosTotales() {
+        // Arrange
+        RegistroConsultasLentas registro = registro(60_000);
+        LibroRepository libroRepository = instrumentar(registro);
+        libroRepository.save(new Libro(null, "1", "El principito", "Saint-Exupéry", EstadoLibro.DISPONIBLE));
+
+        // Act
+        libroRepository.findAll();
+        libroRepository.findAll();
+
+        // Assert
+        assertTrue(registro.recientes().isEmpty());
+        List<RegistroConsultasLentas.ResumenMetodo> resumen = registro.resumen();
+        assertEquals(new RegistroConsultasLentas.ResumenMetodo("libros", "findAll", 2, 0, 2, 2), resumen.get(0));
+    }
+
+    @Test
+    void repositorio_conStream_debeRegistrarLaLlamadaAlCerrarlo() {
+        // Arrange
+        RegistroConsultasLentas registro = registro(0);
+        LibroRepository libroRepository = instrumentar(registro);
+        libroRepository.save(new Libro(null, "1", "El principito", "Saint-Exupéry", EstadoLibro.PRESTADO));
+        libroRepository.save(new Libro(null, "2", "Rayuela", "Cortázar", EstadoLibro.DISPONIBLE));
+        libroRepository.save(new Libro(null, "3", "Ficciones", "Borges", EstadoLibro.PRESTADO));
+
+        // Act
+        List<String> titulos;
+        try (Stream<Libro> prestados = libroRepository.streamByEstado(EstadoLibro.PRESTADO)) {
+            assertTrue(registro.recientes().stream().noneMatch(consulta -> consulta.metodo().equals("streamByEstado")));
+            titulos = prestados.map(Libro::titulo).toList();
+        }
+
+        // Assert
+        assertEquals(List.of("El principito", "Ficciones"), titulos);
+        ConsultaLenta consulta = registro.recientes().get(0);
+        assertEquals("streamByEstado", consulta.metodo());
+        assertEquals(2, consulta.registrosRecorridos());
+        assertEquals(2, consulta.resultados());
+        assertNull(consulta.excepcion());
+    }
+
+    @Test
+    void postProcessAfterInitialization_conBeanQueNoEsServicioNiRepositorio_debeDevolverloSinCambios() {
+        // Arrange
+        Object bean = new Object();
+
+        // Act
+        Object resultado = new InstrumentacionConsultasLentas(proveedor(registro(0)))
+                .postProcessAfterInitialization(bean, "otro");
+
+        // Assert
+        assertSame(bean, resultado);
+    }
+
+    private static LibroRepository instrumentar(RegistroConsultasLentas registro) {
+        return (LibroRepository) new InstrumentacionConsultasLentas(proveedor(registro))
+                .postProcessAfterInitialization(new LibroRepositoryImpl(), "libroRepositoryImpl");
+    }
+
+    @SuppressWarnings("unchecked")
+    private static ObjectProvider<RegistroConsultasLentas> proveedor(RegistroConsultasLentas registro) {
+        ObjectProvider<RegistroConsultasLentas> proveedor = mock(ObjectProvider.class);
+        when(proveedor.getObject()).thenReturn(registro);
+        return proveedor;
+    }
+
+    private static RegistroConsultasLentas registro(long umbralMs) {
+        ConsultasLentasProperties propiedades = new ConsultasLentasProperties();
+        propiedades.setUmbralMs(umbralMs);
+        return new RegistroConsultasLentas(propiedades);
+    }
+}
@@ -0,0 +1,108 @@
+package com.um.biblioteca.metricas;
+
+import com.um.biblioteca.exception.LibroNoEncontradoException;
+import com.um.biblioteca.model.EstadoLibro;
+import com.um.biblioteca.model.Libro;
+import com.um.biblioteca.repository.LibroRepository;
+import com.um.biblioteca.repository.impl.LibroRepositoryImpl;
+import com.um.biblioteca.repository.persistencia.RepositorioPersistente;
+import com.um.biblioteca.service.LibroService;
+import com.um.biblioteca.service.impl.LibroServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class InstrumentacionMetricasTest {
+
+    private RegistroMetricas registro;
+    private InstrumentacionMetricas instrumentacion;
+    private LibroRepository libroRepository;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        registro = new RegistroMetricas();
+        ObjectProvider<RegistroMetricas> proveedor = mock(ObjectProvider.class);
+        when(proveedor.getObject()).thenReturn(registro);
+        instrumentacion = new InstrumentacionMetricas(proveedor);
+        libroRepository = (LibroRepository) instrumentacion.postProcessAfterInitialization(
+                new LibroRepositoryImpl(), "libroRepositoryImpl");
+    }
+
+    @Test
+    void repositorio_debeMedirCadaLlamadaASusMetodos() {
+        // Arrange
+        libroRepository.save(new Libro(null, "123", "El principito", "Saint-Exupéry", EstadoLibro.DISPONIBLE));
+
+        // Act
+        libroRepository.findByIsbn("123");
+        libroRepository.findByIsbn("456");
+
+        // Assert
+        String salida = registro.escribir();
+        assertTrue(salida.contains("biblioteca_metodo_seconds_count{clase=\"LibroRepositoryImpl\",metodo=\"findByIsbn\"} 2\n"));
+        assertTrue(salida.contains("biblioteca_metodo_seconds_count{clase=\"LibroRepositoryImpl\",metodo=\"save\"} 1\n"));
+    }
+
+    @Test
+    void repositorio_debeExponerSuTamanioYLasEstadisticasDeSusIndices() {
+        // Arrange
+        libroRepository.save(new Libro(null, "123", "El principito", "Saint-Exupéry", EstadoLibro.DISPONIBLE));
+
+        // Act
+        libroRepository.findByIsbn("123");
+        libroRepository.findByIsbn("456");
+
+        // Assert
+        String salida = registro.escribir();
+        assertTrue(salida.contains("biblioteca_repositorio_entidades{repositorio=\"libros\"} 1.0\n"));
+        assertTrue(salida.contains("biblioteca_indice_consultas_total{repositorio=\"libros\",indice=\"isbn\"} 2\n"));
+        assertTrue(salida.contains("biblioteca_indice_aciertos_total{repositorio=\"libros\",indice=\"isbn\"} 1\n"));
+    }
+
+    @Test
+    void servicio_cuandoElMetodoLanzaExcepcion_debeContarlaPorTipoYPropagarla() {
+        // Arrange
+        LibroService libroService = (LibroService) instrumentacion.postProcessAfterInitialization(
+                new LibroServiceImpl(libroRepository), "libroServiceImpl");
+
+        // Act
+        assertThrows(LibroNoEncontradoException.class, () -> libroService.buscarPorId(99L));
+
+        // Assert
+        String salida = registro.escribir();
+        assertTrue(salida.contains("biblioteca_metodo_errores_total{clase=\"LibroServiceImpl\",metodo=\"buscarPorId\","
+                + "excepcion=\"LibroNoEncontradoException\"} 1\n"));
+        assertTrue(salida.contains("biblioteca_metodo_seconds_count{clase=\"LibroServiceImpl\",metodo=\"buscarPorId\"} 1\n"));
+    }
+
+    @Test
+    void metodosDePersistencia_noDebenMedirse() {
+        // Arrange
+        @SuppressWarnings("unchecked")
+        RepositorioPersistente<Libro> persistente = (RepositorioPersistente<Libro>) libroRepository;
+
+        // Act
+        persistente.restaurar(1L, new Libro(1L, "123", "El principito", "Saint-Exupéry", EstadoLibro.DISPONIBLE));
+
+        // Assert
+        assertFalse(registro.escribir().contains("metodo=\"restaurar\""));
+        assertTrue(libroRepository.existsById(1L));
+    }
+
+    @Test
+    void postProcessAfterInitialization_conBeanQueNoEsServicioNiRepositorio_debeDevolverloSinCambios() {
+        // Arrange
+        Object bean = new Object();
+
+        // Act
+        Object resultado = instrumentacion.postProcessAfterInitialization(bean, "otro");
+
+        // Assert
+        assertSame(bean, resultado);
+    }
+}
@@ -0,0 +1,98 @@
+package com.um.biblioteca.metricas;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RegistroConsultasLentasTest {
+
+    private static final long LENTA = TimeUnit.MILLISECONDS.toNanos(20);
+    private static final long RAPIDA = TimeUnit.MILLISECONDS.toNanos(1);
+
+    @Test
+    void registrar_debeConservarSoloLasLlamadasQueAlcanzanElUmbral() {
+        // Arrange
+        RegistroConsultasLentas registro = registro(10, 8);
+        RegistroConsultasLentas.Metodo findAll = registro.metodo("libros", "findAll");
+
+        // Act
+        registro.registrar(findAll, RAPIDA, 3, List.of("a", "b", "c"), null);
+        registro.registrar(findAll, LENTA, 1000, List.of("a"), null);
+
+        // Assert
+        List<ConsultaLenta> consultas = registro.recientes();
+        assertEquals(1, consultas.size());
+        assertEquals("libros", consultas.get(0).repositorio());
+        assertEquals("findAll", consultas.get(0).metodo());
+        assertEquals(20.0, consultas.get(0).duracionMs(), 1e-9);
+        assertEquals(1000, consultas.get(0).registrosRecorridos());
+        assertEquals(1, consultas.get(0).resultados());
+    }
+
+    @Test
+    void recientes_cuandoSeLlenaLaCapacidad_debeDescartarLasMasAntiguas() {
+        // Arrange
+        RegistroConsultasLentas registro = registro(0, 3);
+        RegistroConsultasLentas.Metodo findById = registro.metodo("libros", "findById");
+
+        // Act
+        for (long recorridos = 1; recorridos <= 5; recorridos++) {
+            registro.registrar(findById, RAPIDA, recorridos, null, null);
+        }
+
+        // Assert: quedan las tres últimas, de la más reciente a la más antigua
+        assertEquals(List.of(5L, 4L, 3L), registro.recientes().stream()
+                .map(ConsultaLenta::registrosRecorridos).toList());
+    }
+
+    @Test
+    void registrar_conExcepcion_debeGuardarSuTipoSinResultados() {
+        // Arrange
+        RegistroConsultasLentas registro = registro(0, 4);
+
+        // Act
+        registro.registrar(registro.metodo("libros", "save"), RAPIDA, 0, null, new IllegalStateException());
+
+        // Assert
+        ConsultaLenta consulta = registro.recientes().get(0);
+        assertEquals(IllegalStateException.class.getName(), consulta.excepcion());
+        assertEquals(0, consulta.resultados());
+    }
+
+    @Test
+    void resumen_debeOrdenarLosMetodosPorRegistrosRecorridos() {
+        // Arrange
+        RegistroConsultasLentas registro = registro(10, 4);
+        RegistroConsultasLentas.Metodo porIsbn = registro.metodo("libros", "findByIsbn");
+        RegistroConsultasLentas.Metodo todos = registro.metodo("libros", "findAll");
+        registro.metodo("libros", "count");
+
+        // Act
+        registro.registrar(porIsbn, RAPIDA, 1, Optional.of("a"), null);
+        registro.registrar(todos, LENTA, 500, List.of("a", "b"), null);
+        registro.registrar(todos, RAPIDA, 500, List.of("a", "b"), null);
+
+        // Assert
+        assertEquals(List.of(
+                new RegistroConsultasLentas.ResumenMetodo("libros", "findAll", 2, 1, 1000, 4),
+                new RegistroConsultasLentas.ResumenMetodo("libros", "findByIsbn", 1, 0, 1, 1)),
+                registro.resumen());
+    }
+
+    @Test
+    void constructor_conCapacidadNoPositiva_debeLanzarExcepcion() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> registro(10, 0));
+    }
+
+    private static RegistroConsultasLentas registro(long umbralMs, int capacidad) {
+        ConsultasLentasProperties propiedades = new ConsultasLentasProperties();
+        propiedades.setUmbralMs(umbralMs);
+        propiedades.setCapacidad(capacidad);
+        return new RegistroConsultasLentas(propiedades);
+    }
+}
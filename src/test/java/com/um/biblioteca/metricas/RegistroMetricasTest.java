@@ -0,0 +1,100 @@
+package com.um.biblioteca.metricas;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RegistroMetricasTest {
+
+    private RegistroMetricas registro;
+
+    @BeforeEach
+    void setUp() {
+        registro = new RegistroMetricas();
+    }
+
+    @Test
+    void contador_conLasMismasEtiquetas_debeDevolverLaMismaSerie() {
+        // Act
+        registro.contador("errores_total", "Errores", "tipo", "a").increment();
+        registro.contador("errores_total", "Errores", "tipo", "a").increment();
+        registro.contador("errores_total", "Errores", "tipo", "b").increment();
+
+        // Assert
+        assertEquals("""
+                # HELP errores_total Errores
+                # TYPE errores_total counter
+                errores_total{tipo="a"} 2
+                errores_total{tipo="b"} 1
+                """, registro.escribir());
+    }
+
+    @Test
+    void escribir_debeOrdenarLasFamiliasPorNombreYLeerLosMedidoresAlExponer() {
+        // Arrange
+        long[] valor = {3};
+        registro.medidor("tamanio", "Tamaño", () -> valor[0]);
+        registro.contadorFuncion("consultas_total", "Consultas", () -> 7);
+
+        // Act
+        valor[0] = 5;
+        String salida = registro.escribir();
+
+        // Assert
+        assertEquals("""
+                # HELP consultas_total Consultas
+                # TYPE consultas_total counter
+                consultas_total 7
+                # HELP tamanio Tamaño
+                # TYPE tamanio gauge
+                tamanio 5.0
+                """, salida);
+    }
+
+    @Test
+    void medidor_conLasMismasEtiquetas_debeReemplazarLaSerie() {
+        // Act
+        registro.medidor("tamanio", "Tamaño", () -> 1, "repositorio", "libros");
+        registro.medidor("tamanio", "Tamaño", () -> 2, "repositorio", "libros");
+
+        // Assert
+        assertTrue(registro.escribir().endsWith("tamanio{repositorio=\"libros\"} 2.0\n"));
+    }
+
+    @Test
+    void temporizador_debeExponerseComoHistograma() {
+        // Act
+        registro.temporizador("duracion_seconds", "Duración", "metodo", "save").registrar(1_000);
+
+        // Assert
+        String salida = registro.escribir();
+        assertTrue(salida.startsWith("# HELP duracion_seconds Duración\n# TYPE duracion_seconds histogram\n"));
+        assertTrue(salida.contains("duracion_seconds_bucket{metodo=\"save\",le=\"+Inf\"} 1\n"));
+        assertTrue(salida.contains("duracion_seconds_count{metodo=\"save\"} 1\n"));
+    }
+
+    @Test
+    void contador_conNombreRegistradoComoOtroTipo_debeLanzarExcepcion() {
+        // Arrange
+        registro.medidor("tamanio", "Tamaño", () -> 1);
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> registro.contador("tamanio", "Tamaño"));
+    }
+
+    @Test
+    void etiquetas_debeEscaparComillasBarrasYSaltosDeLinea() {
+        // Act
+        String etiquetas = RegistroMetricas.etiquetas("a", "x\"y", "b", "c\\d\ne");
+
+        // Assert
+        assertEquals("a=\"x\\\"y\",b=\"c\\\\d\\ne\"", etiquetas);
+    }
+
+    @Test
+    void etiquetas_conCantidadImpar_debeLanzarExcepcion() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> RegistroMetricas.etiquetas("a"));
+    }
+}
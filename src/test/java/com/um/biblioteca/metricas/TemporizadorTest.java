@@ -0,0 +1,66 @@
+package com.um.biblioteca.metricas;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TemporizadorTest {
+
+    @Test
+    void registrar_debeUbicarCadaDuracionEnLaPrimeraCubetaQueLaContiene() {
+        // Arrange
+        Temporizador temporizador = new Temporizador();
+
+        // Act: 1 µs, 3 µs (cubeta de 4 µs), 4 µs y un minuto (desborde)
+        temporizador.registrar(1_000);
+        temporizador.registrar(3_000);
+        temporizador.registrar(4_000);
+        temporizador.registrar(TimeUnit.MINUTES.toNanos(1));
+
+        // Assert
+        String salida = escribir(temporizador);
+        assertTrue(salida.contains("t_bucket{le=\"1.0E-6\"} 1\n"));
+        assertTrue(salida.contains("t_bucket{le=\"2.0E-6\"} 1\n"));
+        assertTrue(salida.contains("t_bucket{le=\"4.0E-6\"} 3\n"));
+        assertTrue(salida.contains("t_bucket{le=\"16.777216\"} 3\n"));
+        assertTrue(salida.contains("t_bucket{le=\"+Inf\"} 4\n"));
+        assertTrue(salida.contains("t_count 4\n"));
+        assertEquals(4, temporizador.cantidad());
+    }
+
+    @Test
+    void registrar_debeAcumularLaSumaEnSegundos() {
+        // Arrange
+        Temporizador temporizador = new Temporizador();
+
+        // Act
+        temporizador.registrar(TimeUnit.MILLISECONDS.toNanos(250));
+        temporizador.registrar(TimeUnit.MILLISECONDS.toNanos(750));
+
+        // Assert
+        assertEquals(1.0, temporizador.sumaSegundos(), 1e-9);
+    }
+
+    @Test
+    void escribir_conEtiquetas_debeAgregarElLimiteAlFinal() {
+        // Arrange
+        Temporizador temporizador = new Temporizador();
+        temporizador.registrar(500);
+
+        // Act
+        StringBuilder salida = new StringBuilder();
+        temporizador.escribir("t", "metodo=\"save\"", salida);
+
+        // Assert
+        assertTrue(salida.toString().startsWith("t_bucket{metodo=\"save\",le=\"1.0E-6\"} 1\n"));
+        assertTrue(salida.toString().endsWith("t_count{metodo=\"save\"} 1\n"));
+    }
+
+    private static String escribir(Temporizador temporizador) {
+        StringBuilder salida = new StringBuilder();
+        temporizador.escribir("t", "", salida);
+        return salida.toString();
+    }
+}
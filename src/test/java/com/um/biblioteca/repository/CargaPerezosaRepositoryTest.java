@@ -0,0 +1,166 @@
+package com.um.biblioteca.repository;
+
+import com.um.biblioteca.exception.PersistenciaException;
+import com.um.biblioteca.model.EstadoLibro;
+import com.um.biblioteca.model.Libro;
+import com.um.biblioteca.repository.impl.LibroRepositoryImpl;
+import com.um.biblioteca.repository.persistencia.Codificadores;
+import com.um.biblioteca.repository.persistencia.FuentePerezosa;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CargaPerezosaRepositoryTest {
+
+    private LibroRepositoryImpl libroRepository;
+    private FuenteEnMemoria fuente;
+
+    @BeforeEach
+    void setUp() {
+        libroRepository = new LibroRepositoryImpl();
+        fuente = new FuenteEnMemoria(
+                new Libro(1L, "111", "Rayuela", "Cortázar"),
+                new Libro(5L, "555", "Ficciones", "Borges"),
+                new Libro(9L, "999", "Aleph", "Borges"));
+        libroRepository.cargarPerezosamente(fuente);
+    }
+
+    @Test
+    void findById_debeMaterializarSoloLaEntidadBuscada() {
+        // Act
+        Libro libro = libroRepository.findById(5L).orElseThrow();
+
+        // Assert
+        assertEquals("Ficciones", libro.titulo());
+        assertSame(libro, libroRepository.findById(5L).orElseThrow());
+        assertEquals(1, fuente.materializadas.get());
+        assertFalse(libroRepository.findById(4L).isPresent());
+    }
+
+    @Test
+    void compareAndSetEstado_antesDeCompletarLaCarga_debeMaterializarYModificarLaEntidad() {
+        // Act
+        boolean cambiado = libroRepository.compareAndSetEstado(1L, EstadoLibro.DISPONIBLE, EstadoLibro.PRESTADO);
+
+        // Assert
+        assertTrue(cambiado);
+        assertEquals(EstadoLibro.PRESTADO, libroRepository.findById(1L).orElseThrow().estado());
+    }
+
+    @Test
+    void completarCarga_debeRespetarLoRestauradoYDescartadoDespues() {
+        // Arrange
+        libroRepository.restaurar(1L, new Libro(1L, "111", "Rayuela (2da ed.)", "Cortázar"));
+        libroRepository.descartar(9L);
+
+        // Act
+        libroRepository.completarCarga();
+
+        // Assert
+        assertEquals(2, libroRepository.count());
+        assertEquals("Rayuela (2da ed.)", libroRepository.findById(1L).orElseThrow().titulo());
+        assertFalse(libroRepository.existsById(9L));
+        assertEquals(List.of(5L), libroRepository.findByAutorContaining("Borges").stream().map(Libro::id).toList());
+        assertEquals(1, fuente.materializadas.get());
+    }
+
+    @Test
+    void save_antesDeCompletarLaCarga_debeEsperarlaYContinuarLaSecuencia() throws Exception {
+        // Act
+        CompletableFuture<Libro> alta = CompletableFuture.supplyAsync(
+                () -> libroRepository.save(new Libro(null, "777", "Nuevo", "Autor")));
+        Thread.sleep(50);
+        boolean terminoAntes = alta.isDone();
+        libroRepository.completarCarga();
+        Libro nuevo = alta.get(5, TimeUnit.SECONDS);
+
+        // Assert
+        assertFalse(terminoAntes);
+        assertEquals(10L, nuevo.id());
+        assertEquals(4, libroRepository.count());
+    }
+
+    @Test
+    void completarCarga_conEntidadIlegible_debeRegistrarElErrorYCargarLasDemas() {
+        // Arrange
+        fuente.datos[1] = new byte[] {1, 2, 3};
+
+        // Act
+        libroRepository.completarCarga();
+
+        // Assert
+        PersistenciaException error = libroRepository.errorDeCarga();
+        assertNotNull(error);
+        assertTrue(error.getMessage().contains("entidad 5"));
+        assertEquals(2, libroRepository.count());
+        assertTrue(libroRepository.existsById(1L));
+        assertTrue(libroRepository.existsById(9L));
+    }
+
+    @Test
+    void findById_conEntidadIlegible_debeFallarEnLugarDeOmitirla() {
+        // Arrange
+        fuente.datos[1] = new byte[] {1, 2, 3};
+
+        // Act & Assert
+        assertThrows(PersistenciaException.class, () -> libroRepository.findById(5L));
+        assertNotNull(libroRepository.errorDeCarga());
+        assertEquals("Rayuela", libroRepository.findById(1L).orElseThrow().titulo());
+    }
+
+    @Test
+    void completarCarga_sinErrores_noDebeRegistrarError() {
+        // Act
+        libroRepository.completarCarga();
+
+        // Assert
+        assertNull(libroRepository.errorDeCarga());
+    }
+
+    /**
+     * Fuente perezosa sobre entidades codificadas en memoria que cuenta las materializaciones
+     */
+    private static class FuenteEnMemoria implements FuentePerezosa<Libro> {
+        private final long[] ids;
+        private final byte[][] datos;
+        private final AtomicInteger materializadas = new AtomicInteger();
+
+        FuenteEnMemoria(Libro... libros) {
+            ids = Arrays.stream(libros).mapToLong(Libro::id).toArray();
+            datos = Arrays.stream(libros).map(Codificadores.LIBRO::codificar).toArray(byte[][]::new);
+        }
+
+        @Override
+        public int cantidad() {
+            return ids.length;
+        }
+
+        @Override
+        public long id(int posicion) {
+            return ids[posicion];
+        }
+
+        @Override
+        public int posicion(long id) {
+            int posicion = Arrays.binarySearch(ids, id);
+            return posicion >= 0 ? posicion : -1;
+        }
+
+        @Override
+        public Libro materializar(int posicion) {
+            materializadas.incrementAndGet();
+            try {
+                return Codificadores.LIBRO.decodificar(datos[posicion]);
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,212 @@
+package com.um.biblioteca.repository;
+
+import com.um.biblioteca.exception.ConflictoDeVersionException;
+import com.um.biblioteca.model.EstadoLibro;
+import com.um.biblioteca.model.Libro;
+import com.um.biblioteca.model.Prestamo;
+import com.um.biblioteca.model.Usuario;
+import com.um.biblioteca.repository.impl.LibroRepositoryImpl;
+import com.um.biblioteca.repository.impl.PrestamoRepositoryImpl;
+import com.um.biblioteca.repository.impl.UsuarioRepositoryImpl;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConcurrenciaRepositoryTest {
+
+    private static final int ESCRITORES = 64;
+    private static final int OPERACIONES_POR_ESCRITOR = 500;
+
+    @Test
+    void save_conEscritoresConcurrentes_noDebePerderLibrosNiRepetirIds() throws Exception {
+        // Arrange
+        LibroRepositoryImpl libroRepository = new LibroRepositoryImpl();
+
+        // Act
+        List<Long> ids = ejecutarConcurrentemente(escritor -> {
+            List<Long> generados = new ArrayList<>();
+            for (int i = 0; i < OPERACIONES_POR_ESCRITOR; i++) {
+                Libro libro = new Libro(null, escritor + "-" + i, "Título " + i, "Autor " + escritor);
+                generados.add(libroRepository.save(libro).id());
+            }
+            return generados;
+        });
+
+        // Assert
+        assertEquals(ESCRITORES * OPERACIONES_POR_ESCRITOR, ids.size());
+        assertEquals(ids.size(), new HashSet<>(ids).size());
+        assertEquals(ids.size(), libroRepository.findAll().size());
+    }
+
+    @Test
+    void save_conEscritoresConcurrentes_noDebePerderUsuarios() throws Exception {
+        // Arrange
+        UsuarioRepositoryImpl usuarioRepository = new UsuarioRepositoryImpl();
+
+        // Act
+        List<Long> ids = ejecutarConcurrentemente(escritor -> {
+            List<Long> generados = new ArrayList<>();
+            for (int i = 0; i < OPERACIONES_POR_ESCRITOR; i++) {
+                Usuario usuario = new Usuario(null, "Usuario " + i, escritor + "-" + i + "@example.com");
+                generados.add(usuarioRepository.save(usuario).id());
+            }
+            return generados;
+        });
+
+        // Assert
+        assertEquals(ids.size(), new HashSet<>(ids).size());
+        assertEquals(ESCRITORES * OPERACIONES_POR_ESCRITOR, usuarioRepository.findAll().size());
+    }
+
+    @Test
+    void saveYDelete_conEscritoresConcurrentes_debenQuedarSoloLosPrestamosNoEliminados() throws Exception {
+        // Arrange
+        PrestamoRepositoryImpl prestamoRepository = new PrestamoRepositoryImpl();
+
+        // Act: cada escritor guarda préstamos y elimina uno de cada dos
+        List<Long> sobrevivientes = ejecutarConcurrentemente(escritor -> {
+            List<Long> conservados = new ArrayList<>();
+            for (int i = 0; i < OPERACIONES_POR_ESCRITOR; i++) {
+                Prestamo prestamo = prestamoRepository.save(new Prestamo(null, null, null, LocalDate.now(), null, null));
+                if (i % 2 == 0) {
+                    prestamoRepository.deleteById(prestamo.id());
+                } else {
+                    conservados.add(prestamo.id());
+                }
+            }
+            return conservados;
+        });
+
+        // Assert
+        assertEquals(ESCRITORES * OPERACIONES_POR_ESCRITOR / 2, prestamoRepository.findAll().size());
+        for (Long id : sobrevivientes) {
+            assertTrue(prestamoRepository.existsById(id));
+        }
+    }
+
+    @Test
+    void save_conIdExplicito_noDebeSerReutilizadoPorLaSecuencia() {
+        // Arrange
+        LibroRepositoryImpl libroRepository = new LibroRepositoryImpl();
+        libroRepository.save(new Libro(10L, "111", "Existente", "Autor"));
+
+        // Act
+        Libro nuevo = libroRepository.save(new Libro(null, "222", "Nuevo", "Autor"));
+
+        // Assert
+        assertEquals(11L, nuevo.id());
+        assertEquals(2, libroRepository.findAll().size());
+    }
+
+    @Test
+    void compareAndSetEstado_conSolicitudesConcurrentesSobreElMismoLibro_debeGanarSoloUna() throws Exception {
+        // Arrange
+        LibroRepositoryImpl libroRepository = new LibroRepositoryImpl();
+        Libro libro = libroRepository.save(new Libro(null, "111", "Único ejemplar", "Autor"));
+
+        // Act: todos los escritores intentan prestar el mismo libro a la vez
+        List<Long> ganadores = ejecutarConcurrentemente(escritor ->
+                libroRepository.compareAndSetEstado(libro.id(), EstadoLibro.DISPONIBLE, EstadoLibro.PRESTADO)
+                        ? List.of((long) escritor) : List.of());
+
+        // Assert
+        assertEquals(1, ganadores.size());
+        assertEquals(EstadoLibro.PRESTADO, libroRepository.findById(libro.id()).orElseThrow().estado());
+        assertEquals(1, libroRepository.findByEstado(EstadoLibro.PRESTADO).size());
+        assertTrue(libroRepository.findByEstado(EstadoLibro.DISPONIBLE).isEmpty());
+    }
+
+    @Test
+    void compareAndSetEstado_conPrestamosYDevolucionesConcurrentes_debeAlternarSinPerderTransiciones() throws Exception {
+        // Arrange
+        LibroRepositoryImpl libroRepository = new LibroRepositoryImpl();
+        Libro libro = libroRepository.save(new Libro(null, "111", "Único ejemplar", "Autor"));
+
+        // Act: cada préstamo exitoso es seguido por su devolución
+        List<Long> prestamos = ejecutarConcurrentemente(escritor -> {
+            List<Long> exitosos = new ArrayList<>();
+            for (int i = 0; i < OPERACIONES_POR_ESCRITOR; i++) {
+                if (libroRepository.compareAndSetEstado(libro.id(), EstadoLibro.DISPONIBLE, EstadoLibro.PRESTADO)) {
+                    exitosos.add((long) i);
+                    assertTrue(libroRepository.compareAndSetEstado(
+                            libro.id(), EstadoLibro.PRESTADO, EstadoLibro.DISPONIBLE));
+                }
+            }
+            return exitosos;
+        });
+
+        // Assert
+        assertFalse(prestamos.isEmpty());
+        assertEquals(EstadoLibro.DISPONIBLE, libroRepository.findById(libro.id()).orElseThrow().estado());
+    }
+
+    @Test
+    void save_conVersionYReintentos_noDebePerderActualizacionesConcurrentes() throws Exception {
+        // Arrange
+        UsuarioRepositoryImpl usuarioRepository = new UsuarioRepositoryImpl();
+        Usuario usuario = usuarioRepository.save(new Usuario(null, "0", "contador@example.com"));
+        int incrementosPorEscritor = 50;
+
+        // Act: cada escritor lee, incrementa el nombre sobre una copia y reintenta si hubo conflicto
+        ejecutarConcurrentemente(escritor -> {
+            for (int i = 0; i < incrementosPorEscritor; i++) {
+                while (true) {
+                    Usuario leido = usuarioRepository.findById(usuario.id()).orElseThrow();
+                    Usuario copia = leido.conNombre(String.valueOf(Integer.parseInt(leido.nombre()) + 1));
+                    try {
+                        usuarioRepository.save(copia);
+                        break;
+                    } catch (ConflictoDeVersionException e) {
+                        // Otro escritor ganó: volver a leer
+                    }
+                }
+            }
+            return List.of();
+        });
+
+        // Assert
+        Usuario resultado = usuarioRepository.findById(usuario.id()).orElseThrow();
+        assertEquals(String.valueOf(ESCRITORES * incrementosPorEscritor), resultado.nombre());
+        assertEquals(1L + ESCRITORES * incrementosPorEscritor, resultado.version());
+    }
+
+    private interface Escritor {
+        List<Long> ejecutar(int escritor) throws Exception;
+    }
+
+    private static List<Long> ejecutarConcurrentemente(Escritor escritor) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(ESCRITORES);
+        CountDownLatch inicio = new CountDownLatch(1);
+        try {
+            List<Future<List<Long>>> resultados = new ArrayList<>();
+            for (int i = 0; i < ESCRITORES; i++) {
+                int numero = i;
+                Callable<List<Long>> tarea = () -> {
+                    inicio.await();
+                    return escritor.ejecutar(numero);
+                };
+                resultados.add(executor.submit(tarea));
+            }
+            inicio.countDown();
+
+            List<Long> ids = new ArrayList<>();
+            for (Future<List<Long>> resultado : resultados) {
+                ids.addAll(resultado.get(30, TimeUnit.SECONDS));
+            }
+            return ids;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
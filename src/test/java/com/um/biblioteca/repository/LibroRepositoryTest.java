@@ -1,13 +1,23 @@
 package com.um.biblioteca.repository;
 
+import com.um.biblioteca.exception.ConflictoDeVersionException;
+import com.um.biblioteca.exception.DatosInvalidosException;
+import com.um.biblioteca.exception.PersistenciaException;
+import com.um.biblioteca.exception.RecursoDuplicadoException;
 import com.um.biblioteca.model.EstadoLibro;
 import com.um.biblioteca.model.Libro;
 import com.um.biblioteca.repository.impl.LibroRepositoryImpl;
+import com.um.biblioteca.repository.persistencia.RegistroCambios;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -21,66 +31,51 @@ class LibroRepositoryTest {
     void setUp() {
         libroRepository = new LibroRepositoryImpl();
         
-        libro1 = new Libro();
-        libro1.setIsbn("123456789");
-        libro1.setTitulo("El principito");
-        libro1.setAutor("Antoine de Saint-Exupéry");
-        libro1.setEstado(EstadoLibro.DISPONIBLE);
-        
-        libro2 = new Libro();
-        libro2.setIsbn("987654321");
-        libro2.setTitulo("Cien años de soledad");
-        libro2.setAutor("Gabriel García Márquez");
-        libro2.setEstado(EstadoLibro.DISPONIBLE);
-        
-        libroRepository.save(libro1);
-        libroRepository.save(libro2);
+        libro1 = libroRepository.save(new Libro(null, "123456789", "El principito",
+                "Antoine de Saint-Exupéry", EstadoLibro.DISPONIBLE));
+        libro2 = libroRepository.save(new Libro(null, "987654321", "Cien años de soledad",
+                "Gabriel García Márquez", EstadoLibro.DISPONIBLE));
     }
     
     @Test
     void save_debePersistirNuevoLibro() {
         // Arrange
-        Libro nuevoLibro = new Libro();
-        nuevoLibro.setIsbn("111222333");
-        nuevoLibro.setTitulo("Nuevo libro");
-        nuevoLibro.setAutor("Autor Nuevo");
-        nuevoLibro.setEstado(EstadoLibro.DISPONIBLE);
+        Libro nuevoLibro = new Libro(null, "111222333", "Nuevo libro", "Autor Nuevo", EstadoLibro.DISPONIBLE);
         
         // Act
         Libro result = libroRepository.save(nuevoLibro);
         
         // Assert
-        assertNotNull(result.getId());
-        assertEquals("Nuevo libro", result.getTitulo());
+        assertNotNull(result.id());
+        assertEquals("Nuevo libro", result.titulo());
         assertEquals(3, libroRepository.findAll().size());
     }
     
     @Test
     void save_debeActualizarLibroExistente() {
         // Arrange
-        Long id = libro1.getId();
-        libro1.setTitulo("Título actualizado");
+        Long id = libro1.id();
         
         // Act
-        Libro result = libroRepository.save(libro1);
+        Libro result = libroRepository.save(libro1.conTitulo("Título actualizado"));
         
         // Assert
-        assertEquals(id, result.getId());
-        assertEquals("Título actualizado", result.getTitulo());
+        assertEquals(id, result.id());
+        assertEquals("Título actualizado", result.titulo());
         assertEquals(2, libroRepository.findAll().size());
     }
     
     @Test
     void findById_cuandoExisteId_debeRetornarLibro() {
         // Arrange
-        Long id = libro1.getId();
+        Long id = libro1.id();
         
         // Act
         Optional<Libro> result = libroRepository.findById(id);
         
         // Assert
         assertTrue(result.isPresent());
-        assertEquals("El principito", result.get().getTitulo());
+        assertEquals("El principito", result.get().titulo());
     }
     
     @Test
@@ -99,7 +94,7 @@ class LibroRepositoryTest {
         
         // Assert
         assertTrue(result.isPresent());
-        assertEquals("El principito", result.get().getTitulo());
+        assertEquals("El principito", result.get().titulo());
     }
     
     @Test
@@ -111,6 +106,154 @@ class LibroRepositoryTest {
         assertFalse(result.isPresent());
     }
     
+    @Test
+    void findByIsbn_cuandoCambiaIsbn_debeUsarElNuevoIsbn() {
+        // Arrange
+        Libro actualizado = new Libro(libro1.id(), "555666777", "El principito", "Antoine de Saint-Exupéry");
+        
+        // Act
+        libroRepository.save(actualizado);
+        
+        // Assert
+        assertFalse(libroRepository.findByIsbn("123456789").isPresent());
+        assertEquals(libro1.id(), libroRepository.findByIsbn("555666777").get().id());
+    }
+    
+    @Test
+    void save_cuandoIsbnPerteneceAOtroLibro_debeLanzarExcepcion() {
+        // Arrange
+        Libro duplicado = new Libro(null, "123456789", "Copia", null);
+        
+        // Act & Assert
+        assertThrows(RecursoDuplicadoException.class, () -> libroRepository.save(duplicado));
+        assertNull(duplicado.id());
+        assertEquals(2, libroRepository.findAll().size());
+        assertEquals("El principito", libroRepository.findByIsbn("123456789").get().titulo());
+    }
+    
+    @Test
+    void save_conIdFueraDeRango_debeRechazarloSinReservarElIsbn() {
+        for (long id : new long[] {-5L, 0L}) {
+            // Arrange
+            Libro fueraDeRango = new Libro(id, "444555666", "Fuera de rango", "Autor", EstadoLibro.DISPONIBLE);
+            
+            // Act & Assert
+            assertThrows(DatosInvalidosException.class, () -> libroRepository.save(fueraDeRango));
+            assertFalse(libroRepository.findByIsbn("444555666").isPresent());
+            assertTrue(libroRepository.findByTituloContaining("Fuera de rango").isEmpty());
+        }
+        
+        Libro guardado = libroRepository.save(new Libro(null, "444555666", "Válido", "Autor", EstadoLibro.DISPONIBLE));
+        assertEquals(3L, guardado.id());
+        assertEquals(guardado.id(), libroRepository.findByIsbn("444555666").get().id());
+    }
+    
+    @Test
+    void save_conIdMayorQueUnEntero_debeIndexarloEnTodosLosIndices() {
+        // Arrange
+        Libro grande = new Libro(3_000_000_000L, "444555666", "Id grande", "Autor", EstadoLibro.PRESTADO);
+        
+        // Act
+        libroRepository.save(grande);
+        
+        // Assert
+        assertEquals(3_000_000_000L, libroRepository.findByIsbn("444555666").get().id());
+        assertEquals(List.of(3_000_000_000L),
+                libroRepository.findByEstado(EstadoLibro.PRESTADO).stream().map(Libro::id).toList());
+        assertEquals(3_000_000_001L, libroRepository.save(
+                new Libro(null, "777888999", "Siguiente", "Autor", EstadoLibro.DISPONIBLE)).id());
+    }
+    
+    @Test
+    void save_cuandoFallaUnIndiceTardio_debeRestaurarLosIndicesAnteriores() {
+        // Arrange: el fallo llega después de actualizar todos los índices
+        LibroRepositoryImpl conFallo = new LibroRepositoryImpl() {
+            @Override
+            protected void indexar(Long id, Libro libro) {
+                super.indexar(id, libro);
+                if ("Rechazado".equals(libro.titulo())) {
+                    throw new IllegalStateException("Índice no disponible");
+                }
+            }
+        };
+        Libro existente = conFallo.save(new Libro(1L, "123456789", "El principito", "Antoine", EstadoLibro.DISPONIBLE));
+        
+        // Act & Assert
+        assertThrows(IllegalStateException.class, () -> conFallo.save(
+                new Libro(3L, "444555666", "Rechazado", "Autor", EstadoLibro.PRESTADO)));
+        assertThrows(IllegalStateException.class, () -> conFallo.save(
+                new Libro(1L, "123456789", "Rechazado", "Otro", EstadoLibro.PRESTADO, existente.version())));
+        assertFalse(conFallo.findByIsbn("444555666").isPresent());
+        assertTrue(conFallo.findByTituloContaining("Rechazado").isEmpty());
+        assertTrue(conFallo.findByAutorContaining("Autor").isEmpty());
+        assertTrue(conFallo.findByEstado(EstadoLibro.PRESTADO).isEmpty());
+        
+        Libro guardado = conFallo.save(new Libro(2L, "444555666", "Válido", "Autor", EstadoLibro.DISPONIBLE));
+        assertEquals(guardado.id(), conFallo.findByIsbn("444555666").get().id());
+        assertEquals(existente.id(), conFallo.findByIsbn("123456789").get().id());
+        assertEquals("El principito", conFallo.findByTituloContaining("principito").get(0).titulo());
+        assertEquals(2, conFallo.findByEstado(EstadoLibro.DISPONIBLE).size());
+    }
+    
+    @Test
+    void save_cuandoElRegistroRechazaElCambio_debeRestaurarLaEntidadAnterior() {
+        // Arrange
+        libroRepository.conectar(registroQueFalla());
+        
+        // Act & Assert
+        assertThrows(PersistenciaException.class, () -> libroRepository.save(libro1.conTitulo("Rechazado")));
+        assertThrows(PersistenciaException.class, () -> libroRepository.save(
+                new Libro(null, "444555666", "Nuevo rechazado", "Autor", EstadoLibro.DISPONIBLE)));
+        assertThrows(PersistenciaException.class, () -> libroRepository.deleteById(libro2.id()));
+        
+        assertEquals(libro1, libroRepository.findById(libro1.id()).get());
+        assertEquals("El principito", libroRepository.findById(libro1.id()).get().titulo());
+        assertEquals(libro1.version(), libroRepository.findById(libro1.id()).get().version());
+        assertTrue(libroRepository.findByTituloContaining("rechazado").isEmpty());
+        assertFalse(libroRepository.findByIsbn("444555666").isPresent());
+        assertEquals(libro2.id(), libroRepository.findByIsbn("987654321").get().id());
+        assertEquals(2, libroRepository.count());
+    }
+    
+    @Test
+    void save_cuandoElRegistroRechazaEscriturasEncadenadas_debeRestaurarLaUltimaConfirmada() throws Exception {
+        // Arrange
+        BlockingQueue<CompletableFuture<Void>> pendientes = new LinkedBlockingQueue<>();
+        libroRepository.conectar(registroPendiente(pendientes));
+        CompletableFuture<Libro> primera = CompletableFuture.supplyAsync(
+                () -> libroRepository.save(libro1.conTitulo("Primera").conVersion(null)));
+        CompletableFuture<Void> confirmacionPrimera = pendientes.poll(5, TimeUnit.SECONDS);
+        CompletableFuture<Libro> segunda = CompletableFuture.supplyAsync(
+                () -> libroRepository.save(libro1.conTitulo("Segunda").conVersion(null)));
+        CompletableFuture<Void> confirmacionSegunda = pendientes.poll(5, TimeUnit.SECONDS);
+        assertEquals("Segunda", libroRepository.findById(libro1.id()).get().titulo());
+        
+        // Act: la primera se deshace después de que la segunda la reemplazó
+        confirmacionPrimera.completeExceptionally(new PersistenciaException("Falla de escritura"));
+        assertThrows(CompletionException.class, primera::join);
+        confirmacionSegunda.completeExceptionally(new PersistenciaException("Falla de escritura"));
+        assertThrows(CompletionException.class, segunda::join);
+        
+        // Assert
+        assertEquals("El principito", libroRepository.findById(libro1.id()).get().titulo());
+        assertEquals(List.of(libro1.id()), libroRepository.findByTituloContaining("principito").stream()
+                .map(Libro::id).toList());
+        assertTrue(libroRepository.findByTituloContaining("Segunda").isEmpty());
+    }
+    
+    @Test
+    void deleteById_debeLiberarIsbn() {
+        // Arrange
+        libroRepository.deleteById(libro1.id());
+        Libro nuevo = new Libro(null, "123456789", "Reedición", "Autor");
+        
+        // Act
+        libroRepository.save(nuevo);
+        
+        // Assert
+        assertEquals("Reedición", libroRepository.findByIsbn("123456789").get().titulo());
+    }
+    
     @Test
     void findAll_debeRetornarTodosLosLibros() {
         // Act
@@ -121,30 +264,113 @@ class LibroRepositoryTest {
     }
     
     @Test
-    void findByTituloContainingIgnoreCase_debeRetornarLibrosConTitulo() {
+    void findAllPaginado_debeRetornarLaPaginaOrdenadaPorId() {
+        // Arrange
+        for (int i = 0; i < 3; i++) {
+            libroRepository.save(new Libro(null, "isbn-" + i, "Libro " + i, "Autor"));
+        }
+        
         // Act
-        List<Libro> result = libroRepository.findByTituloContainingIgnoreCase("prin");
+        Pagina<Libro> result = libroRepository.findAll(1, 2);
+        
+        // Assert
+        assertEquals(List.of(3L, 4L), result.getContenido().stream().map(Libro::id).toList());
+        assertEquals(5, result.getTotalElementos());
+        assertEquals(3, result.getTotalPaginas());
+    }
+    
+    @Test
+    void findAllAfter_debeRecorrerTodasLasPaginasConElCursor() {
+        // Arrange
+        for (int i = 0; i < 3; i++) {
+            libroRepository.save(new Libro(null, "isbn-" + i, "Libro " + i, "Autor"));
+        }
+        libroRepository.deleteById(3L);
+        
+        // Act
+        PaginaCursor<Libro> primera = libroRepository.findAllAfter(null, 2);
+        PaginaCursor<Libro> segunda = libroRepository.findAllAfter(primera.getSiguienteCursor(), 2);
+        
+        // Assert
+        assertEquals(List.of(libro1, libro2), primera.getContenido());
+        assertEquals(2L, primera.getSiguienteCursor());
+        assertEquals(List.of(4L, 5L), segunda.getContenido().stream().map(Libro::id).toList());
+        assertNull(segunda.getSiguienteCursor());
+    }
+    
+    @Test
+    void findAllAfter_conLimiteInvalido_debeLanzarExcepcion() {
+        // Act & Assert
+        assertThrows(DatosInvalidosException.class, () -> libroRepository.findAllAfter(null, 0));
+    }
+    
+    @Test
+    void findByTituloContaining_debeRetornarLibrosConTitulo() {
+        // Act
+        List<Libro> result = libroRepository.findByTituloContaining("prin");
         
         // Assert
         assertEquals(1, result.size());
-        assertEquals("El principito", result.get(0).getTitulo());
+        assertEquals("El principito", result.get(0).titulo());
     }
     
     @Test
-    void findByAutorContainingIgnoreCase_debeRetornarLibrosConAutor() {
+    void findByAutorContaining_conParteDelNombre_debeRetornarLibrosConAutor() {
         // Act
-        List<Libro> result = libroRepository.findByAutorContainingIgnoreCase("García");
+        List<Libro> result = libroRepository.findByAutorContaining("García");
         
         // Assert
         assertEquals(1, result.size());
-        assertEquals("Cien años de soledad", result.get(0).getTitulo());
+        assertEquals("Cien años de soledad", result.get(0).titulo());
+    }
+    
+    @Test
+    void findByTituloContaining_debeIgnorarMayusculas() {
+        // Act
+        List<Libro> result = libroRepository.findByTituloContaining("SOLEDAD");
+        
+        // Assert
+        assertEquals(1, result.size());
+        assertEquals("Cien años de soledad", result.get(0).titulo());
+    }
+    
+    @Test
+    void findByTituloContaining_cuandoCambiaTitulo_debeUsarElNuevoTitulo() {
+        // Arrange
+        libroRepository.save(libro1.conTitulo("Vuelo nocturno"));
+        
+        // Act & Assert
+        assertTrue(libroRepository.findByTituloContaining("principito").isEmpty());
+        assertEquals(1, libroRepository.findByTituloContaining("nocturno").size());
+    }
+    
+    @Test
+    void findByTituloContaining_debeIgnorarAcentos() {
+        // Arrange
+        libroRepository.save(new Libro(null, "444555666", "Teoría de la Información", "Claude Shannon"));
+        
+        // Act
+        List<Libro> result = libroRepository.findByTituloContaining("informacion");
+        
+        // Assert
+        assertEquals(1, result.size());
+        assertEquals("Teoría de la Información", result.get(0).titulo());
+    }
+    
+    @Test
+    void findByAutorContaining_debeRetornarLibrosDelAutor() {
+        // Act
+        List<Libro> result = libroRepository.findByAutorContaining("saint");
+        
+        // Assert
+        assertEquals(1, result.size());
+        assertEquals("El principito", result.get(0).titulo());
     }
     
     @Test
     void findByEstado_debeRetornarLibrosConEstado() {
         // Arrange
-        libro1.setEstado(EstadoLibro.PRESTADO);
-        libroRepository.save(libro1);
+        libroRepository.save(libro1.conEstado(EstadoLibro.PRESTADO));
         
         // Act
         List<Libro> disponibles = libroRepository.findByEstado(EstadoLibro.DISPONIBLE);
@@ -153,14 +379,127 @@ class LibroRepositoryTest {
         // Assert
         assertEquals(1, disponibles.size());
         assertEquals(1, prestados.size());
-        assertEquals("Cien años de soledad", disponibles.get(0).getTitulo());
-        assertEquals("El principito", prestados.get(0).getTitulo());
+        assertEquals("Cien años de soledad", disponibles.get(0).titulo());
+        assertEquals("El principito", prestados.get(0).titulo());
+    }
+    
+    @Test
+    void findByEstadoIn_debeRetornarLibrosEnCualquieraDeLosEstados() {
+        // Arrange
+        libroRepository.save(libro1.conEstado(EstadoLibro.EN_REPARACION));
+        libroRepository.save(new Libro(null, "444555666", "Rayuela", "Julio Cortázar", EstadoLibro.EXTRAVIADO));
+        
+        // Act
+        List<Libro> result = libroRepository.findByEstadoIn(List.of(EstadoLibro.DISPONIBLE, EstadoLibro.EN_REPARACION));
+        
+        // Assert
+        assertEquals(List.of(libro1, libro2), result);
+    }
+    
+    @Test
+    void findByTituloContainingAndEstado_debeCombinarAmbosFiltros() {
+        // Arrange
+        Libro otraEdicion = libroRepository.save(
+                new Libro(null, "444555666", "El principito (ilustrado)", "Antoine de Saint-Exupéry", EstadoLibro.PRESTADO));
+        
+        // Act
+        List<Libro> disponibles = libroRepository.findByTituloContainingAndEstado("principito", EstadoLibro.DISPONIBLE);
+        List<Libro> prestados = libroRepository.findByTituloContainingAndEstado("principito", EstadoLibro.PRESTADO);
+        
+        // Assert
+        assertEquals(List.of(libro1), disponibles);
+        assertEquals(List.of(otraEdicion), prestados);
+    }
+    
+    @Test
+    void deleteById_debeQuitarLibroDelIndiceDeEstados() {
+        // Act
+        libroRepository.deleteById(libro1.id());
+        
+        // Assert
+        assertEquals(List.of(libro2), libroRepository.findByEstado(EstadoLibro.DISPONIBLE));
+    }
+    
+    @Test
+    void save_debeAsignarVersionInicialEIncrementarlaEnCadaEscritura() {
+        // Arrange
+        Long versionInicial = libro1.version();
+        
+        // Act
+        libroRepository.save(libro1.conTitulo("El principito (edición anotada)"));
+        
+        // Assert
+        assertEquals(1L, versionInicial);
+        assertEquals(2L, libroRepository.findById(libro1.id()).orElseThrow().version());
+    }
+    
+    @Test
+    void save_conVersionDesactualizada_debeLanzarConflictoYConservarLaAlmacenada() {
+        // Arrange
+        Libro copia = libro1.conTitulo("Primera edición");
+        Libro copiaVieja = libro1.conTitulo("Edición perdida");
+        libroRepository.save(copia);
+        
+        // Act & Assert
+        assertThrows(ConflictoDeVersionException.class, () -> libroRepository.save(copiaVieja));
+        Libro almacenado = libroRepository.findById(libro1.id()).orElseThrow();
+        assertEquals("Primera edición", almacenado.titulo());
+        assertEquals(2L, almacenado.version());
+        assertTrue(libroRepository.findByTituloContaining("perdida").isEmpty());
+    }
+    
+    @Test
+    void save_sinVersion_debeReemplazarIncondicionalmente() {
+        // Arrange
+        Libro copia = new Libro(libro1.id(), libro1.isbn(), "Sin versión", libro1.autor());
+        
+        // Act
+        Libro result = libroRepository.save(copia);
+        
+        // Assert
+        assertEquals(2L, result.version());
+        assertEquals("Sin versión", libroRepository.findById(libro1.id()).orElseThrow().titulo());
+    }
+    
+    @Test
+    void compareAndSetEstado_cuandoEstadoEsElEsperado_debeCambiarloYReindexar() {
+        // Act
+        boolean result = libroRepository.compareAndSetEstado(libro1.id(), EstadoLibro.DISPONIBLE, EstadoLibro.PRESTADO);
+        
+        // Assert
+        assertTrue(result);
+        assertEquals(EstadoLibro.PRESTADO, libroRepository.findById(libro1.id()).orElseThrow().estado());
+        assertEquals(2L, libroRepository.findById(libro1.id()).orElseThrow().version());
+        assertEquals(List.of(libro1), libroRepository.findByEstado(EstadoLibro.PRESTADO));
+        assertEquals(List.of(libro2), libroRepository.findByEstado(EstadoLibro.DISPONIBLE));
+    }
+    
+    @Test
+    void compareAndSetEstado_cuandoEstadoNoEsElEsperado_noDebeModificarLibro() {
+        // Arrange
+        libroRepository.compareAndSetEstado(libro1.id(), EstadoLibro.DISPONIBLE, EstadoLibro.PRESTADO);
+        
+        // Act
+        boolean result = libroRepository.compareAndSetEstado(libro1.id(), EstadoLibro.DISPONIBLE, EstadoLibro.PRESTADO);
+        
+        // Assert
+        assertFalse(result);
+        assertEquals(EstadoLibro.PRESTADO, libroRepository.findById(libro1.id()).orElseThrow().estado());
+    }
+    
+    @Test
+    void compareAndSetEstado_cuandoNoExisteId_debeRetornarFalse() {
+        // Act
+        boolean result = libroRepository.compareAndSetEstado(999L, EstadoLibro.DISPONIBLE, EstadoLibro.PRESTADO);
+        
+        // Assert
+        assertFalse(result);
     }
     
     @Test
     void deleteById_debeEliminarLibro() {
         // Arrange
-        Long id = libro1.getId();
+        Long id = libro1.id();
         
         // Act
         libroRepository.deleteById(id);
@@ -173,7 +512,7 @@ class LibroRepositoryTest {
     @Test
     void existsById_cuandoExisteId_debeRetornarTrue() {
         // Arrange
-        Long id = libro1.getId();
+        Long id = libro1.id();
         
         // Act
         boolean result = libroRepository.existsById(id);
@@ -190,4 +529,34 @@ class LibroRepositoryTest {
         // Assert
         assertFalse(result);
     }
-} 
\ No newline at end of file
+    
+    private static RegistroCambios<Libro> registroQueFalla() {
+        return registroPendiente(null);
+    }
+    
+    /**
+     * Registro que deja cada cambio pendiente en la cola, o lo rechaza si no hay cola
+     */
+    private static RegistroCambios<Libro> registroPendiente(BlockingQueue<CompletableFuture<Void>> pendientes) {
+        return new RegistroCambios<>() {
+            @Override
+            public CompletableFuture<Void> guardado(Long id, Libro entidad) {
+                return pendiente();
+            }
+            
+            @Override
+            public CompletableFuture<Void> eliminado(Long id) {
+                return pendiente();
+            }
+            
+            private CompletableFuture<Void> pendiente() {
+                if (pendientes == null) {
+                    return CompletableFuture.failedFuture(new PersistenciaException("Falla de escritura"));
+                }
+                CompletableFuture<Void> confirmacion = new CompletableFuture<>();
+                pendientes.add(confirmacion);
+                return confirmacion;
+            }
+        };
+    }
+}
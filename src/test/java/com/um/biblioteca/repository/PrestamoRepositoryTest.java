@@ -0,0 +1,190 @@
+package com.um.biblioteca.repository;
+
+import com.um.biblioteca.model.Libro;
+import com.um.biblioteca.model.Prestamo;
+import com.um.biblioteca.model.Usuario;
+import com.um.biblioteca.repository.impl.LibroRepositoryImpl;
+import com.um.biblioteca.repository.impl.PrestamoRepositoryImpl;
+import com.um.biblioteca.repository.impl.ReferenciasEnRepositorios;
+import com.um.biblioteca.repository.impl.UsuarioRepositoryImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PrestamoRepositoryTest {
+    
+    private PrestamoRepositoryImpl prestamoRepository;
+    private Usuario usuario1;
+    private Usuario usuario2;
+    private Libro libro1;
+    private Libro libro2;
+    private Prestamo prestamo1;
+    private Prestamo prestamo2;
+    private Prestamo prestamo3;
+    
+    @BeforeEach
+    void setUp() {
+        prestamoRepository = new PrestamoRepositoryImpl();
+        
+        usuario1 = new Usuario(1L, "Juan Pérez", "juan@example.com");
+        usuario2 = new Usuario(2L, "María García", "maria@example.com");
+        libro1 = new Libro(1L, "123456789", "El principito", "Antoine de Saint-Exupéry");
+        libro2 = new Libro(2L, "987654321", "Cien años de soledad", "Gabriel García Márquez");
+        
+        LocalDate hoy = LocalDate.of(2024, 5, 10);
+        prestamo1 = prestamoRepository.save(new Prestamo(null, libro1, usuario1, hoy, hoy.plusDays(15)));
+        prestamo2 = prestamoRepository.save(new Prestamo(null, libro2, usuario1, hoy, hoy.plusDays(7)));
+        prestamo3 = prestamoRepository.save(new Prestamo(null, libro1, usuario2, hoy.minusDays(30), hoy.minusDays(15)));
+    }
+    
+    @Test
+    void findByUsuario_debeRetornarPrestamosDelUsuario() {
+        // Act
+        List<Prestamo> result = prestamoRepository.findByUsuario(usuario1);
+        
+        // Assert
+        assertEquals(List.of(prestamo1, prestamo2), result);
+    }
+    
+    @Test
+    void findByLibro_debeRetornarPrestamosDelLibro() {
+        // Act
+        List<Prestamo> result = prestamoRepository.findByLibro(libro1);
+        
+        // Assert
+        assertEquals(List.of(prestamo1, prestamo3), result);
+    }
+    
+    @Test
+    void findByUsuario_cuandoNoTienePrestamos_debeRetornarListaVacia() {
+        // Act
+        List<Prestamo> result = prestamoRepository.findByUsuario(new Usuario(99L, "Sin préstamos", "x@example.com"));
+        
+        // Assert
+        assertTrue(result.isEmpty());
+    }
+    
+    @Test
+    void save_cuandoSeReasignaUsuarioYLibro_debeActualizarIndices() {
+        // Arrange
+        prestamo2 = prestamo2.conUsuarioId(usuario2.id()).conLibroId(libro1.id());
+        
+        // Act
+        prestamoRepository.save(prestamo2);
+        
+        // Assert
+        assertEquals(List.of(prestamo1), prestamoRepository.findByUsuario(usuario1));
+        assertEquals(List.of(prestamo2, prestamo3), prestamoRepository.findByUsuario(usuario2));
+        assertTrue(prestamoRepository.findByLibro(libro2).isEmpty());
+    }
+    
+    @Test
+    void deleteById_debeQuitarPrestamoDeLosIndices() {
+        // Act
+        prestamoRepository.deleteById(prestamo1.id());
+        
+        // Assert
+        assertEquals(List.of(prestamo2), prestamoRepository.findByUsuario(usuario1));
+        assertEquals(List.of(prestamo3), prestamoRepository.findByLibro(libro1));
+    }
+    
+    @Test
+    void findByFechaPrestamo_debeRetornarPrestamosDeLaFecha() {
+        // Act
+        List<Prestamo> result = prestamoRepository.findByFechaPrestamo(LocalDate.of(2024, 5, 10));
+        
+        // Assert
+        assertEquals(List.of(prestamo1, prestamo2), result);
+    }
+    
+    @Test
+    void findByFechaDevolucionBefore_debeRetornarPrestamosOrdenadosPorFecha() {
+        // Act
+        List<Prestamo> result = prestamoRepository.findByFechaDevolucionBefore(LocalDate.of(2024, 5, 25));
+        
+        // Assert
+        assertEquals(List.of(prestamo3, prestamo2), result);
+    }
+    
+    @Test
+    void findByFechaPrestamoBetween_debeExcluirElLimiteSuperior() {
+        // Act
+        List<Prestamo> result = prestamoRepository.findByFechaPrestamoBetween(
+                LocalDate.of(2024, 4, 1), LocalDate.of(2024, 5, 10));
+        
+        // Assert
+        assertEquals(List.of(prestamo3), result);
+    }
+    
+    @Test
+    void findByFechaDevolucionBefore_conFechaFueraDelRangoDeDias_debeRetornarTodosLosPrestamos() {
+        // Arrange
+        prestamoRepository.save(new Prestamo(null, libro2, usuario2, LocalDate.of(2024, 5, 10), null));
+        
+        // Act
+        List<Prestamo> result = prestamoRepository.findByFechaDevolucionBefore(LocalDate.MAX);
+        
+        // Assert
+        assertEquals(List.of(prestamo3, prestamo2, prestamo1), result);
+        assertTrue(prestamoRepository.findByFechaPrestamoBetween(LocalDate.MIN, LocalDate.MAX).containsAll(result));
+    }
+    
+    @Test
+    void findByFechaDevolucionBetween_cuandoCambiaLaFecha_debeUsarLaNuevaFecha() {
+        // Arrange
+        prestamoRepository.save(prestamo1.conFechaDevolucion(LocalDate.of(2024, 6, 30)));
+        
+        // Act
+        List<Prestamo> result = prestamoRepository.findByFechaDevolucionBetween(
+                LocalDate.of(2024, 5, 1), LocalDate.of(2024, 6, 1));
+        
+        // Assert
+        assertEquals(List.of(prestamo2), result);
+    }
+    
+    @Test
+    void streamAll_debeRecorrerPrestamosOrdenadosPorId() {
+        // Act
+        List<Prestamo> result = prestamoRepository.streamAll().collect(Collectors.toList());
+        
+        // Assert
+        assertEquals(List.of(prestamo1, prestamo2, prestamo3), result);
+    }
+    
+    @Test
+    void streamByFechaPrestamoBetween_debeRecorrerSoloElRango() {
+        // Act
+        List<Prestamo> result = prestamoRepository.streamByFechaPrestamoBetween(
+                LocalDate.of(2024, 5, 1), LocalDate.of(2024, 6, 1)).collect(Collectors.toList());
+        
+        // Assert
+        assertEquals(List.of(prestamo1, prestamo2), result);
+    }
+    
+    @Test
+    void referencias_debenResolverLaVersionVigenteDelLibroYDelUsuario() {
+        // Arrange
+        LibroRepositoryImpl libroRepository = new LibroRepositoryImpl();
+        UsuarioRepositoryImpl usuarioRepository = new UsuarioRepositoryImpl();
+        ReferenciasEnRepositorios referencias = new ReferenciasEnRepositorios(libroRepository, usuarioRepository);
+        Libro libro = libroRepository.save(new Libro(null, "111", "Rayuela", "Cortázar"));
+        Usuario usuario = usuarioRepository.save(new Usuario(null, "Ana", "ana@example.com"));
+        Prestamo prestamo = prestamoRepository.save(new Prestamo(null, libro, usuario));
+        
+        // Act
+        libroRepository.save(libro.conTitulo("Rayuela (2da ed.)"));
+        usuarioRepository.deleteById(usuario.id());
+        Prestamo leido = prestamoRepository.findById(prestamo.id()).orElseThrow();
+        
+        // Assert
+        assertEquals(libro.id(), leido.libroId());
+        assertEquals("Rayuela (2da ed.)", referencias.libro(leido.libroId()).titulo());
+        assertEquals(usuario.id(), referencias.usuario(leido.usuarioId()).id());
+        assertNull(referencias.usuario(leido.usuarioId()).email());
+    }
+}
@@ -0,0 +1,143 @@
+package com.um.biblioteca.repository;
+
+import com.um.biblioteca.exception.DatosInvalidosException;
+import com.um.biblioteca.exception.RecursoDuplicadoException;
+import com.um.biblioteca.model.EstadoUsuario;
+import com.um.biblioteca.model.Usuario;
+import com.um.biblioteca.repository.impl.UsuarioRepositoryImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UsuarioRepositoryTest {
+    
+    private UsuarioRepositoryImpl usuarioRepository;
+    private Usuario usuario1;
+    private Usuario usuario2;
+    
+    @BeforeEach
+    void setUp() {
+        usuarioRepository = new UsuarioRepositoryImpl();
+        
+        usuario1 = usuarioRepository.save(new Usuario(null, "Juan Pérez", "juan@example.com"));
+        usuario2 = usuarioRepository.save(new Usuario(null, "María García", "Maria.Garcia@Example.com"));
+    }
+    
+    @Test
+    void findByEmail_cuandoExisteEmail_debeRetornarUsuario() {
+        // Act
+        Optional<Usuario> result = usuarioRepository.findByEmail("juan@example.com");
+        
+        // Assert
+        assertTrue(result.isPresent());
+        assertEquals("Juan Pérez", result.get().nombre());
+    }
+    
+    @Test
+    void findByEmail_debeIgnorarMayusculasYEspacios() {
+        // Act
+        Optional<Usuario> result = usuarioRepository.findByEmail("  maria.garcia@example.COM ");
+        
+        // Assert
+        assertTrue(result.isPresent());
+        assertEquals(usuario2.id(), result.get().id());
+    }
+    
+    @Test
+    void findByEmail_cuandoNoExisteEmail_debeRetornarVacio() {
+        // Act
+        Optional<Usuario> result = usuarioRepository.findByEmail("nadie@example.com");
+        
+        // Assert
+        assertFalse(result.isPresent());
+    }
+    
+    @Test
+    void save_cuandoCambiaEmail_debeLiberarElEmailAnterior() {
+        // Arrange
+        Usuario actualizado = new Usuario(usuario1.id(), "Juan Pérez", "juan.perez@example.com");
+        
+        // Act
+        usuarioRepository.save(actualizado);
+        
+        // Assert
+        assertFalse(usuarioRepository.findByEmail("juan@example.com").isPresent());
+        assertEquals(usuario1.id(), usuarioRepository.findByEmail("juan.perez@example.com").get().id());
+    }
+    
+    @Test
+    void save_cuandoEmailPerteneceAOtroUsuario_debeLanzarExcepcion() {
+        // Arrange
+        Usuario duplicado = new Usuario(null, "Otro Juan", "JUAN@example.com");
+        
+        // Act & Assert
+        assertThrows(RecursoDuplicadoException.class, () -> usuarioRepository.save(duplicado));
+        assertEquals(2, usuarioRepository.findAll().size());
+    }
+    
+    @Test
+    void save_conIdFueraDeRango_debeRechazarloSinReservarElEmail() {
+        for (long id : new long[] {-5L, 0L}) {
+            // Arrange
+            Usuario fueraDeRango = new Usuario(id, "Ana López", "ana@example.com");
+            
+            // Act & Assert
+            assertThrows(DatosInvalidosException.class, () -> usuarioRepository.save(fueraDeRango));
+            assertFalse(usuarioRepository.findByEmail("ana@example.com").isPresent());
+        }
+        
+        Usuario guardado = usuarioRepository.save(new Usuario(null, "Ana López", "ana@example.com"));
+        assertEquals(3L, guardado.id());
+        assertEquals(guardado.id(), usuarioRepository.findByEmail("ana@example.com").get().id());
+    }
+    
+    @Test
+    void deleteById_debeLiberarEmail() {
+        // Arrange
+        usuarioRepository.deleteById(usuario1.id());
+        
+        // Act
+        Usuario nuevo = usuarioRepository.save(new Usuario(null, "Juan Nuevo", "juan@example.com"));
+        
+        // Assert
+        assertEquals(nuevo.id(), usuarioRepository.findByEmail("juan@example.com").get().id());
+    }
+    
+    @Test
+    void findByNombreContaining_debeIgnorarMayusculasYAcentos() {
+        // Act
+        List<Usuario> result = usuarioRepository.findByNombreContaining("GARCIA");
+        
+        // Assert
+        assertEquals(1, result.size());
+        assertEquals("María García", result.get(0).nombre());
+    }
+    
+    @Test
+    void findByNombreContaining_cuandoCambiaNombre_debeUsarElNuevoNombre() {
+        // Arrange
+        usuarioRepository.save(usuario1.conNombre("Juan Gómez"));
+        
+        // Act & Assert
+        assertTrue(usuarioRepository.findByNombreContaining("perez").isEmpty());
+        assertEquals(1, usuarioRepository.findByNombreContaining("gomez").size());
+    }
+    
+    @Test
+    void findByEstado_cuandoCambiaEstado_debeMoverUsuarioDeEstado() {
+        // Arrange
+        usuario1 = usuarioRepository.save(usuario1.conEstado(EstadoUsuario.SUSPENDIDO));
+        
+        // Act
+        List<Usuario> activos = usuarioRepository.findByEstado(EstadoUsuario.ACTIVO);
+        List<Usuario> suspendidos = usuarioRepository.findByEstado(EstadoUsuario.SUSPENDIDO);
+        
+        // Assert
+        assertEquals(List.of(usuario2), activos);
+        assertEquals(List.of(usuario1), suspendidos);
+    }
+}
@@ -0,0 +1,126 @@
+package com.um.biblioteca.repository.almacen;
+
+import com.um.biblioteca.exception.ConflictoDeVersionException;
+import com.um.biblioteca.model.Libro;
+import com.um.biblioteca.model.Prestamo;
+import com.um.biblioteca.model.Usuario;
+import com.um.biblioteca.repository.impl.PrestamoRepositoryImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AlmacenPrestamosFueraDeHeapTest {
+
+    private AlmacenPrestamosFueraDeHeap almacen;
+    private Libro libro;
+    private Usuario usuario;
+
+    @BeforeEach
+    void setUp() {
+        libro = new Libro(1L, "111", "Rayuela", "Cortázar");
+        usuario = new Usuario(2L, "Ana", "ana@example.com");
+        almacen = new AlmacenPrestamosFueraDeHeap();
+    }
+
+    @Test
+    void get_debeReconstruirElPrestamoConTodosSusCampos() {
+        // Arrange
+        Prestamo prestamo = new Prestamo(7L, libro, usuario, LocalDate.of(2024, 3, 1), null).conVersion(3L);
+
+        // Act
+        boolean nuevo = almacen.put(7L, prestamo);
+        Prestamo leido = almacen.get(7L);
+
+        // Assert
+        assertTrue(nuevo);
+        assertNotSame(prestamo, leido);
+        assertEquals(7L, leido.id());
+        assertEquals(libro.id(), leido.libroId());
+        assertEquals(usuario.id(), leido.usuarioId());
+        assertEquals(LocalDate.of(2024, 3, 1), leido.fechaPrestamo());
+        assertNull(leido.fechaDevolucion());
+        assertEquals(3L, leido.version());
+        assertNull(almacen.get(8L));
+        assertNull(almacen.get(1L << 40));
+    }
+
+    @Test
+    void remove_debeLiberarElRegistroYActualizarElConteo() {
+        // Arrange
+        LocalDate hoy = LocalDate.now();
+        for (long id = 1; id <= 5000; id++) {
+            almacen.put(id, new Prestamo(id, libro, usuario, hoy, hoy.plusDays(15)));
+        }
+
+        // Act
+        boolean eliminado = almacen.remove(4097L);
+        boolean eliminadoDosVeces = almacen.remove(4097L);
+
+        // Assert
+        assertTrue(eliminado);
+        assertFalse(eliminadoDosVeces);
+        assertFalse(almacen.contains(4097L));
+        assertTrue(almacen.contains(4096L));
+        assertEquals(4999, almacen.size());
+        List<Prestamo> todos = new ArrayList<>();
+        almacen.forEach(todos::add);
+        assertEquals(4999, todos.size());
+        assertFalse(almacen.put(1L, new Prestamo(1L, libro, usuario, hoy, hoy.plusDays(30))));
+        assertEquals(hoy.plusDays(30), almacen.get(1L).fechaDevolucion());
+    }
+
+    @Test
+    void get_concurrenteConEscrituras_nuncaDebeObservarUnRegistroAMedioEscribir() throws Exception {
+        // Arrange
+        LocalDate inicio = LocalDate.of(2024, 1, 1);
+        almacen.put(1L, new Prestamo(1L, libro, usuario, inicio, inicio.plusDays(15)));
+        AtomicBoolean detener = new AtomicBoolean();
+        CompletableFuture<Void> escritor = CompletableFuture.runAsync(() -> {
+            for (int i = 1; !detener.get(); i++) {
+                LocalDate fecha = inicio.plusDays(i % 1000);
+                almacen.put(1L, new Prestamo(1L, libro, usuario, fecha, fecha.plusDays(15)));
+            }
+        });
+
+        // Act & Assert
+        try {
+            for (int i = 0; i < 200_000; i++) {
+                Prestamo leido = almacen.get(1L);
+                assertEquals(15, ChronoUnit.DAYS.between(leido.fechaPrestamo(), leido.fechaDevolucion()));
+            }
+        } finally {
+            detener.set(true);
+            escritor.get(5, TimeUnit.SECONDS);
+        }
+    }
+
+    @Test
+    void repositorio_fueraDeHeap_debeGuardarSoloLosCambiosPersistidos() {
+        // Arrange
+        AlmacenamientoProperties propiedades = new AlmacenamientoProperties();
+        propiedades.setPrestamosFueraDeHeap(true);
+        PrestamoRepositoryImpl prestamoRepository = new PrestamoRepositoryImpl(propiedades);
+        Prestamo prestamo = prestamoRepository.save(new Prestamo(null, libro, usuario));
+        LocalDate devolucion = prestamo.fechaDevolucion();
+
+        // Act
+        Prestamo leido = prestamoRepository.findById(prestamo.id()).orElseThrow();
+        Prestamo sinGuardar = prestamoRepository.findById(prestamo.id()).orElseThrow();
+        prestamoRepository.save(leido.conFechaDevolucion(devolucion.plusDays(7)));
+
+        // Assert
+        assertEquals(devolucion, sinGuardar.fechaDevolucion());
+        assertEquals(devolucion.plusDays(7), prestamoRepository.findById(prestamo.id()).orElseThrow().fechaDevolucion());
+        assertEquals(List.of(prestamo.id()), prestamoRepository.findByUsuario(usuario).stream().map(Prestamo::id).toList());
+        assertThrows(ConflictoDeVersionException.class, () -> prestamoRepository.save(sinGuardar));
+    }
+}
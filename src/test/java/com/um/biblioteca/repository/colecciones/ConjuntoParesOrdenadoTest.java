@@ -0,0 +1,142 @@
+package com.um.biblioteca.repository.colecciones;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConjuntoParesOrdenadoTest {
+
+    private record Par(long clave, long id) {
+    }
+
+    private static final Comparator<Par> ORDEN = Comparator.comparingLong(Par::clave).thenComparingLong(Par::id);
+
+    @Test
+    void operacionesAleatorias_debenCoincidirConTreeSet() {
+        // Arrange
+        ConjuntoParesOrdenado conjunto = new ConjuntoParesOrdenado();
+        TreeSet<Par> esperado = new TreeSet<>(ORDEN);
+        Random azar = new Random(42);
+
+        // Act
+        for (int i = 0; i < 200_000; i++) {
+            // Pocas claves y muchos IDs, para dividir y fusionar hojas
+            Par par = new Par(azar.nextInt(50) - 10, azar.nextInt(5_000));
+            switch (azar.nextInt(5)) {
+                case 0, 1, 2 -> assertEquals(esperado.add(par), conjunto.agregar(par.clave(), par.id()));
+                default -> assertEquals(esperado.remove(par), conjunto.quitar(par.clave(), par.id()));
+            }
+        }
+
+        // Assert
+        assertEquals(esperado.size(), conjunto.tamanio());
+        for (long[] rango : new long[][] {{-10, -10}, {0, 9}, {-100, 100}, {39, 39}, {40, 60}, {5, 4}}) {
+            List<Long> ids = new ArrayList<>();
+            conjunto.ids(rango[0], rango[1]).forEach(ids::add);
+            List<Long> idsEsperados = rango[0] > rango[1] ? List.of() : esperado
+                    .subSet(new Par(rango[0], Long.MIN_VALUE), true, new Par(rango[1], Long.MAX_VALUE), true)
+                    .stream().map(Par::id).toList();
+            assertEquals(idsEsperados, ids);
+            assertEquals(!idsEsperados.isEmpty(), conjunto.hayAlguno(rango[0], rango[1]));
+        }
+    }
+
+    @Test
+    void agregar_conClavesCrecientes_debeDejarLasHojasLlenas() {
+        // Arrange
+        ConjuntoParesOrdenado conjunto = new ConjuntoParesOrdenado();
+        int pares = ConjuntoParesOrdenado.CAPACIDAD_HOJA * 100;
+
+        // Act
+        for (int i = 0; i < pares; i++) {
+            conjunto.agregar(i / 1_000, i);
+        }
+
+        // Assert
+        assertEquals(pares, conjunto.tamanio());
+        assertTrue(conjunto.bytesOcupados() <= (long) pares * 2 * Long.BYTES + 1_024, "bytes: " + conjunto.bytesOcupados());
+    }
+
+    @Test
+    void quitar_todosLosPares_debeDejarElConjuntoVacio() {
+        // Arrange
+        ConjuntoParesOrdenado conjunto = new ConjuntoParesOrdenado();
+        for (long id = 0; id < 10_000; id++) {
+            conjunto.agregar(id % 7, id);
+        }
+
+        // Act
+        for (long id = 0; id < 10_000; id++) {
+            assertTrue(conjunto.quitar(id % 7, id));
+        }
+
+        // Assert
+        assertEquals(0, conjunto.tamanio());
+        assertFalse(conjunto.hayAlguno(Long.MIN_VALUE, Long.MAX_VALUE));
+        assertFalse(conjunto.ids(Long.MIN_VALUE, Long.MAX_VALUE).iterator().hasNext());
+        assertTrue(conjunto.agregar(3, 3));
+    }
+
+    @Test
+    void recorrido_conEscriturasConcurrentes_debeDevolverEnOrdenLosParesQueNoCambian() throws Exception {
+        // Arrange
+        ConjuntoParesOrdenado conjunto = new ConjuntoParesOrdenado();
+        // Los IDs pares de la clave 1 nunca se quitan: cada recorrido debe verlos todos y en orden
+        for (long id = 0; id < 20_000; id += 2) {
+            conjunto.agregar(1, id);
+        }
+        AtomicBoolean detener = new AtomicBoolean();
+        AtomicInteger inconsistencias = new AtomicInteger();
+        CompletableFuture<Void> lector = CompletableFuture.runAsync(() -> {
+            while (!detener.get()) {
+                long anterior = -1;
+                long pares = 0;
+                for (long id : conjunto.ids(1, 1)) {
+                    if (id <= anterior) {
+                        inconsistencias.incrementAndGet();
+                    }
+                    pares += id % 2 == 0 ? 1 : 0;
+                    anterior = id;
+                }
+                if (pares != 10_000) {
+                    inconsistencias.incrementAndGet();
+                }
+            }
+        });
+
+        // Act
+        List<CompletableFuture<Void>> escritores = new ArrayList<>();
+        for (int h = 0; h < 4; h++) {
+            long inicio = h;
+            escritores.add(CompletableFuture.runAsync(() -> {
+                for (int vuelta = 0; vuelta < 5; vuelta++) {
+                    for (long id = 1 + 2 * inicio; id < 20_000; id += 8) {
+                        conjunto.agregar(1, id);
+                        conjunto.agregar(0, id);
+                    }
+                    for (long id = 1 + 2 * inicio; id < 20_000; id += 8) {
+                        conjunto.quitar(1, id);
+                        conjunto.quitar(0, id);
+                    }
+                }
+            }));
+        }
+        CompletableFuture.allOf(escritores.toArray(CompletableFuture[]::new)).get(30, TimeUnit.SECONDS);
+        detener.set(true);
+        lector.get(5, TimeUnit.SECONDS);
+
+        // Assert
+        assertEquals(0, inconsistencias.get());
+        assertEquals(10_000, conjunto.tamanio());
+    }
+}
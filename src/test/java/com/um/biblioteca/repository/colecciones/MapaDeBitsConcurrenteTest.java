@@ -0,0 +1,54 @@
+package com.um.biblioteca.repository.colecciones;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MapaDeBitsConcurrenteTest {
+
+    @Test
+    void recorrido_debeDevolverTodosLosValoresEnOrdenAtravesandoLotes() {
+        // Arrange
+        MapaDeBitsConcurrente ids = new MapaDeBitsConcurrente();
+        List<Long> esperado = LongStream.concat(LongStream.rangeClosed(1, 3 * MapaDeBitsConcurrente.LOTE),
+                LongStream.of(1L << 40, Long.MAX_VALUE)).boxed().toList();
+        esperado.forEach(ids::agregar);
+
+        // Act
+        List<Long> recorridos = new ArrayList<>();
+        ids.forEach(recorridos::add);
+        List<Long> desde = new ArrayList<>();
+        ids.desde(3 * MapaDeBitsConcurrente.LOTE).forEach(desde::add);
+
+        // Assert
+        assertEquals(esperado, recorridos);
+        assertEquals(List.of(3L * MapaDeBitsConcurrente.LOTE, 1L << 40, Long.MAX_VALUE), desde);
+        assertEquals(esperado.size(), ids.cardinalidad());
+    }
+
+    @Test
+    void recorrido_debeVerLosValoresAgregadosDelanteDelCursor() {
+        // Arrange
+        MapaDeBitsConcurrente ids = new MapaDeBitsConcurrente();
+        ids.agregar(1);
+        ids.agregar(2);
+
+        // Act
+        List<Long> recorridos = new ArrayList<>();
+        for (long id : ids) {
+            recorridos.add(id);
+            if (id == 1) {
+                ids.quitar(2);
+                ids.agregar(5);
+            }
+        }
+
+        // Assert
+        assertEquals(List.of(1L, 2L, 5L), recorridos);
+        assertFalse(ids.contiene(2));
+    }
+}
@@ -0,0 +1,130 @@
+package com.um.biblioteca.repository.colecciones;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MapaDeBitsTest {
+
+    @Test
+    void operacionesAleatorias_debenCoincidirConTreeSet() {
+        // Arrange
+        MapaDeBits mapa = new MapaDeBits();
+        TreeSet<Long> esperado = new TreeSet<>();
+        Random azar = new Random(42);
+
+        // Act
+        for (int i = 0; i < 200_000; i++) {
+            // Tres bloques, uno de ellos lo bastante denso para pasar a mapa de bits y volver
+            long valor = (azar.nextInt(3) * 70_000L) + azar.nextInt(9_000);
+            switch (azar.nextInt(4)) {
+                case 0, 1 -> assertEquals(esperado.add(valor), mapa.agregar(valor));
+                case 2 -> assertEquals(esperado.remove(valor), mapa.quitar(valor));
+                default -> assertEquals(esperado.contains(valor), mapa.contiene(valor));
+            }
+        }
+
+        // Assert
+        assertEquals(esperado.size(), mapa.cardinalidad());
+        assertEquals(new ArrayList<>(esperado), mapa.stream().boxed().toList());
+        for (long valor : new long[] {0, 5_000, 69_999, 70_000, 139_999, 200_000, 300_000}) {
+            Long siguiente = esperado.ceiling(valor);
+            assertEquals(siguiente != null ? siguiente : -1, mapa.siguiente(valor));
+        }
+    }
+
+    @Test
+    void agregar_conValorAisladoMuyGrande_debeOcuparPocosBytes() {
+        // Arrange
+        MapaDeBits mapa = new MapaDeBits();
+
+        // Act
+        mapa.agregar(Long.MAX_VALUE - 1);
+        mapa.agregar(3_000_000_000L);
+
+        // Assert
+        assertTrue(mapa.bytesOcupados() < 128);
+        assertEquals(List.of(3_000_000_000L, Long.MAX_VALUE - 1), mapa.stream().boxed().toList());
+        assertEquals(Long.MAX_VALUE - 1, mapa.siguiente(3_000_000_001L));
+    }
+
+    @Test
+    void agregar_conIdsSecuencialesDensos_debeOcuparAlrededorDeUnBitPorValor() {
+        // Arrange
+        MapaDeBits mapa = new MapaDeBits();
+
+        // Act
+        for (long id = 1; id <= 1_000_000; id++) {
+            mapa.agregar(id);
+        }
+
+        // Assert
+        assertEquals(1_000_000, mapa.cardinalidad());
+        assertTrue(mapa.bytesOcupados() < 1_000_000 / 8 * 11 / 10, "bytes: " + mapa.bytesOcupados());
+    }
+
+    @Test
+    void unir_debeCombinarBloquesDensosYDispersos() {
+        // Arrange
+        MapaDeBits densos = new MapaDeBits();
+        MapaDeBits dispersos = new MapaDeBits();
+        TreeSet<Long> esperado = new TreeSet<>();
+        for (long id = 0; id < 10_000; id += 2) {
+            densos.agregar(id);
+            esperado.add(id);
+        }
+        for (long id = 1; id < 10_000; id += 500) {
+            dispersos.agregar(id);
+            esperado.add(id);
+        }
+        dispersos.agregar(1L << 40);
+        esperado.add(1L << 40);
+        MapaDeBits otrosDensos = densos.copia();
+        otrosDensos.agregar(9_999);
+        esperado.add(9_999L);
+
+        // Act
+        MapaDeBits union = new MapaDeBits();
+        union.unir(dispersos);
+        union.unir(densos);
+        union.unir(otrosDensos);
+
+        // Assert
+        assertEquals(esperado.size(), union.cardinalidad());
+        assertEquals(new ArrayList<>(esperado), union.stream().boxed().toList());
+        assertEquals(5_000, densos.cardinalidad());
+    }
+
+    @Test
+    void copia_debeSerIndependienteDelOriginal() {
+        // Arrange
+        MapaDeBits original = new MapaDeBits();
+        original.agregar(7);
+
+        // Act
+        MapaDeBits copia = original.copia();
+        copia.agregar(8);
+        original.quitar(7);
+
+        // Assert
+        assertTrue(original.estaVacio());
+        assertEquals(List.of(7L, 8L), copia.stream().boxed().toList());
+    }
+
+    @Test
+    void agregar_conValorNegativo_debeRechazarlo() {
+        // Arrange
+        MapaDeBits mapa = new MapaDeBits();
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> mapa.agregar(-1));
+        assertFalse(mapa.contiene(-1));
+        assertFalse(mapa.quitar(-1));
+        assertTrue(mapa.estaVacio());
+    }
+}
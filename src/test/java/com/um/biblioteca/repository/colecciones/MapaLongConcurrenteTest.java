@@ -0,0 +1,76 @@
+package com.um.biblioteca.repository.colecciones;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MapaLongConcurrenteTest {
+
+    @Test
+    void escriturasConcurrentes_debenConservarTodasLasEntradasMientrasSeLee() throws Exception {
+        // Arrange
+        MapaLongConcurrente<Long> mapa = new MapaLongConcurrente<>();
+        int hilos = 4;
+        int porHilo = 50_000;
+        AtomicBoolean detener = new AtomicBoolean();
+        AtomicInteger inconsistencias = new AtomicInteger();
+        // Las claves pares nunca se borran: un lector siempre debe encontrarlas una vez escritas
+        for (long id = 0; id < 1000; id += 2) {
+            mapa.put(id, id);
+        }
+        CompletableFuture<Void> lector = CompletableFuture.runAsync(() -> {
+            while (!detener.get()) {
+                for (long id = 0; id < 1000; id += 2) {
+                    Long valor = mapa.get(id);
+                    if (valor == null || valor != id) {
+                        inconsistencias.incrementAndGet();
+                    }
+                }
+            }
+        });
+
+        // Act
+        List<CompletableFuture<Void>> escritores = new ArrayList<>();
+        for (int h = 0; h < hilos; h++) {
+            long inicio = 1_000 + (long) h * porHilo;
+            escritores.add(CompletableFuture.runAsync(() -> {
+                for (long id = inicio; id < inicio + porHilo; id++) {
+                    mapa.put(id, id);
+                }
+                for (long id = inicio; id < inicio + porHilo; id += 2) {
+                    mapa.remove(id);
+                }
+            }));
+        }
+        CompletableFuture.allOf(escritores.toArray(CompletableFuture[]::new)).get(30, TimeUnit.SECONDS);
+        detener.set(true);
+        lector.get(5, TimeUnit.SECONDS);
+
+        // Assert
+        assertEquals(0, inconsistencias.get());
+        assertEquals(500 + hilos * porHilo / 2, mapa.size());
+        AtomicInteger recorridas = new AtomicInteger();
+        mapa.forEach((clave, valor) -> {
+            assertEquals(clave, valor);
+            recorridas.incrementAndGet();
+        });
+        assertEquals(mapa.size(), recorridas.get());
+    }
+
+    @Test
+    void put_conValorNull_debeFallar() {
+        // Arrange
+        MapaLongConcurrente<String> mapa = new MapaLongConcurrente<>();
+
+        // Act & Assert
+        assertThrows(NullPointerException.class, () -> mapa.put(1L, null));
+        assertNull(mapa.get(1L));
+    }
+}
@@ -0,0 +1,54 @@
+package com.um.biblioteca.repository.colecciones;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MapaLongDensoTest {
+
+    @Test
+    void put_debeDevolverElValorAnteriorYGuardarElNuevo() {
+        // Arrange
+        MapaLongDenso mapa = new MapaLongDenso();
+
+        // Act
+        long primero = mapa.put(5, 10);
+        long segundo = mapa.put(5, -3);
+        mapa.put(3_000_000_000L, 7);
+
+        // Assert
+        assertEquals(MapaLongDenso.AUSENTE, primero);
+        assertEquals(10, segundo);
+        assertEquals(-3, mapa.get(5));
+        assertEquals(7, mapa.get(3_000_000_000L));
+        assertEquals(MapaLongDenso.AUSENTE, mapa.get(6));
+        assertEquals(MapaLongDenso.AUSENTE, mapa.get(-1));
+    }
+
+    @Test
+    void remove_debeDevolverElValorYDejarLaClaveSinEntrada() {
+        // Arrange
+        MapaLongDenso mapa = new MapaLongDenso();
+        mapa.put(1, 0);
+
+        // Act
+        long quitado = mapa.remove(1);
+
+        // Assert
+        assertEquals(0, quitado);
+        assertEquals(MapaLongDenso.AUSENTE, mapa.get(1));
+        assertEquals(MapaLongDenso.AUSENTE, mapa.remove(1));
+        assertEquals(MapaLongDenso.AUSENTE, mapa.remove(1L << 40));
+    }
+
+    @Test
+    void put_conClaveNegativaOValorAusente_debeRechazarlo() {
+        // Arrange
+        MapaLongDenso mapa = new MapaLongDenso();
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> mapa.put(-1, 1));
+        assertThrows(IllegalArgumentException.class, () -> mapa.put(1, MapaLongDenso.AUSENTE));
+        assertEquals(MapaLongDenso.AUSENTE, mapa.get(1));
+    }
+}
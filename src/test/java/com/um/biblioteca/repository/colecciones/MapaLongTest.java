@@ -0,0 +1,76 @@
+package com.um.biblioteca.repository.colecciones;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MapaLongTest {
+
+    @Test
+    void operacionesAleatorias_debenCoincidirConHashMap() {
+        // Arrange
+        MapaLong<String> mapa = new MapaLong<>();
+        Map<Long, String> esperado = new HashMap<>();
+        Random azar = new Random(42);
+
+        // Act
+        for (int i = 0; i < 200_000; i++) {
+            // Rango chico para forzar colisiones, reemplazos y bajas en medio de secuencias de sondeo
+            long clave = azar.nextInt(2_000) - 100;
+            switch (azar.nextInt(4)) {
+                case 0, 1 -> assertEquals(esperado.put(clave, "v" + i), mapa.put(clave, "v" + i));
+                case 2 -> assertEquals(esperado.remove(clave), mapa.remove(clave));
+                default -> assertEquals(esperado.get(clave), mapa.get(clave));
+            }
+        }
+
+        // Assert
+        assertEquals(esperado.size(), mapa.size());
+        Map<Long, String> recorrido = new HashMap<>();
+        mapa.forEach(recorrido::put);
+        assertEquals(esperado, recorrido);
+    }
+
+    @Test
+    void compute_debeInsertarReemplazarYEliminar() {
+        // Arrange
+        MapaLong<Integer> mapa = new MapaLong<>();
+
+        // Act
+        mapa.compute(0L, (clave, actual) -> actual == null ? 1 : actual + 1);
+        mapa.compute(0L, (clave, actual) -> actual == null ? 1 : actual + 1);
+        mapa.compute(7L, (clave, actual) -> 10);
+        mapa.compute(7L, (clave, actual) -> null);
+        Integer ausente = mapa.compute(9L, (clave, actual) -> null);
+
+        // Assert
+        assertEquals(2, mapa.get(0L));
+        assertFalse(mapa.containsKey(7L));
+        assertNull(ausente);
+        assertEquals(1, mapa.size());
+    }
+
+    @Test
+    void put_conMuchasClavesConsecutivas_debeRedimensionarSinPerderEntradas() {
+        // Arrange
+        MapaLong<Long> mapa = new MapaLong<>(4);
+
+        // Act
+        for (long id = 1; id <= 100_000; id++) {
+            mapa.put(id, id * 2);
+        }
+        for (long id = 1; id <= 100_000; id += 2) {
+            mapa.remove(id);
+        }
+
+        // Assert
+        assertEquals(50_000, mapa.size());
+        for (long id = 1; id <= 100_000; id++) {
+            assertEquals(id % 2 == 0 ? Long.valueOf(id * 2) : null, mapa.get(id));
+        }
+    }
+}
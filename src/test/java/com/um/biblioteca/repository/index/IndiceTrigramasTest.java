@@ -0,0 +1,80 @@
+package com.um.biblioteca.repository.index;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IndiceTrigramasTest {
+    
+    private IndiceTrigramas indice;
+    
+    @BeforeEach
+    void setUp() {
+        indice = new IndiceTrigramas();
+        indice.actualizar(1L, "El principito");
+        indice.actualizar(2L, "Cien años de soledad");
+        indice.actualizar(3L, "Principios de programación");
+    }
+    
+    @Test
+    void buscar_debeRetornarIdsQueContienenLaConsulta() {
+        // Act
+        List<Long> result = indice.buscar("PRINCIP");
+        
+        // Assert
+        assertEquals(List.of(1L, 3L), result);
+    }
+    
+    @Test
+    void buscar_cuandoTodosLosTrigramasExistenPeroNoLaSubcadena_debeRetornarVacio() {
+        // Act: "principito" y "programación" comparten trigramas pero no la subcadena
+        List<Long> result = indice.buscar("ncipios de soledad");
+        
+        // Assert
+        assertTrue(result.isEmpty());
+    }
+    
+    @Test
+    void buscar_conConsultaCorta_debeVerificarTodosLosTextos() {
+        // Act
+        List<Long> result = indice.buscar("de");
+        
+        // Assert
+        assertEquals(List.of(2L, 3L), result);
+    }
+    
+    @Test
+    void actualizar_cuandoCambiaElTexto_debeReemplazarTrigramas() {
+        // Act
+        indice.actualizar(1L, "Rayuela");
+        
+        // Assert
+        assertEquals(List.of(3L), indice.buscar("princip"));
+        assertEquals(List.of(1L), indice.buscar("rayu"));
+    }
+    
+    @Test
+    void eliminar_debeQuitarElTextoDelIndice() {
+        // Act
+        indice.eliminar(3L);
+        
+        // Assert
+        assertEquals(List.of(1L), indice.buscar("princip"));
+        assertTrue(indice.buscar("program").isEmpty());
+    }
+    
+    @Test
+    void buscar_debeContarConsultasYAciertos() {
+        // Act
+        indice.buscar("princip");
+        indice.buscar("rayuela");
+        indice.buscar("");
+        
+        // Assert
+        assertEquals(3, indice.estadisticas().consultas());
+        assertEquals(1, indice.estadisticas().aciertos());
+    }
+}
@@ -0,0 +1,27 @@
+package com.um.biblioteca.repository.index;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NormalizadorTextoTest {
+    
+    @Test
+    void normalizar_debeQuitarAcentosYMayusculas() {
+        assertEquals("informacion", NormalizadorTexto.normalizar("Información"));
+        assertEquals("garcia marquez", NormalizadorTexto.normalizar("GARCÍA MÁRQUEZ"));
+        assertEquals("pinguino", NormalizadorTexto.normalizar("Pingüino"));
+    }
+    
+    @Test
+    void normalizar_conTextoYaNormalizado_debeRetornarLaMismaInstancia() {
+        String texto = "cien anos de soledad";
+        
+        assertSame(texto, NormalizadorTexto.normalizar(texto));
+    }
+    
+    @Test
+    void normalizar_conNull_debeRetornarNull() {
+        assertNull(NormalizadorTexto.normalizar(null));
+    }
+}
@@ -0,0 +1,359 @@
+package com.um.biblioteca.repository.persistencia;
+
+import com.um.biblioteca.exception.PersistenciaException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BitacoraTest {
+
+    @TempDir
+    Path directorio;
+
+    @Test
+    void agregar_debePersistirEntradasQueSeRecuperanEnOrden() throws Exception {
+        // Arrange
+        try (Bitacora bitacora = new Bitacora(directorio, 0, PoliticaFsync.POR_ESCRITURA, 100, 16)) {
+            // Act
+            bitacora.agregar(RegistroBitacora.guardado("libros", 1L, datos("uno"))).join();
+            bitacora.agregar(RegistroBitacora.guardado("libros", 2L, datos("dos"))).join();
+            bitacora.agregar(RegistroBitacora.eliminacion("libros", 1L)).join();
+        }
+
+        // Assert
+        List<RegistroBitacora> registros = new ArrayList<>();
+        long ultimoLsn = Bitacora.recuperar(directorio, 1, registros::add);
+        assertEquals(3L, ultimoLsn);
+        assertEquals(3, registros.size());
+        assertEquals(RegistroBitacora.Tipo.GUARDADO, registros.get(0).tipo());
+        assertEquals("uno", new String(registros.get(0).datos(), StandardCharsets.UTF_8));
+        assertEquals(2L, registros.get(1).id());
+        assertEquals(RegistroBitacora.Tipo.ELIMINACION, registros.get(2).tipo());
+        assertEquals(List.of(1L, 2L, 3L), registros.stream().map(RegistroBitacora::lsn).toList());
+    }
+
+    @Test
+    void agregar_alReabrir_debeContinuarLaNumeracion() throws Exception {
+        // Arrange
+        try (Bitacora bitacora = new Bitacora(directorio, 0, PoliticaFsync.SISTEMA_OPERATIVO, 100, 16)) {
+            bitacora.agregar(RegistroBitacora.guardado("libros", 1L, datos("uno"))).join();
+        }
+        long ultimoLsn = Bitacora.recuperar(directorio, 1, registro -> { });
+
+        // Act
+        try (Bitacora bitacora = new Bitacora(directorio, ultimoLsn, PoliticaFsync.PERIODICA, 10, 16)) {
+            bitacora.agregar(RegistroBitacora.guardado("libros", 2L, datos("dos"))).join();
+        }
+
+        // Assert
+        List<RegistroBitacora> registros = new ArrayList<>();
+        assertEquals(2L, Bitacora.recuperar(directorio, 1, registros::add));
+        assertEquals(List.of(1L, 2L), registros.stream().map(RegistroBitacora::id).toList());
+    }
+
+    @Test
+    void recuperar_conEntradaIncompletaAlFinal_debeTruncarALaUltimaValida() throws Exception {
+        // Arrange
+        Path archivo;
+        try (Bitacora bitacora = new Bitacora(directorio, 0, PoliticaFsync.POR_ESCRITURA, 100, 16)) {
+            bitacora.agregar(RegistroBitacora.guardado("libros", 1L, datos("uno"))).join();
+            bitacora.agregar(RegistroBitacora.guardado("libros", 2L, datos("dos"))).join();
+            archivo = bitacora.getArchivo();
+        }
+        long tamanioValido = Files.size(archivo);
+        // Simula una caída a mitad de la escritura de una tercera entrada
+        try (FileChannel canal = FileChannel.open(archivo, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            canal.write(java.nio.ByteBuffer.wrap(new byte[] {0, 0, 0, 40, 1, 2, 3}));
+        }
+
+        // Act
+        List<RegistroBitacora> registros = new ArrayList<>();
+        long ultimoLsn = Bitacora.recuperar(directorio, 1, registros::add);
+
+        // Assert
+        assertEquals(2L, ultimoLsn);
+        assertEquals(2, registros.size());
+        assertEquals(tamanioValido, Files.size(archivo));
+    }
+
+    @Test
+    void recuperar_conEntradaCorrupta_debeDescartarDesdeEsaEntrada() throws Exception {
+        // Arrange
+        Path archivo;
+        try (Bitacora bitacora = new Bitacora(directorio, 0, PoliticaFsync.POR_ESCRITURA, 100, 16)) {
+            bitacora.agregar(RegistroBitacora.guardado("libros", 1L, datos("uno"))).join();
+            bitacora.agregar(RegistroBitacora.guardado("libros", 2L, datos("dos"))).join();
+            archivo = bitacora.getArchivo();
+        }
+        byte[] contenido = Files.readAllBytes(archivo);
+        contenido[contenido.length - 1] ^= 0x7F;
+        Files.write(archivo, contenido);
+
+        // Act
+        List<RegistroBitacora> registros = new ArrayList<>();
+        Bitacora.recuperar(directorio, 1, registros::add);
+
+        // Assert
+        assertEquals(1, registros.size());
+        assertEquals(1L, registros.get(0).id());
+    }
+
+    @Test
+    void agregar_conEscritoresConcurrentes_debeConfirmarTodasLasEntradas() throws Exception {
+        // Arrange
+        int escritores = 16;
+        int entradasPorEscritor = 200;
+
+        // Act
+        try (Bitacora bitacora = new Bitacora(directorio, 0, PoliticaFsync.POR_ESCRITURA, 100, 64)) {
+            List<CompletableFuture<Void>> tareas = new ArrayList<>();
+            for (int e = 0; e < escritores; e++) {
+                long base = (long) e * entradasPorEscritor;
+                tareas.add(CompletableFuture.runAsync(() -> {
+                    for (int i = 0; i < entradasPorEscritor; i++) {
+                        bitacora.agregar(RegistroBitacora.guardado("libros", base + i, datos("x"))).join();
+                    }
+                }));
+            }
+            CompletableFuture.allOf(tareas.toArray(new CompletableFuture[0])).join();
+        }
+
+        // Assert
+        List<RegistroBitacora> registros = new ArrayList<>();
+        long ultimoLsn = Bitacora.recuperar(directorio, 1, registros::add);
+        assertEquals(escritores * entradasPorEscritor, registros.size());
+        assertEquals(registros.size(), ultimoLsn);
+        assertEquals(registros.size(), registros.stream().map(RegistroBitacora::id).distinct().count());
+    }
+
+    @Test
+    void rotar_debeSepararLasEntradasEnSegmentosYPermitirBorrarLosAnteriores() throws Exception {
+        // Arrange
+        long inicioNuevo;
+        try (Bitacora bitacora = new Bitacora(directorio, 0, PoliticaFsync.POR_ESCRITURA, 100, 16)) {
+            bitacora.agregar(RegistroBitacora.guardado("libros", 1L, datos("uno"))).join();
+            bitacora.agregar(RegistroBitacora.guardado("libros", 2L, datos("dos"))).join();
+
+            // Act
+            inicioNuevo = bitacora.rotar();
+            bitacora.agregar(RegistroBitacora.guardado("libros", 3L, datos("tres"))).join();
+        }
+
+        // Assert
+        assertEquals(3L, inicioNuevo);
+        assertEquals(2, Bitacora.segmentos(directorio).size());
+        List<RegistroBitacora> posteriores = new ArrayList<>();
+        assertEquals(3L, Bitacora.recuperar(directorio, inicioNuevo, posteriores::add));
+        assertEquals(List.of(3L), posteriores.stream().map(RegistroBitacora::id).toList());
+
+        Bitacora.eliminarSegmentosAnteriores(directorio, inicioNuevo);
+        List<RegistroBitacora> restantes = new ArrayList<>();
+        Bitacora.recuperar(directorio, 1, restantes::add);
+        assertEquals(1, Bitacora.segmentos(directorio).size());
+        assertEquals(List.of(3L), restantes.stream().map(RegistroBitacora::lsn).toList());
+    }
+
+    @Test
+    void agregar_conBitacoraCerrada_debeFallar() throws Exception {
+        // Arrange
+        Bitacora bitacora = new Bitacora(directorio, 0, PoliticaFsync.POR_ESCRITURA, 100, 16);
+        bitacora.close();
+
+        // Act
+        CompletableFuture<Void> confirmacion = bitacora.agregar(RegistroBitacora.eliminacion("libros", 1L));
+
+        // Assert
+        CompletionException error = assertThrows(CompletionException.class, confirmacion::join);
+        assertInstanceOf(PersistenciaException.class, error.getCause());
+    }
+
+    @Test
+    void agregar_trasUnaEscrituraFallida_debeDescartarlaYConservarLasSiguientes() throws Exception {
+        // Arrange
+        List<CanalConFallas> canales = new ArrayList<>();
+        try (Bitacora bitacora = new Bitacora(directorio, 0, PoliticaFsync.POR_ESCRITURA, 100, 16,
+                archivo -> abrirConFallas(archivo, canales))) {
+            bitacora.agregar(RegistroBitacora.guardado("libros", 1L, datos("uno"))).join();
+            canales.get(0).fallarEscritura = true;
+
+            // Act
+            CompletableFuture<Void> fallida = bitacora.agregar(RegistroBitacora.guardado("libros", 2L, datos("dos")));
+            CompletionException error = assertThrows(CompletionException.class, fallida::join);
+            bitacora.agregar(RegistroBitacora.guardado("libros", 3L, datos("tres"))).join();
+
+            // Assert
+            assertInstanceOf(PersistenciaException.class, error.getCause());
+            assertEquals(2L, bitacora.getUltimoLsn());
+        }
+        List<RegistroBitacora> registros = new ArrayList<>();
+        assertEquals(2L, Bitacora.recuperar(directorio, 1, registros::add));
+        assertEquals(List.of(1L, 3L), registros.stream().map(RegistroBitacora::id).toList());
+        assertEquals(List.of(1L, 2L), registros.stream().map(RegistroBitacora::lsn).toList());
+    }
+
+    @Test
+    void agregar_siNoPuedeDescartarUnaEscrituraFallida_debeRechazarLasSiguientes() throws Exception {
+        // Arrange
+        List<CanalConFallas> canales = new ArrayList<>();
+        try (Bitacora bitacora = new Bitacora(directorio, 0, PoliticaFsync.POR_ESCRITURA, 100, 16,
+                archivo -> abrirConFallas(archivo, canales))) {
+            bitacora.agregar(RegistroBitacora.guardado("libros", 1L, datos("uno"))).join();
+            canales.get(0).fallarEscritura = true;
+            canales.get(0).fallarTruncado = true;
+
+            // Act
+            CompletableFuture<Void> fallida = bitacora.agregar(RegistroBitacora.guardado("libros", 2L, datos("dos")));
+            assertThrows(CompletionException.class, fallida::join);
+            CompletableFuture<Void> siguiente = bitacora.agregar(RegistroBitacora.guardado("libros", 3L, datos("tres")));
+
+            // Assert
+            CompletionException error = assertThrows(CompletionException.class, siguiente::join);
+            assertInstanceOf(PersistenciaException.class, error.getCause());
+            assertThrows(PersistenciaException.class, bitacora::rotar);
+            assertEquals(1L, bitacora.getUltimoLsn());
+        }
+        List<RegistroBitacora> registros = new ArrayList<>();
+        assertEquals(1L, Bitacora.recuperar(directorio, 1, registros::add));
+        assertEquals(List.of(1L), registros.stream().map(RegistroBitacora::id).toList());
+    }
+
+    private static FileChannel abrirConFallas(Path archivo, List<CanalConFallas> canales) throws IOException {
+        FileChannel real = FileChannel.open(archivo, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        real.position(real.size());
+        CanalConFallas canal = new CanalConFallas(real);
+        canales.add(canal);
+        return canal;
+    }
+
+    /**
+     * Canal que, a pedido, escribe sólo la mitad de un lote y falla (una
+     * entrada incompleta, como con el disco lleno) o no puede truncarse
+     */
+    private static final class CanalConFallas extends FileChannel {
+
+        private final FileChannel real;
+        volatile boolean fallarEscritura;
+        volatile boolean fallarTruncado;
+
+        CanalConFallas(FileChannel real) {
+            this.real = real;
+        }
+
+        @Override
+        public int write(ByteBuffer origen) throws IOException {
+            if (fallarEscritura) {
+                fallarEscritura = false;
+                origen.limit(origen.position() + origen.remaining() / 2);
+                real.write(origen);
+                throw new IOException("No queda espacio en el dispositivo");
+            }
+            return real.write(origen);
+        }
+
+        @Override
+        public FileChannel truncate(long tamanio) throws IOException {
+            if (fallarTruncado) {
+                throw new IOException("Error de entrada/salida");
+            }
+            real.truncate(tamanio);
+            return this;
+        }
+
+        @Override
+        public int read(ByteBuffer destino) throws IOException {
+            return real.read(destino);
+        }
+
+        @Override
+        public long read(ByteBuffer[] destinos, int desde, int cantidad) throws IOException {
+            return real.read(destinos, desde, cantidad);
+        }
+
+        @Override
+        public long write(ByteBuffer[] origenes, int desde, int cantidad) throws IOException {
+            return real.write(origenes, desde, cantidad);
+        }
+
+        @Override
+        public long position() throws IOException {
+            return real.position();
+        }
+
+        @Override
+        public FileChannel position(long posicion) throws IOException {
+            real.position(posicion);
+            return this;
+        }
+
+        @Override
+        public long size() throws IOException {
+            return real.size();
+        }
+
+        @Override
+        public void force(boolean metadatos) throws IOException {
+            real.force(metadatos);
+        }
+
+        @Override
+        public long transferTo(long posicion, long cantidad, WritableByteChannel destino) throws IOException {
+            return real.transferTo(posicion, cantidad, destino);
+        }
+
+        @Override
+        public long transferFrom(ReadableByteChannel origen, long posicion, long cantidad) throws IOException {
+            return real.transferFrom(origen, posicion, cantidad);
+        }
+
+        @Override
+        public int read(ByteBuffer destino, long posicion) throws IOException {
+            return real.read(destino, posicion);
+        }
+
+        @Override
+        public int write(ByteBuffer origen, long posicion) throws IOException {
+            return real.write(origen, posicion);
+        }
+
+        @Override
+        public MappedByteBuffer map(MapMode modo, long posicion, long tamanio) throws IOException {
+            return real.map(modo, posicion, tamanio);
+        }
+
+        @Override
+        public FileLock lock(long posicion, long tamanio, boolean compartido) throws IOException {
+            return real.lock(posicion, tamanio, compartido);
+        }
+
+        @Override
+        public FileLock tryLock(long posicion, long tamanio, boolean compartido) throws IOException {
+            return real.tryLock(posicion, tamanio, compartido);
+        }
+
+        @Override
+        protected void implCloseChannel() throws IOException {
+            real.close();
+        }
+    }
+
+    private static byte[] datos(String texto) {
+        return texto.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,130 @@
+package com.um.biblioteca.repository.persistencia;
+
+import com.um.biblioteca.model.EstadoLibro;
+import com.um.biblioteca.model.EstadoUsuario;
+import com.um.biblioteca.model.Libro;
+import com.um.biblioteca.model.Prestamo;
+import com.um.biblioteca.model.Usuario;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.StreamCorruptedException;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CodificadoresTest {
+
+    @Test
+    void prestamo_debeConservarTodosLosCamposYReferenciarLibroYUsuarioPorId() throws Exception {
+        // Arrange
+        Libro libro = new Libro(3L, "978-1", "Rayuela", "Cortázar", EstadoLibro.PRESTADO, 4L);
+        Usuario usuario = new Usuario(7L, "José Ñúñez", "jose@example.com", EstadoUsuario.ACTIVO);
+        Prestamo prestamo = new Prestamo(11L, libro, usuario, LocalDate.of(2024, 5, 1), LocalDate.of(2024, 5, 16))
+                .conVersion(2L);
+
+        // Act
+        Prestamo decodificado = Codificadores.PRESTAMO.decodificar(Codificadores.PRESTAMO.codificar(prestamo));
+
+        // Assert
+        assertEquals(prestamo.toString(), decodificado.toString());
+        assertEquals(3L, decodificado.libroId());
+        assertEquals(7L, decodificado.usuarioId());
+    }
+
+    @Test
+    void prestamo_enFormato1_debeLeerseConLosIdsDelLibroYElUsuarioIncluidos() throws Exception {
+        // Arrange
+        Libro libro = new Libro(3L, "978-1", "Rayuela", "Cortázar");
+        Usuario usuario = new Usuario(7L, "José Ñúñez", "jose@example.com");
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream salida = new DataOutputStream(bytes);
+        salida.writeByte(1);
+        salida.writeBoolean(true);
+        salida.writeLong(11L);
+        salida.writeBoolean(false);
+        salida.writeLong(LocalDate.of(2024, 5, 1).toEpochDay());
+        salida.writeLong(Long.MIN_VALUE);
+        salida.writeBoolean(true);
+        Codificadores.LIBRO.escribir(libro, salida);
+        salida.writeBoolean(true);
+        Codificadores.USUARIO.escribir(usuario, salida);
+
+        // Act
+        Prestamo decodificado = Codificadores.PRESTAMO.decodificar(bytes.toByteArray());
+
+        // Assert
+        assertEquals(11L, decodificado.id());
+        assertEquals(LocalDate.of(2024, 5, 1), decodificado.fechaPrestamo());
+        assertNull(decodificado.fechaDevolucion());
+        assertEquals(3L, decodificado.libroId());
+        assertEquals(7L, decodificado.usuarioId());
+    }
+
+    @Test
+    void prestamo_enFormato2_debeLeerLasFechasGuardadasComoLong() throws Exception {
+        // Arrange
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream salida = new DataOutputStream(bytes);
+        salida.writeByte(2);
+        salida.writeBoolean(true);
+        salida.writeLong(11L);
+        salida.writeBoolean(true);
+        salida.writeLong(2L);
+        salida.writeLong(LocalDate.of(2024, 5, 1).toEpochDay());
+        salida.writeLong(LocalDate.of(2024, 5, 16).toEpochDay());
+        salida.writeBoolean(true);
+        salida.writeLong(3L);
+        salida.writeBoolean(false);
+
+        // Act
+        Prestamo decodificado = Codificadores.PRESTAMO.decodificar(bytes.toByteArray());
+
+        // Assert
+        assertEquals(LocalDate.of(2024, 5, 1), decodificado.fechaPrestamo());
+        assertEquals(LocalDate.of(2024, 5, 16), decodificado.fechaDevolucion());
+        assertEquals(3L, decodificado.libroId());
+        assertNull(decodificado.usuarioId());
+        assertEquals(2L, decodificado.version());
+    }
+
+    @Test
+    void prestamo_sinFechas_debeDecodificarseSinFechas() throws Exception {
+        // Arrange
+        Prestamo prestamo = new Prestamo(11L, 3L, 7L, null, null, null);
+
+        // Act
+        Prestamo decodificado = Codificadores.PRESTAMO.decodificar(Codificadores.PRESTAMO.codificar(prestamo));
+
+        // Assert
+        assertNull(decodificado.fechaPrestamo());
+        assertNull(decodificado.fechaDevolucion());
+        assertFalse(decodificado.estaVencido());
+    }
+
+    @Test
+    void libro_conCamposNulos_debeDecodificarseConLosMismosNulos() throws Exception {
+        // Arrange
+        Libro libro = new Libro(null, null, null, null);
+
+        // Act
+        Libro decodificado = Codificadores.LIBRO.decodificar(Codificadores.LIBRO.codificar(libro));
+
+        // Assert
+        assertNull(decodificado.id());
+        assertNull(decodificado.version());
+        assertNull(decodificado.titulo());
+        assertEquals(libro.estado(), decodificado.estado());
+    }
+
+    @Test
+    void decodificar_conFormatoDesconocido_debeFallar() {
+        // Arrange
+        byte[] datos = Codificadores.USUARIO.codificar(new Usuario(1L, "Ana", "ana@example.com"));
+        datos[0] = 99;
+
+        // Act & Assert
+        assertThrows(StreamCorruptedException.class, () -> Codificadores.USUARIO.decodificar(datos));
+    }
+}
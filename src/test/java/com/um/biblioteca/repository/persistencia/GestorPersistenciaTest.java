@@ -0,0 +1,258 @@
+package com.um.biblioteca.repository.persistencia;
+
+import com.um.biblioteca.exception.PersistenciaException;
+import com.um.biblioteca.exception.RecursoDuplicadoException;
+import com.um.biblioteca.model.EstadoLibro;
+import com.um.biblioteca.model.Libro;
+import com.um.biblioteca.model.Prestamo;
+import com.um.biblioteca.model.Usuario;
+import com.um.biblioteca.repository.impl.LibroRepositoryImpl;
+import com.um.biblioteca.repository.impl.PrestamoRepositoryImpl;
+import com.um.biblioteca.repository.impl.UsuarioRepositoryImpl;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GestorPersistenciaTest {
+
+    @TempDir
+    Path directorio;
+
+    private LibroRepositoryImpl libroRepository;
+    private UsuarioRepositoryImpl usuarioRepository;
+    private PrestamoRepositoryImpl prestamoRepository;
+    private PersistenciaProperties propiedades;
+    private GestorPersistencia gestor;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        iniciar();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        gestor.cerrar();
+    }
+
+    @Test
+    void reiniciar_debeRestaurarElUltimoEstadoDeCadaEntidad() throws Exception {
+        // Arrange
+        Libro libro = libroRepository.save(new Libro(null, "111", "El principito", "Saint-Exupéry"));
+        libroRepository.save(new Libro(null, "222", "Eliminado", "Autor"));
+        libroRepository.deleteById(2L);
+        libroRepository.compareAndSetEstado(libro.id(), EstadoLibro.DISPONIBLE, EstadoLibro.PRESTADO);
+        Usuario usuario = usuarioRepository.save(new Usuario(null, "Juan", "juan@example.com"));
+        prestamoRepository.save(new Prestamo(null, libro, usuario, LocalDate.of(2024, 5, 1), LocalDate.of(2024, 5, 16)));
+
+        // Act
+        reiniciar();
+
+        // Assert
+        Libro restaurado = libroRepository.findById(1L).orElseThrow();
+        assertEquals("El principito", restaurado.titulo());
+        assertEquals(EstadoLibro.PRESTADO, restaurado.estado());
+        assertEquals(2L, restaurado.version());
+        assertFalse(libroRepository.existsById(2L));
+        assertEquals(List.of(restaurado), libroRepository.findByEstado(EstadoLibro.PRESTADO));
+        assertEquals(List.of(restaurado), libroRepository.findByTituloContaining("principito"));
+        assertEquals("Juan", usuarioRepository.findByEmail("juan@example.com").orElseThrow().nombre());
+        Prestamo prestamo = prestamoRepository.findById(1L).orElseThrow();
+        assertEquals(LocalDate.of(2024, 5, 16), prestamo.fechaDevolucion());
+        assertEquals(List.of(prestamo), prestamoRepository.findByFechaPrestamo(LocalDate.of(2024, 5, 1)));
+    }
+
+    @Test
+    void reiniciar_debeContinuarLaSecuenciaDeIdsYRespetarIndicesUnicos() throws Exception {
+        // Arrange
+        libroRepository.save(new Libro(null, "111", "Uno", "Autor"));
+        libroRepository.save(new Libro(null, "222", "Dos", "Autor"));
+
+        // Act
+        reiniciar();
+        Libro nuevo = libroRepository.save(new Libro(null, "333", "Tres", "Autor"));
+
+        // Assert
+        assertEquals(3L, nuevo.id());
+        assertThrows(RecursoDuplicadoException.class,
+                () -> libroRepository.save(new Libro(null, "111", "Repetido", "Autor")));
+    }
+
+    @Test
+    void reiniciar_sinBitacora_debeIniciarVacio() throws Exception {
+        // Assert
+        assertEquals(0, libroRepository.count());
+        assertEquals(0, usuarioRepository.count());
+        assertEquals(0, prestamoRepository.count());
+    }
+
+    @Test
+    void tomarInstantanea_debeBorrarLosSegmentosCubiertosYRestaurarseAlReiniciar() throws Exception {
+        // Arrange
+        Libro libro = libroRepository.save(new Libro(null, "111", "Uno", "Autor"));
+        libroRepository.save(new Libro(null, "222", "Dos", "Autor"));
+        libroRepository.deleteById(2L);
+        libroRepository.save(new Libro(null, "333", "Tres", "Autor"));
+
+        // Act
+        boolean tomada = gestor.tomarInstantanea();
+        List<Path> segmentos = archivos("bitacora-");
+        libroRepository.save(libro.conTitulo("Uno, segunda edición"));
+        libroRepository.deleteById(3L);
+        usuarioRepository.save(new Usuario(null, "Ana", "ana@example.com"));
+        reiniciarSinInstantanea();
+
+        // Assert
+        assertTrue(tomada);
+        assertEquals(1, segmentos.size());
+        assertEquals(1, archivos("instantanea-").size());
+        assertEquals("Uno, segunda edición", libroRepository.findById(1L).orElseThrow().titulo());
+        assertEquals(2L, libroRepository.findById(1L).orElseThrow().version());
+        assertFalse(libroRepository.existsById(2L));
+        assertFalse(libroRepository.existsById(3L));
+        assertEquals(1, libroRepository.count());
+        assertTrue(usuarioRepository.findByEmail("ana@example.com").isPresent());
+    }
+
+    @Test
+    void tomarInstantanea_sinEscriturasNuevas_noDebeTomarOtra() throws Exception {
+        // Arrange
+        libroRepository.save(new Libro(null, "111", "Uno", "Autor"));
+        assertTrue(gestor.tomarInstantanea());
+
+        // Act
+        boolean tomada = gestor.tomarInstantanea();
+
+        // Assert
+        assertFalse(tomada);
+    }
+
+    @Test
+    void tomarInstantanea_conEscritoresConcurrentes_noDebePerderCambios() throws Exception {
+        // Arrange
+        int escritores = 8;
+        int librosPorEscritor = 300;
+        AtomicBoolean instantaneasTomadas = new AtomicBoolean(false);
+        List<CompletableFuture<Void>> tareas = new ArrayList<>();
+        for (int e = 0; e < escritores; e++) {
+            int escritor = e;
+            tareas.add(CompletableFuture.runAsync(() -> {
+                for (int i = 0; i < librosPorEscritor; i++) {
+                    Libro libro = libroRepository.save(new Libro(null, escritor + "-" + i, "Libro", "Autor"));
+                    libroRepository.save(libro.conTitulo("Libro editado"));
+                    if (i % 3 == 0) {
+                        libroRepository.deleteById(libro.id());
+                    }
+                }
+            }));
+        }
+
+        // Act
+        CompletableFuture<Void> todas = CompletableFuture.allOf(tareas.toArray(new CompletableFuture[0]));
+        while (!todas.isDone()) {
+            instantaneasTomadas.compareAndSet(false, gestor.tomarInstantanea());
+        }
+        todas.join();
+        List<String> antes = libroRepository.streamAll().map(Libro::toString).toList();
+        reiniciarSinInstantanea();
+
+        // Assert
+        assertTrue(instantaneasTomadas.get());
+        List<Libro> despues = libroRepository.streamAll().toList();
+        assertEquals(escritores * (librosPorEscritor - librosPorEscritor / 3), despues.size());
+        assertEquals(antes, despues.stream().map(Libro::toString).toList());
+    }
+
+    @Test
+    void tomarInstantanea_siLaCargaFallo_debeRechazarseYConservarLaBitacora() throws Exception {
+        // Arrange
+        libroRepository.save(new Libro(null, "111", "Uno", "Autor"));
+        libroRepository.cargarPerezosamente(new FuentePerezosa<>() {
+            @Override
+            public int cantidad() {
+                return 1;
+            }
+
+            @Override
+            public long id(int posicion) {
+                return 7L;
+            }
+
+            @Override
+            public int posicion(long id) {
+                return id == 7L ? 0 : -1;
+            }
+
+            @Override
+            public Libro materializar(int posicion) {
+                throw new PersistenciaException("La entidad 7 de libros está dañada");
+            }
+        });
+        libroRepository.completarCarga();
+        List<Path> segmentos = archivos("bitacora-");
+
+        // Act & Assert
+        PersistenciaException error = assertThrows(PersistenciaException.class, gestor::tomarInstantanea);
+        assertSame(libroRepository.errorDeCarga(), error.getCause());
+        assertEquals(segmentos, archivos("bitacora-"));
+        assertTrue(archivos("instantanea-").isEmpty());
+    }
+
+    @Test
+    void iniciar_conEntidadIlegibleEnLaBitacora_debeFallarEnLugarDeOmitirla() throws Exception {
+        // Arrange
+        libroRepository.save(new Libro(null, "111", "Uno", "Autor"));
+        propiedades.setInstantaneaAlCerrar(false);
+        gestor.cerrar();
+        long ultimoLsn = Bitacora.recuperar(directorio, 1, registro -> { });
+        try (Bitacora bitacora = new Bitacora(directorio, ultimoLsn, PoliticaFsync.POR_ESCRITURA, 100, 16)) {
+            bitacora.agregar(RegistroBitacora.guardado("libros", 2L, new byte[] {1, 2, 3})).join();
+        }
+
+        // Act & Assert
+        PersistenciaException error = assertThrows(PersistenciaException.class, this::iniciar);
+        assertTrue(error.getMessage().contains("entidad 2 de libros"));
+    }
+
+    private List<Path> archivos(String prefijo) throws Exception {
+        try (Stream<Path> archivos = Files.list(directorio)) {
+            return archivos.filter(archivo -> archivo.getFileName().toString().startsWith(prefijo)).toList();
+        }
+    }
+
+    /**
+     * Reinicia como tras una caída: sin la instantánea que se toma al cerrar
+     */
+    private void reiniciarSinInstantanea() throws Exception {
+        propiedades.setInstantaneaAlCerrar(false);
+        reiniciar();
+    }
+
+    private void reiniciar() throws Exception {
+        gestor.cerrar();
+        iniciar();
+    }
+
+    private void iniciar() throws Exception {
+        libroRepository = new LibroRepositoryImpl();
+        usuarioRepository = new UsuarioRepositoryImpl();
+        prestamoRepository = new PrestamoRepositoryImpl();
+
+        propiedades = new PersistenciaProperties();
+        propiedades.setDirectorio(directorio.toString());
+        gestor = new GestorPersistencia(propiedades,
+                List.of(libroRepository, usuarioRepository, prestamoRepository));
+        gestor.iniciar();
+    }
+}
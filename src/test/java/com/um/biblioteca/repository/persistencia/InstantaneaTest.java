@@ -0,0 +1,86 @@
+package com.um.biblioteca.repository.persistencia;
+
+import com.um.biblioteca.exception.PersistenciaException;
+import com.um.biblioteca.model.Libro;
+import com.um.biblioteca.model.Usuario;
+import com.um.biblioteca.repository.impl.LibroRepositoryImpl;
+import com.um.biblioteca.repository.impl.UsuarioRepositoryImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InstantaneaTest {
+
+    @TempDir
+    Path directorio;
+
+    private LibroRepositoryImpl libroRepository;
+    private UsuarioRepositoryImpl usuarioRepository;
+
+    @BeforeEach
+    void setUp() {
+        libroRepository = new LibroRepositoryImpl();
+        usuarioRepository = new UsuarioRepositoryImpl();
+        for (int i = 0; i < 100; i++) {
+            libroRepository.save(new Libro(null, "isbn-" + i, "Título " + i, "Autor"));
+        }
+        libroRepository.deleteById(50L);
+        usuarioRepository.save(new Usuario(null, "Ana", "ana@example.com"));
+    }
+
+    @Test
+    void abrir_debeExponerLasEntidadesOrdenadasPorIdSinLeerlas() throws Exception {
+        // Arrange
+        Path archivo = Instantanea.escribir(directorio, 42, List.of(libroRepository, usuarioRepository));
+
+        // Act
+        InstantaneaMapeada instantanea = InstantaneaMapeada.abrir(archivo);
+        FuentePerezosa<Libro> libros = instantanea.fuente("libros", Codificadores.LIBRO);
+
+        // Assert
+        assertEquals(42L, instantanea.lsn());
+        assertEquals(99, libros.cantidad());
+        assertEquals(1L, libros.id(0));
+        assertEquals(100L, libros.id(98));
+        assertEquals(-1, libros.posicion(50L));
+        assertEquals("Título 72", libros.materializar(libros.posicion(73L)).titulo());
+        assertEquals("Ana", instantanea.fuente("usuarios", Codificadores.USUARIO).materializar(0).nombre());
+        assertEquals(0, instantanea.fuente("prestamos", Codificadores.PRESTAMO).cantidad());
+    }
+
+    @Test
+    void materializar_conEntidadDaniada_debeFallarSoloParaEsaEntidad() throws Exception {
+        // Arrange
+        Path archivo = Instantanea.escribir(directorio, 1, List.of(libroRepository));
+        byte[] contenido = Files.readAllBytes(archivo);
+        // La primera entidad empieza después de la cabecera y de su propia cabecera de trama
+        contenido[Instantanea.CABECERA + Instantanea.CABECERA_ENTIDAD + 3] ^= 0x7F;
+        Files.write(archivo, contenido);
+
+        // Act
+        FuentePerezosa<Libro> libros = InstantaneaMapeada.abrir(archivo).fuente("libros", Codificadores.LIBRO);
+
+        // Assert
+        assertThrows(PersistenciaException.class, () -> libros.materializar(0));
+        assertEquals("Título 1", libros.materializar(1).titulo());
+    }
+
+    @Test
+    void abrir_conIndiceDaniado_debeFallar() throws Exception {
+        // Arrange
+        Path archivo = Instantanea.escribir(directorio, 1, List.of(libroRepository));
+        byte[] contenido = Files.readAllBytes(archivo);
+        contenido[contenido.length - 40] ^= 0x7F;
+        Files.write(archivo, contenido);
+
+        // Act & Assert
+        assertThrows(IOException.class, () -> InstantaneaMapeada.abrir(archivo));
+    }
+}
@@ -1,6 +1,10 @@
 package com.um.biblioteca.service;
 
+import com.um.biblioteca.exception.ConflictoDeVersionException;
+import com.um.biblioteca.exception.DatosInvalidosException;
 import com.um.biblioteca.exception.LibroNoEncontradoException;
+import com.um.biblioteca.exception.PrecondicionFallidaException;
+import com.um.biblioteca.exception.RecursoNoDisponibleException;
 import com.um.biblioteca.model.EstadoLibro;
 import com.um.biblioteca.model.Libro;
 import com.um.biblioteca.repository.LibroRepository;
@@ -35,19 +39,9 @@ class LibroServiceTest {
     void setUp() {
         MockitoAnnotations.openMocks(this);
         
-        libro1 = new Libro();
-        libro1.setId(1L);
-        libro1.setIsbn("123456789");
-        libro1.setTitulo("El principito");
-        libro1.setAutor("Antoine de Saint-Exupéry");
-        libro1.setEstado(EstadoLibro.DISPONIBLE);
-        
-        libro2 = new Libro();
-        libro2.setId(2L);
-        libro2.setIsbn("987654321");
-        libro2.setTitulo("Cien años de soledad");
-        libro2.setAutor("Gabriel García Márquez");
-        libro2.setEstado(EstadoLibro.DISPONIBLE);
+        libro1 = new Libro(1L, "123456789", "El principito", "Antoine de Saint-Exupéry", EstadoLibro.DISPONIBLE);
+        
+        libro2 = new Libro(2L, "987654321", "Cien años de soledad", "Gabriel García Márquez", EstadoLibro.DISPONIBLE);
     }
 
     @Test
@@ -118,7 +112,7 @@ class LibroServiceTest {
     @Test
     void buscarPorTitulo_debeRetornarLibrosConTitulo() {
         // Arrange
-        when(libroRepository.findByTituloContainingIgnoreCase("principito")).thenReturn(Arrays.asList(libro1));
+        when(libroRepository.findByTituloContaining("principito")).thenReturn(Arrays.asList(libro1));
         
         // Act
         List<Libro> result = libroService.buscarPorTitulo("principito");
@@ -126,13 +120,13 @@ class LibroServiceTest {
         // Assert
         assertEquals(1, result.size());
         assertEquals(libro1, result.get(0));
-        verify(libroRepository, times(1)).findByTituloContainingIgnoreCase("principito");
+        verify(libroRepository, times(1)).findByTituloContaining("principito");
     }
 
     @Test
     void buscarPorAutor_debeRetornarLibrosConAutor() {
         // Arrange
-        when(libroRepository.findByAutorContainingIgnoreCase("García")).thenReturn(Arrays.asList(libro2));
+        when(libroRepository.findByAutorContaining("García")).thenReturn(Arrays.asList(libro2));
         
         // Act
         List<Libro> result = libroService.buscarPorAutor("García");
@@ -140,7 +134,7 @@ class LibroServiceTest {
         // Assert
         assertEquals(1, result.size());
         assertEquals(libro2, result.get(0));
-        verify(libroRepository, times(1)).findByAutorContainingIgnoreCase("García");
+        verify(libroRepository, times(1)).findByAutorContaining("García");
     }
 
     @Test
@@ -159,11 +153,7 @@ class LibroServiceTest {
     @Test
     void guardar_debeGuardarYRetornarLibro() {
         // Arrange
-        Libro nuevoLibro = new Libro();
-        nuevoLibro.setIsbn("111222333");
-        nuevoLibro.setTitulo("Nuevo libro");
-        nuevoLibro.setAutor("Autor Nuevo");
-        nuevoLibro.setEstado(EstadoLibro.DISPONIBLE);
+        Libro nuevoLibro = new Libro(null, "111222333", "Nuevo libro", "Autor Nuevo", EstadoLibro.DISPONIBLE);
         
         when(libroRepository.save(any(Libro.class))).thenReturn(nuevoLibro);
         
@@ -175,15 +165,22 @@ class LibroServiceTest {
         verify(libroRepository, times(1)).save(nuevoLibro);
     }
 
+    @Test
+    void guardar_sinTitulo_debeLanzarDatosInvalidos() {
+        // Arrange
+        Libro sinTitulo = new Libro(null, "111222333", " ", "Autor Nuevo", EstadoLibro.DISPONIBLE);
+        
+        // Act & Assert
+        assertThrows(DatosInvalidosException.class, () -> {
+            libroService.guardar(sinTitulo);
+        });
+        verify(libroRepository, never()).save(any(Libro.class));
+    }
+
     @Test
     void actualizar_cuandoExisteId_debeActualizarYRetornarLibro() {
         // Arrange
-        Libro libroActualizado = new Libro();
-        libroActualizado.setId(1L);
-        libroActualizado.setIsbn("123456789");
-        libroActualizado.setTitulo("Título actualizado");
-        libroActualizado.setAutor("Antoine de Saint-Exupéry");
-        libroActualizado.setEstado(EstadoLibro.DISPONIBLE);
+        Libro libroActualizado = new Libro(1L, "123456789", "Título actualizado", "Antoine de Saint-Exupéry", EstadoLibro.DISPONIBLE);
         
         when(libroRepository.existsById(1L)).thenReturn(true);
         when(libroRepository.save(any(Libro.class))).thenReturn(libroActualizado);
@@ -192,7 +189,7 @@ class LibroServiceTest {
         Libro result = libroService.actualizar(1L, libroActualizado);
         
         // Assert
-        assertEquals("Título actualizado", result.getTitulo());
+        assertEquals("Título actualizado", result.titulo());
         verify(libroRepository, times(1)).existsById(1L);
         verify(libroRepository, times(1)).save(libroActualizado);
     }
@@ -204,7 +201,7 @@ class LibroServiceTest {
         
         // Act & Assert
         assertThrows(LibroNoEncontradoException.class, () -> {
-            libroService.actualizar(3L, new Libro());
+            libroService.actualizar(3L, new Libro(null, null, null, null));
         });
         verify(libroRepository, times(1)).existsById(3L);
         verify(libroRepository, never()).save(any(Libro.class));
@@ -213,12 +210,7 @@ class LibroServiceTest {
     @Test
     void cambiarEstado_cuandoExisteId_debeCambiarEstadoYRetornarLibro() {
         // Arrange
-        Libro libroConEstadoCambiado = new Libro();
-        libroConEstadoCambiado.setId(1L);
-        libroConEstadoCambiado.setIsbn("123456789");
-        libroConEstadoCambiado.setTitulo("El principito");
-        libroConEstadoCambiado.setAutor("Antoine de Saint-Exupéry");
-        libroConEstadoCambiado.setEstado(EstadoLibro.PRESTADO);
+        Libro libroConEstadoCambiado = new Libro(1L, "123456789", "El principito", "Antoine de Saint-Exupéry", EstadoLibro.PRESTADO);
         
         when(libroRepository.findById(1L)).thenReturn(Optional.of(libro1));
         when(libroRepository.save(any(Libro.class))).thenReturn(libroConEstadoCambiado);
@@ -227,7 +219,7 @@ class LibroServiceTest {
         Libro result = libroService.cambiarEstado(1L, EstadoLibro.PRESTADO);
         
         // Assert
-        assertEquals(EstadoLibro.PRESTADO, result.getEstado());
+        assertEquals(EstadoLibro.PRESTADO, result.estado());
         verify(libroRepository, times(1)).findById(1L);
         verify(libroRepository, times(1)).save(any(Libro.class));
     }
@@ -245,9 +237,76 @@ class LibroServiceTest {
         verify(libroRepository, never()).save(any(Libro.class));
     }
 
+    @Test
+    void cambiarEstado_conEstadoEsperado_cuandoCoincide_debeRetornarLibroActualizado() {
+        // Arrange
+        when(libroRepository.compareAndSetEstado(1L, EstadoLibro.DISPONIBLE, EstadoLibro.PRESTADO)).thenReturn(true);
+        when(libroRepository.findById(1L)).thenReturn(Optional.of(libro1));
+        
+        // Act
+        Libro result = libroService.cambiarEstado(1L, EstadoLibro.DISPONIBLE, EstadoLibro.PRESTADO);
+        
+        // Assert
+        assertEquals(libro1, result);
+        verify(libroRepository, never()).save(any(Libro.class));
+    }
+
+    @Test
+    void cambiarEstado_conEstadoEsperado_cuandoNoCoincide_debeLanzarExcepcion() {
+        // Arrange
+        libro1 = libro1.conEstado(EstadoLibro.PRESTADO);
+        when(libroRepository.compareAndSetEstado(1L, EstadoLibro.DISPONIBLE, EstadoLibro.PRESTADO)).thenReturn(false);
+        when(libroRepository.findById(1L)).thenReturn(Optional.of(libro1));
+        
+        // Act & Assert
+        assertThrows(RecursoNoDisponibleException.class, () -> {
+            libroService.cambiarEstado(1L, EstadoLibro.DISPONIBLE, EstadoLibro.PRESTADO);
+        });
+    }
+
+    @Test
+    void cambiarEstado_conEstadoEsperado_cuandoNoExisteId_debeLanzarExcepcion() {
+        // Arrange
+        when(libroRepository.compareAndSetEstado(3L, EstadoLibro.DISPONIBLE, EstadoLibro.PRESTADO)).thenReturn(false);
+        when(libroRepository.findById(3L)).thenReturn(Optional.empty());
+        
+        // Act & Assert
+        assertThrows(LibroNoEncontradoException.class, () -> {
+            libroService.cambiarEstado(3L, EstadoLibro.DISPONIBLE, EstadoLibro.PRESTADO);
+        });
+    }
+
+    @Test
+    void actualizar_conVersionEsperada_debeGuardarConEsaVersion() {
+        // Arrange
+        libro1 = libro1.conVersion(7L);
+        when(libroRepository.existsById(1L)).thenReturn(true);
+        when(libroRepository.save(any(Libro.class))).thenAnswer(invocacion -> invocacion.getArgument(0));
+        
+        // Act
+        Libro result = libroService.actualizar(1L, libro1, 3L);
+        
+        // Assert
+        assertEquals(3L, result.version());
+        verify(libroRepository, times(1)).save(libro1);
+    }
+
+    @Test
+    void actualizar_conVersionEsperadaDesactualizada_debeLanzarPrecondicionFallida() {
+        // Arrange
+        when(libroRepository.existsById(1L)).thenReturn(true);
+        when(libroRepository.save(any(Libro.class))).thenThrow(new ConflictoDeVersionException(1L, 3L, 4L));
+        
+        // Act & Assert
+        assertThrows(PrecondicionFallidaException.class, () -> {
+            libroService.actualizar(1L, libro1, 3L);
+        });
+    }
+
     @Test
     void eliminar_debeEliminarLibro() {
         // Arrange
+        when(libroRepository.existsById(1L)).thenReturn(true);
         doNothing().when(libroRepository).deleteById(anyLong());
         
         // Act
@@ -52,41 +52,15 @@ class PrestamoServiceTest {
     void setUp() {
         MockitoAnnotations.openMocks(this);
         
-        usuario = new Usuario();
-        usuario.setId(1L);
-        usuario.setNombre("Juan Pérez");
-        usuario.setEmail("juan@example.com");
-        usuario.setEstado(EstadoUsuario.ACTIVO);
-        
-        libro = new Libro();
-        libro.setId(1L);
-        libro.setIsbn("123456789");
-        libro.setTitulo("El principito");
-        libro.setAutor("Antoine de Saint-Exupéry");
-        libro.setEstado(EstadoLibro.PRESTADO);
-        
-        libroNoPrestado = new Libro();
-        libroNoPrestado.setId(2L);
-        libroNoPrestado.setIsbn("987654321");
-        libroNoPrestado.setTitulo("Cien años de soledad");
-        libroNoPrestado.setAutor("Gabriel García Márquez");
-        libroNoPrestado.setEstado(EstadoLibro.DISPONIBLE);
-        
-        prestamo1 = new Prestamo();
-        prestamo1.setId(1L);
-        prestamo1.setUsuario(usuario);
-        prestamo1.setLibro(libro);
-        prestamo1.setFechaPrestamo(LocalDate.now());
-        prestamo1.setFechaDevolucion(LocalDate.now().plusDays(7));
-        prestamo1.setFechaDevolucionReal(null);
-        
-        prestamo2 = new Prestamo();
-        prestamo2.setId(2L);
-        prestamo2.setUsuario(usuario);
-        prestamo2.setLibro(libroNoPrestado);
-        prestamo2.setFechaPrestamo(LocalDate.now().minusDays(10));
-        prestamo2.setFechaDevolucion(LocalDate.now().minusDays(3));
-        prestamo2.setFechaDevolucionReal(null);
+        usuario = new Usuario(1L, "Juan Pérez", "juan@example.com", EstadoUsuario.ACTIVO);
+        
+        libro = new Libro(1L, "123456789", "El principito", "Antoine de Saint-Exupéry", EstadoLibro.PRESTADO);
+        
+        libroNoPrestado = new Libro(2L, "987654321", "Cien años de soledad", "Gabriel García Márquez", EstadoLibro.DISPONIBLE);
+        
+        prestamo1 = new Prestamo(1L, libro, usuario, LocalDate.now(), LocalDate.now().plusDays(7));
+        
+        prestamo2 = new Prestamo(2L, libroNoPrestado, usuario, LocalDate.now().minusDays(10), LocalDate.now().minusDays(3));
     }
 
     @Test
@@ -171,11 +145,39 @@ class PrestamoServiceTest {
         verify(prestamoRepository, times(1)).findByFechaPrestamo(hoy);
     }
 
+    @Test
+    void buscarPorRangoFechaPrestamo_debeConsultarElRango() {
+        // Arrange
+        LocalDate desde = LocalDate.now().minusDays(7);
+        LocalDate hasta = LocalDate.now().plusDays(1);
+        when(prestamoRepository.findByFechaPrestamoBetween(desde, hasta)).thenReturn(Arrays.asList(prestamo1, prestamo2));
+        
+        // Act
+        List<Prestamo> result = prestamoService.buscarPorRangoFechaPrestamo(desde, hasta);
+        
+        // Assert
+        assertEquals(2, result.size());
+        verify(prestamoRepository, times(1)).findByFechaPrestamoBetween(desde, hasta);
+    }
+
+    @Test
+    void buscarPorRangoFechaDevolucion_conRangoInvertido_debeLanzarExcepcion() {
+        // Arrange
+        LocalDate desde = LocalDate.now().plusDays(1);
+        LocalDate hasta = LocalDate.now();
+        
+        // Act & Assert
+        assertThrows(DatosInvalidosException.class, () -> {
+            prestamoService.buscarPorRangoFechaDevolucion(desde, hasta);
+        });
+        verify(prestamoRepository, never()).findByFechaDevolucionBetween(any(), any());
+    }
+
     @Test
     void buscarVencidos_debeRetornarPrestamosVencidos() {
         // Arrange
         LocalDate hoy = LocalDate.now();
-        when(prestamoRepository.findByFechaDevolucionRealIsNullAndFechaDevolucionBefore(hoy)).thenReturn(Arrays.asList(prestamo2));
+        when(prestamoRepository.findByFechaDevolucionBefore(hoy)).thenReturn(Arrays.asList(prestamo2));
         
         // Act
         List<Prestamo> result = prestamoService.buscarVencidos();
@@ -183,7 +185,7 @@ class PrestamoServiceTest {
         // Assert
         assertEquals(1, result.size());
         assertEquals(prestamo2, result.get(0));
-        verify(prestamoRepository, times(1)).findByFechaDevolucionRealIsNullAndFechaDevolucionBefore(hoy);
+        verify(prestamoRepository, times(1)).findByFechaDevolucionBefore(hoy);
     }
 
     @Test
@@ -191,13 +193,9 @@ class PrestamoServiceTest {
         // Arrange
         when(usuarioService.buscarPorId(1L)).thenReturn(usuario);
         when(libroService.buscarPorId(2L)).thenReturn(libroNoPrestado);
-        when(libroService.cambiarEstado(2L, EstadoLibro.PRESTADO)).thenReturn(libroNoPrestado);
+        when(libroService.cambiarEstado(2L, EstadoLibro.DISPONIBLE, EstadoLibro.PRESTADO)).thenReturn(libroNoPrestado);
         
-        Prestamo nuevoPrestamo = new Prestamo();
-        nuevoPrestamo.setUsuario(usuario);
-        nuevoPrestamo.setLibro(libroNoPrestado);
-        nuevoPrestamo.setFechaPrestamo(LocalDate.now());
-        nuevoPrestamo.setFechaDevolucion(LocalDate.now().plusDays(7));
+        Prestamo nuevoPrestamo = new Prestamo(null, libroNoPrestado, usuario, LocalDate.now(), LocalDate.now().plusDays(7));
         
         when(prestamoRepository.save(any(Prestamo.class))).thenReturn(nuevoPrestamo);
         
@@ -206,12 +204,12 @@ class PrestamoServiceTest {
         
         // Assert
         assertNotNull(result);
-        assertEquals(usuario, result.getUsuario());
-        assertEquals(libroNoPrestado, result.getLibro());
-        assertEquals(LocalDate.now().plusDays(7), result.getFechaDevolucion());
+        assertEquals(usuario.id(), result.usuarioId());
+        assertEquals(libroNoPrestado.id(), result.libroId());
+        assertEquals(LocalDate.now().plusDays(7), result.fechaDevolucion());
         verify(usuarioService, times(1)).buscarPorId(1L);
         verify(libroService, times(1)).buscarPorId(2L);
-        verify(libroService, times(1)).cambiarEstado(2L, EstadoLibro.PRESTADO);
+        verify(libroService, times(1)).cambiarEstado(2L, EstadoLibro.DISPONIBLE, EstadoLibro.PRESTADO);
         verify(prestamoRepository, times(1)).save(any(Prestamo.class));
     }
 
@@ -259,29 +257,93 @@ class PrestamoServiceTest {
         verify(prestamoRepository, never()).save(any(Prestamo.class));
     }
 
+    @Test
+    void crearPrestamo_cuandoOtraSolicitudTomaElLibro_debeLanzarExcepcion() {
+        // Arrange
+        when(usuarioService.buscarPorId(1L)).thenReturn(usuario);
+        when(libroService.buscarPorId(2L)).thenReturn(libroNoPrestado);
+        when(libroService.cambiarEstado(2L, EstadoLibro.DISPONIBLE, EstadoLibro.PRESTADO))
+                .thenThrow(new RecursoNoDisponibleException("libro", "el libro está PRESTADO"));
+        
+        // Act & Assert
+        assertThrows(RecursoNoDisponibleException.class, () -> {
+            prestamoService.crearPrestamo(1L, 2L, LocalDate.now().plusDays(7));
+        });
+        verify(prestamoRepository, never()).save(any(Prestamo.class));
+    }
+
+    @Test
+    void crearPrestamo_conFechaFueraDeRango_noDebeReservarElLibro() {
+        // Arrange
+        when(usuarioService.buscarPorId(1L)).thenReturn(usuario);
+        when(libroService.buscarPorId(2L)).thenReturn(libroNoPrestado);
+
+        // Act & Assert
+        assertThrows(DatosInvalidosException.class, () -> {
+            prestamoService.crearPrestamo(1L, 2L, LocalDate.MAX);
+        });
+        verify(libroService, never()).cambiarEstado(anyLong(), any(EstadoLibro.class), any(EstadoLibro.class));
+        verify(prestamoRepository, never()).save(any(Prestamo.class));
+    }
+
+    @Test
+    void crearPrestamo_cuandoFallaElGuardado_debeLiberarElLibro() {
+        // Arrange
+        when(usuarioService.buscarPorId(1L)).thenReturn(usuario);
+        when(libroService.buscarPorId(2L)).thenReturn(libroNoPrestado);
+        when(prestamoRepository.save(any(Prestamo.class))).thenThrow(new IllegalStateException("fallo"));
+        
+        // Act & Assert
+        assertThrows(IllegalStateException.class, () -> {
+            prestamoService.crearPrestamo(1L, 2L, LocalDate.now().plusDays(7));
+        });
+        verify(libroService, times(1)).cambiarEstado(2L, EstadoLibro.DISPONIBLE, EstadoLibro.PRESTADO);
+        verify(libroService, times(1)).cambiarEstado(2L, EstadoLibro.PRESTADO, EstadoLibro.DISPONIBLE);
+    }
+    
+    @Test
+    void crearPrestamo_conFechaPasada_noDebeReservarElLibro() {
+        // Arrange
+        when(usuarioService.buscarPorId(1L)).thenReturn(usuario);
+        when(libroService.buscarPorId(2L)).thenReturn(libroNoPrestado);
+        
+        // Act & Assert
+        assertThrows(DatosInvalidosException.class, () -> {
+            prestamoService.crearPrestamo(1L, 2L, LocalDate.now().minusDays(1));
+        });
+        verify(libroService, never()).cambiarEstado(anyLong(), any(EstadoLibro.class), any(EstadoLibro.class));
+    }
+
     @Test
     void finalizarPrestamo_cuandoExistePrestamo_debeFinalizarlo() {
         // Arrange
         when(prestamoRepository.findById(1L)).thenReturn(Optional.of(prestamo1));
-        when(libroService.cambiarEstado(1L, EstadoLibro.DISPONIBLE)).thenReturn(libro);
+        when(libroService.buscarPorId(1L)).thenReturn(libro);
+        when(prestamoRepository.save(any(Prestamo.class))).thenAnswer(invocacion -> invocacion.getArgument(0));
         
-        Prestamo prestamoFinalizado = new Prestamo();
-        prestamoFinalizado.setId(1L);
-        prestamoFinalizado.setUsuario(usuario);
-        prestamoFinalizado.setLibro(libro);
-        prestamoFinalizado.setFechaPrestamo(prestamo1.getFechaPrestamo());
-        prestamoFinalizado.setFechaDevolucion(prestamo1.getFechaDevolucion());
-        prestamoFinalizado.setFechaDevolucionReal(LocalDate.now());
+        // Act
+        Prestamo result = prestamoService.finalizarPrestamo(1L);
         
-        when(prestamoRepository.save(any(Prestamo.class))).thenReturn(prestamoFinalizado);
+        // Assert
+        assertEquals(LocalDate.now(), result.fechaDevolucion());
+        verify(prestamoRepository, times(1)).findById(1L);
+        verify(libroService, times(1)).actualizar(1L, libro.conEstado(EstadoLibro.DISPONIBLE));
+        verify(prestamoRepository, times(1)).save(any(Prestamo.class));
+    }
+
+    @Test
+    void finalizarPrestamo_cuandoElLibroFueEliminado_debeFinalizarlo() {
+        // Arrange
+        when(prestamoRepository.findById(1L)).thenReturn(Optional.of(prestamo1));
+        when(libroService.buscarPorId(1L)).thenThrow(new LibroNoEncontradoException(1L));
+        when(prestamoRepository.save(any(Prestamo.class))).thenAnswer(invocacion -> invocacion.getArgument(0));
         
         // Act
         Prestamo result = prestamoService.finalizarPrestamo(1L);
         
         // Assert
-        assertNotNull(result.getFechaDevolucionReal());
-        verify(prestamoRepository, times(1)).findById(1L);
-        verify(libroService, times(1)).cambiarEstado(1L, EstadoLibro.DISPONIBLE);
+        assertEquals(LocalDate.now(), result.fechaDevolucion());
+        verify(libroService, never()).actualizar(anyLong(), any(Libro.class));
         verify(prestamoRepository, times(1)).save(any(Prestamo.class));
     }
 
@@ -295,7 +357,7 @@ class PrestamoServiceTest {
             prestamoService.finalizarPrestamo(3L);
         });
         verify(prestamoRepository, times(1)).findById(3L);
-        verify(libroService, never()).cambiarEstado(anyLong(), any(EstadoLibro.class));
+        verify(libroService, never()).actualizar(anyLong(), any(Libro.class));
         verify(prestamoRepository, never()).save(any(Prestamo.class));
     }
 
@@ -305,13 +367,7 @@ class PrestamoServiceTest {
         when(prestamoRepository.findById(1L)).thenReturn(Optional.of(prestamo1));
         
         LocalDate nuevaFecha = LocalDate.now().plusDays(14);
-        Prestamo prestamoExtendido = new Prestamo();
-        prestamoExtendido.setId(1L);
-        prestamoExtendido.setUsuario(usuario);
-        prestamoExtendido.setLibro(libro);
-        prestamoExtendido.setFechaPrestamo(prestamo1.getFechaPrestamo());
-        prestamoExtendido.setFechaDevolucion(nuevaFecha);
-        prestamoExtendido.setFechaDevolucionReal(null);
+        Prestamo prestamoExtendido = new Prestamo(1L, libro, usuario, prestamo1.fechaPrestamo(), nuevaFecha);
         
         when(prestamoRepository.save(any(Prestamo.class))).thenReturn(prestamoExtendido);
         
@@ -319,7 +375,7 @@ class PrestamoServiceTest {
         Prestamo result = prestamoService.extenderPrestamo(1L, nuevaFecha);
         
         // Assert
-        assertEquals(nuevaFecha, result.getFechaDevolucion());
+        assertEquals(nuevaFecha, result.fechaDevolucion());
         verify(prestamoRepository, times(1)).findById(1L);
         verify(prestamoRepository, times(1)).save(any(Prestamo.class));
     }
@@ -355,12 +411,31 @@ class PrestamoServiceTest {
     @Test
     void eliminar_debeEliminarPrestamo() {
         // Arrange
+        when(prestamoRepository.existsById(1L)).thenReturn(true);
+        when(prestamoRepository.findById(1L)).thenReturn(Optional.of(prestamo1));
+        when(libroService.buscarPorId(1L)).thenReturn(libro);
         doNothing().when(prestamoRepository).deleteById(anyLong());
         
         // Act
         prestamoService.eliminar(1L);
         
         // Assert
+        verify(libroService, times(1)).actualizar(1L, libro.conEstado(EstadoLibro.DISPONIBLE));
+        verify(prestamoRepository, times(1)).deleteById(1L);
+    }
+
+    @Test
+    void eliminar_cuandoElLibroFueEliminado_debeEliminarPrestamo() {
+        // Arrange
+        when(prestamoRepository.existsById(1L)).thenReturn(true);
+        when(prestamoRepository.findById(1L)).thenReturn(Optional.of(prestamo1));
+        when(libroService.buscarPorId(1L)).thenThrow(new LibroNoEncontradoException(1L));
+        
+        // Act
+        prestamoService.eliminar(1L);
+        
+        // Assert
+        verify(libroService, never()).actualizar(anyLong(), any(Libro.class));
         verify(prestamoRepository, times(1)).deleteById(1L);
     }
-} 
\ No newline at end of file
+}
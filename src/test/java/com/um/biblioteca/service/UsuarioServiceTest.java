@@ -1,5 +1,6 @@
 package com.um.biblioteca.service;
 
+import com.um.biblioteca.exception.DatosInvalidosException;
 import com.um.biblioteca.exception.UsuarioNoEncontradoException;
 import com.um.biblioteca.model.EstadoUsuario;
 import com.um.biblioteca.model.Usuario;
@@ -35,17 +36,9 @@ class UsuarioServiceTest {
     void setUp() {
         MockitoAnnotations.openMocks(this);
         
-        usuario1 = new Usuario();
-        usuario1.setId(1L);
-        usuario1.setNombre("Juan Pérez");
-        usuario1.setEmail("juan@example.com");
-        usuario1.setEstado(EstadoUsuario.ACTIVO);
-        
-        usuario2 = new Usuario();
-        usuario2.setId(2L);
-        usuario2.setNombre("María López");
-        usuario2.setEmail("maria@example.com");
-        usuario2.setEstado(EstadoUsuario.ACTIVO);
+        usuario1 = new Usuario(1L, "Juan Pérez", "juan@example.com", EstadoUsuario.ACTIVO);
+        
+        usuario2 = new Usuario(2L, "María López", "maria@example.com", EstadoUsuario.ACTIVO);
     }
 
     @Test
@@ -116,7 +109,7 @@ class UsuarioServiceTest {
     @Test
     void buscarPorNombre_debeRetornarUsuariosConNombre() {
         // Arrange
-        when(usuarioRepository.findByNombreContainingIgnoreCase("Juan")).thenReturn(Arrays.asList(usuario1));
+        when(usuarioRepository.findByNombreContaining("Juan")).thenReturn(Arrays.asList(usuario1));
         
         // Act
         List<Usuario> result = usuarioService.buscarPorNombre("Juan");
@@ -124,7 +117,7 @@ class UsuarioServiceTest {
         // Assert
         assertEquals(1, result.size());
         assertEquals(usuario1, result.get(0));
-        verify(usuarioRepository, times(1)).findByNombreContainingIgnoreCase("Juan");
+        verify(usuarioRepository, times(1)).findByNombreContaining("Juan");
     }
 
     @Test
@@ -143,10 +136,7 @@ class UsuarioServiceTest {
     @Test
     void guardar_debeGuardarYRetornarUsuario() {
         // Arrange
-        Usuario nuevoUsuario = new Usuario();
-        nuevoUsuario.setNombre("Nuevo Usuario");
-        nuevoUsuario.setEmail("nuevo@example.com");
-        nuevoUsuario.setEstado(EstadoUsuario.ACTIVO);
+        Usuario nuevoUsuario = new Usuario(null, "Nuevo Usuario", "nuevo@example.com", EstadoUsuario.ACTIVO);
         
         when(usuarioRepository.save(any(Usuario.class))).thenReturn(nuevoUsuario);
         
@@ -158,14 +148,22 @@ class UsuarioServiceTest {
         verify(usuarioRepository, times(1)).save(nuevoUsuario);
     }
 
+    @Test
+    void guardar_conEmailInvalido_debeLanzarDatosInvalidos() {
+        // Arrange
+        Usuario conEmailInvalido = new Usuario(null, "Ana Gómez", "ana.example.com", EstadoUsuario.ACTIVO);
+        
+        // Act & Assert
+        assertThrows(DatosInvalidosException.class, () -> {
+            usuarioService.guardar(conEmailInvalido);
+        });
+        verify(usuarioRepository, never()).save(any(Usuario.class));
+    }
+
     @Test
     void actualizar_cuandoExisteId_debeActualizarYRetornarUsuario() {
         // Arrange
-        Usuario usuarioActualizado = new Usuario();
-        usuarioActualizado.setId(1L);
-        usuarioActualizado.setNombre("Juan Pérez Actualizado");
-        usuarioActualizado.setEmail("juan@example.com");
-        usuarioActualizado.setEstado(EstadoUsuario.ACTIVO);
+        Usuario usuarioActualizado = new Usuario(1L, "Juan Pérez Actualizado", "juan@example.com", EstadoUsuario.ACTIVO);
         
         when(usuarioRepository.existsById(1L)).thenReturn(true);
         when(usuarioRepository.save(any(Usuario.class))).thenReturn(usuarioActualizado);
@@ -174,7 +172,7 @@ class UsuarioServiceTest {
         Usuario result = usuarioService.actualizar(1L, usuarioActualizado);
         
         // Assert
-        assertEquals("Juan Pérez Actualizado", result.getNombre());
+        assertEquals("Juan Pérez Actualizado", result.nombre());
         verify(usuarioRepository, times(1)).existsById(1L);
         verify(usuarioRepository, times(1)).save(usuarioActualizado);
     }
@@ -186,7 +184,7 @@ class UsuarioServiceTest {
         
         // Act & Assert
         assertThrows(UsuarioNoEncontradoException.class, () -> {
-            usuarioService.actualizar(3L, new Usuario());
+            usuarioService.actualizar(3L, new Usuario(null, null, null));
         });
         verify(usuarioRepository, times(1)).existsById(3L);
         verify(usuarioRepository, never()).save(any(Usuario.class));
@@ -195,20 +193,16 @@ class UsuarioServiceTest {
     @Test
     void cambiarEstado_cuandoExisteId_debeCambiarEstadoYRetornarUsuario() {
         // Arrange
-        Usuario usuarioConEstadoCambiado = new Usuario();
-        usuarioConEstadoCambiado.setId(1L);
-        usuarioConEstadoCambiado.setNombre("Juan Pérez");
-        usuarioConEstadoCambiado.setEmail("juan@example.com");
-        usuarioConEstadoCambiado.setEstado(EstadoUsuario.INACTIVO);
+        Usuario usuarioConEstadoCambiado = new Usuario(1L, "Juan Pérez", "juan@example.com", EstadoUsuario.SUSPENDIDO);
         
         when(usuarioRepository.findById(1L)).thenReturn(Optional.of(usuario1));
         when(usuarioRepository.save(any(Usuario.class))).thenReturn(usuarioConEstadoCambiado);
         
         // Act
-        Usuario result = usuarioService.cambiarEstado(1L, EstadoUsuario.INACTIVO);
+        Usuario result = usuarioService.cambiarEstado(1L, EstadoUsuario.SUSPENDIDO);
         
         // Assert
-        assertEquals(EstadoUsuario.INACTIVO, result.getEstado());
+        assertEquals(EstadoUsuario.SUSPENDIDO, result.estado());
         verify(usuarioRepository, times(1)).findById(1L);
         verify(usuarioRepository, times(1)).save(any(Usuario.class));
     }
@@ -220,7 +214,7 @@ class UsuarioServiceTest {
         
         // Act & Assert
         assertThrows(UsuarioNoEncontradoException.class, () -> {
-            usuarioService.cambiarEstado(3L, EstadoUsuario.INACTIVO);
+            usuarioService.cambiarEstado(3L, EstadoUsuario.SUSPENDIDO);
         });
         verify(usuarioRepository, times(1)).findById(3L);
         verify(usuarioRepository, never()).save(any(Usuario.class));
@@ -229,6 +223,7 @@ class UsuarioServiceTest {
     @Test
     void eliminar_debeEliminarUsuario() {
         // Arrange
+        when(usuarioRepository.existsById(1L)).thenReturn(true);
         doNothing().when(usuarioRepository).deleteById(anyLong());
         
         // Act